@@ -41,6 +41,9 @@ public interface CoordinatorClient {
      * Get all LRAs known to the coordinator
      *
      * @param status Filter LRAs by status (optional)
+     * @param clientId Filter LRAs by the client id they were started with (optional)
+     * @param limit Maximum number of LRAs to return, zero for all of them
+     * @param cursor Continuation token returned with the previous page (optional)
      * @param accept Media type for response
      * @param version API version header
      * @return Response containing list of LRAs
@@ -50,6 +53,9 @@ public interface CoordinatorClient {
     @Produces({ MediaType.APPLICATION_JSON, MediaType.TEXT_PLAIN })
     CompletionStage<Response> getAllLRAs(
             @QueryParam(LRAConstants.STATUS_PARAM_NAME) @DefaultValue("") String status,
+            @QueryParam(LRAConstants.CLIENT_ID_PARAM_NAME) @DefaultValue("") String clientId,
+            @QueryParam(LRAConstants.LIMIT_PARAM_NAME) @DefaultValue("0") int limit,
+            @QueryParam(LRAConstants.CURSOR_PARAM_NAME) @DefaultValue("") String cursor,
             @HeaderParam(HttpHeaders.ACCEPT) @DefaultValue(MediaType.TEXT_PLAIN) String accept,
             @HeaderParam(LRAConstants.NARAYANA_LRA_API_VERSION_HEADER_NAME) String version);
 
@@ -172,6 +178,7 @@ public interface CoordinatorClient {
      * @param version API version header
      * @param compensator Compensator link header
      * @param userData User-specific data
+     * @param prefer Prefer header, {@value LRAConstants#RESPOND_ASYNC_PREFERENCE} requests asynchronous completion
      * @return Response containing LRA status
      */
     @PUT
@@ -182,7 +189,8 @@ public interface CoordinatorClient {
             @HeaderParam(HttpHeaders.ACCEPT) @DefaultValue(MediaType.TEXT_PLAIN) String accept,
             @HeaderParam(LRAConstants.NARAYANA_LRA_API_VERSION_HEADER_NAME) String version,
             @HeaderParam(LRAConstants.NARAYANA_LRA_PARTICIPANT_LINK_HEADER_NAME) @DefaultValue("") String compensator,
-            @HeaderParam(LRAConstants.NARAYANA_LRA_PARTICIPANT_DATA_HEADER_NAME) @DefaultValue("") String userData);
+            @HeaderParam(LRAConstants.NARAYANA_LRA_PARTICIPANT_DATA_HEADER_NAME) @DefaultValue("") String userData,
+            @HeaderParam(LRAConstants.PREFER_HEADER_NAME) @DefaultValue("") String prefer);
 
     /**
      * Cancel (compensate) an LRA
@@ -192,6 +200,7 @@ public interface CoordinatorClient {
      * @param version API version header
      * @param compensator Compensator link header
      * @param userData User-specific data
+     * @param prefer Prefer header, {@value LRAConstants#RESPOND_ASYNC_PREFERENCE} requests asynchronous compensation
      * @return Response containing LRA status
      */
     @PUT
@@ -202,7 +211,8 @@ public interface CoordinatorClient {
             @HeaderParam(HttpHeaders.ACCEPT) @DefaultValue(MediaType.TEXT_PLAIN) String accept,
             @HeaderParam(LRAConstants.NARAYANA_LRA_API_VERSION_HEADER_NAME) String version,
             @HeaderParam(LRAConstants.NARAYANA_LRA_PARTICIPANT_LINK_HEADER_NAME) @DefaultValue("") String compensator,
-            @HeaderParam(LRAConstants.NARAYANA_LRA_PARTICIPANT_DATA_HEADER_NAME) @DefaultValue("") String userData);
+            @HeaderParam(LRAConstants.NARAYANA_LRA_PARTICIPANT_DATA_HEADER_NAME) @DefaultValue("") String userData,
+            @HeaderParam(LRAConstants.PREFER_HEADER_NAME) @DefaultValue("") String prefer);
 
     /**
      * Get status of a nested LRA
@@ -0,0 +1,173 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.lra.client;
+
+import io.narayana.lra.LRAConstants;
+import io.narayana.lra.LRAData;
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+import org.eclipse.microprofile.lra.annotation.LRAStatus;
+
+/**
+ * A bounded cache of the status (and optionally the {@link LRAData}) of LRAs that a client has queried.
+ * Once an LRA reaches a final state its status can never change so such entries only leave the cache when
+ * it is full, in which case the least recently used entry is evicted. Other states are only cached if a time
+ * to live is configured, and even then only until it expires. A nested LRA that has closed is not final since
+ * it is compensated if its parent cancels, so it is treated like an LRA that has not ended yet.
+ * <p>
+ * Entries are keyed by the id of the LRA without its query parameters, which the coordinator uses to
+ * carry the parent of a nested LRA.
+ */
+final class LRAStatusCache {
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final LongSupplier clock;
+    private final Map<URI, Entry> entries;
+
+    LRAStatusCache(int maxEntries, long ttlMillis) {
+        this(maxEntries, ttlMillis, System::currentTimeMillis);
+    }
+
+    LRAStatusCache(int maxEntries, long ttlMillis, LongSupplier clock) {
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<URI, Entry> eldest) {
+                return size() > LRAStatusCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * @param lraId the id of the LRA
+     * @return the cached status of the LRA or null if it is not cached or the entry has expired
+     */
+    LRAStatus getStatus(URI lraId) {
+        Entry entry = get(lraId);
+
+        return entry == null ? null : entry.status;
+    }
+
+    /**
+     * @param lraId the id of the LRA
+     * @return the cached data of the LRA or null if it is not cached, the entry has expired or only the status
+     *         of the LRA was cached
+     */
+    LRAData getData(URI lraId) {
+        Entry entry = get(lraId);
+
+        return entry == null ? null : entry.data;
+    }
+
+    void put(URI lraId, LRAStatus status) {
+        put(lraId, status, null);
+    }
+
+    void put(URI lraId, LRAData data) {
+        put(lraId, data.getStatus(), data);
+    }
+
+    void invalidate(URI lraId) {
+        if (maxEntries > 0) {
+            synchronized (entries) {
+                entries.remove(keyOf(lraId));
+            }
+        }
+    }
+
+    int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    static boolean isTerminal(LRAStatus status) {
+        return status == LRAStatus.Closed || status == LRAStatus.Cancelled
+                || status == LRAStatus.FailedToClose || status == LRAStatus.FailedToCancel;
+    }
+
+    private void put(URI lraId, LRAStatus status, LRAData data) {
+        if (maxEntries <= 0 || status == null) {
+            return;
+        }
+
+        URI key = keyOf(lraId);
+        long expiresAt;
+
+        if (isTerminal(status) && (status != LRAStatus.Closed || !isNested(lraId, data))) {
+            expiresAt = Long.MAX_VALUE;
+        } else if (ttlMillis > 0) {
+            expiresAt = clock.getAsLong() + ttlMillis;
+        } else {
+            // the status may change at any time and caching it has not been requested
+            invalidate(lraId);
+            return;
+        }
+
+        synchronized (entries) {
+            Entry previous = entries.get(key);
+
+            if (previous != null && previous.data != null && data == null && previous.status == status) {
+                data = previous.data; // do not lose data that is still accurate
+            }
+
+            entries.put(key, new Entry(status, data, expiresAt));
+        }
+    }
+
+    private Entry get(URI lraId) {
+        if (maxEntries <= 0) {
+            return null;
+        }
+
+        URI key = keyOf(lraId);
+
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+
+            if (entry != null && entry.expiresAt != Long.MAX_VALUE && entry.expiresAt - clock.getAsLong() <= 0) {
+                entries.remove(key);
+                return null;
+            }
+
+            return entry;
+        }
+    }
+
+    // the coordinator adds the parent of a nested LRA to its id as a query parameter
+    private static boolean isNested(URI lraId, LRAData data) {
+        String query = lraId.getRawQuery();
+
+        return (data != null && !data.isTopLevel())
+                || (query != null && query.contains(LRAConstants.PARENT_LRA_PARAM_NAME + "="));
+    }
+
+    private static URI keyOf(URI lraId) {
+        if (lraId.getRawQuery() == null) {
+            return lraId;
+        }
+
+        String id = lraId.toASCIIString();
+
+        return URI.create(id.substring(0, id.indexOf('?')));
+    }
+
+    private static final class Entry {
+        private final LRAStatus status;
+        private final LRAData data;
+        private final long expiresAt;
+
+        Entry(LRAStatus status, LRAData data, long expiresAt) {
+            this.status = status;
+            this.data = data;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.lra.client;
+
+import java.net.URI;
+
+/**
+ * Provides a coordinator that runs in the same JVM as the {@link NarayanaLRAClient} so that the client can start,
+ * join and end LRAs without making HTTP requests. The client selects the embedded coordinator when
+ * {@link NarayanaLRAClient#LRA_COORDINATOR_URL_KEY} uses the {@value #LOCAL_SCHEME} scheme and locates the
+ * provider using {@link java.util.ServiceLoader}, the coordinator module registers one.
+ */
+public interface LocalCoordinatorProvider {
+    /**
+     * The scheme of a coordinator URL that selects the embedded coordinator, either on its own ({@code local:})
+     * or followed by the URL at which the REST coordinator is published ({@code local:http://host:8080/lra-coordinator})
+     */
+    String LOCAL_SCHEME = "local";
+
+    /**
+     * Obtain a client of the embedded coordinator
+     *
+     * @param coordinatorUrl the URL at which the coordinator is published over REST. The ids of the LRAs that it
+     *        starts are beneath this URL so that remote participants can still resolve them.
+     * @return a client whose requests are delivered directly to the embedded coordinator
+     */
+    CoordinatorClient getCoordinatorClient(URI coordinatorUrl);
+}
@@ -11,10 +11,15 @@ import static io.narayana.lra.LRAConstants.COMPLETE;
 import static io.narayana.lra.LRAConstants.COORDINATOR_PATH_NAME;
 import static io.narayana.lra.LRAConstants.FORGET;
 import static io.narayana.lra.LRAConstants.LEAVE;
+import static io.narayana.lra.LRAConstants.LRA_ID_PARAM_NAME;
+import static io.narayana.lra.LRAConstants.NARAYANA_LRA_NEXT_CURSOR_HEADER_NAME;
 import static io.narayana.lra.LRAConstants.NARAYANA_LRA_PARTICIPANT_DATA_HEADER_NAME;
 import static io.narayana.lra.LRAConstants.RECOVERY_COORDINATOR_PATH_NAME;
 import static io.narayana.lra.LRAConstants.STATUS;
+import static io.narayana.lra.LRAConstants.STATUS_EVENTS_PATH_NAME;
+import static io.narayana.lra.LRAConstants.STATUS_EVENT_NAME;
 import static io.narayana.lra.LRAConstants.TIMELIMIT_PARAM_NAME;
+import static io.narayana.lra.LRAConstants.UNKNOWN_LRA_EVENT_NAME;
 import static jakarta.ws.rs.core.Response.Status.BAD_REQUEST;
 import static jakarta.ws.rs.core.Response.Status.GONE;
 import static jakarta.ws.rs.core.Response.Status.INTERNAL_SERVER_ERROR;
@@ -28,8 +33,15 @@ import static org.eclipse.microprofile.lra.annotation.ws.rs.LRA.LRA_HTTP_RECOVER
 
 import io.narayana.lra.Current;
 import io.narayana.lra.LRAConstants;
+import io.narayana.lra.LRAContext;
 import io.narayana.lra.LRAData;
+import io.narayana.lra.LinkHeader;
 import io.narayana.lra.logging.LRALogger;
+import io.narayana.lra.tracing.Tracing;
+import io.narayana.lra.tracing.TracingClientFilter;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
 import io.smallrye.stork.Stork;
 import io.smallrye.stork.api.Service;
 import io.smallrye.stork.api.ServiceDefinition;
@@ -45,13 +57,17 @@ import jakarta.ws.rs.PUT;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.ServiceUnavailableException;
 import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.client.Client;
+import jakarta.ws.rs.client.ClientBuilder;
+import jakarta.ws.rs.client.Entity;
+import jakarta.ws.rs.client.WebTarget;
 import jakarta.ws.rs.container.Suspended;
 import jakarta.ws.rs.core.GenericType;
 import jakarta.ws.rs.core.HttpHeaders;
-import jakarta.ws.rs.core.Link;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.UriBuilder;
+import jakarta.ws.rs.sse.SseEventSource;
 import java.io.Closeable;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
@@ -69,9 +85,15 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.ServiceLoader;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import org.eclipse.microprofile.config.Config;
 import org.eclipse.microprofile.config.ConfigProvider;
 import org.eclipse.microprofile.lra.annotation.AfterLRA;
@@ -99,13 +121,28 @@ import org.eclipse.microprofile.rest.client.RestClientBuilder;
 @RequestScoped
 public class NarayanaLRAClient implements Closeable {
     /**
-     * The config property key for configuring the URL of a Narayana LRA coordinator
+     * The config property key for configuring the URL of a Narayana LRA coordinator. A URL that uses the
+     * {@value LocalCoordinatorProvider#LOCAL_SCHEME} scheme selects a coordinator embedded in the same JVM
+     * (see {@link LocalCoordinatorProvider}).
      */
     public static final String LRA_COORDINATOR_URL_KEY = "lra.coordinator.url";
     /**
      * The config property key for configuring the load balancing algorithm for a cluster of coordinators
      */
     public static final String COORDINATOR_LB_METHOD_KEY = "lra.coordinator.lb-method";
+    /**
+     * The config property key for the maximum number of LRAs whose status is cached by the clients in a JVM.
+     * Final states never change so they are cached until evicted to make room. Defaults to zero, which disables
+     * the cache. With the cache enabled {@link #getStatus(URI)} and {@link #getLRAInfo(URI)} answer for an LRA
+     * that has finished from the cache, even after the coordinator has forgotten it, rather than throwing
+     * {@link NotFoundException}.
+     */
+    public static final String STATUS_CACHE_SIZE_KEY = "lra.client.status-cache.size";
+    /**
+     * The config property key for how long, in milliseconds, a non terminal LRA status may be served from the
+     * status cache. Defaults to zero meaning that non terminal states are not cached.
+     */
+    public static final String STATUS_CACHE_TTL_KEY = "lra.client.status-cache.ttl";
 
     // Load balancing algorithms.
     // The values must match what Stork uses (remark Stork does not define any constants)
@@ -125,6 +162,8 @@ public class NarayanaLRAClient implements Closeable {
     };
 
     private static final String LINK_TEXT = "Link";
+    private static final String DEFAULT_COORDINATOR_URL = "http://localhost:8080/" + COORDINATOR_PATH_NAME;
+    private static final String LOCAL_URL_PREFIX = LocalCoordinatorProvider.LOCAL_SCHEME + ":";
 
     /**
      * constrain how long client operations take before giving up
@@ -138,9 +177,15 @@ public class NarayanaLRAClient implements Closeable {
     private static final long END_TIMEOUT = Long.getLong("lra.internal.client.end.timeout", CLIENT_TIMEOUT);
     private static final long LEAVE_TIMEOUT = Long.getLong("lra.internal.client.leave.timeout", CLIENT_TIMEOUT);
     private static final long QUERY_TIMEOUT = Long.getLong("lra.internal.client.query.timeout", CLIENT_TIMEOUT);
+    // bounds, in milliseconds, of the backoff between retries of requests that the coordinator was too busy to accept
+    private static final long INITIAL_RETRY_DELAY = Long.getLong("lra.internal.client.retry.delay", 100);
+    private static final long MAX_RETRY_DELAY = Long.getLong("lra.internal.client.retry.max.delay", 10_000);
 
     private static final Config CONFIG = ConfigProvider.getConfig();
 
+    // shared by every client in the JVM
+    private static final LRAStatusCache STATUS_CACHE = initStatusCache();
+
     private Service coordinatorService;
     private URI coordinatorUrl; // default coordinator (when load balancing is enabled a cluster coordinators is used)
     private long coordinatorCount;
@@ -148,6 +193,8 @@ public class NarayanaLRAClient implements Closeable {
     private boolean lbMethodValid;
     private boolean supportsFailover;
     private boolean storkInitialised;
+    private URI localCoordinatorUrl; // set if the default coordinator is embedded in this JVM
+    private CoordinatorClient localCoordinator;
 
     /**
      * Creating LRA client. The URL of the LRA coordinator will be taken
@@ -183,7 +230,9 @@ public class NarayanaLRAClient implements Closeable {
      * @param coordinatorUrl uri of the LRA coordinator
      */
     public NarayanaLRAClient(URI coordinatorUrl) {
-        clusterConfig(coordinatorUrl);
+        if (coordinatorUrl == null || !localConfig(coordinatorUrl.toString())) {
+            clusterConfig(coordinatorUrl);
+        }
     }
 
     /**
@@ -195,7 +244,9 @@ public class NarayanaLRAClient implements Closeable {
      * @throws IllegalStateException thrown when the provided URL String is not a URL format
      */
     public NarayanaLRAClient(String coordinatorUrl) {
-        clusterConfig(toURI(coordinatorUrl));
+        if (!localConfig(coordinatorUrl)) {
+            clusterConfig(toURI(coordinatorUrl));
+        }
     }
 
     private URI toURI(String coordinatorUrl) {
@@ -208,6 +259,22 @@ public class NarayanaLRAClient implements Closeable {
         }
     }
 
+    private static LRAStatusCache initStatusCache() {
+        int size;
+        long ttl;
+
+        try {
+            size = Integer.parseInt(getConfigProperty(STATUS_CACHE_SIZE_KEY, "0"));
+            ttl = Long.parseLong(getConfigProperty(STATUS_CACHE_TTL_KEY, "0"));
+        } catch (NumberFormatException e) {
+            LRALogger.logger.warnf("Invalid LRA status cache configuration, using the defaults: %s", e.getMessage());
+            size = 0;
+            ttl = 0;
+        }
+
+        return new LRAStatusCache(size, ttl);
+    }
+
     private static String getConfigProperty(String key, String defaultValue) {
         try {
             String value = CONFIG.getValue(key, String.class);
@@ -240,7 +307,11 @@ public class NarayanaLRAClient implements Closeable {
             this.coordinatorCount = 1;
         } else {
             // check LRA_COORDINATOR_URL_KEY or use http://localhost:8080/lra-coordinator as the default
-            String coordinators = getConfigProperty(LRA_COORDINATOR_URL_KEY, "http://localhost:8080/" + COORDINATOR_PATH_NAME);
+            String coordinators = getConfigProperty(LRA_COORDINATOR_URL_KEY, DEFAULT_COORDINATOR_URL);
+
+            if (localConfig(coordinators)) {
+                return;
+            }
 
             this.coordinatorUrl = toURI(coordinators.split(",")[0]);
             this.coordinatorCount = coordinators.chars().filter(ch -> ch == ',').count() + 1;
@@ -287,6 +358,40 @@ public class NarayanaLRAClient implements Closeable {
         }
     }
 
+    /**
+     * Select the coordinator embedded in this JVM if the url uses the local scheme
+     *
+     * @param url the configured coordinator url
+     * @return false if the url does not select the embedded coordinator
+     * @throws IllegalStateException if there is no embedded coordinator on the class path
+     */
+    private boolean localConfig(String url) {
+        if (url == null || !url.regionMatches(true, 0, LOCAL_URL_PREFIX, 0, LOCAL_URL_PREFIX.length())) {
+            return false;
+        }
+
+        // the rest of the url is where the coordinator is published so that remote participants can resolve LRA ids
+        String publicUrl = url.substring(LOCAL_URL_PREFIX.length()).trim();
+
+        if (publicUrl.isEmpty()) {
+            publicUrl = DEFAULT_COORDINATOR_URL;
+        } else if (publicUrl.endsWith("/")) {
+            publicUrl = publicUrl.substring(0, publicUrl.length() - 1);
+        }
+
+        this.coordinatorUrl = toURI(publicUrl);
+        this.coordinatorCount = 1;
+
+        for (LocalCoordinatorProvider provider : ServiceLoader.load(LocalCoordinatorProvider.class)) {
+            this.localCoordinatorUrl = coordinatorUrl;
+            this.localCoordinator = provider.getCoordinatorClient(coordinatorUrl);
+
+            return true;
+        }
+
+        throw new IllegalStateException(LRALogger.i18nLogger.error_noLocalCoordinator(url));
+    }
+
     public boolean isLoadBalancing() {
         return coordinatorCount > 1 && lbMethodValid;
     }
@@ -315,6 +420,9 @@ public class NarayanaLRAClient implements Closeable {
 
             Response response = client.getAllLRAs(
                     "", // status filter (empty for all)
+                    "", // client id filter (empty for all)
+                    0, // not paged
+                    "",
                     MediaType.TEXT_PLAIN,
                     LRAConstants.CURRENT_API_VERSION_STRING)
                     .toCompletableFuture().get(QUERY_TIMEOUT, TimeUnit.SECONDS);
@@ -333,6 +441,65 @@ public class NarayanaLRAClient implements Closeable {
         }
     }
 
+    /**
+     * Visit the LRAs known to the coordinator a page at a time so that neither the coordinator
+     * nor the caller needs to hold the full list in memory. LRAs are visited in the order of their uid.
+     *
+     * @param status if not null then only LRAs in this state are visited
+     * @param pageSize the maximum number of LRAs fetched from the coordinator in each request
+     * @param consumer invoked with each LRA in turn
+     * @throws WebApplicationException if the coordinator could not produce one of the pages
+     */
+    public void getAllLRAs(LRAStatus status, int pageSize, Consumer<LRAData> consumer) {
+        getAllLRAs(status, null, pageSize, consumer);
+    }
+
+    /**
+     * Visit the LRAs known to the coordinator, which were started with a particular client id, a page at a time.
+     * The coordinator serves the query from an index so the cost is proportional to the number of matching LRAs.
+     *
+     * @param status if not null then only LRAs in this state are visited
+     * @param clientId if not null then only LRAs started with this client id are visited
+     * @param pageSize the maximum number of LRAs fetched from the coordinator in each request
+     * @param consumer invoked with each LRA in turn
+     * @throws WebApplicationException if the coordinator could not produce one of the pages
+     */
+    public void getAllLRAs(LRAStatus status, String clientId, int pageSize, Consumer<LRAData> consumer) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("pageSize must be positive");
+        }
+
+        CoordinatorClient client = createCoordinatorClient(coordinatorUrl);
+        String cursor = "";
+
+        try {
+            do {
+                Response response = client.getAllLRAs(
+                        status == null ? "" : status.name(),
+                        clientId == null ? "" : clientId,
+                        pageSize,
+                        cursor,
+                        MediaType.TEXT_PLAIN,
+                        LRAConstants.CURRENT_API_VERSION_STRING)
+                        .toCompletableFuture().get(QUERY_TIMEOUT, TimeUnit.SECONDS);
+
+                if (response.getStatus() != OK.getStatusCode()) {
+                    LRALogger.logger.debugf("Error getting a page of LRAs from the coordinator, response status: %d",
+                            response.getStatus());
+                    throw new WebApplicationException(response);
+                }
+
+                cursor = response.getHeaderString(NARAYANA_LRA_NEXT_CURSOR_HEADER_NAME);
+
+                response.readEntity(new GenericType<List<LRAData>>() {
+                }).forEach(consumer);
+            } while (cursor != null && !cursor.isEmpty());
+        } catch (InterruptedException | ExecutionException | TimeoutException e) {
+            throw new WebApplicationException(Response.status(SERVICE_UNAVAILABLE)
+                    .entity("getAllLRAs client request timed out, try again later").build());
+        }
+    }
+
     /**
      * Starting LRA. You provide client id determining the LRA being started.
      *
@@ -389,6 +556,17 @@ public class NarayanaLRAClient implements Closeable {
      */
     public URI startLRA(URI parentLRA, String clientID, Long timeout, ChronoUnit unit, boolean verbose)
             throws WebApplicationException {
+        return traced("start", null, span -> {
+            URI lra = doStartLRA(parentLRA, clientID, timeout, unit, verbose);
+
+            Tracing.setLRA(span, lra);
+
+            return lra;
+        });
+    }
+
+    private URI doStartLRA(URI parentLRA, String clientID, Long timeout, ChronoUnit unit, boolean verbose)
+            throws WebApplicationException {
         if (coordinatorCount > 1 && !lbMethodValid) {
             throw new WebApplicationException(Response.status(SERVICE_UNAVAILABLE)
                     .entity(LRALogger.i18nLogger.error_unsupportedLoadBalancer(lbMethod)).build());
@@ -457,7 +635,6 @@ public class NarayanaLRAClient implements Closeable {
                 lraTrace(lra, "startLRA returned");
 
                 Current.push(lra);
-                Current.addActiveLRACache(lra);
 
                 return lra;
 
@@ -513,6 +690,36 @@ public class NarayanaLRAClient implements Closeable {
         endLRA(lraId, true, compensator, userData);
     }
 
+    /**
+     * Cancel an LRA, optionally asking the coordinator to compensate the participants in the background.
+     * When {@code async} is true the call returns as soon as the coordinator has recorded that the LRA is
+     * cancelling, the eventual outcome can be obtained using {@link #getStatus(URI)}.
+     *
+     * @param lraId the LRA to cancel
+     * @param compensator the participant link of the caller or null
+     * @param userData participant specific data or null
+     * @param async whether to return before the participants have been compensated
+     * @throws WebApplicationException if the coordinator did not accept the request
+     */
+    public void cancelLRA(URI lraId, String compensator, String userData, boolean async) throws WebApplicationException {
+        endLRA(lraId, false, compensator, userData, async);
+    }
+
+    /**
+     * Close an LRA, optionally asking the coordinator to complete the participants in the background.
+     * When {@code async} is true the call returns as soon as the coordinator has recorded that the LRA is
+     * closing, the eventual outcome can be obtained using {@link #getStatus(URI)}.
+     *
+     * @param lraId the LRA to close
+     * @param compensator the participant link of the caller or null
+     * @param userData participant specific data or null
+     * @param async whether to return before the participants have been completed
+     * @throws WebApplicationException if the coordinator did not accept the request
+     */
+    public void closeLRA(URI lraId, String compensator, String userData, boolean async) throws WebApplicationException {
+        endLRA(lraId, true, compensator, userData, async);
+    }
+
     /**
      * Joining the LRA with identity of `lraId` as participant defined by URIs for complete, compensate, forget, leave,
      * after and status.
@@ -559,12 +766,20 @@ public class NarayanaLRAClient implements Closeable {
     public URI joinLRA(URI lraId, Long timeLimit,
             URI participantUri, StringBuilder compensatorData) throws WebApplicationException {
         validateURI(participantUri, false, "Invalid participant URL: %s");
-        StringBuilder linkHeaderValue = makeLink(new StringBuilder(), null, "participant", participantUri.toASCIIString());
+        LinkHeader.Builder linkHeaderValue = makeLink(LinkHeader.builder(), null, "participant", participantUri.toASCIIString());
 
         return enlistCompensator(lraId, timeLimit, linkHeaderValue.toString(), compensatorData);
     }
 
     public void leaveLRA(URI lraId, String body) throws WebApplicationException {
+        traced("leave", lraId, span -> {
+            doLeaveLRA(lraId, body);
+
+            return null;
+        });
+    }
+
+    private void doLeaveLRA(URI lraId, String body) throws WebApplicationException {
         try {
             // Build the CoordinatorClient using the base coordinator URL
             CoordinatorClient client = createCoordinatorClient(LRAConstants.getLRACoordinatorUrl(lraId));
@@ -648,7 +863,7 @@ public class NarayanaLRAClient implements Closeable {
                             .build());
         }
 
-        StringBuilder linkHeaderValue = new StringBuilder();
+        LinkHeader.Builder linkHeaderValue = LinkHeader.builder();
 
         if (!paths.isEmpty()) {
             paths.forEach((k, v) -> makeLink(linkHeaderValue, null, k, v));
@@ -681,6 +896,85 @@ public class NarayanaLRAClient implements Closeable {
         return false;
     }
 
+    /**
+     * Report the outcome of a participant that accepted a complete or compensate request (by responding with
+     * 202 Accepted) and has since finished. Otherwise the coordinator only discovers the outcome by polling the
+     * status of the participant.
+     *
+     * @param recoveryUrl the recovery url that the coordinator passed in the {@value org.eclipse.microprofile.lra.annotation.ws.rs.LRA#LRA_HTTP_RECOVERY_HEADER}
+     *        header of the complete or compensate request
+     * @param outcome the final status of the participant
+     * @return true if the coordinator recorded the outcome, false if the caller should leave it to the coordinator
+     *         to poll for the outcome
+     */
+    public static boolean participantEnded(URI recoveryUrl, ParticipantStatus outcome) {
+        Client client = new RestClientConfig().configure(ClientBuilder.newBuilder()).build();
+        Span span = Tracing.startClientSpan("LRA client participant ended", Tracing.CLIENT, null)
+                .setAttribute(Tracing.URL, recoveryUrl.toASCIIString());
+
+        try {
+            Response response = Tracing.propagate(span, client.target(recoveryUrl).path(STATUS).request())
+                    .async()
+                    .put(Entity.text(outcome.name()))
+                    .get(END_TIMEOUT, TimeUnit.SECONDS);
+
+            Tracing.setHttpStatus(span, response.getStatus());
+
+            try {
+                if (response.getStatus() == OK.getStatusCode()) {
+                    return true;
+                }
+
+                LRALogger.logger.debugf("coordinator did not record the outcome %s of participant %s: %d",
+                        outcome, recoveryUrl, response.getStatus());
+            } finally {
+                response.close();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException | RuntimeException e) {
+            LRALogger.logger.debugf("could not report the outcome %s of participant %s: %s",
+                    outcome, recoveryUrl, e.getMessage());
+            Tracing.setError(span, e);
+        } finally {
+            span.end();
+            client.close();
+        }
+
+        return false;
+    }
+
+    /**
+     * How long to wait before retrying a request that the coordinator rejected with 503 Service Unavailable.
+     * If the response carries a Retry-After header (in seconds) the delay is at least that long, otherwise it
+     * doubles with each attempt. The delay is randomised so that callers that were rejected at the same time
+     * do not all retry at the same time.
+     *
+     * @param response the rejected response
+     * @param attempt the number of attempts that have already been rejected, starting at zero
+     * @return the number of milliseconds to wait
+     */
+    public static long getRetryDelay(Response response, int attempt) {
+        String retryAfter = response == null ? null : response.getHeaderString(HttpHeaders.RETRY_AFTER);
+
+        if (retryAfter != null) {
+            try {
+                long delay = TimeUnit.SECONDS.toMillis(Long.parseLong(retryAfter.trim()));
+
+                if (delay > 0) {
+                    // never retry earlier than asked to, but spread the retries over the following half interval
+                    return delay + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+                }
+            } catch (NumberFormatException e) {
+                // an HTTP date rather than a number of seconds so use the exponential backoff instead
+            }
+        }
+
+        long delay = Math.min(MAX_RETRY_DELAY, INITIAL_RETRY_DELAY << Math.min(attempt, 20));
+
+        return delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+    }
+
     private static int checkMethod(Map<String, String> paths,
             Method method, String rel,
             Path pathAnnotation,
@@ -721,6 +1015,17 @@ public class NarayanaLRAClient implements Closeable {
     }
 
     public LRAStatus getStatus(URI uri) throws WebApplicationException {
+        URI uriWithoutQuery = UriBuilder.fromUri(uri).replaceQuery(null).build();
+        LRAStatus cached = STATUS_CACHE.getStatus(uri);
+
+        if (cached != null) {
+            return cached;
+        }
+
+        return traced("status", uriWithoutQuery, span -> doGetStatus(uri, uriWithoutQuery));
+    }
+
+    private LRAStatus doGetStatus(URI uri, URI uriWithoutQuery) throws WebApplicationException {
         URL lraId;
 
         try {
@@ -734,8 +1039,6 @@ public class NarayanaLRAClient implements Closeable {
         }
 
         try {
-            URI uriWithoutQuery = UriBuilder.fromUri(uri).replaceQuery(null).build();
-
             // Build the CoordinatorClient using the base coordinator URL
             CoordinatorClient client = createCoordinatorClient(LRAConstants.getLRACoordinatorUrl(uriWithoutQuery));
 
@@ -750,10 +1053,12 @@ public class NarayanaLRAClient implements Closeable {
 
             // TODO add tests for each of these checks
             if (response.getStatus() == NOT_FOUND.getStatusCode()) {
+                STATUS_CACHE.invalidate(uri);
                 throw new NotFoundException(response);
             }
 
             if (response.getStatus() == NO_CONTENT.getStatusCode()) {
+                STATUS_CACHE.put(uri, LRAStatus.Active);
                 return LRAStatus.Active;
             }
 
@@ -773,7 +1078,11 @@ public class NarayanaLRAClient implements Closeable {
 
             // convert the returned String into a status
             try {
-                return LRAStatus.valueOf(response.readEntity(String.class));
+                LRAStatus status = LRAStatus.valueOf(response.readEntity(String.class));
+
+                STATUS_CACHE.put(uri, status);
+
+                return status;
             } catch (IllegalArgumentException e) {
                 String logMsg = LRALogger.i18nLogger.error_invalidArgumentOnStatusFromCoordinator(coordinatorUrl,
                         lraId, e);
@@ -788,6 +1097,77 @@ public class NarayanaLRAClient implements Closeable {
         }
     }
 
+    /**
+     * Wait for an LRA to reach a terminal state (Closed, Cancelled, FailedToClose or FailedToCancel).
+     * Rather than polling the coordinator this method subscribes to the stream of status events for the LRA.
+     *
+     * @param uri the LRA to wait for
+     * @param timeout how long to wait
+     * @return the terminal status or, if the timeout elapses first, the last status reported by the coordinator
+     *         (which will be null if the coordinator did not report any status)
+     * @throws NotFoundException if the coordinator has no knowledge of the LRA (it may have already finished)
+     * @throws WebApplicationException if the coordinator could not be contacted
+     */
+    public LRAStatus awaitTerminalStatus(URI uri, Duration timeout) throws WebApplicationException {
+        URI uriWithoutQuery = UriBuilder.fromUri(uri).replaceQuery(null).build();
+        LRAStatus cached = STATUS_CACHE.getStatus(uri);
+
+        if (cached != null && isTerminal(cached)) {
+            return cached;
+        }
+
+        AtomicReference<LRAStatus> lastStatus = new AtomicReference<>();
+        CompletableFuture<LRAStatus> terminalStatus = new CompletableFuture<>();
+        // the stream is read with a JAX-RS client configured with the same security settings as the REST clients
+        Client client = new RestClientConfig().configure(ClientBuilder.newBuilder()).build();
+
+        try {
+            WebTarget target = client.target(LRAConstants.getLRACoordinatorUrl(uriWithoutQuery))
+                    .path(STATUS_EVENTS_PATH_NAME)
+                    .queryParam(LRA_ID_PARAM_NAME, LRAConstants.getLRAUid(uri));
+
+            try (SseEventSource source = SseEventSource.target(target).build()) {
+                source.register(event -> {
+                    if (UNKNOWN_LRA_EVENT_NAME.equals(event.getName())) {
+                        terminalStatus.completeExceptionally(new NotFoundException("Cannot find LRA: " + uri));
+                    } else if (STATUS_EVENT_NAME.equals(event.getName())) {
+                        LRAStatus status = LRAStatus.valueOf(event.readData());
+
+                        lastStatus.set(status);
+
+                        if (isTerminal(status)) {
+                            STATUS_CACHE.put(uri, status);
+                            terminalStatus.complete(status);
+                        }
+                    }
+                }, terminalStatus::completeExceptionally);
+
+                source.open();
+
+                return terminalStatus.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            }
+        } catch (TimeoutException e) {
+            return lastStatus.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WebApplicationException(Response.status(SERVICE_UNAVAILABLE)
+                    .entity("awaiting LRA status was interrupted").build());
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof WebApplicationException) {
+                throw (WebApplicationException) e.getCause();
+            }
+
+            throw new WebApplicationException(e.getCause(), Response.status(SERVICE_UNAVAILABLE)
+                    .entity("awaiting LRA status failed: " + e.getCause().getMessage()).build());
+        } finally {
+            client.close();
+        }
+    }
+
+    private static boolean isTerminal(LRAStatus status) {
+        return LRAStatusCache.isTerminal(status);
+    }
+
     /**
      * Get detailed information about a specific LRA.
      *
@@ -808,8 +1188,14 @@ public class NarayanaLRAClient implements Closeable {
      * @throws WebApplicationException if the request fails
      */
     public LRAData getLRAInfo(URI uri, String acceptMediaType) throws WebApplicationException {
+        URI uriWithoutQuery = UriBuilder.fromUri(uri).replaceQuery(null).build();
+        LRAData cached = STATUS_CACHE.getData(uri);
+
+        if (cached != null) {
+            return cached;
+        }
+
         try {
-            URI uriWithoutQuery = UriBuilder.fromUri(uri).replaceQuery(null).build();
             CoordinatorClient client = createCoordinatorClient(LRAConstants.getLRACoordinatorUrl(uriWithoutQuery));
             String lraUid = LRAConstants.getLRAUid(uri);
 
@@ -829,7 +1215,11 @@ public class NarayanaLRAClient implements Closeable {
                                 .entity("No LRA info returned").build());
             }
 
-            return response.readEntity(LRAData.class);
+            LRAData data = response.readEntity(LRAData.class);
+
+            STATUS_CACHE.put(uri, data);
+
+            return data;
         } catch (ExecutionException e) {
             throw new NotFoundException(e.getMessage());
         } catch (InterruptedException | TimeoutException e) {
@@ -846,6 +1236,14 @@ public class NarayanaLRAClient implements Closeable {
      * @throws WebApplicationException if the request fails
      */
     public void renewTimeLimit(URI uri, Long timeLimit) throws WebApplicationException {
+        traced("renew", uri, span -> {
+            doRenewTimeLimit(uri, timeLimit);
+
+            return null;
+        });
+    }
+
+    private void doRenewTimeLimit(URI uri, Long timeLimit) throws WebApplicationException {
         try {
             URI uriWithoutQuery = UriBuilder.fromUri(uri).replaceQuery(null).build();
             CoordinatorClient client = createCoordinatorClient(LRAConstants.getLRACoordinatorUrl(uriWithoutQuery));
@@ -1018,20 +1416,13 @@ public class NarayanaLRAClient implements Closeable {
         }
     }
 
-    private static StringBuilder makeLink(StringBuilder b, String uriPrefix, String key, String value) {
+    private static LinkHeader.Builder makeLink(LinkHeader.Builder b, String uriPrefix, String key, String value) {
 
         if (value == null) {
             return b;
         }
 
-        String terminationUri = uriPrefix == null ? value : String.format("%s%s", uriPrefix, value);
-        Link link = Link.fromUri(terminationUri).title(key + " URI").rel(key).type(MediaType.TEXT_PLAIN).build();
-
-        if (b.length() != 0) {
-            b.append(',');
-        }
-
-        return b.append(link);
+        return b.link(key, uriPrefix == null ? value : uriPrefix + value, key + " URI");
     }
 
     private URI enlistCompensator(URI lraUri, Long timelimit, String uriPrefix,
@@ -1045,25 +1436,25 @@ public class NarayanaLRAClient implements Closeable {
         validateURI(forgetUri, true, "Invalid forgetUri URL: %s");
         validateURI(statusUri, true, "Invalid status URL: %s");
 
-        Map<String, URI> terminateURIs = new HashMap<>();
-
-        terminateURIs.put(COMPENSATE, compensateUri);
-        terminateURIs.put(COMPLETE, completeUri);
-        terminateURIs.put(LEAVE, leaveUri);
-        terminateURIs.put(AFTER, afterUri);
-        terminateURIs.put(STATUS, statusUri);
-        terminateURIs.put(FORGET, forgetUri);
-
         // register with the coordinator
         // put the lra id in an http header
-        StringBuilder linkHeaderValue = new StringBuilder();
+        LinkHeader.Builder linkHeaderValue = LinkHeader.builder();
 
-        terminateURIs.forEach((k, v) -> makeLink(linkHeaderValue, uriPrefix, k, v == null ? null : v.toASCIIString()));
+        makeLink(linkHeaderValue, uriPrefix, COMPENSATE, compensateUri == null ? null : compensateUri.toASCIIString());
+        makeLink(linkHeaderValue, uriPrefix, COMPLETE, completeUri == null ? null : completeUri.toASCIIString());
+        makeLink(linkHeaderValue, uriPrefix, LEAVE, leaveUri == null ? null : leaveUri.toASCIIString());
+        makeLink(linkHeaderValue, uriPrefix, AFTER, afterUri == null ? null : afterUri.toASCIIString());
+        makeLink(linkHeaderValue, uriPrefix, STATUS, statusUri == null ? null : statusUri.toASCIIString());
+        makeLink(linkHeaderValue, uriPrefix, FORGET, forgetUri == null ? null : forgetUri.toASCIIString());
 
         return enlistCompensator(lraUri, timelimit, linkHeaderValue.toString(), compensatorData);
     }
 
     public URI enlistCompensator(URI uri, Long timelimit, String linkHeader, StringBuilder compensatorData) {
+        return traced("join", uri, span -> doEnlistCompensator(uri, timelimit, linkHeader, compensatorData));
+    }
+
+    private URI doEnlistCompensator(URI uri, Long timelimit, String linkHeader, StringBuilder compensatorData) {
         // register with the coordinator
         URL lraId = null;
         String data = compensatorData == null ? null : compensatorData.toString();
@@ -1133,9 +1524,12 @@ public class NarayanaLRAClient implements Closeable {
         } catch (ExecutionException e) {
             Throwable t = e.getCause();
             if (t instanceof ServiceUnavailableException) {
-                t = (ServiceUnavailableException) t;
-                String msg = ((ServiceUnavailableException) t).getResponse().readEntity(String.class);
-                throw new WebApplicationException(Response.status(SERVICE_UNAVAILABLE).entity(msg).build());
+                Response unavailable = ((ServiceUnavailableException) t).getResponse();
+                String msg = unavailable.readEntity(String.class);
+                // keep any Retry-After header so that the caller knows how long to back off for
+                throw new WebApplicationException(Response.status(SERVICE_UNAVAILABLE).entity(msg)
+                        .header(HttpHeaders.RETRY_AFTER, unavailable.getHeaderString(HttpHeaders.RETRY_AFTER))
+                        .build());
             }
             String logMsg = LRALogger.i18nLogger.info_failedToEnlistingLRANotFound(lraId, coordinatorUrl,
                     NOT_FOUND.getStatusCode(), NOT_FOUND.getReasonPhrase(), GONE.getStatusCode(),
@@ -1150,7 +1544,21 @@ public class NarayanaLRAClient implements Closeable {
     }
 
     private void endLRA(URI lra, boolean confirm, String compensator, String userData) throws WebApplicationException {
-        lraTracef(lra, "%s LRA", confirm ? "close" : "compensate");
+        endLRA(lra, confirm, compensator, userData, false);
+    }
+
+    private void endLRA(URI lra, boolean confirm, String compensator, String userData, boolean async)
+            throws WebApplicationException {
+        traced(confirm ? "close" : "cancel", lra, span -> {
+            doEndLRA(lra, confirm, compensator, userData, async);
+
+            return null;
+        });
+    }
+
+    private void doEndLRA(URI lra, boolean confirm, String compensator, String userData, boolean async)
+            throws WebApplicationException {
+        lraTracef(lra, "%s LRA%s", confirm ? "close" : "compensate", async ? " asynchronously" : "");
 
         try {
             URI uri = UriBuilder.fromUri(lra).replaceQuery(null).build();
@@ -1169,7 +1577,8 @@ public class NarayanaLRAClient implements Closeable {
                         MediaType.TEXT_PLAIN,
                         LRAConstants.CURRENT_API_VERSION_STRING,
                         compensator == null ? "" : compensator,
-                        userData == null ? "" : userData)
+                        userData == null ? "" : userData,
+                        async ? LRAConstants.RESPOND_ASYNC_PREFERENCE : "")
                         .toCompletableFuture().get(END_TIMEOUT, TimeUnit.SECONDS);
             } else {
                 response = client.cancelLRA(
@@ -1177,7 +1586,8 @@ public class NarayanaLRAClient implements Closeable {
                         MediaType.TEXT_PLAIN,
                         LRAConstants.CURRENT_API_VERSION_STRING,
                         compensator == null ? "" : compensator,
-                        userData == null ? "" : userData)
+                        userData == null ? "" : userData,
+                        async ? LRAConstants.RESPOND_ASYNC_PREFERENCE : "")
                         .toCompletableFuture().get(END_TIMEOUT, TimeUnit.SECONDS);
             }
 
@@ -1214,7 +1624,8 @@ public class NarayanaLRAClient implements Closeable {
                     .build());
         } finally {
             Current.pop(lra);
-            Current.removeActiveLRACache(lra);
+            // the status is about to change so any cached non terminal status is stale
+            STATUS_CACHE.invalidate(lra);
         }
     }
 
@@ -1258,6 +1669,28 @@ public class NarayanaLRAClient implements Closeable {
         return Current.peek();
     }
 
+    /**
+     * Capture the LRAs associated with the calling thread, for example to continue working in the same
+     * LRA on another thread. The context is immutable so capturing it is cheap.
+     *
+     * @return the LRA context of the calling thread or null if there is none
+     * @see Current#attach(LRAContext)
+     * @see Current#propagate(java.util.function.Function)
+     */
+    public LRAContext getCurrentContext() {
+        return getCurrent() == null ? null : Current.capture();
+    }
+
+    /**
+     * Associate an LRA context captured using {@link #getCurrentContext()} with the calling thread
+     *
+     * @param context the context to associate with the calling thread or null to clear the current context
+     * @return the context that was previously associated with the thread
+     */
+    public LRAContext setCurrentContext(LRAContext context) {
+        return Current.attach(context);
+    }
+
     public void clearCurrent(boolean all) {
         if (all) {
             Current.popAll();
@@ -1293,6 +1726,23 @@ public class NarayanaLRAClient implements Closeable {
         }
     }
 
+    // send a request to the coordinator in a client span, the span of the coordinator for the request is its child
+    private static <T> T traced(String operation, URI lraId, Function<Span, T> request) {
+        Span span = Tracing.startClientSpan("LRA client " + operation, Tracing.CLIENT, lraId);
+
+        try (Scope ignored = span.makeCurrent()) {
+            return request.apply(span);
+        } catch (WebApplicationException e) {
+            Tracing.setHttpStatus(span, e.getResponse() == null ? -1 : e.getResponse().getStatus());
+            throw e;
+        } catch (RuntimeException e) {
+            Tracing.setError(span, e);
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+
     private void throwGenericLRAException(URI lraId, int statusCode, String message, Throwable cause)
             throws WebApplicationException {
         String errorMsg = String.format("%s: %s", lraId, message);
@@ -1306,7 +1756,19 @@ public class NarayanaLRAClient implements Closeable {
      * @return a CoordinatorClient instance
      */
     private CoordinatorClient createCoordinatorClient(URI baseUri) {
+        if (localCoordinator != null && localCoordinatorUrl.equals(baseUri)) {
+            // the request is for the embedded coordinator so skip the HTTP request
+            return localCoordinator;
+        }
+
         RestClientBuilder builder = RestClientBuilder.newBuilder().baseUri(baseUri);
+        Context context = Context.current();
+
+        if (Span.fromContext(context).getSpanContext().isValid()) {
+            // the request may be sent from another thread so pass the trace to it now
+            builder.register(new TracingClientFilter(context));
+        }
+
         return new RestClientConfig().configure(builder).build(CoordinatorClient.class);
     }
 }
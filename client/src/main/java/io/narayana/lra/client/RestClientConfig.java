@@ -6,9 +6,12 @@
 package io.narayana.lra.client;
 
 import io.narayana.lra.logging.LRALogger;
+import jakarta.ws.rs.client.ClientBuilder;
 import java.io.FileInputStream;
 import java.io.InputStream;
 import java.security.KeyStore;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 import javax.net.ssl.HostnameVerifier;
 import javax.net.ssl.KeyManagerFactory;
@@ -85,6 +88,45 @@ public class RestClientConfig {
         return builder;
     }
 
+    /**
+     * Configures a JAX-RS ClientBuilder, for requests that cannot be made with a MicroProfile REST client
+     * such as subscribing to server-sent events, with the same settings as {@link #configure(RestClientBuilder)}
+     *
+     * @param builder the ClientBuilder to configure
+     * @return the configured ClientBuilder
+     */
+    public ClientBuilder configure(ClientBuilder builder) {
+        try {
+            SSLContext sslContext = createSSLContext();
+            if (sslContext != null) {
+                builder.sslContext(sslContext);
+            }
+
+            HostnameVerifier hostnameVerifier = loadHostnameVerifier();
+            if (hostnameVerifier != null) {
+                builder.hostnameVerifier(hostnameVerifier);
+            }
+        } catch (Exception e) {
+            LRALogger.logger.warnf(e, "Failed to configure SSL for REST client: %s", e.getMessage());
+        }
+
+        Long connectTimeout = getConfigValueAsLong(CONNECT_TIMEOUT_KEY);
+        if (connectTimeout != null) {
+            builder.connectTimeout(connectTimeout, TimeUnit.MILLISECONDS);
+        }
+
+        Long readTimeout = getConfigValueAsLong(READ_TIMEOUT_KEY);
+        if (readTimeout != null) {
+            builder.readTimeout(readTimeout, TimeUnit.MILLISECONDS);
+        }
+
+        for (Class<?> providerClass : loadProviders()) {
+            builder.register(providerClass);
+        }
+
+        return builder;
+    }
+
     /**
      * Configures SSL/TLS settings on the builder
      */
@@ -218,23 +260,34 @@ public class RestClientConfig {
      * Registers custom providers on the builder
      */
     private void configureProviders(RestClientBuilder builder) {
+        for (Class<?> providerClass : loadProviders()) {
+            builder.register(providerClass);
+        }
+    }
+
+    /**
+     * Loads the configured provider classes
+     */
+    private List<Class<?>> loadProviders() {
+        List<Class<?>> providerClasses = new ArrayList<>();
         String providers = getConfigValue(PROVIDERS_KEY);
         if (providers == null || providers.trim().isEmpty()) {
-            return;
+            return providerClasses;
         }
 
         for (String providerClassName : providers.split(",")) {
             String trimmed = providerClassName.trim();
             if (!trimmed.isEmpty()) {
                 try {
-                    Class<?> providerClass = Class.forName(trimmed);
-                    builder.register(providerClass);
+                    providerClasses.add(Class.forName(trimmed));
                 } catch (Exception e) {
                     LRALogger.logger.warnf(e, "Failed to load provider class %s: %s",
                             trimmed, e.getMessage());
                 }
             }
         }
+
+        return providerClasses;
     }
 
     /**
@@ -0,0 +1,114 @@
+package io.narayana.lra.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import io.narayana.lra.LRAData;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+import org.eclipse.microprofile.lra.annotation.LRAStatus;
+import org.junit.jupiter.api.Test;
+
+public class LRAStatusCacheTest {
+    private static final URI LRA_1 = URI.create("http://localhost:8080/lra-coordinator/0_ffff7f000001_1");
+    private static final URI LRA_2 = URI.create("http://localhost:8080/lra-coordinator/0_ffff7f000001_2");
+    private static final URI LRA_3 = URI.create("http://localhost:8080/lra-coordinator/0_ffff7f000001_3");
+
+    @Test
+    public void testOnlyTerminalStatesAreCachedByDefault() {
+        LRAStatusCache cache = new LRAStatusCache(10, 0);
+
+        cache.put(LRA_1, LRAStatus.Active);
+        cache.put(LRA_2, LRAStatus.Closing);
+        cache.put(LRA_3, LRAStatus.FailedToCancel);
+
+        assertNull(cache.getStatus(LRA_1));
+        assertNull(cache.getStatus(LRA_2));
+        assertEquals(LRAStatus.FailedToCancel, cache.getStatus(LRA_3));
+    }
+
+    @Test
+    public void testNonTerminalStatesExpire() {
+        AtomicLong now = new AtomicLong(1000);
+        LRAStatusCache cache = new LRAStatusCache(10, 50, now::get);
+
+        cache.put(LRA_1, LRAStatus.Active);
+        cache.put(LRA_2, LRAStatus.Cancelled);
+
+        now.addAndGet(49);
+        assertEquals(LRAStatus.Active, cache.getStatus(LRA_1));
+
+        now.addAndGet(1);
+        assertNull(cache.getStatus(LRA_1), "the non terminal status should have expired");
+        assertEquals(LRAStatus.Cancelled, cache.getStatus(LRA_2), "terminal states should never expire");
+
+        // a terminal status replaces a non terminal one
+        cache.put(LRA_1, LRAStatus.Active);
+        cache.put(LRA_1, LRAStatus.Closed);
+        now.addAndGet(1000);
+        assertEquals(LRAStatus.Closed, cache.getStatus(LRA_1));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEntryIsEvicted() {
+        LRAStatusCache cache = new LRAStatusCache(2, 0);
+
+        cache.put(LRA_1, LRAStatus.Closed);
+        cache.put(LRA_2, LRAStatus.Cancelled);
+        cache.getStatus(LRA_1); // LRA_2 is now the least recently used
+        cache.put(LRA_3, LRAStatus.Closed);
+
+        assertEquals(2, cache.size());
+        assertEquals(LRAStatus.Closed, cache.getStatus(LRA_1));
+        assertNull(cache.getStatus(LRA_2));
+        assertEquals(LRAStatus.Closed, cache.getStatus(LRA_3));
+    }
+
+    @Test
+    public void testData() {
+        LRAStatusCache cache = new LRAStatusCache(10, 0);
+        LRAData data = new LRAData(LRA_1, "client", LRAStatus.Closed, true, false, 1L, 2L, 200);
+
+        cache.put(LRA_1, data);
+        // caching the same status again must not lose the data
+        cache.put(LRA_1, LRAStatus.Closed);
+
+        assertSame(data, cache.getData(LRA_1));
+        assertEquals(LRAStatus.Closed, cache.getStatus(LRA_1));
+
+        cache.invalidate(LRA_1);
+        assertNull(cache.getData(LRA_1));
+    }
+
+    @Test
+    public void testClosedNestedLRAIsNotFinal() {
+        LRAStatusCache cache = new LRAStatusCache(10, 0);
+        URI nested = URI.create(LRA_2 + "?ParentLRA="
+                + URLEncoder.encode(LRA_1.toASCIIString(), StandardCharsets.UTF_8));
+
+        // a nested LRA that closed is compensated if its parent cancels
+        cache.put(nested, LRAStatus.Closed);
+        cache.put(LRA_3, new LRAData(LRA_3, "client", LRAStatus.Closed, false, false, 1L, 2L, 200));
+
+        assertNull(cache.getStatus(nested));
+        assertNull(cache.getStatus(LRA_2));
+        assertNull(cache.getData(LRA_3));
+
+        cache.put(nested, LRAStatus.Cancelled);
+
+        assertEquals(LRAStatus.Cancelled, cache.getStatus(LRA_2), "entries should be keyed without the query");
+    }
+
+    @Test
+    public void testDisabled() {
+        LRAStatusCache cache = new LRAStatusCache(0, 1000);
+
+        cache.put(LRA_1, LRAStatus.Closed);
+
+        assertNull(cache.getStatus(LRA_1));
+        assertEquals(0, cache.size());
+    }
+}
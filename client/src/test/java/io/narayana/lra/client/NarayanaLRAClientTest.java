@@ -1,7 +1,10 @@
 package io.narayana.lra.client;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.Response;
 import java.net.URI;
 import org.junit.jupiter.api.Test;
 
@@ -41,4 +44,27 @@ public class NarayanaLRAClientTest {
 
         System.out.println(System.getProperty(NarayanaLRAClient.LRA_COORDINATOR_URL_KEY));
     }
+
+    @Test
+    public void testRetryDelay() {
+        Response retryAfter = Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, 2)
+                .build();
+
+        for (int i = 0; i < 10; i++) {
+            long delay = NarayanaLRAClient.getRetryDelay(retryAfter, i);
+
+            assertTrue(delay >= 2000 && delay <= 3000, "the delay should honour Retry-After: " + delay);
+        }
+
+        Response unavailable = Response.status(Response.Status.SERVICE_UNAVAILABLE).build();
+
+        for (int i = 0; i < 10; i++) {
+            long first = NarayanaLRAClient.getRetryDelay(unavailable, 0);
+            long fourth = NarayanaLRAClient.getRetryDelay(unavailable, 3);
+
+            assertTrue(first >= 50 && first <= 100, "the first delay should be jittered around 100 ms: " + first);
+            assertTrue(fourth >= 400 && fourth <= 800, "the delay should double with each attempt: " + fourth);
+        }
+    }
 }
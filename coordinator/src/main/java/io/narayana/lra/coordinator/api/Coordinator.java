@@ -11,27 +11,43 @@ import static io.narayana.lra.LRAConstants.COMPENSATE;
 import static io.narayana.lra.LRAConstants.COMPLETE;
 import static io.narayana.lra.LRAConstants.COORDINATOR_PATH_NAME;
 import static io.narayana.lra.LRAConstants.CURRENT_API_VERSION_STRING;
+import static io.narayana.lra.LRAConstants.CURSOR_PARAM_NAME;
+import static io.narayana.lra.LRAConstants.LIMIT_PARAM_NAME;
+import static io.narayana.lra.LRAConstants.LRA_ID_PARAM_NAME;
 import static io.narayana.lra.LRAConstants.NARAYANA_LRA_API_VERSION_HEADER_NAME;
+import static io.narayana.lra.LRAConstants.NARAYANA_LRA_NEXT_CURSOR_HEADER_NAME;
 import static io.narayana.lra.LRAConstants.NARAYANA_LRA_PARTICIPANT_DATA_HEADER_NAME;
 import static io.narayana.lra.LRAConstants.PARENT_LRA_PARAM_NAME;
 import static io.narayana.lra.LRAConstants.PARTICIPANT_TIMEOUT;
+import static io.narayana.lra.LRAConstants.PREFERENCE_APPLIED_HEADER_NAME;
+import static io.narayana.lra.LRAConstants.PREFER_HEADER_NAME;
+import static io.narayana.lra.LRAConstants.READINESS_PATH_NAME;
 import static io.narayana.lra.LRAConstants.RECOVERY_COORDINATOR_PATH_NAME;
+import static io.narayana.lra.LRAConstants.RESPOND_ASYNC_PREFERENCE;
 import static io.narayana.lra.LRAConstants.STATUS;
+import static io.narayana.lra.LRAConstants.STATUS_EVENTS_PATH_NAME;
+import static io.narayana.lra.LRAConstants.STATUS_EVENT_NAME;
 import static io.narayana.lra.LRAConstants.STATUS_PARAM_NAME;
 import static io.narayana.lra.LRAConstants.TIMELIMIT_PARAM_NAME;
+import static io.narayana.lra.LRAConstants.UNKNOWN_LRA_EVENT_NAME;
 import static jakarta.ws.rs.core.Response.Status.BAD_REQUEST;
 import static jakarta.ws.rs.core.Response.Status.INTERNAL_SERVER_ERROR;
 import static jakarta.ws.rs.core.Response.Status.OK;
 import static jakarta.ws.rs.core.Response.Status.PRECONDITION_FAILED;
+import static jakarta.ws.rs.core.Response.Status.SERVICE_UNAVAILABLE;
 import static org.eclipse.microprofile.lra.annotation.ws.rs.LRA.LRA_HTTP_CONTEXT_HEADER;
 import static org.eclipse.microprofile.lra.annotation.ws.rs.LRA.LRA_HTTP_RECOVERY_HEADER;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import io.narayana.lra.Current;
 import io.narayana.lra.LRAConstants;
 import io.narayana.lra.LRAData;
+import io.narayana.lra.LinkHeader;
 import io.narayana.lra.coordinator.domain.model.LongRunningAction;
+import io.narayana.lra.coordinator.domain.service.AdmissionControl;
 import io.narayana.lra.coordinator.domain.service.LRAService;
 import io.narayana.lra.coordinator.internal.LRARecoveryModule;
 import io.narayana.lra.logging.LRALogger;
@@ -42,7 +58,6 @@ import jakarta.ws.rs.ApplicationPath;
 import jakarta.ws.rs.DefaultValue;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.HeaderParam;
-import jakarta.ws.rs.NotFoundException;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.PUT;
 import jakarta.ws.rs.Path;
@@ -60,17 +75,28 @@ import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.Link;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import jakarta.ws.rs.core.UriBuilder;
 import jakarta.ws.rs.core.UriInfo;
+import jakarta.ws.rs.sse.Sse;
+import jakarta.ws.rs.sse.SseEventSink;
 import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
-import java.util.HashMap;
+import java.util.Base64;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.eclipse.microprofile.config.ConfigProvider;
 import org.eclipse.microprofile.faulttolerance.Bulkhead;
 import org.eclipse.microprofile.lra.annotation.LRAStatus;
@@ -108,12 +134,39 @@ public class Coordinator extends Application {
 
     private static final boolean allowParticipantData = initAllowParticipantData();
 
+    // ObjectWriter is immutable and thread safe so share one instance rather than creating a mapper per request.
+    // Flushing after each value is disabled since LRA listings are written one element at a time.
+    private static final ObjectWriter LRA_DATA_WRITER = new ObjectMapper().writer()
+            .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+            .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+    // the JSON representations of each status are precomputed so that status requests do not build a JSON model
+    private static final Map<LRAStatus, String> JSON_STATUS_ENTITIES = initJsonStatusEntities();
+
+    // how long a client waiting for the coordinator to become ready should wait before asking again
+    private static final int READINESS_RETRY_AFTER_SECONDS = 1;
+
     private final LRAService lraService;
     private final RecoveryCoordinator recoveryCoordinator;
+    private final LRAStatusEvents statusEvents;
+    // the base URI of an embedded coordinator, it is null when the base URI is taken from the request
+    private final URI baseUri;
 
     public Coordinator() {
+        this(null);
+    }
+
+    /**
+     * Create a coordinator that is invoked directly rather than through JAX-RS
+     *
+     * @param baseUri the URI under which the REST coordinator is published, it is used to create the LRA ids
+     *        and must end with a slash
+     */
+    Coordinator(URI baseUri) {
+        this.baseUri = baseUri;
         lraService = LRARecoveryModule.getService();
         recoveryCoordinator = new RecoveryCoordinator();
+        statusEvents = new LRAStatusEvents(lraService);
     }
 
     @Path(RECOVERY_COORDINATOR_PATH_NAME)
@@ -131,6 +184,16 @@ public class Coordinator extends Application {
         }
     }
 
+    private static Map<LRAStatus, String> initJsonStatusEntities() {
+        Map<LRAStatus, String> entities = new EnumMap<>(LRAStatus.class);
+
+        for (LRAStatus status : LRAStatus.values()) {
+            entities.put(status, Json.createObjectBuilder().add("status", status.name()).build().toString());
+        }
+
+        return entities;
+    }
+
     private boolean isAllowParticipantData(String version) {
         // only protocol version API_VERSION_1_0 doesn't support participant data
         // and using a null version header is interpreted as meaning the caller doesn't care
@@ -140,16 +203,23 @@ public class Coordinator extends Application {
     @GET
     @Path("/")
     @Produces({ MediaType.APPLICATION_JSON, MediaType.TEXT_PLAIN })
-    @Operation(summary = "Returns all LRAs", description = "Gets both active and recovering LRAs")
+    @Operation(summary = "Returns all LRAs", description = "Gets both active and recovering LRAs, optionally filtered by status and client id. "
+            + "If a limit is provided then the LRAs are returned a page at a time, ordered by uid, and the response "
+            + "carries a continuation token, in the " + NARAYANA_LRA_NEXT_CURSOR_HEADER_NAME + " header and as a Link "
+            + "with relation type next, which the caller passes back to obtain the next page")
     @APIResponses({
             @APIResponse(responseCode = "200", description = "The LRAData json array which is known to coordinator", content = @Content(schema = @Schema(type = SchemaType.ARRAY, implementation = LRAData.class)), headers = {
-                    @Header(ref = LRAConstants.NARAYANA_LRA_API_VERSION_HEADER_NAME) }),
-            @APIResponse(responseCode = "400", description = "Provided Status is not recognized as a valid LRA status value", content = @Content(schema = @Schema(implementation = String.class)), headers = {
+                    @Header(ref = LRAConstants.NARAYANA_LRA_API_VERSION_HEADER_NAME),
+                    @Header(name = NARAYANA_LRA_NEXT_CURSOR_HEADER_NAME, description = "The token for obtaining the next page of LRAs, absent on the last page") }),
+            @APIResponse(responseCode = "400", description = "Provided Status is not recognized as a valid LRA status value, or the limit or cursor are invalid", content = @Content(schema = @Schema(implementation = String.class)), headers = {
                     @Header(ref = LRAConstants.NARAYANA_LRA_API_VERSION_HEADER_NAME) }),
             @APIResponse(responseCode = "417", description = "The requested version provided in HTTP Header is not supported by this end point", content = @Content(schema = @Schema(implementation = String.class))),
     })
     public Response getAllLRAs(
             @Parameter(name = STATUS_PARAM_NAME, description = "Filter the returned LRAs to only those in the give state (see CompensatorStatus)") @QueryParam(STATUS_PARAM_NAME) @DefaultValue("") String state,
+            @Parameter(name = CLIENT_ID_PARAM_NAME, description = "Filter the returned LRAs to only those started with the given client id") @QueryParam(CLIENT_ID_PARAM_NAME) @DefaultValue("") String clientId,
+            @Parameter(name = LIMIT_PARAM_NAME, description = "The maximum number of LRAs to return (zero means that the listing is not paged)") @QueryParam(LIMIT_PARAM_NAME) @DefaultValue("0") int limit,
+            @Parameter(name = CURSOR_PARAM_NAME, description = "The continuation token returned with the previous page") @QueryParam(CURSOR_PARAM_NAME) @DefaultValue("") String cursor,
             @HeaderParam(HttpHeaders.ACCEPT) @DefaultValue(MediaType.TEXT_PLAIN) String mediaType,
             @Parameter(ref = LRAConstants.NARAYANA_LRA_API_VERSION_HEADER_NAME) @HeaderParam(LRAConstants.NARAYANA_LRA_API_VERSION_HEADER_NAME) @DefaultValue(CURRENT_API_VERSION_STRING) String version) {
         LRAStatus requestedLRAStatus = null;
@@ -166,30 +236,164 @@ public class Coordinator extends Application {
             }
         }
 
-        List<LRAData> lras = lraService.getAll(requestedLRAStatus);
+        String requestedClientId = clientId.isEmpty() ? null : clientId;
 
-        if (mediaType.equals(MediaType.APPLICATION_JSON)) {
-            try {
-                String jsonArray = new ObjectMapper().writeValueAsString(lras);
+        if (limit < 0) {
+            String errMsg = LIMIT_PARAM_NAME + " " + limit + " must not be negative";
+            throw new WebApplicationException(errMsg, Response.status(BAD_REQUEST)
+                    .header(NARAYANA_LRA_API_VERSION_HEADER_NAME, version)
+                    .entity(errMsg)
+                    .build());
+        }
 
+        if (limit == 0 && cursor.isEmpty()) {
+            // not paged
+            if (mediaType.equals(MediaType.APPLICATION_JSON)) {
                 return Response.ok()
-                        .entity(jsonArray)
+                        .entity(toJsonArray(lraService.stream(requestedLRAStatus, requestedClientId)))
+                        .type(MediaType.APPLICATION_JSON)
                         .header(NARAYANA_LRA_API_VERSION_HEADER_NAME, version)
                         .build();
-            } catch (JsonProcessingException e) {
-                return Response.status(INTERNAL_SERVER_ERROR)
-                        .entity(e.getMessage())
+            } else { // produce MediaType.TEXT_PLAIN
+                return Response.ok()
+                        .entity(lraService.getAll(requestedLRAStatus, requestedClientId))
                         .header(NARAYANA_LRA_API_VERSION_HEADER_NAME, version)
                         .build();
             }
+        }
+
+        // fetch one more than requested to find out whether there is a next page
+        int pageSize = limit == 0 ? Integer.MAX_VALUE - 1 : limit;
+        List<LongRunningAction> page = lraService.getPage(requestedLRAStatus, requestedClientId,
+                decodeCursor(cursor, version), pageSize + 1);
+        Response.ResponseBuilder builder = Response.ok().header(NARAYANA_LRA_API_VERSION_HEADER_NAME, version);
+
+        if (page.size() > pageSize) {
+            page = page.subList(0, pageSize);
+
+            String next = encodeCursor(LRAService.uidOf(page.get(pageSize - 1)));
+
+            // an embedded coordinator is not invoked through a request so rebuild the request URI from the parameters
+            UriBuilder requestUri = baseUri == null ? context.getRequestUriBuilder()
+                    : UriBuilder.fromUri(baseUri).path(COORDINATOR_PATH_NAME)
+                            .queryParam(STATUS_PARAM_NAME, state)
+                            .queryParam(CLIENT_ID_PARAM_NAME, clientId)
+                            .queryParam(LIMIT_PARAM_NAME, limit);
+
+            builder.header(NARAYANA_LRA_NEXT_CURSOR_HEADER_NAME, next)
+                    .links(Link.fromUri(requestUri
+                            .replaceQueryParam(CURSOR_PARAM_NAME, next).build())
+                            .rel("next").build());
+        }
+
+        if (mediaType.equals(MediaType.APPLICATION_JSON)) {
+            return builder.entity(toJsonArray(page.stream().map(LongRunningAction::getLRAData)))
+                    .type(MediaType.APPLICATION_JSON)
+                    .build();
         } else { // produce MediaType.TEXT_PLAIN
-            return Response.ok()
-                    .entity(lras)
-                    .header(NARAYANA_LRA_API_VERSION_HEADER_NAME, version)
+            return builder.entity(page.stream().map(LongRunningAction::getLRAData).collect(Collectors.toList()))
                     .build();
         }
     }
 
+    // write the LRAs to the response one at a time so that the full listing is never held in memory
+    private static StreamingOutput toJsonArray(Stream<LRAData> lras) {
+        return output -> {
+            try (JsonGenerator generator = LRA_DATA_WRITER.createGenerator(output)) {
+                generator.writeStartArray();
+
+                for (Iterator<LRAData> it = lras.iterator(); it.hasNext();) {
+                    LRA_DATA_WRITER.writeValue(generator, it.next());
+                }
+
+                generator.writeEndArray();
+            }
+        };
+    }
+
+    // the continuation token for the page following the LRA with the given uid
+    static String encodeCursor(String uid) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(uid.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static String decodeCursor(String cursor, String version) {
+        if (cursor.isEmpty()) {
+            return null;
+        }
+
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            String errMsg = CURSOR_PARAM_NAME + " " + cursor + " is not a valid continuation token";
+            throw new WebApplicationException(errMsg, Response.status(BAD_REQUEST)
+                    .header(NARAYANA_LRA_API_VERSION_HEADER_NAME, version)
+                    .entity(errMsg)
+                    .build());
+        }
+    }
+
+    @GET
+    @Path(STATUS_EVENTS_PATH_NAME)
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    @Operation(summary = "Subscribe to LRA status transitions", description = "Opens a stream of server-sent events. "
+            + "Each event named " + STATUS_EVENT_NAME + " has the LRA id as its id and the new LRAStatus as its data. "
+            + "If specific LRAs are requested their current status is sent first, an event named " + UNKNOWN_LRA_EVENT_NAME
+            + " is sent for any LRA the coordinator has no knowledge of, and the stream ends once all of them are finished. "
+            + "Otherwise the stream carries the transitions of every LRA matching the status and client id filters")
+    @APIResponses({
+            @APIResponse(responseCode = "200", description = "The stream of status events"),
+            @APIResponse(responseCode = "400", description = "Provided Status is not recognized as a valid LRA status value", content = @Content(schema = @Schema(implementation = String.class))),
+    })
+    public void subscribeToStatusEvents(
+            @Parameter(name = LRA_ID_PARAM_NAME, description = "The id or uid of an LRA to watch (may be repeated)") @QueryParam(LRA_ID_PARAM_NAME) List<String> lraIds,
+            @Parameter(name = STATUS_PARAM_NAME, description = "Only report transitions to this LRAStatus") @QueryParam(STATUS_PARAM_NAME) @DefaultValue("") String state,
+            @Parameter(name = CLIENT_ID_PARAM_NAME, description = "Only report transitions of LRAs started with this client id") @QueryParam(CLIENT_ID_PARAM_NAME) @DefaultValue("") String clientId,
+            @Context SseEventSink sink,
+            @Context Sse sse) {
+        LRAStatus requestedLRAStatus = null;
+
+        if (!state.isEmpty()) {
+            try {
+                requestedLRAStatus = LRAStatus.valueOf(state);
+            } catch (IllegalArgumentException e) {
+                String errMsg = "Status " + state + " is not a valid LRAStatus value";
+                throw new WebApplicationException(errMsg, Response.status(BAD_REQUEST).entity(errMsg).build());
+            }
+        }
+
+        Set<String> uids = null;
+
+        if (lraIds != null && !lraIds.isEmpty()) {
+            uids = new HashSet<>();
+
+            for (String lraId : lraIds) {
+                uids.add(LRAConstants.getLRAUid(lraId));
+            }
+        }
+
+        statusEvents.subscribe(sink, sse, uids, requestedLRAStatus, clientId.isEmpty() ? null : clientId);
+    }
+
+    @GET
+    @Path(READINESS_PATH_NAME)
+    @Produces(MediaType.TEXT_PLAIN)
+    @Operation(summary = "Report whether the coordinator is ready", description = "The coordinator is ready once it knows about "
+            + "every LRA in its object store. Until then requests for LRAs that it has yet to load may fail with 404")
+    @APIResponses({
+            @APIResponse(responseCode = "200", description = "The coordinator is ready", content = @Content(schema = @Schema(implementation = String.class))),
+            @APIResponse(responseCode = "503", description = "The coordinator is still loading LRAs from its object store", content = @Content(schema = @Schema(implementation = String.class))),
+    })
+    public Response getReadiness() {
+        if (lraService.isReady()) {
+            return Response.ok("ready").build();
+        }
+
+        return Response.status(SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, READINESS_RETRY_AFTER_SECONDS)
+                .entity("loading")
+                .build();
+    }
+
     @GET
     @Path("{LraId}/status")
     @Produces({ MediaType.APPLICATION_JSON, MediaType.TEXT_PLAIN })
@@ -207,7 +411,14 @@ public class Coordinator extends Application {
                     "to be an id which will be declared to exist at URL where coordinator is deployed at.", required = true) @PathParam("LraId") String lraId,
             @HeaderParam(HttpHeaders.ACCEPT) @DefaultValue(MediaType.TEXT_PLAIN) String mediaType,
             @Parameter(ref = LRAConstants.NARAYANA_LRA_API_VERSION_HEADER_NAME) @HeaderParam(LRAConstants.NARAYANA_LRA_API_VERSION_HEADER_NAME) @DefaultValue(CURRENT_API_VERSION_STRING) String version) {
-        LongRunningAction transaction = lraService.getTransaction(toURI(lraId));
+        // status requests are the most frequent coordinator call so first try to resolve the LRA directly
+        // from the path segment, which is normally the uid, before falling back to parsing it as a URL
+        LongRunningAction transaction = lraService.lookupTransactionByUid(lraId);
+
+        if (transaction == null) {
+            transaction = lraService.getTransaction(toURI(lraId));
+        }
+
         LRAStatus status = transaction.getLRAStatus();
 
         if (status == null) {
@@ -215,10 +426,9 @@ public class Coordinator extends Application {
         }
 
         if (mediaType.equals(MediaType.APPLICATION_JSON)) {
-            JsonObject model = Json.createObjectBuilder().add("status", status.name()).build();
-
             return Response.ok()
-                    .entity(model)
+                    .entity(JSON_STATUS_ENTITIES.get(status))
+                    .type(MediaType.APPLICATION_JSON_TYPE)
                     .header(NARAYANA_LRA_API_VERSION_HEADER_NAME, version).build();
         }
 
@@ -286,8 +496,9 @@ public class Coordinator extends Application {
             @Parameter(ref = LRAConstants.NARAYANA_LRA_API_VERSION_HEADER_NAME) @HeaderParam(LRAConstants.NARAYANA_LRA_API_VERSION_HEADER_NAME) @DefaultValue(CURRENT_API_VERSION_STRING) String version) {
 
         URI parentId = (parentLRA == null || parentLRA.trim().isEmpty()) ? null : toURI(parentLRA);
-        String coordinatorUrl = String.format("%s%s", context.getBaseUri(), COORDINATOR_PATH_NAME);
-        LongRunningAction lra = lraService.startLRA(coordinatorUrl, parentId, clientId, timelimit);
+        String coordinatorUrl = String.format("%s%s", getBaseUri(), COORDINATOR_PATH_NAME);
+        LongRunningAction lra = admit(lraService.getAdmissionControl(),
+                () -> lraService.startLRA(coordinatorUrl, parentId, clientId, timelimit), true);
         URI lraId = lra.getId();
 
         if (parentId != null) {
@@ -468,6 +679,9 @@ public class Coordinator extends Application {
     @APIResponses({
             @APIResponse(responseCode = "200", description = "The complete message was sent to all coordinators", content = @Content(schema = @Schema(implementation = String.class)), headers = {
                     @Header(ref = LRAConstants.NARAYANA_LRA_API_VERSION_HEADER_NAME) }),
+            @APIResponse(responseCode = "202", description = "The request was accepted and the complete message will be sent to the participants in the background", content = @Content(schema = @Schema(implementation = String.class)), headers = {
+                    @Header(name = HttpHeaders.LOCATION, description = "The status resource of the LRA"),
+                    @Header(ref = LRAConstants.NARAYANA_LRA_API_VERSION_HEADER_NAME) }),
             @APIResponse(responseCode = "404", description = "The coordinator has no knowledge of this LRA", content = @Content(schema = @Schema(implementation = String.class)), headers = {
                     @Header(ref = LRAConstants.NARAYANA_LRA_API_VERSION_HEADER_NAME) }),
             @APIResponse(responseCode = "417", description = "The requested version provided in HTTP Header is not supported by this end point", content = @Content(schema = @Schema(implementation = String.class))),
@@ -477,20 +691,11 @@ public class Coordinator extends Application {
             @HeaderParam(HttpHeaders.ACCEPT) @DefaultValue(MediaType.TEXT_PLAIN) String mediaType,
             @Parameter(ref = LRAConstants.NARAYANA_LRA_API_VERSION_HEADER_NAME) @HeaderParam(LRAConstants.NARAYANA_LRA_API_VERSION_HEADER_NAME) @DefaultValue(CURRENT_API_VERSION_STRING) String version,
             @HeaderParam(LRAConstants.NARAYANA_LRA_PARTICIPANT_LINK_HEADER_NAME) @DefaultValue("") String compensator,
-            @HeaderParam(LRAConstants.NARAYANA_LRA_PARTICIPANT_DATA_HEADER_NAME) @DefaultValue("") String userData) {
-
-        try {
-            LRAData lraData = lraService.endLRA(toURI(lraId), false, false, compensator, userData);
+            @HeaderParam(LRAConstants.NARAYANA_LRA_PARTICIPANT_DATA_HEADER_NAME) @DefaultValue("") String userData,
+            @Parameter(name = PREFER_HEADER_NAME, description = "Use the " + RESPOND_ASYNC_PREFERENCE + " preference to have"
+                    + " the participants completed in the background") @HeaderParam(PREFER_HEADER_NAME) @DefaultValue("") String prefer) {
 
-            return buildResponse(lraData.getStatus().name(), version, mediaType);
-        } catch (WebApplicationException e) {
-            LRALogger.logger.debug(e.getMessage());
-            // catch it otherwise the caller just sees a generic message corresponding to e.getResponse().getStatus()
-            // eg for a 503 it would be "Service Unavailable"
-            // and if we throw new WebApplicationException(e.getMessage(), e);
-            // then the caller sees the generic 500 Internal Server Error code rather than the specific 503 code
-            return Response.status(e.getResponse().getStatus()).entity(e.getMessage()).build();
-        }
+        return endLRA(lraId, false, mediaType, version, compensator, userData, prefer);
     }
 
     @PUT
@@ -503,6 +708,9 @@ public class Coordinator extends Application {
     @APIResponses({
             @APIResponse(responseCode = "200", description = "The compensate message was sent to all coordinators", content = @Content(schema = @Schema(implementation = String.class)), headers = {
                     @Header(ref = LRAConstants.NARAYANA_LRA_API_VERSION_HEADER_NAME) }),
+            @APIResponse(responseCode = "202", description = "The request was accepted and the compensate message will be sent to the participants in the background", content = @Content(schema = @Schema(implementation = String.class)), headers = {
+                    @Header(name = HttpHeaders.LOCATION, description = "The status resource of the LRA"),
+                    @Header(ref = LRAConstants.NARAYANA_LRA_API_VERSION_HEADER_NAME) }),
             @APIResponse(responseCode = "404", description = "The coordinator has no knowledge of this LRA", content = @Content(schema = @Schema(implementation = String.class)), headers = {
                     @Header(ref = LRAConstants.NARAYANA_LRA_API_VERSION_HEADER_NAME) }),
             @APIResponse(responseCode = "417", description = "The requested version provided in HTTP Header is not supported by this end point", content = @Content(schema = @Schema(implementation = String.class))),
@@ -512,14 +720,36 @@ public class Coordinator extends Application {
             @HeaderParam(HttpHeaders.ACCEPT) @DefaultValue(MediaType.TEXT_PLAIN) String mediaType,
             @Parameter(ref = LRAConstants.NARAYANA_LRA_API_VERSION_HEADER_NAME) @HeaderParam(LRAConstants.NARAYANA_LRA_API_VERSION_HEADER_NAME) @DefaultValue(CURRENT_API_VERSION_STRING) String version,
             @HeaderParam(LRAConstants.NARAYANA_LRA_PARTICIPANT_LINK_HEADER_NAME) @DefaultValue("") String compensator,
-            @HeaderParam(LRAConstants.NARAYANA_LRA_PARTICIPANT_DATA_HEADER_NAME) @DefaultValue("") String userData) {
+            @HeaderParam(LRAConstants.NARAYANA_LRA_PARTICIPANT_DATA_HEADER_NAME) @DefaultValue("") String userData,
+            @Parameter(name = PREFER_HEADER_NAME, description = "Use the " + RESPOND_ASYNC_PREFERENCE + " preference to have"
+                    + " the participants compensated in the background") @HeaderParam(PREFER_HEADER_NAME) @DefaultValue("") String prefer) {
 
-        LRAData lraData = lraService.endLRA(toURI(lraId), true, false, compensator, userData);
+        return endLRA(lraId, true, mediaType, version, compensator, userData, prefer);
+    }
 
+    private Response endLRA(String lraId, boolean cancel, String mediaType, String version, String compensator,
+            String userData, String prefer) {
         try {
+            if (isRespondAsync(prefer)) {
+                return buildAcceptedResponse(
+                        admit(lraService.getEndAdmissionControl(),
+                                () -> lraService.endLRAAsync(toURI(lraId), cancel, compensator, userData), true),
+                        version, mediaType);
+            }
+
+            // ending also waits for the participants so its latency says little about the load on the coordinator
+            LRAData lraData = admit(lraService.getEndAdmissionControl(),
+                    () -> lraService.endLRA(toURI(lraId), cancel, false, compensator, userData), false);
+
             return buildResponse(lraData.getStatus().name(), version, mediaType);
-        } catch (NotFoundException e) {
-            return Response.status(e.getResponse().getStatus()).entity(e.getMessage()).build();
+        } catch (WebApplicationException e) {
+            LRALogger.logger.debug(e.getMessage());
+            // catch it otherwise the caller just sees a generic message corresponding to e.getResponse().getStatus()
+            // eg for a 503 it would be "Service Unavailable"
+            // and if we throw new WebApplicationException(e.getMessage(), e);
+            // then the caller sees the generic 500 Internal Server Error code rather than the specific 503 code
+            // (the headers, such as Retry-After, are kept)
+            return Response.fromResponse(e.getResponse()).entity(e.getMessage()).build();
         }
     }
 
@@ -571,7 +801,7 @@ public class Coordinator extends Application {
         }
 
         // test to see if the compensator endpoints are in the body of the join request
-        boolean isLink = isLink(compensatorURL);
+        boolean isLink = LinkHeader.isLink(compensatorURL);
 
         if (compensatorLink != null && !compensatorLink.isEmpty()) {
             StringBuilder sb = new StringBuilder();
@@ -590,12 +820,12 @@ public class Coordinator extends Application {
             // is deprecated (see issue JBTM-1488 Implement the REST-JDI specification)
             compensatorURL += "/";
 
-            Map<String, String> terminateURIs = new HashMap<>();
+            LinkHeader.Builder linkHeaderValue = LinkHeader.builder();
 
             try {
-                terminateURIs.put(COMPENSATE, new URL(compensatorURL + "compensate").toExternalForm());
-                terminateURIs.put(COMPLETE, new URL(compensatorURL + "complete").toExternalForm());
-                terminateURIs.put(STATUS, new URL(compensatorURL + "status").toExternalForm());
+                linkHeaderValue.link(COMPENSATE, new URL(compensatorURL + "compensate").toExternalForm())
+                        .link(COMPLETE, new URL(compensatorURL + "complete").toExternalForm())
+                        .link(STATUS, new URL(compensatorURL + "status").toExternalForm());
             } catch (MalformedURLException e) {
                 String errorMsg = String.format("Cannot join to LRA id '%s' with body as compensator url '%s' is invalid",
                         lraId, compensatorURL);
@@ -609,58 +839,27 @@ public class Coordinator extends Application {
                         .build();
             }
 
-            // register with the coordinator, put the lra id in an HTTP header
-            StringBuilder linkHeaderValue = new StringBuilder();
-
-            terminateURIs.forEach((k, v) -> makeLink(linkHeaderValue, k, v)); // or use Collectors.joining(",")
-
             compensatorURL = linkHeaderValue.toString();
         }
 
         return joinLRA(toURI(lraId), mediaType, timeLimit, compensatorURL, null, version);
     }
 
-    private static void makeLink(StringBuilder b, String key, String value) {
-
-        if (value != null) {
-
-            Link link = Link.fromUri(value).rel(key).type(MediaType.TEXT_PLAIN).build();
-
-            if (b.length() != 0) {
-                b.append(',');
-            }
-
-            b.append(link);
-        }
-    }
-
-    private boolean isLink(String linkString) {
-        try {
-            Link.valueOf(linkString);
-
-            return true;
-        } catch (IllegalArgumentException e) {
-            return false;
-        }
-    }
 
     private Response joinLRA(URI lraId, String acceptMediaType, long timeLimit, String linkHeader,
-            StringBuilder userData, String version) {
+            StringBuilder participantData, String version) {
         final String recoveryUrlBase = String.format("%s%s/%s",
-                context.getBaseUri().toASCIIString(), COORDINATOR_PATH_NAME, RECOVERY_COORDINATOR_PATH_NAME);
-
-        if (userData == null) {
-            userData = new StringBuilder();
-        }
-
+                getBaseUri().toASCIIString(), COORDINATOR_PATH_NAME, RECOVERY_COORDINATOR_PATH_NAME);
+        StringBuilder userData = participantData == null ? new StringBuilder() : participantData;
         StringBuilder recoveryUrl = new StringBuilder();
         String recoveryUrlValue;
         int status;
 
         try {
-            status = lraService.joinLRA(recoveryUrl, lraId, timeLimit, null, linkHeader, recoveryUrlBase, userData, version);
+            status = admit(lraService.getAdmissionControl(), () -> lraService.joinLRA(recoveryUrl, lraId, timeLimit, null,
+                    linkHeader, recoveryUrlBase, userData, version), true);
         } catch (ServiceUnavailableException e) {
-            return Response.status(Response.Status.SERVICE_UNAVAILABLE.getStatusCode()).entity(e.getMessage()).build();
+            return Response.fromResponse(e.getResponse()).entity(e.getMessage()).build();
         }
 
         if (acceptMediaType.equals(MediaType.APPLICATION_JSON)) {
@@ -716,6 +915,69 @@ public class Coordinator extends Application {
                 .build();
     }
 
+    /*
+     * Run a start, join or end request if the coordinator is not overloaded. Rejected requests, and requests that
+     * could not get the LRA lock or write the object store in time, fail with 503 Service Unavailable and a
+     * Retry-After header so that callers back off rather than retrying immediately.
+     */
+    private <T> T admit(AdmissionControl admission, Supplier<T> request, boolean sampleLatency) {
+        if (!admission.tryAcquire()) {
+            String reason = LRALogger.i18nLogger.warn_coordinatorOverloaded(admission.getRetryAfter());
+
+            LRALogger.logger.debug(reason);
+            throw serviceUnavailable(reason, admission.getRetryAfter());
+        }
+
+        long start = System.nanoTime();
+
+        try {
+            return request.get();
+        } catch (WebApplicationException e) {
+            if (e.getResponse() == null || e.getResponse().getStatus() != SERVICE_UNAVAILABLE.getStatusCode()) {
+                throw e;
+            }
+
+            throw serviceUnavailable(e.getMessage(), admission.getRetryAfter());
+        } finally {
+            admission.release(sampleLatency ? System.nanoTime() - start : -1L);
+        }
+    }
+
+    private static ServiceUnavailableException serviceUnavailable(String reason, long retryAfter) {
+        return new ServiceUnavailableException(reason, Response.status(SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, retryAfter)
+                .entity(reason)
+                .build());
+    }
+
+    // whether the Prefer header (RFC 7240) asks for the request to be processed asynchronously
+    private static boolean isRespondAsync(String prefer) {
+        if (prefer == null || prefer.isEmpty()) {
+            return false;
+        }
+
+        for (String preference : prefer.split(",")) {
+            if (preference.trim().equalsIgnoreCase(RESPOND_ASYNC_PREFERENCE)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private Response buildAcceptedResponse(LRAData lraData, String apiVersion, String mediaType) {
+        String status = lraData.getStatus().name();
+        Object entity = mediaType.equals(MediaType.APPLICATION_JSON)
+                ? Json.createObjectBuilder().add("status", status).build().toString()
+                : status;
+
+        return Response.accepted(entity)
+                .location(UriBuilder.fromUri(lraData.getLraId()).replaceQuery(null).path(STATUS).build())
+                .header(PREFERENCE_APPLIED_HEADER_NAME, RESPOND_ASYNC_PREFERENCE)
+                .header(NARAYANA_LRA_API_VERSION_HEADER_NAME, apiVersion)
+                .build();
+    }
+
     private Response buildResponse(String status, String apiVersion, String mediaType) {
         if (mediaType.equals(MediaType.APPLICATION_JSON)) {
             JsonObject model = Json.createObjectBuilder()
@@ -732,6 +994,10 @@ public class Coordinator extends Application {
         }
     }
 
+    private URI getBaseUri() {
+        return baseUri != null ? baseUri : context.getBaseUri();
+    }
+
     private URI toURI(String lraId) {
         URL url;
         // needed to decode string passed from clients
@@ -743,7 +1009,7 @@ public class Coordinator extends Application {
             url.toURI();
         } catch (Exception e) {
             try {
-                url = new URL(String.format("%s%s/%s", context.getBaseUri(), COORDINATOR_PATH_NAME, lraId));
+                url = new URL(String.format("%s%s/%s", getBaseUri(), COORDINATOR_PATH_NAME, lraId));
             } catch (MalformedURLException e1) {
                 String errMsg = LRALogger.i18nLogger.error_invalidStringFormatOfUrl(lraId, e1);
                 LRALogger.logger.error(errMsg);
@@ -5,6 +5,7 @@
 
 package io.narayana.lra.coordinator.api;
 
+import static io.narayana.lra.LRAConstants.COORDINATOR_PATH_NAME;
 import static io.narayana.lra.LRAConstants.CURRENT_API_VERSION_STRING;
 import static jakarta.ws.rs.core.Response.Status.PRECONDITION_FAILED;
 import static org.eclipse.microprofile.lra.annotation.ws.rs.LRA.LRA_HTTP_CONTEXT_HEADER;
@@ -12,20 +13,31 @@ import static org.eclipse.microprofile.lra.annotation.ws.rs.LRA.LRA_HTTP_CONTEXT
 import io.narayana.lra.Current;
 import io.narayana.lra.LRAConstants;
 import io.narayana.lra.logging.LRALogger;
+import io.narayana.lra.tracing.TracedRequest;
+import io.narayana.lra.tracing.Tracing;
 import jakarta.ws.rs.WebApplicationException;
 import jakarta.ws.rs.container.ContainerRequestContext;
 import jakarta.ws.rs.container.ContainerRequestFilter;
 import jakarta.ws.rs.container.ContainerResponseContext;
 import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.container.ResourceInfo;
+import jakarta.ws.rs.core.Context;
 import jakarta.ws.rs.core.MultivaluedMap;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.ext.Provider;
 import java.io.IOException;
+import java.lang.reflect.Method;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
 
 @Provider
 public class CoordinatorContainerFilter implements ContainerRequestFilter, ContainerResponseFilter {
+    private static final String SPAN_PROP = CoordinatorContainerFilter.class.getName() + ".span";
+
+    @Context
+    private ResourceInfo resourceInfo;
 
     @Override
     public void filter(ContainerRequestContext requestContext) throws IOException {
@@ -56,6 +68,8 @@ public class CoordinatorContainerFilter implements ContainerRequestFilter, Conta
         if (lraId != null) {
             Current.updateLRAContext(lraId, headers);
         }
+
+        requestContext.setProperty(SPAN_PROP, startSpan(requestContext));
     }
 
     @Override
@@ -70,5 +84,59 @@ public class CoordinatorContainerFilter implements ContainerRequestFilter, Conta
         }
 
         Current.updateLRAContext(responseContext);
+
+        Object request = requestContext.getProperty(SPAN_PROP);
+
+        if (request instanceof TracedRequest) {
+            endSpan((TracedRequest) request, requestContext, responseContext);
+        }
+    }
+
+    // the span of the request, the spans of the participants that the coordinator calls while handling it are its children
+    private TracedRequest startSpan(ContainerRequestContext requestContext) {
+        Method method = resourceInfo == null ? null : resourceInfo.getResourceMethod();
+        String name = method == null
+                ? requestContext.getMethod() + " " + requestContext.getUriInfo().getPath()
+                : method.getDeclaringClass().getSimpleName() + "." + method.getName();
+
+        return TracedRequest.start("LRA " + name, Tracing.COORDINATOR, requestContext);
+    }
+
+    private void endSpan(TracedRequest request, ContainerRequestContext requestContext,
+            ContainerResponseContext responseContext) {
+        if (request.getSpan().isRecording()) {
+            MultivaluedMap<String, String> pathParameters = requestContext.getUriInfo().getPathParameters();
+            URI lraId = toLRAId(requestContext, pathParameters.getFirst("LraId"));
+
+            if (lraId == null) {
+                lraId = toLRAId(requestContext, pathParameters.getFirst("NestedLraId"));
+            }
+
+            if (lraId == null && responseContext.getStatus() == Response.Status.CREATED.getStatusCode()) {
+                lraId = responseContext.getLocation(); // a new LRA
+            }
+
+            Tracing.setLRA(request.getSpan(), lraId);
+        }
+
+        request.end(responseContext.getStatus());
+    }
+
+    // the coordinator accepts either the uid of an LRA or its id, see Coordinator#toURI
+    private static URI toLRAId(ContainerRequestContext requestContext, String lraId) {
+        if (lraId == null) {
+            return null;
+        }
+
+        String decoded = URLDecoder.decode(lraId, StandardCharsets.UTF_8);
+
+        try {
+            URI uri = new URI(decoded);
+
+            return uri.isAbsolute() ? uri
+                    : requestContext.getUriInfo().getBaseUri().resolve(COORDINATOR_PATH_NAME + "/" + lraId);
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            return null;
+        }
     }
 }
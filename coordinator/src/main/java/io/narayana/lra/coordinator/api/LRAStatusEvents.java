@@ -0,0 +1,178 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.lra.coordinator.api;
+
+import static io.narayana.lra.LRAConstants.STATUS_EVENT_NAME;
+import static io.narayana.lra.LRAConstants.UNKNOWN_LRA_EVENT_NAME;
+
+import io.narayana.lra.coordinator.domain.model.LongRunningAction;
+import io.narayana.lra.coordinator.domain.service.LRAService;
+import io.narayana.lra.coordinator.domain.service.LRAStatusListener;
+import io.narayana.lra.logging.LRALogger;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.sse.Sse;
+import jakarta.ws.rs.sse.SseEventSink;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.eclipse.microprofile.lra.annotation.LRAStatus;
+
+/**
+ * Pushes LRA status transitions to server-sent event subscribers.
+ * A subscription either watches a fixed set of LRAs, in which case it is completed once every one of them
+ * has reached a terminal state, or it watches every LRA matching a status and/or client id filter, in which
+ * case it remains open until the subscriber disconnects.
+ * The hub only listens to the {@link LRAService} while it has subscribers so that a coordinator resource which
+ * is discarded after serving a request does not leave a listener behind.
+ */
+class LRAStatusEvents implements LRAStatusListener {
+    private final LRAService lraService;
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private boolean registered; // guarded by this
+
+    LRAStatusEvents(LRAService lraService) {
+        this.lraService = lraService;
+    }
+
+    /**
+     * Register a new subscriber. If the subscription names specific LRAs then their current status is sent
+     * straight away so that the subscriber does not miss transitions that happened before it subscribed.
+     *
+     * @param sink where to send the events
+     * @param sse the factory for building events
+     * @param uids the uids of the LRAs to watch or null to watch every LRA matching the filters
+     * @param status if not null only transitions to this status are sent
+     * @param clientId if not null only transitions of LRAs started with this client id are sent
+     */
+    void subscribe(SseEventSink sink, Sse sse, Set<String> uids, LRAStatus status, String clientId) {
+        Subscription subscription = new Subscription(sink, sse, uids, status, clientId);
+
+        add(subscription);
+
+        if (uids != null) {
+            for (String uid : uids) {
+                LongRunningAction lra = lraService.lookupTransactionByUid(uid);
+
+                if (lra == null) {
+                    subscription.send(UNKNOWN_LRA_EVENT_NAME, uid, "");
+                    subscription.done(uid);
+                } else {
+                    LRAStatus current = lra.getLRAStatus() == null ? LRAStatus.Active : lra.getLRAStatus();
+
+                    subscription.send(STATUS_EVENT_NAME, lra.getId().toASCIIString(), current.name());
+
+                    if (isTerminal(current)) {
+                        subscription.done(uid);
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public void statusChanged(LongRunningAction lra, LRAStatus previous, LRAStatus next) {
+        if (next == null || subscriptions.isEmpty()) {
+            return;
+        }
+
+        String uid = LRAService.uidOf(lra);
+
+        for (Subscription subscription : subscriptions) {
+            if (subscription.sink.isClosed()) {
+                remove(subscription);
+            } else if (subscription.matches(uid, lra, next)) {
+                subscription.send(STATUS_EVENT_NAME, lra.getId().toASCIIString(), next.name());
+
+                if (subscription.uids != null && isTerminal(next)) {
+                    subscription.done(uid);
+                }
+            }
+        }
+    }
+
+    private synchronized void add(Subscription subscription) {
+        subscriptions.add(subscription);
+
+        if (!registered) {
+            // only pay for notifications while somebody is interested
+            lraService.addStatusListener(this);
+            registered = true;
+        }
+    }
+
+    private synchronized void remove(Subscription subscription) {
+        if (subscriptions.remove(subscription) && subscriptions.isEmpty() && registered) {
+            lraService.removeStatusListener(this);
+            registered = false;
+        }
+    }
+
+    static boolean isTerminal(LRAStatus status) {
+        return status == LRAStatus.Closed || status == LRAStatus.Cancelled
+                || status == LRAStatus.FailedToClose || status == LRAStatus.FailedToCancel;
+    }
+
+    private class Subscription {
+        private final SseEventSink sink;
+        private final Sse sse;
+        private final Set<String> uids;
+        private final Set<String> pending; // the watched LRAs which have not yet reached a terminal state
+        private final LRAStatus status;
+        private final String clientId;
+
+        Subscription(SseEventSink sink, Sse sse, Set<String> uids, LRAStatus status, String clientId) {
+            this.sink = sink;
+            this.sse = sse;
+            this.uids = uids;
+            this.pending = uids == null ? null : ConcurrentHashMap.newKeySet();
+            this.status = status;
+            this.clientId = clientId;
+
+            if (pending != null) {
+                pending.addAll(uids);
+            }
+        }
+
+        boolean matches(String uid, LongRunningAction lra, LRAStatus next) {
+            return (uids == null || uids.contains(uid))
+                    && (status == null || status == next)
+                    && (clientId == null || clientId.equals(lra.getClientId()));
+        }
+
+        void send(String name, String lraId, String data) {
+            if (sink.isClosed()) {
+                remove(this);
+                return;
+            }
+
+            sink.send(sse.newEventBuilder()
+                    .name(name)
+                    .id(lraId)
+                    .mediaType(MediaType.TEXT_PLAIN_TYPE)
+                    .data(data)
+                    .build())
+                    .exceptionally(e -> {
+                        if (LRALogger.logger.isDebugEnabled()) {
+                            LRALogger.logger.debugf("closing LRA status subscription: %s", e.getMessage());
+                        }
+
+                        close();
+                        return null;
+                    });
+        }
+
+        // the LRA with the given uid needs no further events
+        void done(String uid) {
+            if (pending.remove(uid) && pending.isEmpty()) {
+                close();
+            }
+        }
+
+        void close() {
+            remove(this);
+            sink.close();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.lra.coordinator.api;
+
+import static io.narayana.lra.LRAConstants.COORDINATOR_PATH_NAME;
+
+import com.arjuna.ats.arjuna.recovery.RecoveryManager;
+import io.narayana.lra.client.CoordinatorClient;
+import io.narayana.lra.client.LocalCoordinatorProvider;
+import io.narayana.lra.coordinator.internal.Implementations;
+import io.narayana.lra.coordinator.internal.LRARecoveryModule;
+import java.net.URI;
+
+/**
+ * Embeds the coordinator in the JVM of a {@link io.narayana.lra.client.NarayanaLRAClient} that is configured with
+ * a {@value LocalCoordinatorProvider#LOCAL_SCHEME} coordinator url. The embedded coordinator shares the
+ * {@link io.narayana.lra.coordinator.domain.service.LRAService}, object store and recovery with a REST coordinator
+ * deployed in the same JVM, so the LRA ids that it creates are resolvable by remote participants provided that
+ * the REST coordinator is published at the configured url.
+ */
+public class LocalCoordinator implements LocalCoordinatorProvider {
+    @Override
+    public CoordinatorClient getCoordinatorClient(URI coordinatorUrl) {
+        String url = coordinatorUrl.toASCIIString();
+        int path = url.lastIndexOf(COORDINATOR_PATH_NAME);
+
+        if (path < 0) {
+            throw new IllegalArgumentException(
+                    String.format("The coordinator url %s does not end with %s", url, COORDINATOR_PATH_NAME));
+        }
+
+        // start recovery as the AppContextListener would in case the REST coordinator is not deployed
+        Implementations.install();
+        RecoveryManager.manager();
+        LRARecoveryModule.getInstance().startUp();
+
+        // the coordinator forms its urls by appending the coordinator path to the base uri
+        return new LocalCoordinatorClient(new Coordinator(URI.create(url.substring(0, path))));
+    }
+}
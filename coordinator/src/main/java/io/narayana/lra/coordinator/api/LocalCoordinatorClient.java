@@ -0,0 +1,148 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.lra.coordinator.api;
+
+import static io.narayana.lra.LRAConstants.CURRENT_API_VERSION_STRING;
+
+import io.narayana.lra.Current;
+import io.narayana.lra.LRAContext;
+import io.narayana.lra.client.CoordinatorClient;
+import jakarta.ws.rs.ClientErrorException;
+import jakarta.ws.rs.ServerErrorException;
+import jakarta.ws.rs.ServiceUnavailableException;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
+
+/**
+ * A {@link CoordinatorClient} that calls the methods of a {@link Coordinator} directly instead of making HTTP
+ * requests. The parameters that JAX-RS would default are defaulted here and error responses complete the returned
+ * stage exceptionally, as they would with the MicroProfile REST client.
+ */
+final class LocalCoordinatorClient implements CoordinatorClient {
+    private final Coordinator coordinator;
+
+    LocalCoordinatorClient(Coordinator coordinator) {
+        this.coordinator = coordinator;
+    }
+
+    @Override
+    public CompletionStage<Response> getAllLRAs(String status, String clientId, int limit, String cursor,
+            String accept, String version) {
+        return invoke(() -> coordinator.getAllLRAs(orEmpty(status), orEmpty(clientId), limit, orEmpty(cursor),
+                accept(accept), version(version)));
+    }
+
+    @Override
+    public CompletionStage<Response> getLRAStatus(String lraId, String accept, String version) {
+        return invoke(() -> coordinator.getLRAStatus(lraId, accept(accept), version(version)));
+    }
+
+    @Override
+    public CompletionStage<Response> getLRAInfo(String lraId, String accept, String version) {
+        return invoke(() -> coordinator.getLRAInfo(lraId, accept(accept), version(version)));
+    }
+
+    @Override
+    public CompletionStage<Response> startLRA(String clientId, Long timeLimit, String parentLRA, String accept,
+            String version) {
+        return invoke(() -> coordinator.startLRA(orEmpty(clientId), timeLimit == null ? 0L : timeLimit,
+                orEmpty(parentLRA), accept(accept), version(version)));
+    }
+
+    @Override
+    public CompletionStage<Response> renewTimeLimit(String lraId, Long timeLimit, String version) {
+        return invoke(() -> coordinator.renewTimeLimit(lraId, timeLimit == null ? 0L : timeLimit, version(version)));
+    }
+
+    @Override
+    public CompletionStage<Response> joinLRA(String lraId, long timeLimit, String compensatorLink, String accept,
+            String version, String participantData, String compensatorBody) {
+        return invoke(() -> coordinator.joinLRAViaBody(lraId, timeLimit, orEmpty(compensatorLink), accept(accept),
+                version(version), orEmpty(participantData), compensatorBody));
+    }
+
+    @Override
+    public CompletionStage<Response> leaveLRA(String lraId, String accept, String version,
+            String participantCompensatorUrl) {
+        return invoke(() -> coordinator.leaveLRA(lraId, accept(accept), version(version), participantCompensatorUrl));
+    }
+
+    @Override
+    public CompletionStage<Response> closeLRA(String lraId, String accept, String version, String compensator,
+            String userData, String prefer) {
+        return invoke(() -> coordinator.closeLRA(lraId, accept(accept), version(version), orEmpty(compensator),
+                orEmpty(userData), orEmpty(prefer)));
+    }
+
+    @Override
+    public CompletionStage<Response> cancelLRA(String lraId, String accept, String version, String compensator,
+            String userData, String prefer) {
+        return invoke(() -> coordinator.cancelLRA(lraId, accept(accept), version(version), orEmpty(compensator),
+                orEmpty(userData), orEmpty(prefer)));
+    }
+
+    @Override
+    public CompletionStage<Response> getNestedLRAStatus(String nestedLraId) {
+        return invoke(() -> coordinator.getNestedLRAStatus(nestedLraId));
+    }
+
+    @Override
+    public CompletionStage<Response> completeNestedLRA(String nestedLraId, String accept, String version) {
+        return invoke(() -> coordinator.completeNestedLRA(nestedLraId, accept(accept), version(version)));
+    }
+
+    @Override
+    public CompletionStage<Response> compensateNestedLRA(String nestedLraId, String accept, String version) {
+        return invoke(() -> coordinator.compensateNestedLRA(nestedLraId, accept(accept), version(version)));
+    }
+
+    @Override
+    public CompletionStage<Response> forgetNestedLRA(String nestedLraId) {
+        return invoke(() -> coordinator.forgetNestedLRA(nestedLraId));
+    }
+
+    private static CompletionStage<Response> invoke(Supplier<Response> request) {
+        // a coordinator request does not see the LRA context of the client so detach it for the duration of the call
+        LRAContext callerContext = Current.attach(null);
+        Response response;
+
+        try {
+            response = new LocalResponse(request.get());
+        } catch (WebApplicationException e) {
+            response = new LocalResponse(e.getResponse());
+        } finally {
+            Current.attach(callerContext);
+        }
+
+        int status = response.getStatus();
+
+        if (status < 400) {
+            return CompletableFuture.completedFuture(response);
+        } else if (status == Response.Status.SERVICE_UNAVAILABLE.getStatusCode()) {
+            return CompletableFuture.failedFuture(new ServiceUnavailableException(response));
+        } else if (status < 500) {
+            return CompletableFuture.failedFuture(new ClientErrorException(response));
+        } else {
+            return CompletableFuture.failedFuture(new ServerErrorException(response));
+        }
+    }
+
+    private static String orEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    private static String accept(String mediaType) {
+        return mediaType == null ? MediaType.TEXT_PLAIN : mediaType;
+    }
+
+    private static String version(String version) {
+        return version == null ? CURRENT_API_VERSION_STRING : version;
+    }
+}
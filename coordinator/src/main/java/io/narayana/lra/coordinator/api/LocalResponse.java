@@ -0,0 +1,225 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.lra.coordinator.api;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.json.JsonValue;
+import jakarta.ws.rs.ProcessingException;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.GenericType;
+import jakarta.ws.rs.core.Link;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.core.NewCookie;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A response of the embedded coordinator as the client would read it. A response built on the server side cannot
+ * be read, so this one reads its entity by converting it to the requested type: entities of the requested type are
+ * returned as they are and anything else is converted via its text (or JSON) representation.
+ */
+final class LocalResponse extends Response {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final Response response;
+
+    LocalResponse(Response response) {
+        this.response = response;
+    }
+
+    @Override
+    public int getStatus() {
+        return response.getStatus();
+    }
+
+    @Override
+    public StatusType getStatusInfo() {
+        return response.getStatusInfo();
+    }
+
+    @Override
+    public Object getEntity() {
+        return response.getEntity();
+    }
+
+    @Override
+    public <T> T readEntity(Class<T> entityType) {
+        Object entity = response.getEntity();
+
+        if (entity == null || entityType.isInstance(entity)) {
+            return entityType.cast(entity);
+        }
+
+        String text = toText(entity);
+
+        if (entityType == String.class) {
+            return entityType.cast(text);
+        }
+
+        try {
+            return MAPPER.readValue(text, entityType);
+        } catch (JsonProcessingException e) {
+            throw new ProcessingException(e);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T readEntity(GenericType<T> entityType) {
+        Object entity = response.getEntity();
+
+        if (entity == null || entityType.getRawType().isInstance(entity)) {
+            return (T) entity;
+        }
+
+        try {
+            return MAPPER.readValue(toText(entity), MAPPER.constructType(entityType.getType()));
+        } catch (JsonProcessingException e) {
+            throw new ProcessingException(e);
+        }
+    }
+
+    @Override
+    public <T> T readEntity(Class<T> entityType, Annotation[] annotations) {
+        return readEntity(entityType);
+    }
+
+    @Override
+    public <T> T readEntity(GenericType<T> entityType, Annotation[] annotations) {
+        return readEntity(entityType);
+    }
+
+    @Override
+    public boolean hasEntity() {
+        return response.hasEntity();
+    }
+
+    @Override
+    public boolean bufferEntity() {
+        return false; // the entity is already in memory
+    }
+
+    @Override
+    public void close() {
+        response.close();
+    }
+
+    @Override
+    public MediaType getMediaType() {
+        return response.getMediaType();
+    }
+
+    @Override
+    public Locale getLanguage() {
+        return response.getLanguage();
+    }
+
+    @Override
+    public int getLength() {
+        return response.getLength();
+    }
+
+    @Override
+    public Set<String> getAllowedMethods() {
+        return response.getAllowedMethods();
+    }
+
+    @Override
+    public Map<String, NewCookie> getCookies() {
+        return response.getCookies();
+    }
+
+    @Override
+    public EntityTag getEntityTag() {
+        return response.getEntityTag();
+    }
+
+    @Override
+    public Date getDate() {
+        return response.getDate();
+    }
+
+    @Override
+    public Date getLastModified() {
+        return response.getLastModified();
+    }
+
+    @Override
+    public URI getLocation() {
+        return response.getLocation();
+    }
+
+    @Override
+    public Set<Link> getLinks() {
+        return response.getLinks();
+    }
+
+    @Override
+    public boolean hasLink(String relation) {
+        return response.hasLink(relation);
+    }
+
+    @Override
+    public Link getLink(String relation) {
+        return response.getLink(relation);
+    }
+
+    @Override
+    public Link.Builder getLinkBuilder(String relation) {
+        return response.getLinkBuilder(relation);
+    }
+
+    @Override
+    public MultivaluedMap<String, Object> getMetadata() {
+        return response.getMetadata();
+    }
+
+    @Override
+    public MultivaluedMap<String, String> getStringHeaders() {
+        return response.getStringHeaders();
+    }
+
+    @Override
+    public String getHeaderString(String name) {
+        return response.getHeaderString(name);
+    }
+
+    // the representation of the entity that the coordinator would have written to the HTTP response
+    private static String toText(Object entity) {
+        if (entity instanceof String) {
+            return (String) entity;
+        } else if (entity instanceof Enum) {
+            return ((Enum<?>) entity).name();
+        } else if (entity instanceof JsonValue) {
+            return entity.toString();
+        }
+
+        try {
+            if (entity instanceof StreamingOutput) {
+                ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+                ((StreamingOutput) entity).write(output);
+
+                return output.toString(StandardCharsets.UTF_8);
+            }
+
+            return MAPPER.writeValueAsString(entity);
+        } catch (IOException e) {
+            throw new ProcessingException(e);
+        }
+    }
+}
@@ -5,26 +5,36 @@
 
 package io.narayana.lra.coordinator.api;
 
+import static io.narayana.lra.LRAConstants.CURRENT_API_VERSION_STRING;
+import static io.narayana.lra.LRAConstants.CURSOR_PARAM_NAME;
+import static io.narayana.lra.LRAConstants.LIMIT_PARAM_NAME;
+import static io.narayana.lra.LRAConstants.NARAYANA_LRA_NEXT_CURSOR_HEADER_NAME;
+import static io.narayana.lra.LRAConstants.STATUS;
 import static jakarta.ws.rs.core.Response.Status.BAD_REQUEST;
 import static jakarta.ws.rs.core.Response.Status.INTERNAL_SERVER_ERROR;
 import static jakarta.ws.rs.core.Response.Status.NOT_FOUND;
 import static jakarta.ws.rs.core.Response.Status.PRECONDITION_FAILED;
 
+import io.narayana.lra.LRAConstants;
 import io.narayana.lra.LRAData;
 import io.narayana.lra.coordinator.domain.model.LongRunningAction;
 import io.narayana.lra.coordinator.domain.service.LRAService;
 import io.narayana.lra.coordinator.internal.LRARecoveryModule;
 import io.narayana.lra.logging.LRALogger;
+import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.DELETE;
+import jakarta.ws.rs.DefaultValue;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.NotFoundException;
 import jakarta.ws.rs.PUT;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
 import jakarta.ws.rs.ServiceUnavailableException;
 import jakarta.ws.rs.WebApplicationException;
 import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.Link;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.UriInfo;
@@ -32,11 +42,14 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
 import org.eclipse.microprofile.lra.annotation.LRAStatus;
+import org.eclipse.microprofile.lra.annotation.ParticipantStatus;
 import org.eclipse.microprofile.openapi.annotations.Operation;
 import org.eclipse.microprofile.openapi.annotations.enums.SchemaType;
+import org.eclipse.microprofile.openapi.annotations.headers.Header;
 import org.eclipse.microprofile.openapi.annotations.media.Content;
 import org.eclipse.microprofile.openapi.annotations.media.Schema;
 import org.eclipse.microprofile.openapi.annotations.parameters.Parameter;
+import org.eclipse.microprofile.openapi.annotations.parameters.RequestBody;
 import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
 import org.eclipse.microprofile.openapi.annotations.responses.APIResponses;
 import org.eclipse.microprofile.openapi.annotations.tags.Tag;
@@ -127,6 +140,37 @@ public class RecoveryCoordinator {
                 .build());
     }
 
+    // Performing a PUT on <recovery URL>/status reports the outcome of a participant that finished asynchronously
+    @PUT
+    @Path("{LRAId}/{RecCoordId}/" + STATUS)
+    @Consumes(MediaType.TEXT_PLAIN)
+    @Operation(summary = "Report that a participant has finished", description = "A participant that responded to a "
+            + "complete or compensate request with 202 Accepted performs a PUT on this resource when it has finished, "
+            + "so that the coordinator records the outcome immediately rather than polling the participant status")
+    @APIResponses({
+            @APIResponse(responseCode = "400", description = "The status is not a valid participant status"),
+            @APIResponse(responseCode = "404", description = "The coordinator has no knowledge of this participant"),
+            @APIResponse(responseCode = "412", description = "The participant was not finishing asynchronously or "
+                    + "the status does not match the request that it accepted"),
+            @APIResponse(responseCode = "200", description = "The coordinator has recorded the outcome")
+    })
+    public Response participantEnded(
+            @Parameter(name = "LRAId", description = "Identifies the LRAId that the participant joined", required = true) @PathParam("LRAId") String lraId,
+            @Parameter(name = "RecCoordId", description = "An identifier that was returned by the coordinator when a participant joined the LRA", required = true) @PathParam("RecCoordId") String rcvCoordId,
+            @RequestBody(name = "Participant status", description = "The status that the participant finished in: "
+                    + "Completed, Compensated, FailedToComplete or FailedToCompensate") String participantStatus) {
+        ParticipantStatus outcome;
+
+        try {
+            outcome = ParticipantStatus.valueOf(participantStatus == null ? "" : participantStatus.trim());
+        } catch (IllegalArgumentException e) {
+            String errMsg = "Status " + participantStatus + " is not a valid ParticipantStatus value";
+            throw new WebApplicationException(errMsg, Response.status(BAD_REQUEST).entity(errMsg).build());
+        }
+
+        return Response.status(lraService.participantEnded(lraId, rcvCoordId, outcome)).build();
+    }
+
     @GET
     @Produces(MediaType.APPLICATION_JSON)
     @Operation(summary = "List recovering Long Running Actions", description = "Returns LRAs that are recovering (ie some participants still need to be ran)")
@@ -141,9 +185,42 @@ public class RecoveryCoordinator {
     @Operation(summary = "List failed Long Running Actions", description = "Returns LRAs that have failed. " +
             " Failure records are vital pieces of data needed to aid failure tracking and analysis " +
             " and are retained for inspection.")
-    @APIResponse(responseCode = "200", content = @Content(schema = @Schema(type = SchemaType.ARRAY, implementation = LRAData.class)))
-    public List<LRAData> getFailedLRAs() {
-        return lraService.getFailedLRAs();
+    @APIResponses({
+            @APIResponse(responseCode = "200", content = @Content(schema = @Schema(type = SchemaType.ARRAY, implementation = LRAData.class)), headers = {
+                    @Header(name = NARAYANA_LRA_NEXT_CURSOR_HEADER_NAME, description = "The token for obtaining the next page of failed LRAs, absent on the last page") }),
+            @APIResponse(responseCode = "400", description = "The limit or cursor are invalid", content = @Content(schema = @Schema(implementation = String.class)))
+    })
+    public Response getFailedLRAs(
+            @Parameter(name = LIMIT_PARAM_NAME, description = "The maximum number of LRAs to return (zero means that the listing is not paged)") @QueryParam(LIMIT_PARAM_NAME) @DefaultValue("0") int limit,
+            @Parameter(name = CURSOR_PARAM_NAME, description = "The continuation token returned with the previous page") @QueryParam(CURSOR_PARAM_NAME) @DefaultValue("") String cursor,
+            @Context UriInfo uriInfo) {
+        if (limit < 0) {
+            String errMsg = LIMIT_PARAM_NAME + " " + limit + " must not be negative";
+            throw new WebApplicationException(errMsg, Response.status(BAD_REQUEST).entity(errMsg).build());
+        }
+
+        if (limit == 0 && cursor.isEmpty()) {
+            return Response.ok(lraService.getFailedLRAs()).build();
+        }
+
+        // fetch one more than requested to find out whether there is a next page
+        int pageSize = limit == 0 ? Integer.MAX_VALUE - 1 : limit;
+        List<LRAData> page = lraService.getFailedLRAs(Coordinator.decodeCursor(cursor, CURRENT_API_VERSION_STRING),
+                pageSize + 1);
+        Response.ResponseBuilder builder = Response.ok();
+
+        if (page.size() > pageSize) {
+            page = page.subList(0, pageSize);
+
+            String next = Coordinator.encodeCursor(LRAConstants.getLRAUid(page.get(pageSize - 1).getLraId()));
+
+            builder.header(NARAYANA_LRA_NEXT_CURSOR_HEADER_NAME, next)
+                    .links(Link.fromUri(uriInfo.getRequestUriBuilder()
+                            .replaceQueryParam(CURSOR_PARAM_NAME, next).build())
+                            .rel("next").build());
+        }
+
+        return builder.entity(page).build();
     }
 
     @DELETE
@@ -6,8 +6,10 @@
 package io.narayana.lra.coordinator.domain.model;
 
 import static io.narayana.lra.LRAConstants.AFTER;
+import static io.narayana.lra.LRAConstants.FORGET;
 import static io.narayana.lra.LRAConstants.NARAYANA_LRA_PARTICIPANT_DATA_HEADER_NAME;
 import static io.narayana.lra.LRAConstants.PARTICIPANT_TIMEOUT;
+import static io.narayana.lra.LRAConstants.STATUS;
 import static jakarta.ws.rs.core.Response.Status.BAD_REQUEST;
 import static org.eclipse.microprofile.lra.annotation.ws.rs.LRA.LRA_HTTP_CONTEXT_HEADER;
 import static org.eclipse.microprofile.lra.annotation.ws.rs.LRA.LRA_HTTP_PARENT_CONTEXT_HEADER;
@@ -22,8 +24,14 @@ import com.arjuna.ats.arjuna.state.OutputObjectState;
 import io.narayana.lra.Current;
 import io.narayana.lra.LRAConstants;
 import io.narayana.lra.LRAData;
+import io.narayana.lra.LinkHeader;
+import io.narayana.lra.ParticipantInvocation;
 import io.narayana.lra.coordinator.domain.service.LRAService;
+import io.narayana.lra.jfr.ParticipantCallEvent;
 import io.narayana.lra.logging.LRALogger;
+import io.narayana.lra.tracing.Tracing;
+import io.opentelemetry.api.trace.Span;
+import jakarta.ws.rs.HttpMethod;
 import jakarta.ws.rs.WebApplicationException;
 import jakarta.ws.rs.client.AsyncInvoker;
 import jakarta.ws.rs.client.Client;
@@ -32,7 +40,6 @@ import jakarta.ws.rs.client.Entity;
 import jakarta.ws.rs.client.Invocation;
 import jakarta.ws.rs.client.WebTarget;
 import jakarta.ws.rs.core.HttpHeaders;
-import jakarta.ws.rs.core.Link;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import java.io.IOException;
@@ -42,12 +49,13 @@ import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
-import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Objects;
-import java.util.SortedMap;
-import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.locks.ReentrantLock;
 import org.eclipse.microprofile.lra.annotation.LRAStatus;
 import org.eclipse.microprofile.lra.annotation.ParticipantStatus;
@@ -62,12 +70,8 @@ public class LRAParticipantRecord extends AbstractRecord implements Comparable<A
     private URI parentId;
     private URI recoveryURI;
     private String participantPath;
-
-    private URI completeURI;
-    private URI compensateURI;
-    private URI statusURI;
-    private URI forgetURI;
-    private URI afterURI;
+    // the callback endpoints which are shared with other participants that enlisted with the same Link header
+    private ParticipantEndpoints endpoints = ParticipantEndpoints.NONE;
 
     private String responseData;
     private String compensatorData;
@@ -88,17 +92,10 @@ public class LRAParticipantRecord extends AbstractRecord implements Comparable<A
         try {
             // if compensateURI is a link parse it into compensate,complete and status urls
             if (linkURI.startsWith("<")) {
-                Exception[] parseException = { null };
-
-                Arrays.stream(linkURI.split(",")).forEach((linkStr) -> {
-                    Exception e = parseLink(linkStr);
-                    if (e != null) {
-                        parseException[0] = e;
-                    }
-                });
-
-                if (parseException[0] != null) {
-                    String errorMsg = LRALogger.i18nLogger.error_invalidCompensator(lra.getId(), parseException[0].getMessage(),
+                try {
+                    endpoints = ParticipantEndpoints.of(linkURI);
+                } catch (URISyntaxException e) {
+                    String errorMsg = LRALogger.i18nLogger.error_invalidCompensator(lra.getId(), e.getMessage(),
                             linkURI);
                     LRALogger.logger.error(errorMsg);
                     if (LRALogger.logger.isTraceEnabled()) {
@@ -107,7 +104,9 @@ public class LRAParticipantRecord extends AbstractRecord implements Comparable<A
                     throw new WebApplicationException(Response.status(BAD_REQUEST)
                             .entity(errorMsg)
                             .build());
-                } else if (compensateURI == null && afterURI == null) {
+                }
+
+                if (endpoints.compensate == null && endpoints.after == null) {
                     String errorMsg = LRALogger.i18nLogger.error_missingCompensator(lra.getId(), linkURI);
                     LRALogger.logger.error(errorMsg);
                     if (LRALogger.logger.isTraceEnabled()) {
@@ -118,11 +117,7 @@ public class LRAParticipantRecord extends AbstractRecord implements Comparable<A
                             .build());
                 }
             } else {
-                this.compensateURI = new URI(String.format("%s/compensate", linkURI));
-                this.completeURI = new URI(String.format("%s/complete", linkURI));
-                this.statusURI = new URI(String.format("%s", linkURI));
-                this.forgetURI = new URI(String.format("%s", linkURI));
-
+                endpoints = ParticipantEndpoints.of(linkURI);
             }
 
             this.lraId = lra.getId();
@@ -139,7 +134,7 @@ public class LRAParticipantRecord extends AbstractRecord implements Comparable<A
                 trace_progress("created");
             }
         } catch (URISyntaxException e) {
-            String logMsg = LRALogger.i18nLogger.error_invalidFormatToCreateLRAParticipantRecord(lraId.toASCIIString(), linkURI,
+            String logMsg = LRALogger.i18nLogger.error_invalidFormatToCreateLRAParticipantRecord(lra.getId().toASCIIString(), linkURI,
                     e.getMessage());
             LRALogger.logger.error(logMsg);
             if (LRALogger.logger.isTraceEnabled()) {
@@ -162,81 +157,17 @@ public class LRAParticipantRecord extends AbstractRecord implements Comparable<A
     }
 
     static String cannonicalForm(String linkStr) throws URISyntaxException {
-        if (!linkStr.contains(">;")) {
+        if (linkStr.indexOf('<') < 0) {
             return new URI(linkStr).toASCIIString();
         }
 
-        SortedMap<String, String> lm = new TreeMap<>();
-        Arrays.stream(linkStr.split(",")).forEach(link -> lm.put(Link.valueOf(link).getRel(), link));
-        StringBuilder sb = new StringBuilder();
-
-        lm.forEach((k, v) -> appendLink(sb, v));
-
-        return sb.toString();
-    }
-
-    private static void appendLink(StringBuilder b, String value) {
-        if (b.length() != 0) {
-            b.append(',');
-        }
-
-        b.append(value);
+        return LinkHeader.parse(linkStr).toCanonicalString();
     }
 
     static String extractCompensator(String linkStr) throws URISyntaxException {
-        for (String lnk : linkStr.split(",")) {
-            Link link;
-
-            try {
-                link = Link.valueOf(lnk);
-            } catch (IllegalArgumentException e) {
-                throw new URISyntaxException(lnk, e.getMessage());
-            }
-
-            if (COMPENSATE_REL.equals(link.getRel())) {
-                return cannonicalForm(link.getUri().toString());
-            }
-        }
-
-        return linkStr;
-    }
-
-    private static URI cannonicalURI(URI uri) throws URISyntaxException {
-        return new URI(uri.getScheme(),
-                uri.getUserInfo(),
-                uri.getHost(),
-                uri.getPort(),
-                uri.getPath().replaceAll("//", "/"),
-                uri.getQuery(), uri.getFragment());
-    }
+        String compensator = LinkHeader.parse(linkStr).getTarget(COMPENSATE_REL);
 
-    private URISyntaxException parseLink(String linkStr) {
-        Link link = Link.valueOf(linkStr);
-        String rel = link.getRel();
-
-        try {
-            URI uri = cannonicalURI(link.getUri());
-
-            if (COMPENSATE_REL.equals(rel)) {
-                compensateURI = uri;
-            } else if (COMPLETE_REL.equals(rel)) {
-                completeURI = uri;
-            } else if ("status".equals(rel)) {
-                statusURI = uri;
-            } else if (AFTER.equals(rel)) {
-                afterURI = uri;
-            } else if ("forget".equals(rel)) {
-                forgetURI = uri;
-            } else if ("participant".equals(rel)) {
-                compensateURI = new URI(uri.toASCIIString() + "/compensate");
-                completeURI = new URI(uri.toASCIIString() + "/complete");
-                statusURI = forgetURI = uri;
-            }
-
-            return null;
-        } catch (URISyntaxException e) {
-            return e;
-        }
+        return compensator == null ? linkStr : cannonicalForm(compensator);
     }
 
     @Override
@@ -294,7 +225,7 @@ public class LRAParticipantRecord extends AbstractRecord implements Comparable<A
             compensate = true;
         }
 
-        if (compensateURI == null) {
+        if (endpoints.compensate == null) {
             return atEnd(TwoPhaseOutcome.FINISH_OK);
         }
 
@@ -303,16 +234,16 @@ public class LRAParticipantRecord extends AbstractRecord implements Comparable<A
                 return atEnd(TwoPhaseOutcome.FINISH_OK); // the participant has already compensated
             }
 
-            endPath = compensateURI; // we are going to ask the participant to compensate
+            endPath = endpoints.compensate; // we are going to ask the participant to compensate
             status = ParticipantStatus.Compensating;
         } else {
-            if (isCompelete() || completeURI == null) {
+            if (isCompelete() || endpoints.complete == null) {
                 status = ParticipantStatus.Completed;
 
                 return atEnd(TwoPhaseOutcome.FINISH_OK); // the participant has already completed
             }
 
-            endPath = completeURI; // we are going to ask the participant to complete
+            endPath = endpoints.complete; // we are going to ask the participant to complete
             status = ParticipantStatus.Completing;
         }
 
@@ -334,33 +265,42 @@ public class LRAParticipantRecord extends AbstractRecord implements Comparable<A
         }
 
         if (httpStatus == -1) {
-            // the local invocation was not made so fallback to using JAX-RS
+            // the participant is not a nested LRA of this coordinator so use a participant invoker or JAX-RS
 
             if (LRALogger.logger.isTraceEnabled()) {
                 trace_progress("notifying participant");
             }
 
+            ParticipantCallEvent event = new ParticipantCallEvent();
+            Span span = startCallSpan(lraId, HttpMethod.PUT, endPath, compensate ? COMPENSATE_REL : COMPLETE_REL);
+
+            event.begin();
+
             try {
                 // ask the participant to complete or compensate
-                client = ClientBuilder.newClient();
-                Response response = client.target(endPath)
-                        .request()
-                        .header(LRA_HTTP_CONTEXT_HEADER, lraId.toASCIIString())
-                        .header(LRA_HTTP_PARENT_CONTEXT_HEADER, parentId) // make the context available to participants
-                        .header(LRA_HTTP_RECOVERY_HEADER, recoveryURI.toASCIIString())
-                        .header(NARAYANA_LRA_PARTICIPANT_DATA_HEADER_NAME, compensatorData)
-                        .async()
-                        .put(Entity.text(""))
-                        .get(PARTICIPANT_TIMEOUT, TimeUnit.SECONDS);
+                Response response = invokeInVM(HttpMethod.PUT, endPath, LRA_HTTP_CONTEXT_HEADER, lraId, parentId, "");
+                boolean inVM = response != null;
+
+                if (!inVM) {
+                    client = ClientBuilder.newClient();
+                    response = Tracing.propagate(span, client.target(endPath).request())
+                            .header(LRA_HTTP_CONTEXT_HEADER, lraId.toASCIIString())
+                            .header(LRA_HTTP_PARENT_CONTEXT_HEADER, parentId) // make the context available to participants
+                            .header(LRA_HTTP_RECOVERY_HEADER, recoveryURI.toASCIIString())
+                            .header(NARAYANA_LRA_PARTICIPANT_DATA_HEADER_NAME, compensatorData)
+                            .async()
+                            .put(Entity.text(""))
+                            .get(PARTICIPANT_TIMEOUT, TimeUnit.SECONDS);
+                }
 
                 httpStatus = response.getStatus();
 
                 accepted = httpStatus == Response.Status.ACCEPTED.getStatusCode();
 
-                if (accepted && statusURI == null && response.getHeaderString(HttpHeaders.LOCATION) != null) {
+                if (accepted && endpoints.status == null && response.getHeaderString(HttpHeaders.LOCATION) != null) {
                     // the participant could not finish immediately and we have no status URI so one should be
                     // present in the Location header
-                    statusURI = URI.create(response.getHeaderString(HttpHeaders.LOCATION));
+                    endpoints = endpoints.withStatus(URI.create(response.getHeaderString(HttpHeaders.LOCATION)));
                 }
 
                 if (httpStatus == Response.Status.GONE.getStatusCode()) {
@@ -369,7 +309,7 @@ public class LRAParticipantRecord extends AbstractRecord implements Comparable<A
                 }
 
                 if (response.hasEntity()) {
-                    responseData = response.readEntity(String.class);
+                    responseData = readEntity(response, inVM);
                 }
             } catch (Exception e) {
                 if (LRALogger.logger.isInfoEnabled()) {
@@ -380,6 +320,9 @@ public class LRAParticipantRecord extends AbstractRecord implements Comparable<A
                     }
                 }
             } finally {
+                event.finish(lraId, HttpMethod.PUT, endPath, compensate ? COMPENSATE_REL : COMPLETE_REL, httpStatus);
+                Tracing.setHttpStatus(span, httpStatus).end();
+
                 if (LRALogger.logger.isTraceEnabled()) {
                     trace_progress("notified participant");
                 }
@@ -425,8 +368,8 @@ public class LRAParticipantRecord extends AbstractRecord implements Comparable<A
 
     boolean isFinished() {
         // nested participants must still be able to compensate even if they are closed
-        if (compensateURI == null) {
-            return afterURI != null;
+        if (endpoints.compensate == null) {
+            return endpoints.after != null;
         }
 
         switch (status) {
@@ -448,14 +391,51 @@ public class LRAParticipantRecord extends AbstractRecord implements Comparable<A
     }
 
     private boolean afterLRARequest(URI target, String payload) {
+        ParticipantCallEvent event = new ParticipantCallEvent();
+        boolean after = target.equals(endpoints.after);
+        Span span = startCallSpan(lra.getId(), after ? HttpMethod.PUT : HttpMethod.DELETE, target, after ? AFTER : FORGET);
+        int httpStatus = -1;
+
+        event.begin();
+
+        try {
+            httpStatus = notifyAfterLRA(target, payload, after, span);
+
+            return httpStatus == 200;
+        } finally {
+            event.finish(lra.getId(), after ? HttpMethod.PUT : HttpMethod.DELETE, target, after ? AFTER : FORGET,
+                    httpStatus);
+            Tracing.setHttpStatus(span, httpStatus).end();
+        }
+    }
+
+    // returns the HTTP status of the response or -1 if the participant could not be notified
+    private int notifyAfterLRA(URI target, String payload, boolean after, Span span) {
+        Response inVMResponse;
+
+        try {
+            inVMResponse = after
+                    ? invokeInVM(HttpMethod.PUT, target, LRA.LRA_HTTP_ENDED_CONTEXT_HEADER, lra.getId(), lra.getParentId(), payload)
+                    : invokeInVM(HttpMethod.DELETE, target, LRA.LRA_HTTP_CONTEXT_HEADER, lra.getId(), null, null);
+        } catch (Exception e) {
+            LRALogger.i18nLogger.warn_cannotNotifyAfterLRAURI(target, e);
+            return -1;
+        }
+
+        if (inVMResponse != null) {
+            if (LRALogger.logger.isTraceEnabled()) {
+                trace_progress("notified participant in the same JVM");
+            }
+
+            return inVMResponse.getStatus();
+        }
 
         try (Client client = ClientBuilder.newClient()) {
-            Invocation.Builder builder = client.target(target)
-                    .request()
+            Invocation.Builder builder = Tracing.propagate(span, client.target(target).request())
                     .header(LRA_HTTP_RECOVERY_HEADER, recoveryURI.toASCIIString())
                     .header(NARAYANA_LRA_PARTICIPANT_DATA_HEADER_NAME, compensatorData);
 
-            if (target.equals(afterURI)) {
+            if (after) {
                 builder.header(LRA.LRA_HTTP_ENDED_CONTEXT_HEADER, lra.getId().toASCIIString());
                 if (lra.getParentId() != null) {
                     builder.header(LRA_HTTP_PARENT_CONTEXT_HEADER, lra.getParentId().toASCIIString());
@@ -464,7 +444,7 @@ public class LRAParticipantRecord extends AbstractRecord implements Comparable<A
                 builder.header(LRA.LRA_HTTP_CONTEXT_HEADER, lra.getId().toASCIIString());
             }
 
-            Future<Response> responseFuture = target.equals(forgetURI) ? builder.async().delete()
+            Future<Response> responseFuture = target.equals(endpoints.forget) ? builder.async().delete()
                     : builder.async().put(Entity.text(payload));
             Response response = responseFuture.get(PARTICIPANT_TIMEOUT, TimeUnit.SECONDS);
 
@@ -472,8 +452,9 @@ public class LRAParticipantRecord extends AbstractRecord implements Comparable<A
                 if (LRALogger.logger.isTraceEnabled()) {
                     trace_progress("notified participant");
                 }
-                return true;
             }
+
+            return response.getStatus();
         } catch (Exception e) {
             LRALogger.i18nLogger.warn_cannotNotifyAfterLRAURI(target, e);
         } finally {
@@ -482,7 +463,15 @@ public class LRAParticipantRecord extends AbstractRecord implements Comparable<A
             }
         }
 
-        return false;
+        return -1;
+    }
+
+    // a call to one of the endpoints of the participant, the participant attributes its own spans to this one
+    private static Span startCallSpan(URI lraId, String method, URI endpoint, String rel) {
+        Span span = Tracing.startClientSpan("LRA participant " + rel, Tracing.PARTICIPANT, lraId)
+                .setAttribute(Tracing.HTTP_METHOD, method);
+
+        return endpoint == null ? span : span.setAttribute(Tracing.URL, endpoint.toASCIIString());
     }
 
     private int atEnd(int res) {
@@ -500,7 +489,7 @@ public class LRAParticipantRecord extends AbstractRecord implements Comparable<A
         // Only run the post LRA actions if both the LRA and participant are in an end state
         // check the participant first since it will have been removed from one of the lists
         if (!isFinished() || !lra.isFinished()) {
-            if (afterURI != null) {
+            if (endpoints.after != null) {
                 return TwoPhaseOutcome.HEURISTIC_HAZARD;
             }
 
@@ -522,8 +511,8 @@ public class LRAParticipantRecord extends AbstractRecord implements Comparable<A
             lraStatus = report ? LRAStatus.FailedToClose : LRAStatus.Closed;
         }
 
-        if (afterURI == null || afterLRARequest(afterURI, lraStatus.name())) {
-            afterURI = null;
+        if (endpoints.after == null || afterLRARequest(endpoints.after, lraStatus.name())) {
+            endpoints = endpoints.withoutAfter();
 
             if (LRALogger.logger.isTraceEnabled()) {
                 trace_progress("runPostLRAActions with afterURI");
@@ -549,9 +538,9 @@ public class LRAParticipantRecord extends AbstractRecord implements Comparable<A
 
     private int reportFailure(String failureReason) {
         if (status == ParticipantStatus.FailedToCompensate) {
-            return reportFailure(true, compensateURI, failureReason);
+            return reportFailure(true, endpoints.compensate, failureReason);
         } else { // must be ParticipantStatus.FailedToComplete
-            return reportFailure(false, completeURI, failureReason);
+            return reportFailure(false, endpoints.complete, failureReason);
         }
     }
 
@@ -612,21 +601,31 @@ public class LRAParticipantRecord extends AbstractRecord implements Comparable<A
                         return TwoPhaseOutcome.HEURISTIC_HAZARD;
                 }
             }
-        } else if (statusURI != null) {
+        } else if (endpoints.status != null) {
             // it is a standard participant - check the status URI
-            Response response;
-
-            try (Client client = ClientBuilder.newClient()) {
-                // since this method is called from the recovery thread do not block
-                response = client.target(statusURI)//.path(getLRAId(lraId))
-                        .request()
-                        .header(LRA_HTTP_CONTEXT_HEADER, lraId.toASCIIString())
-                        .header(LRA_HTTP_RECOVERY_HEADER, recoveryURI.toASCIIString())
-                        .header(LRA_HTTP_PARENT_CONTEXT_HEADER, parentId)
-                        .header(NARAYANA_LRA_PARTICIPANT_DATA_HEADER_NAME, compensatorData)
-                        .async()
-                        .get()
-                        .get(PARTICIPANT_TIMEOUT, TimeUnit.SECONDS); // if the attempt times out the catch block below will return a heuristic
+            ParticipantCallEvent event = new ParticipantCallEvent();
+            Span span = startCallSpan(lraId, HttpMethod.GET, endpoints.status, STATUS);
+            Response response = null;
+            Client client = null;
+
+            event.begin();
+
+            try {
+                response = invokeInVM(HttpMethod.GET, endpoints.status, LRA_HTTP_CONTEXT_HEADER, lraId, parentId, null);
+                boolean inVM = response != null;
+
+                if (!inVM) {
+                    client = ClientBuilder.newClient();
+                    // since this method is called from the recovery thread do not block
+                    response = Tracing.propagate(span, client.target(endpoints.status).request())
+                            .header(LRA_HTTP_CONTEXT_HEADER, lraId.toASCIIString())
+                            .header(LRA_HTTP_RECOVERY_HEADER, recoveryURI.toASCIIString())
+                            .header(LRA_HTTP_PARENT_CONTEXT_HEADER, parentId)
+                            .header(NARAYANA_LRA_PARTICIPANT_DATA_HEADER_NAME, compensatorData)
+                            .async()
+                            .get()
+                            .get(PARTICIPANT_TIMEOUT, TimeUnit.SECONDS); // if the attempt times out the catch block below will return a heuristic
+                }
 
                 // 200 and 410 are the only valid response code for reporting the participant status
                 if (response.getStatus() == Response.Status.GONE.getStatusCode()) {
@@ -647,8 +646,14 @@ public class LRAParticipantRecord extends AbstractRecord implements Comparable<A
                     return TwoPhaseOutcome.HEURISTIC_HAZARD;
                 } else if (response.getStatus() == Response.Status.OK.getStatusCode() &&
                         response.hasEntity()) {
+                    String entity = readEntity(response, inVM);
+
+                    if (entity == null) {
+                        return TwoPhaseOutcome.HEURISTIC_HAZARD; // the participant did not report its status
+                    }
+
                     // the participant is available again and has reported its status
-                    status = ParticipantStatus.valueOf(response.readEntity(String.class));
+                    status = ParticipantStatus.valueOf(entity);
 
                     switch (status) {
                         case Completed:
@@ -665,7 +670,7 @@ public class LRAParticipantRecord extends AbstractRecord implements Comparable<A
                                     "LRAParticipantRecord.doEnd(compensate %b) get status %s did not finish: %s: WILL NOT RETRY",
                                     compensate, endPath, status);
 
-                            if (forgetURI != null) {
+                            if (endpoints.forget != null) {
                                 if (!forget()) {
                                     // we will retry the forget on the next recovery cycle
                                     return TwoPhaseOutcome.HEURISTIC_HAZARD;
@@ -680,21 +685,87 @@ public class LRAParticipantRecord extends AbstractRecord implements Comparable<A
             } catch (Throwable e) {
                 if (LRALogger.logger.isInfoEnabled()) {
                     LRALogger.logger.infof("LRAParticipantRecord.doEnd status URI %s is invalid (%s)",
-                            statusURI, e.getMessage());
+                            endpoints.status, e.getMessage());
                 }
 
                 return TwoPhaseOutcome.HEURISTIC_HAZARD; // force recovery to keep retrying
             } finally {
+                event.finish(lraId, HttpMethod.GET, endpoints.status, STATUS, response == null ? -1 : response.getStatus());
+                Tracing.setHttpStatus(span, response == null ? -1 : response.getStatus()).end();
+
                 if (LRALogger.logger.isTraceEnabled()) {
                     trace_progress("retryGetEndStatus");
                 }
                 Current.pop();
+                if (client != null) {
+                    client.close();
+                }
             }
         }
 
         return -1;
     }
 
+    /**
+     * Record the outcome that a participant reported when it finished a complete or compensate request that it
+     * had accepted (with a 202 response) so that the coordinator no longer needs to poll its status endpoint
+     *
+     * @param outcome the status that the participant finished in
+     * @return false if the participant was not finishing asynchronously or the outcome does not match the request
+     */
+    boolean endReported(ParticipantStatus outcome) {
+        boolean compensate;
+
+        if (!accepted || outcome == null) {
+            return false;
+        } else if (status == ParticipantStatus.Completing) {
+            compensate = false;
+        } else if (status == ParticipantStatus.Compensating) {
+            compensate = true;
+        } else {
+            return false;
+        }
+
+        switch (outcome) {
+            case Completed:
+            case FailedToComplete:
+                if (compensate) {
+                    return false;
+                }
+                break;
+            case Compensated:
+            case FailedToCompensate:
+                if (!compensate) {
+                    return false;
+                }
+                break;
+            default:
+                return false; // the participant has not finished
+        }
+
+        status = outcome;
+        accepted = false;
+
+        if (LRALogger.logger.isTraceEnabled()) {
+            trace_progress("endReported");
+        }
+
+        if (isFailed()) {
+            URI endPath = compensate ? endpoints.compensate : endpoints.complete;
+
+            // as when the failure is discovered by polling the status endpoint, the participant can now be forgotten
+            LRALogger.logger.warnf(
+                    "LRAParticipantRecord.endReported(compensate %b) %s did not finish: %s: WILL NOT RETRY",
+                    compensate, endPath, status);
+
+            if (endpoints.forget != null) {
+                forget();
+            }
+        }
+
+        return true;
+    }
+
     private Future<Response> getAsyncResponse(WebTarget target, String method, AsyncInvoker asyncInvoker, String cData) {
         String queryString = target.getUri().getQuery();
 
@@ -796,24 +867,76 @@ public class LRAParticipantRecord extends AbstractRecord implements Comparable<A
         return -1;
     }
 
+    /*
+     * Give the participant invokers registered with the coordinator the chance to deliver a callback without HTTP.
+     * Returns null if there are none or none of them can reach the participant.
+     */
+    private Response invokeInVM(String method, URI endpoint, String contextHeader, URI context, URI parent, String body)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        if (lraService == null || !lraService.hasParticipantInvokers()) {
+            return null;
+        }
+
+        Map<String, String> headers = new HashMap<>();
+
+        if (context != null) {
+            headers.put(contextHeader, context.toASCIIString());
+        }
+
+        if (parent != null) {
+            headers.put(LRA_HTTP_PARENT_CONTEXT_HEADER, parent.toASCIIString());
+        }
+
+        if (recoveryURI != null) {
+            headers.put(LRA_HTTP_RECOVERY_HEADER, recoveryURI.toASCIIString());
+        }
+
+        if (compensatorData != null) {
+            headers.put(NARAYANA_LRA_PARTICIPANT_DATA_HEADER_NAME, compensatorData);
+        }
+
+        return lraService.invokeParticipant(new ParticipantInvocation(method, endpoint, headers, body));
+    }
+
+    // a response from a participant in the same JVM carries the entity itself rather than a stream
+    private static String readEntity(Response response, boolean inVM) {
+        if (!inVM) {
+            return response.readEntity(String.class);
+        }
+
+        Object entity = response.getEntity();
+
+        return entity == null ? null : entity.toString();
+    }
+
     boolean forget() {
         Client client = null;
 
-        if (forgetURI != null) {
+        if (endpoints.forget != null) {
+            ParticipantCallEvent event = new ParticipantCallEvent();
+            URI forgetUri = endpoints.forget;
+            Span span = startCallSpan(lraId, HttpMethod.DELETE, forgetUri, FORGET);
+            Response response = null;
+
+            event.begin();
+
             try {
-                client = ClientBuilder.newClient();
-                Response response = client.target(forgetURI)//.path(getLRAId(lraId))
-                        .request()
-                        .header(LRA_HTTP_CONTEXT_HEADER, lraId)
-                        .header(LRA_HTTP_RECOVERY_HEADER, recoveryURI)
-                        .header(LRA_HTTP_PARENT_CONTEXT_HEADER, parentId)
-                        .header(NARAYANA_LRA_PARTICIPANT_DATA_HEADER_NAME, compensatorData)
-                        .async()
-                        .delete()
-                        .get(PARTICIPANT_TIMEOUT, TimeUnit.SECONDS);
+                response = invokeInVM(HttpMethod.DELETE, endpoints.forget, LRA_HTTP_CONTEXT_HEADER, lraId, parentId, null);
+
+                if (response == null) {
+                    client = ClientBuilder.newClient();
+                    response = Tracing.propagate(span, client.target(endpoints.forget).request())
+                            .header(LRA_HTTP_CONTEXT_HEADER, lraId)
+                            .header(LRA_HTTP_RECOVERY_HEADER, recoveryURI)
+                            .header(LRA_HTTP_PARENT_CONTEXT_HEADER, parentId)
+                            .header(NARAYANA_LRA_PARTICIPANT_DATA_HEADER_NAME, compensatorData)
+                            .async()
+                            .delete()
+                            .get(PARTICIPANT_TIMEOUT, TimeUnit.SECONDS);
+                }
 
                 if (response.getStatus() == Response.Status.OK.getStatusCode()) {
-                    forgetURI = null; // succeeded so dispose of the endpoint
+                    endpoints = endpoints.withoutForget(); // succeeded so dispose of the endpoint
                     return true;
                 }
             } catch (Exception e) {
@@ -823,9 +946,12 @@ public class LRAParticipantRecord extends AbstractRecord implements Comparable<A
                     exception = (WebApplicationException) cause;
                 }
                 LRALogger.logger.infof("LRAParticipantRecord.forget delete %s failed for LRA %s (reason %s)",
-                        forgetURI, lraId, exception.getMessage());
+                        endpoints.forget, lraId, exception.getMessage());
                 return false; // force recovery to keep retrying
             } finally {
+                event.finish(lraId, HttpMethod.DELETE, forgetUri, FORGET, response == null ? -1 : response.getStatus());
+                Tracing.setHttpStatus(span, response == null ? -1 : response.getStatus()).end();
+
                 if (LRALogger.logger.isTraceEnabled()) {
                     trace_progress("forget");
                 }
@@ -857,12 +983,12 @@ public class LRAParticipantRecord extends AbstractRecord implements Comparable<A
         if (super.save_state(os, t)) {
             try {
                 packURI(os, lraId);
-                packURI(os, compensateURI);
+                packURI(os, endpoints.compensate);
                 packURI(os, recoveryURI);
-                packURI(os, completeURI);
-                packURI(os, afterURI);
-                packURI(os, statusURI);
-                packURI(os, forgetURI);
+                packURI(os, endpoints.complete);
+                packURI(os, endpoints.after);
+                packURI(os, endpoints.status);
+                packURI(os, endpoints.forget);
                 packStatus(os);
                 os.packString(participantPath);
                 os.packString(compensatorData);
@@ -885,12 +1011,14 @@ public class LRAParticipantRecord extends AbstractRecord implements Comparable<A
         if (super.restore_state(os, t)) {
             try {
                 lraId = unpackURI(os);
-                compensateURI = unpackURI(os);
+                URI compensateURI = unpackURI(os);
                 recoveryURI = unpackURI(os);
-                completeURI = unpackURI(os);
-                afterURI = unpackURI(os);
-                statusURI = unpackURI(os);
-                forgetURI = unpackURI(os);
+                URI completeURI = unpackURI(os);
+                URI afterURI = unpackURI(os);
+                URI statusURI = unpackURI(os);
+                URI forgetURI = unpackURI(os);
+                // share the endpoints with the other participants restored with the same ones
+                endpoints = ParticipantEndpoints.of(compensateURI, completeURI, statusURI, forgetURI, afterURI);
                 unpackStatus(os);
                 participantPath = os.unpackString();
                 compensatorData = os.unpackString();
@@ -1021,9 +1149,9 @@ public class LRAParticipantRecord extends AbstractRecord implements Comparable<A
 
     // the participant is asking to be called back on different URLs
     void updateCallbacks(String linkStr) {
-        Exception e = parseLink(linkStr);
-
-        if (e != null) {
+        try {
+            endpoints = endpoints.merge(ParticipantEndpoints.parseLinks(linkStr));
+        } catch (URISyntaxException e) {
             throw new WebApplicationException(Response.status(BAD_REQUEST)
                     .entity(LRALogger.i18nLogger.warn_invalid_compensator(e.getMessage(), linkStr))
                     .build());
@@ -1047,7 +1175,7 @@ public class LRAParticipantRecord extends AbstractRecord implements Comparable<A
     }
 
     public String getCompensator() {
-        return compensateURI != null ? compensateURI.toASCIIString() : null;
+        return endpoints.compensate != null ? endpoints.compensate.toASCIIString() : null;
     }
 
     void setLRAService(LRAService lraService) {
@@ -1059,7 +1187,7 @@ public class LRAParticipantRecord extends AbstractRecord implements Comparable<A
     }
 
     public URI getEndNotificationUri() {
-        return afterURI;
+        return endpoints.after;
     }
 
     public ParticipantStatus getStatus() {
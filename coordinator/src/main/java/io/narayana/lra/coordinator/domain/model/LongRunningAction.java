@@ -22,6 +22,9 @@ import io.narayana.lra.Current;
 import io.narayana.lra.LRAConstants;
 import io.narayana.lra.LRAData;
 import io.narayana.lra.coordinator.domain.service.LRAService;
+import io.narayana.lra.jfr.LRAEndEvent;
+import io.narayana.lra.jfr.LRAStoreEvent;
+import io.narayana.lra.jfr.ParticipantEnlistEvent;
 import io.narayana.lra.logging.LRALogger;
 import jakarta.ws.rs.ServiceUnavailableException;
 import jakarta.ws.rs.WebApplicationException;
@@ -33,36 +36,51 @@ import java.net.URISyntaxException;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
-import java.time.LocalDateTime;
-import java.time.ZoneOffset;
-import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 import java.util.concurrent.locks.ReentrantLock;
 import org.eclipse.microprofile.config.ConfigProvider;
 import org.eclipse.microprofile.lra.annotation.LRAStatus;
+import org.eclipse.microprofile.lra.annotation.ParticipantStatus;
 
 public class LongRunningAction extends BasicAction {
     private static final String LRA_TYPE = "/StateManager/BasicAction/LongRunningAction";
     private static final ScheduledExecutorService scheduler = new ScheduledThreadPoolExecutor(10);
     public static final String DEACTIVATE_REASON = "deactivate failed";
     private static final long participantEnlistTimeout = initParticipantEnlistTimeout();
+    private static final AtomicReferenceFieldUpdater<LongRunningAction, Enlistment> ENLISTMENTS =
+            AtomicReferenceFieldUpdater.newUpdater(LongRunningAction.class, Enlistment.class, "enlistments");
 
     private URI id;
     private URI parentId;
     private String clientId;
     private List<LRAParticipantRecord> pending;
     private LRAStatus status;
-    private LocalDateTime startTime;
-    private LocalDateTime finishTime;
+    private long startTime; // epoch millis (UTC), zero until the LRA has begun
+    private long finishTime; // epoch millis (UTC), zero if the LRA has neither a time limit nor has finished
     private ScheduledFuture<?> scheduledAbort;
     private final LRAService lraService;
     LRAParentAbstractRecord par;
+    // joins waiting to be enlisted by the holder of the LRA lock, a field rather than a queue object keeps LRAs small
+    private volatile Enlistment enlistments;
+    // whether the holder of the LRA lock is enlisting the queued joins
+    private volatile boolean enlisting;
+    // created on the first participant lookup, guarded by the LRA lock
+    private ParticipantIndex participantIndex;
+    // reported to JDK Flight Recorder: the participants enlisted since the LRA was created or restored and the
+    // size of the last record saved to the object store
+    private int participantCount;
+    private int savedBytes;
 
     private static long initParticipantEnlistTimeout() {
         try {
@@ -98,7 +116,7 @@ public class LongRunningAction extends BasicAction {
         }
 
         this.clientId = clientId;
-        this.finishTime = null;
+        this.finishTime = 0L;
         this.status = LRAStatus.Active;
 
         if (LRALogger.logger.isTraceEnabled()) {
@@ -121,7 +139,7 @@ public class LongRunningAction extends BasicAction {
         this.id = null;
         this.parentId = null;
         this.clientId = null;
-        this.finishTime = null;
+        this.finishTime = 0L;
         this.status = LRAStatus.Active;
 
         if (LRALogger.logger.isTraceEnabled()) {
@@ -141,10 +159,7 @@ public class LongRunningAction extends BasicAction {
      * @return immutable {@link LRAData} representing the current state of the LRA transaction
      */
     public LRAData getLRAData() {
-        return new LRAData(id, clientId, status, isTopLevel(), isRecovering(),
-                startTime.toInstant(ZoneOffset.UTC).toEpochMilli(),
-                finishTime == null ? 0L : finishTime.toInstant(ZoneOffset.UTC).toEpochMilli(),
-                getHttpStatus());
+        return new LRAData(id, clientId, status, isTopLevel(), isRecovering(), startTime, finishTime, getHttpStatus());
     }
 
     @Override
@@ -159,18 +174,18 @@ public class LongRunningAction extends BasicAction {
             os.packString(parentId == null ? null : parentId.toString());
             os.packString(clientId);
 
-            if (startTime == null) {
+            if (startTime == 0L) {
                 os.packBoolean(false);
             } else {
                 os.packBoolean(true);
-                os.packLong(startTime.toInstant(ZoneOffset.UTC).toEpochMilli());
+                os.packLong(startTime);
             }
 
-            if (finishTime == null) {
+            if (finishTime == 0L) {
                 os.packBoolean(false);
             } else {
                 os.packBoolean(true);
-                os.packLong(finishTime.toInstant(ZoneOffset.UTC).toEpochMilli());
+                os.packLong(finishTime);
             }
 
             os.packString(status.name());
@@ -183,9 +198,24 @@ public class LongRunningAction extends BasicAction {
             }
         }
 
+        savedBytes = os.length();
+
         return true;
     }
 
+    @Override
+    public boolean deactivate() {
+        LRAStoreEvent event = new LRAStoreEvent();
+
+        event.begin();
+
+        boolean written = super.deactivate();
+
+        event.finish(id, savedBytes, written);
+
+        return written;
+    }
+
     private boolean save_list(OutputObjectState os, int ot, RecordList list) {
         if (list != null && list.size() > 0) {
             AbstractRecord first, temp;
@@ -263,6 +293,10 @@ public class LongRunningAction extends BasicAction {
             return false;
         }
 
+        recordListsChanged(); // the lists now hold different record instances
+
+        participantCount = getSize(pendingList) + getSize(preparedList) + getSize(heuristicList) + getSize(failedList);
+
         // restore_state may have put failed records onto the prepared list so move them back again:
         for (AbstractRecord rec = preparedList.peekFront(); rec != null; rec = preparedList.peekNext(rec)) {
             if (rec instanceof LRAParticipantRecord) {
@@ -315,10 +349,8 @@ public class LongRunningAction extends BasicAction {
                 }
             }
             clientId = os.unpackString();
-            startTime = os.unpackBoolean() ? LocalDateTime.ofInstant(Instant.ofEpochMilli(os.unpackLong()), ZoneOffset.UTC)
-                    : null;
-            finishTime = os.unpackBoolean() ? LocalDateTime.ofInstant(Instant.ofEpochMilli(os.unpackLong()), ZoneOffset.UTC)
-                    : null;
+            startTime = os.unpackBoolean() ? os.unpackLong() : 0L;
+            finishTime = os.unpackBoolean() ? os.unpackLong() : 0L;
             status = LRAStatus.valueOf(os.unpackString());
 
             /*
@@ -326,8 +358,8 @@ public class LongRunningAction extends BasicAction {
              * abort time will be negative. Since scheduling a task with a negative time will run it immediately
              * we must ensure that the setTimeLimit call is placed after the state has been fully re-hydrated.
              */
-            if (finishTime != null) {
-                long ttl = ChronoUnit.MILLIS.between(LocalDateTime.now(ZoneOffset.UTC), finishTime);
+            if (finishTime != 0L) {
+                long ttl = finishTime - System.currentTimeMillis();
 
                 if (ttl <= 0) {
                     if (LRALogger.logger.isDebugEnabled()) {
@@ -395,9 +427,22 @@ public class LongRunningAction extends BasicAction {
         return LRA_TYPE;
     }
 
+    /**
+     * The object store type used for the records of LRAs belonging to a shard (see {@link LRAService#shardOf(Uid)}).
+     * The first shard uses the same type as an unsharded coordinator so that existing records remain visible.
+     *
+     * @param shard the index of the shard
+     * @return the object store type of the shard
+     */
+    public static String getType(int shard) {
+        return shard == 0 ? LRA_TYPE : LRA_TYPE + "/Shard" + shard;
+    }
+
     @Override
     public String type() {
-        return getType();
+        Uid uid = get_uid();
+
+        return uid == null ? getType() : getType(LRAService.shardOf(uid));
     }
 
     public URI getId() {
@@ -474,8 +519,9 @@ public class LongRunningAction extends BasicAction {
     public int finishLRA(boolean cancel, String compensator, String userData) {
         ReentrantLock lock = null;
 
-        // check whether the transaction should cancel due to a timeout:
-        if (finishTime != null && !cancel && ChronoUnit.MILLIS.between(LocalDateTime.now(ZoneOffset.UTC), finishTime) <= 0) {
+        // check whether the transaction should cancel due to a timeout (unless a close was already accepted):
+        if (finishTime != 0L && !cancel && status != LRAStatus.Closing
+                && finishTime - System.currentTimeMillis() <= 0) {
             cancel = true;
             if (LRALogger.logger.isTraceEnabled()) {
                 trace_progress("finishing with cancel");
@@ -514,6 +560,51 @@ public class LongRunningAction extends BasicAction {
         }
     }
 
+    /**
+     * Record the decision to close or cancel the LRA without contacting any of its participants. The new
+     * state is persisted if any participants are enlisted so that, should the coordinator fail before the
+     * participants are ended by a subsequent call to {@link #finishLRA(boolean, String, String)}, recovery
+     * will finish the LRA.
+     *
+     * @param cancel whether the LRA should be cancelled rather than closed
+     * @return the status of the LRA after recording the intent
+     * @throws ServiceUnavailableException if the LRA lock could not be obtained or the state could not be saved
+     */
+    public LRAStatus recordEndIntent(boolean cancel) {
+        ReentrantLock lock = tryTimedLockTransaction(participantEnlistTimeout);
+
+        if (lock == null) {
+            String reason = LRALogger.i18nLogger.warn_enlistment();
+            LRALogger.logger.warn(reason);
+            throw new ServiceUnavailableException(reason);
+        }
+
+        try {
+            if (status == LRAStatus.Active) {
+                // as with finishLRA, a close request on an LRA whose time limit has passed cancels it
+                if (finishTime != 0L && finishTime - System.currentTimeMillis() <= 0) {
+                    cancel = true;
+                }
+
+                // the timer must not race with the participants being ended
+                if (scheduledAbort != null) {
+                    scheduledAbort.cancel(false);
+                    scheduledAbort = null;
+                }
+
+                updateState(cancel ? LRAStatus.Cancelling : LRAStatus.Closing); // can throw ServiceUnavailableException
+
+                if (LRALogger.logger.isTraceEnabled()) {
+                    trace_progress("recorded end intent");
+                }
+            }
+
+            return status;
+        } finally {
+            lock.unlock();
+        }
+    }
+
     // in this version close need to run as blocking code {@link Vertx().executeBlocking}
     private int doEnd(boolean cancel) {
         int res = status();
@@ -643,7 +734,7 @@ public class LongRunningAction extends BasicAction {
         if (isTopLevel()) {
             // note that we don't update the finish time for nested LRAs since their final state depends on the parent
             // also the time spent invoking AfterLRA callbacks should probably not be included
-            finishTime = LocalDateTime.now(ZoneOffset.UTC);
+            finishTime = System.currentTimeMillis();
         }
 
         if (LRALogger.logger.isTraceEnabled()) {
@@ -654,6 +745,8 @@ public class LongRunningAction extends BasicAction {
 
         if (!isRecovering()) {
             lraService.finished(this, nested && cancel);
+        } else {
+            lraService.recoveryNeeded(this);
         }
 
         if (LRALogger.logger.isTraceEnabled()) {
@@ -689,10 +782,16 @@ public class LongRunningAction extends BasicAction {
     // return true if the state was updated
     protected boolean updateState(LRAStatus nextState, boolean save) {
         if (status != nextState) {
+            LRAStatus previous = status;
+
             status = nextState; // we trust that nextState is reachable from the current one
 
+            lraService.statusChanged(this, previous, nextState);
+            recordEnd(nextState);
+
             if (save && (pendingList != null && pendingList.size() != 0)) {
                 if (!deactivate()) {
+                    lraService.saveFailed(this); // the saved state is stale so make sure recovery saves it again
                     throw new ServiceUnavailableException(LRALogger.i18nLogger.warn_saveState(DEACTIVATE_REASON));
                 }
             }
@@ -703,6 +802,21 @@ public class LongRunningAction extends BasicAction {
         return false;
     }
 
+    // report an LRA that has reached a final state to JDK Flight Recorder
+    private void recordEnd(LRAStatus nextState) {
+        if (nextState != LRAStatus.Closed && nextState != LRAStatus.Cancelled
+                && nextState != LRAStatus.FailedToClose && nextState != LRAStatus.FailedToCancel) {
+            return;
+        }
+
+        LRAEndEvent event = new LRAEndEvent();
+
+        if (event.isEnabled()) {
+            event.finish(id, nextState.name(), participantCount,
+                    startTime == 0L ? 0L : System.currentTimeMillis() - startTime);
+        }
+    }
+
     protected void checkParticipant(RecordList participants) {
         RecordListIterator i = new RecordListIterator(participants);
         AbstractRecord r;
@@ -720,6 +834,8 @@ public class LongRunningAction extends BasicAction {
     protected void moveTo(RecordList fromList, RecordList toList, boolean invert) {
         AbstractRecord record;
 
+        recordListsChanged();
+
         if (fromList != null) {
             while ((record = fromList.getFront()) != null) {
                 if (invert) {
@@ -735,6 +851,8 @@ public class LongRunningAction extends BasicAction {
         RecordList inverted = new RecordList();
         AbstractRecord record;
 
+        recordListsChanged();
+
         if (list != null) {
             while ((record = list.getFront()) != null) {
                 inverted.putFront(record);
@@ -824,39 +942,132 @@ public class LongRunningAction extends BasicAction {
         }
     }
 
+    /**
+     * Enlist a participant and durably record it. Concurrent joins do not compete for the LRA lock: each join is
+     * queued and whichever join holds the lock adds every queued participant and saves them with a single write
+     * to the object store, the other joins return as soon as their participant has been saved.
+     *
+     * @throws ServiceUnavailableException if the lock is held for some other reason, for example because the LRA
+     *         is ending, or if the participant could not be saved
+     */
     public LRAParticipantRecord enlistParticipant(URI coordinatorUrl, String participantUrl, String recoveryUrlBase,
             long timeLimit, String compensatorData, String version)
             throws UnsupportedEncodingException {
-        ReentrantLock lock = tryTimedLockTransaction(participantEnlistTimeout);
-        if (lock == null) {
-            String reason = LRALogger.i18nLogger.warn_enlistment();
-            LRALogger.logger.warn(reason);
-            throw new ServiceUnavailableException(reason);
-        } else {
-            try {
-                LRAParticipantRecord participant = findLRAParticipant(participantUrl, false);
-                if (participant != null) {
-                    participant.setCompensatorData(compensatorData);
-                    return participant; // must have already been enlisted
+        ParticipantEnlistEvent event = new ParticipantEnlistEvent();
+        Enlistment enlistment = new Enlistment(coordinatorUrl, participantUrl, recoveryUrlBase, timeLimit,
+                compensatorData, version);
+        long waitStart = System.nanoTime();
+        long lockWait = -1L;
+
+        event.begin();
+
+        do {
+            enlistment.next = enlistments;
+        } while (!ENLISTMENTS.compareAndSet(this, enlistment.next, enlistment));
+
+        while (!enlistment.result.isDone()) {
+            ReentrantLock lock = tryTimedLockTransaction(participantEnlistTimeout);
+
+            if (lock != null) {
+                if (lockWait < 0L) {
+                    lockWait = System.nanoTime() - waitStart;
+                }
+
+                try {
+                    enlistQueuedParticipants(); // the queue includes this enlistment unless another join took it
+                } finally {
+                    lock.unlock();
+                }
+            } else if (!enlisting) {
+                // the lock is held by something other than a join. If a join takes this enlistment regardless
+                // then the caller may be told to retry a successful join but joins are idempotent
+                String reason = LRALogger.i18nLogger.warn_enlistment();
+
+                if (enlistment.result.completeExceptionally(new ServiceUnavailableException(reason))) {
+                    LRALogger.logger.warn(reason);
+                }
+            } // else another join holds the lock and is enlisting the queued participants
+        }
+
+        LRAParticipantRecord participant = null;
+
+        try {
+            participant = enlistment.result.join();
+
+            return participant;
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+
+            throw e;
+        } finally {
+            // if another join enlisted the participant then the whole wait was for the lock
+            event.finish(id, participantUrl, lockWait < 0L ? System.nanoTime() - waitStart : lockWait,
+                    participant != null);
+        }
+    }
+
+    // must be called with the LRA lock held
+    private void enlistQueuedParticipants() {
+        enlisting = true;
+
+        try {
+            Deque<Enlistment> batch = new ArrayDeque<>();
+
+            // the queue is a stack so reverse it to enlist participants in the order in which they joined
+            for (Enlistment e = ENLISTMENTS.getAndSet(this, null); e != null; e = e.next) {
+                batch.addFirst(e);
+            }
+
+            List<Enlistment> enlisted = new ArrayList<>(batch.size());
+            boolean added = false;
+
+            for (Enlistment e : batch) {
+                if (e.result.isDone()) {
+                    continue; // the caller gave up waiting for the lock
                 }
-                participant = doEnlistParticipant(coordinatorUrl, participantUrl, recoveryUrlBase, timeLimit,
-                        compensatorData, version);
-                if (participant != null) {
-                    // need to remember that there is a new participant
-                    if (deactivate()) { // if it fails the superclass will have logged a warning
-                        savedIntentionList = true; // need this clean up if the LRA times out
+
+                try {
+                    LRAParticipantRecord participant = findLRAParticipant(e.participantUrl, false);
+
+                    if (participant != null) {
+                        participant.setCompensatorData(e.compensatorData); // must have already been enlisted
                     } else {
-                        throw new ServiceUnavailableException(LRALogger.i18nLogger.warn_saveState(DEACTIVATE_REASON));
+                        participant = doEnlistParticipant(e.coordinatorUrl, e.participantUrl, e.recoveryUrlBase,
+                                e.timeLimit, e.compensatorData, e.version);
+
+                        if (participant == null) {
+                            e.result.completeExceptionally(new ServiceUnavailableException(
+                                    LRALogger.i18nLogger.warn_saveState(DEACTIVATE_REASON)));
+                            continue;
+                        }
+
+                        added = true;
                     }
-                } else {
-                    throw new ServiceUnavailableException(LRALogger.i18nLogger.warn_saveState(DEACTIVATE_REASON));
+
+                    e.participant = participant;
+                    enlisted.add(e);
+                } catch (RuntimeException ex) {
+                    e.result.completeExceptionally(ex);
                 }
-                return participant;
-            } finally {
-                lock.unlock();
             }
-        }
 
+            // need to remember the new participants, one write records all of them
+            if (added && !deactivate()) { // if it fails the superclass will have logged a warning
+                enlisted.forEach(e -> e.result.completeExceptionally(new ServiceUnavailableException(
+                        LRALogger.i18nLogger.warn_saveState(DEACTIVATE_REASON))));
+                return;
+            }
+
+            if (added) {
+                savedIntentionList = true; // need this clean up if the LRA times out
+            }
+
+            enlisted.forEach(e -> e.result.complete(e.participant));
+        } finally {
+            enlisting = false;
+        }
     }
 
     private LRAParticipantRecord doEnlistParticipant(URI coordinatorUrl, String participantUrl, String recoveryUrlBase,
@@ -897,6 +1108,12 @@ public class LongRunningAction extends BasicAction {
         }
 
         if (add(p) != AddOutcome.AR_REJECTED) {
+            if (participantIndex != null) {
+                participantIndex.added(p);
+            }
+
+            participantCount++;
+
             if (setTimeLimit(timeLimit, true) != Response.Status.OK.getStatusCode()) {
                 // there is no remove(p) so just issue a warning - but note that the caller will also try to
                 // save the state so the time limit will be written then or else it will report it using
@@ -909,6 +1126,12 @@ public class LongRunningAction extends BasicAction {
         } else if (isRecovering() && p.getCompensator() == null && p.getEndNotificationUri() != null) {
             // the participant is an AfterLRA listener so manually add it to heuristic list
             heuristicList.putRear(p);
+
+            if (participantIndex != null) {
+                participantIndex.added(p);
+            }
+
+            participantCount++;
             updateState();
 
             if (LRALogger.logger.isTraceEnabled()) {
@@ -931,6 +1154,7 @@ public class LongRunningAction extends BasicAction {
         }
     }
 
+    // the caller holds the lock on the LRA since the participant is removed from the record lists
     public boolean forgetParticipant(String participantUrl) {
         return findLRAParticipant(participantUrl, true) != null;
     }
@@ -956,7 +1180,7 @@ public class LongRunningAction extends BasicAction {
         RecordListIterator i = new RecordListIterator(pendingList);
         AbstractRecord r;
 
-        pending = new ArrayList<>();
+        pending = new ArrayList<>(pendingList.size());
 
         while ((r = i.iterate()) != null) {
             if (r instanceof LRAParticipantRecord) {
@@ -965,86 +1189,76 @@ public class LongRunningAction extends BasicAction {
         }
     }
 
+    private ParticipantIndex getParticipantIndex() {
+        if (participantIndex == null) {
+            participantIndex = new ParticipantIndex();
+        }
+
+        // rebuilds the index if the lists have been handed to BasicAction since it was last used
+        participantIndex.sync(pendingList, preparedList, heuristicList, failedList);
+
+        return participantIndex;
+    }
+
+    // BasicAction moves the records between the lists, and drops the finished ones, once the LRA hands them over
+    private void recordListsChanged() {
+        if (participantIndex != null) {
+            participantIndex.invalidate();
+        }
+    }
+
     private LRAParticipantRecord findLRAParticipant(String participantUrl, boolean remove) {
+        ParticipantIndex index = getParticipantIndex();
         LRAParticipantRecord rec;
 
         try {
-            URI recoveryUrl = new URI(LRAParticipantRecord.cannonicalForm(participantUrl));
+            if (participantUrl.indexOf('<') < 0) {
+                // a recovery url, which is its own canonical form unless it has characters that need quoting
+                rec = index.getByRecoveryUrl(participantUrl);
 
-            rec = findLRAParticipantByRecoveryUrl(recoveryUrl, remove, pendingList, preparedList, heuristicList, failedList);
-
-        } catch (URISyntaxException ignore) {
-            String pUrl;
-            try {
-                pUrl = LRAParticipantRecord.extractCompensator(participantUrl);
-            } catch (URISyntaxException e) {
-                LRALogger.logger.info(LRALogger.i18nLogger.warn_invalid_uri(
-                        participantUrl, e.getMessage() + " findLRAParticipant"));
+                if (rec == null && !isAscii(participantUrl)) {
+                    rec = index.getByRecoveryUrl(LRAParticipantRecord.cannonicalForm(participantUrl));
+                }
+            } else {
+                // a participant that joins again usually presents the same link header so only parse a new one
+                rec = index.getByLink(participantUrl);
 
-                return null;
+                if (rec == null) {
+                    rec = index.getByCompensator(LRAParticipantRecord.extractCompensator(participantUrl));
+                }
             }
-            rec = findLRAParticipant(pUrl, remove, pendingList, preparedList, heuristicList, failedList);
+        } catch (URISyntaxException e) {
+            LRALogger.logger.info(LRALogger.i18nLogger.warn_invalid_uri(
+                    participantUrl, e.getMessage() + " findLRAParticipant"));
+
+            return null;
+        }
+
+        if (rec != null && remove) {
+            removeLRAParticipant(rec, pendingList, preparedList, heuristicList, failedList);
         }
 
         return rec;
     }
 
-    private LRAParticipantRecord findLRAParticipant(String participantUrl, boolean remove, RecordList... lists) {
+    private void removeLRAParticipant(LRAParticipantRecord rec, RecordList... lists) {
         for (RecordList list : lists) {
-            if (list != null) {
-                RecordListIterator i = new RecordListIterator(list);
-                AbstractRecord r;
-
-                if (participantUrl.indexOf(',') != -1) {
-                    try {
-                        participantUrl = LRAParticipantRecord.extractCompensator(participantUrl);
-                    } catch (URISyntaxException e) {
-                        continue;
-                    }
-                }
+            if (list != null && list.remove(rec)) {
+                participantIndex.removed(rec);
 
-                while ((r = i.iterate()) != null) {
-                    if (r instanceof LRAParticipantRecord) {
-                        LRAParticipantRecord rr = (LRAParticipantRecord) r;
-                        // can't use == because this may be a recovery scenario
-                        if (participantUrl.equals(rr.getCompensator())) {
-                            if (remove) {
-                                list.remove(rr);
-                            }
-
-                            return rr;
-                        }
-                    }
-                }
+                return;
             }
         }
-
-        return null;
     }
 
-    private LRAParticipantRecord findLRAParticipantByRecoveryUrl(URI recoveryUrl, boolean remove, RecordList... lists) {
-        for (RecordList list : lists) {
-            if (list != null) {
-                RecordListIterator i = new RecordListIterator(list);
-                AbstractRecord r;
-
-                while ((r = i.iterate()) != null) {
-                    if (r instanceof LRAParticipantRecord) {
-                        LRAParticipantRecord rr = (LRAParticipantRecord) r;
-                        // can't use == because this may be a recovery scenario
-                        if (rr.getRecoveryURI().equals(recoveryUrl)) {
-                            if (remove) {
-                                list.remove(rr);
-                            }
-
-                            return rr;
-                        }
-                    }
-                }
+    private static boolean isAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > 0x7F) {
+                return false;
             }
         }
 
-        return null;
+        return true;
     }
 
     public boolean isTopLevel() {
@@ -1112,7 +1326,7 @@ public class LongRunningAction extends BasicAction {
             }
         }
 
-        startTime = LocalDateTime.now(ZoneOffset.UTC);
+        startTime = System.currentTimeMillis();
 
         if (LRALogger.logger.isTraceEnabled()) {
             trace_progress("begin, deactivating");
@@ -1164,19 +1378,17 @@ public class LongRunningAction extends BasicAction {
             return Response.Status.PRECONDITION_FAILED.getStatusCode();
         }
 
-        Long nanosToAdd = timeLimit;
+        long ft;
         try {
-            nanosToAdd = Math.multiplyExact(timeLimit, 1000000);
+            ft = Math.addExact(System.currentTimeMillis(), timeLimit);
         } catch (ArithmeticException e) {
             LRALogger.logger.warn(
                     LRALogger.i18nLogger.warn_timelimit_too_long(timeLimit, Long.MAX_VALUE));
-            nanosToAdd = Long.MAX_VALUE;
+            ft = Long.MAX_VALUE;
         }
-        if (finishTime != null) {
+        if (finishTime != 0L) {
             // check whether the new time limit is less than the current one
-            LocalDateTime ft = LocalDateTime.now(ZoneOffset.UTC).plusNanos(nanosToAdd);
-
-            if (ft.isBefore(finishTime)) {
+            if (ft < finishTime) {
                 // the new timeout is earlier than the existing one - shortening is not allowed
                 return Response.Status.OK.getStatusCode();
             }
@@ -1192,7 +1404,7 @@ public class LongRunningAction extends BasicAction {
             }
         } else {
             // if timeLimit is negative the abort will be scheduled immediately
-            finishTime = LocalDateTime.now(ZoneOffset.UTC).plusNanos(nanosToAdd);
+            finishTime = ft;
         }
 
         if (LRALogger.logger.isTraceEnabled()) {
@@ -1254,6 +1466,7 @@ public class LongRunningAction extends BasicAction {
         }
     }
 
+    // the caller holds the lock on the LRA since the record is reindexed
     public boolean updateRecoveryURI(String linkHeader, String recoveryUri) {
         LRAParticipantRecord lraRecord = findLRAParticipant(recoveryUri, false);
 
@@ -1261,6 +1474,7 @@ public class LongRunningAction extends BasicAction {
             try {
                 lraRecord.setRecoveryURI(recoveryUri);
                 lraRecord.updateCallbacks(linkHeader);
+                participantIndex.invalidate(); // the record is indexed by its old urls
 
                 if (!deactivate()) {
                     LRALogger.logger.warn(LRALogger.i18nLogger.warn_saveState(DEACTIVATE_REASON));
@@ -1279,6 +1493,43 @@ public class LongRunningAction extends BasicAction {
         return true;
     }
 
+    /**
+     * A participant that accepted a request to complete or compensate (with a 202 response) reports that it has
+     * finished. The outcome is recorded immediately, finishing the LRA if it was the last participant, instead of
+     * waiting for recovery to poll the status of the participant. The caller must hold the lock on the LRA.
+     *
+     * @param participantId the last segment of the recovery URL of the participant
+     * @param outcome the status that the participant finished in
+     * @return the HTTP status code for the report
+     */
+    public int participantEnded(String participantId, ParticipantStatus outcome) {
+        // match the id rather than the whole URL since the coordinator may be reachable on other hosts
+        LRAParticipantRecord participant = getParticipantIndex().getByParticipantId(participantId);
+
+        if (participant == null) {
+            return Response.Status.NOT_FOUND.getStatusCode();
+        }
+
+        if (!participant.endReported(outcome)) {
+            return Response.Status.PRECONDITION_FAILED.getStatusCode();
+        }
+
+        if (LRALogger.logger.isTraceEnabled()) {
+            trace_progress("participant ended " + outcome);
+        }
+
+        // run the remaining participant actions if this was the last participant that the LRA was waiting for
+        runPostLRAActions();
+
+        updateState(); // ensure the record is removed if it finished otherwise persist the participant outcome
+
+        if (!isRecovering()) {
+            lraService.finished(this, false);
+        }
+
+        return Response.Status.OK.getStatusCode();
+    }
+
     public URI getParentId() {
         return parentId;
     }
@@ -1318,13 +1569,36 @@ public class LongRunningAction extends BasicAction {
 
     private void trace_progress(String reason) {
         LRALogger.logger.tracef("%s: LRA id: %s (%s) parent: %s reason: %s state: %s created: %s ttl: %s",
-                LocalDateTime.now(ZoneOffset.UTC), // use the same time function as used for LRA timeouts
+                Instant.now(), // use the same clock as used for LRA timeouts
                 id,
                 clientId,
                 parentId == null ? "" : parentId,
                 reason,
                 status,
-                startTime,
-                finishTime);
+                startTime == 0L ? null : Instant.ofEpochMilli(startTime),
+                finishTime == 0L ? null : Instant.ofEpochMilli(finishTime));
+    }
+
+    // a join waiting to be enlisted, the queue of joins is a stack linked through the next field
+    private static final class Enlistment {
+        private final URI coordinatorUrl;
+        private final String participantUrl;
+        private final String recoveryUrlBase;
+        private final long timeLimit;
+        private final String compensatorData;
+        private final String version;
+        private final CompletableFuture<LRAParticipantRecord> result = new CompletableFuture<>();
+        private Enlistment next;
+        private LRAParticipantRecord participant;
+
+        Enlistment(URI coordinatorUrl, String participantUrl, String recoveryUrlBase, long timeLimit,
+                String compensatorData, String version) {
+            this.coordinatorUrl = coordinatorUrl;
+            this.participantUrl = participantUrl;
+            this.recoveryUrlBase = recoveryUrlBase;
+            this.timeLimit = timeLimit;
+            this.compensatorData = compensatorData;
+            this.version = version;
+        }
     }
 }
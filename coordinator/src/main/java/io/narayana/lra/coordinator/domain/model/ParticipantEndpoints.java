@@ -0,0 +1,268 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.lra.coordinator.domain.model;
+
+import static io.narayana.lra.LRAConstants.AFTER;
+import static io.narayana.lra.LRAConstants.COMPENSATE;
+import static io.narayana.lra.LRAConstants.COMPLETE;
+import static io.narayana.lra.LRAConstants.FORGET;
+import static io.narayana.lra.LRAConstants.STATUS;
+
+import io.narayana.lra.LRAConstants;
+import io.narayana.lra.LinkHeader;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import org.eclipse.microprofile.config.ConfigProvider;
+
+/**
+ * The callback endpoints of a participant parsed from the Link header that it enlisted with. Instances are
+ * immutable so participants that enlist with the same endpoints, which is the common case since every LRA
+ * started by a service enlists the same resources, share one instance instead of each parsing and holding
+ * their own copy. The cache is keyed by the Link header as sent and by its canonical form and holds at most
+ * {@link LRAConstants#PARTICIPANT_ENDPOINT_CACHE_SIZE} entries, the least recently used entry is evicted
+ * to make room for a new one.
+ */
+final class ParticipantEndpoints {
+    static final ParticipantEndpoints NONE = new ParticipantEndpoints(null, null, null, null, null);
+
+    private static final String PARTICIPANT_REL = "participant";
+    private static final int MAX_ENTRIES = initMaxEntries();
+    // Link header (both as sent and in canonical form) to its endpoints
+    private static final Cache<String, ParticipantEndpoints> byLink = new Cache<>(MAX_ENTRIES);
+    // endpoints restored from the object store or parsed from a header
+    private static final Cache<ParticipantEndpoints, ParticipantEndpoints> interned = new Cache<>(MAX_ENTRIES);
+    // the individual endpoints of the interned instances
+    private static final Cache<URI, URI> uris = new Cache<>(MAX_ENTRIES);
+
+    final URI compensate;
+    final URI complete;
+    final URI status;
+    final URI forget;
+    final URI after;
+
+    private ParticipantEndpoints(URI compensate, URI complete, URI status, URI forget, URI after) {
+        this.compensate = compensate;
+        this.complete = complete;
+        this.status = status;
+        this.forget = forget;
+        this.after = after;
+    }
+
+    private static int initMaxEntries() {
+        try {
+            return ConfigProvider.getConfig().getValue(LRAConstants.PARTICIPANT_ENDPOINT_CACHE_SIZE, Integer.class);
+        } catch (Exception e) {
+            return 1024; // the property is unset or there is no config provider so use the default value
+        }
+    }
+
+    /**
+     * Parse the endpoints of a participant that is enlisting
+     *
+     * @param linkURI either a Link header or the URL of a resource with complete, compensate and status
+     *        sub-resources
+     * @return the (possibly shared) endpoints of the participant
+     * @throws URISyntaxException if one of the endpoints is not a valid URI
+     */
+    static ParticipantEndpoints of(String linkURI) throws URISyntaxException {
+        ParticipantEndpoints endpoints = byLink.get(linkURI);
+
+        if (endpoints != null) {
+            return endpoints;
+        }
+
+        // the header has not been seen in this form before but the same endpoints may have been sent in a different order
+        LinkHeader links = linkURI.startsWith("<") ? LinkHeader.parse(linkURI) : null;
+        String canonical = links != null ? links.toCanonicalString() : new URI(linkURI).toASCIIString();
+
+        endpoints = byLink.get(canonical);
+
+        if (endpoints == null) {
+            endpoints = intern(links != null ? parseLinks(links) : parseResource(canonical));
+            cache(canonical, endpoints);
+        }
+
+        cache(linkURI, endpoints);
+
+        return endpoints;
+    }
+
+    /**
+     * Share the endpoints of a participant restored from the object store with other participants that have the
+     * same endpoints
+     */
+    static ParticipantEndpoints of(URI compensate, URI complete, URI status, URI forget, URI after) {
+        return intern(new ParticipantEndpoints(compensate, complete, status, forget, after));
+    }
+
+    // parse a comma separated list of links, a later link for a relation replaces an earlier one
+    static ParticipantEndpoints parseLinks(String linkStr) throws URISyntaxException {
+        return parseLinks(LinkHeader.parse(linkStr));
+    }
+
+    private static ParticipantEndpoints parseLinks(LinkHeader links) throws URISyntaxException {
+        ParticipantEndpoints endpoints = NONE;
+        URISyntaxException error = null;
+
+        for (int i = 0; i < links.size(); i++) {
+            try {
+                endpoints = endpoints.merge(parseLink(links.getRel(i), links.getTarget(i)));
+            } catch (URISyntaxException e) {
+                error = e;
+            }
+        }
+
+        if (error != null) {
+            throw error;
+        }
+
+        return endpoints;
+    }
+
+    private static ParticipantEndpoints parseLink(String rel, String target) throws URISyntaxException {
+        URI uri = cannonicalURI(new URI(target));
+
+        if (COMPENSATE.equals(rel)) {
+            return new ParticipantEndpoints(uri, null, null, null, null);
+        } else if (COMPLETE.equals(rel)) {
+            return new ParticipantEndpoints(null, uri, null, null, null);
+        } else if (STATUS.equals(rel)) {
+            return new ParticipantEndpoints(null, null, uri, null, null);
+        } else if (AFTER.equals(rel)) {
+            return new ParticipantEndpoints(null, null, null, null, uri);
+        } else if (FORGET.equals(rel)) {
+            return new ParticipantEndpoints(null, null, null, uri, null);
+        } else if (PARTICIPANT_REL.equals(rel)) {
+            return parseResource(uri.toASCIIString());
+        }
+
+        return NONE;
+    }
+
+    private static ParticipantEndpoints parseResource(String resource) throws URISyntaxException {
+        URI uri = new URI(resource);
+
+        return new ParticipantEndpoints(new URI(resource + "/compensate"), new URI(resource + "/complete"), uri, uri, null);
+    }
+
+    private static URI cannonicalURI(URI uri) throws URISyntaxException {
+        return new URI(uri.getScheme(),
+                uri.getUserInfo(),
+                uri.getHost(),
+                uri.getPort(),
+                uri.getPath().replaceAll("//", "/"),
+                uri.getQuery(), uri.getFragment());
+    }
+
+    // the endpoints of this participant overridden by any endpoints that the update provides
+    ParticipantEndpoints merge(ParticipantEndpoints update) {
+        return new ParticipantEndpoints(
+                update.compensate != null ? update.compensate : compensate,
+                update.complete != null ? update.complete : complete,
+                update.status != null ? update.status : status,
+                update.forget != null ? update.forget : forget,
+                update.after != null ? update.after : after);
+    }
+
+    ParticipantEndpoints withStatus(URI statusURI) {
+        return new ParticipantEndpoints(compensate, complete, statusURI, forget, after);
+    }
+
+    ParticipantEndpoints withoutForget() {
+        return forget == null ? this : new ParticipantEndpoints(compensate, complete, status, null, after);
+    }
+
+    ParticipantEndpoints withoutAfter() {
+        return after == null ? this : new ParticipantEndpoints(compensate, complete, status, forget, null);
+    }
+
+    private static void cache(String link, ParticipantEndpoints endpoints) {
+        if (MAX_ENTRIES > 0) {
+            byLink.putIfAbsent(link, endpoints);
+        }
+    }
+
+    private static ParticipantEndpoints intern(ParticipantEndpoints endpoints) {
+        if (MAX_ENTRIES <= 0) {
+            return endpoints;
+        }
+
+        ParticipantEndpoints existing = interned.get(endpoints);
+
+        if (existing != null) {
+            return existing;
+        }
+
+        // different participants of the same service usually share some of their endpoints
+        ParticipantEndpoints shared = new ParticipantEndpoints(intern(endpoints.compensate), intern(endpoints.complete),
+                intern(endpoints.status), intern(endpoints.forget), intern(endpoints.after));
+
+        existing = interned.putIfAbsent(shared, shared);
+
+        return existing != null ? existing : shared;
+    }
+
+    private static URI intern(URI uri) {
+        if (uri == null) {
+            return null;
+        }
+
+        URI existing = uris.putIfAbsent(uri, uri);
+
+        return existing != null ? existing : uri;
+    }
+
+    /*
+     * A bounded map that evicts its least recently used entry when it is full. Evicting one entry at a time
+     * means that a burst of new endpoints only displaces the entries that are no longer used instead of
+     * making every participant parse its header again. Participants that hold an evicted instance keep it.
+     */
+    private static final class Cache<K, V> {
+        private final Map<K, V> entries;
+
+        Cache(int maxEntries) {
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                    return size() > maxEntries;
+                }
+            };
+        }
+
+        synchronized V get(K key) {
+            return entries.get(key);
+        }
+
+        synchronized V putIfAbsent(K key, V value) {
+            return entries.putIfAbsent(key, value);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        if (!(o instanceof ParticipantEndpoints)) {
+            return false;
+        }
+
+        ParticipantEndpoints that = (ParticipantEndpoints) o;
+
+        return Objects.equals(compensate, that.compensate) && Objects.equals(complete, that.complete)
+                && Objects.equals(status, that.status) && Objects.equals(forget, that.forget)
+                && Objects.equals(after, that.after);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(compensate, complete, status, forget, after);
+    }
+}
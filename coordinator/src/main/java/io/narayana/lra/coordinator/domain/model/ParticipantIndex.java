@@ -0,0 +1,156 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.lra.coordinator.domain.model;
+
+import com.arjuna.ats.arjuna.coordinator.AbstractRecord;
+import com.arjuna.ats.arjuna.coordinator.RecordList;
+import com.arjuna.ats.arjuna.coordinator.RecordListIterator;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Hash indexes over the participant records held in the record lists of an LRA, keyed by compensator URL, by
+ * recovery URL, by the link header that the participant joined with and by participant id (the last segment of the
+ * recovery URL). The indexed keys are computed once per record so that a lookup no longer walks the lists and
+ * converts every endpoint to a string.
+ * <p>
+ * Records that the LRA adds or removes itself are applied to the index directly. The LRA also hands its lists to
+ * {@link com.arjuna.ats.arjuna.coordinator.BasicAction} as it ends, which moves the records from list to list and
+ * drops the ones that have finished, so the LRA calls {@link #invalidate()} whenever it does that and the index is
+ * rebuilt the next time that it is used. The index is not thread safe: like the record lists it is only used while
+ * the lock on the LRA is held, see {@link io.narayana.lra.coordinator.domain.service.LRAService#lockTransaction}.
+ */
+final class ParticipantIndex {
+    private final Map<String, LRAParticipantRecord> byCompensator = new HashMap<>();
+    private final Map<String, LRAParticipantRecord> byRecoveryUrl = new HashMap<>();
+    private final Map<String, LRAParticipantRecord> byLink = new HashMap<>();
+    private final Map<String, LRAParticipantRecord> byParticipantId = new HashMap<>();
+
+    // whether the record lists may have changed since the index was built
+    private boolean stale = true;
+    // whether a key is shared by more than one record, in which case a removal may uncover a record that is not indexed
+    private boolean shadowed;
+
+    /**
+     * Rebuild the index from the record lists if they may have changed since it was last built
+     */
+    void sync(RecordList... current) {
+        if (stale) {
+            rebuild(current);
+        }
+    }
+
+    /**
+     * Note that the record lists, or the keys of a record, are about to change in a way that the index cannot follow
+     */
+    void invalidate() {
+        stale = true;
+    }
+
+    /**
+     * Index a record that the LRA has just added to one of its lists
+     *
+     * @param record the new record
+     */
+    void added(LRAParticipantRecord record) {
+        if (!stale) {
+            put(record);
+        }
+    }
+
+    /**
+     * Remove a record that the LRA has just removed from one of its lists
+     *
+     * @param record the removed record
+     */
+    void removed(LRAParticipantRecord record) {
+        if (shadowed) {
+            invalidate();
+        } else if (!stale) {
+            URI recoveryUri = record.getRecoveryURI();
+
+            byCompensator.remove(record.getCompensator(), record);
+            byLink.remove(record.getParticipantPath(), record);
+
+            if (recoveryUri != null) {
+                byRecoveryUrl.remove(recoveryUri.toASCIIString(), record);
+                byParticipantId.remove(participantId(recoveryUri), record);
+            }
+        }
+    }
+
+    LRAParticipantRecord getByCompensator(String compensator) {
+        return byCompensator.get(compensator);
+    }
+
+    /**
+     * @param recoveryUrl the ASCII form of the recovery URL
+     */
+    LRAParticipantRecord getByRecoveryUrl(String recoveryUrl) {
+        return byRecoveryUrl.get(recoveryUrl);
+    }
+
+    /**
+     * @param link the link header exactly as the participant presented it when it joined
+     */
+    LRAParticipantRecord getByLink(String link) {
+        return byLink.get(link);
+    }
+
+    LRAParticipantRecord getByParticipantId(String participantId) {
+        return byParticipantId.get(participantId);
+    }
+
+    private void rebuild(RecordList[] current) {
+        byCompensator.clear();
+        byRecoveryUrl.clear();
+        byLink.clear();
+        byParticipantId.clear();
+        shadowed = false;
+
+        for (RecordList list : current) {
+            if (list != null) {
+                RecordListIterator iterator = new RecordListIterator(list);
+                AbstractRecord r;
+
+                while ((r = iterator.iterate()) != null) {
+                    if (r instanceof LRAParticipantRecord) {
+                        put((LRAParticipantRecord) r);
+                    }
+                }
+            }
+        }
+
+        stale = false;
+    }
+
+    // a record found in an earlier list takes precedence, as it did when the lists were searched in order
+    private void put(LRAParticipantRecord record) {
+        String compensator = record.getCompensator();
+        String link = record.getParticipantPath();
+        URI recoveryUri = record.getRecoveryURI();
+
+        if (compensator != null) {
+            shadowed |= byCompensator.putIfAbsent(compensator, record) != null;
+        }
+
+        if (link != null && link.indexOf('<') >= 0) {
+            shadowed |= byLink.putIfAbsent(link, record) != null;
+        }
+
+        if (recoveryUri != null) {
+            shadowed |= byRecoveryUrl.putIfAbsent(recoveryUri.toASCIIString(), record) != null;
+            shadowed |= byParticipantId.putIfAbsent(participantId(recoveryUri), record) != null;
+        }
+    }
+
+    private static String participantId(URI recoveryUri) {
+        String path = recoveryUri.getPath();
+
+        return path == null ? null : path.substring(path.lastIndexOf('/') + 1);
+    }
+}
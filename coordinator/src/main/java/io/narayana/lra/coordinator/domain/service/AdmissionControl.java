@@ -0,0 +1,171 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.lra.coordinator.domain.service;
+
+import io.narayana.lra.LRAConstants;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.eclipse.microprofile.config.ConfigProvider;
+
+/**
+ * Limits how many start, join and end requests the coordinator processes at once so that, when it is overloaded,
+ * callers are told to come back later instead of queueing on the LRA locks and the object store. The limit adapts
+ * to the measured latency of the admitted requests: it is cut by a tenth when the smoothed latency exceeds the
+ * target and otherwise grows by one per limit's worth of requests (additive increase, multiplicative decrease).
+ * The limit is cut at most once per round trip, ie not again until the requests that were in progress when it was
+ * last cut have finished, because their latencies reflect the old limit rather than the new one.
+ */
+public final class AdmissionControl {
+    // weight of the latest sample in the smoothed latency
+    private static final double SMOOTHING = 0.2;
+    private static final double DECREASE = 0.9;
+
+    private final int maxConcurrency;
+    private final long targetLatencyNanos;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    // guarded by this, the limit is also published to tryAcquire via the volatile admitted field
+    private double limit;
+    private long smoothedLatencyNanos;
+    // the number of latency samples taken so far and the sample after which the limit may be cut again
+    private long samples;
+    private long nextDecrease;
+    private volatile int admitted;
+
+    public AdmissionControl() {
+        this(initMaxConcurrency(), initTargetLatency());
+    }
+
+    /**
+     * @param maxConcurrency the maximum number of requests processed at once, zero disables admission control
+     * @param targetLatencyMillis how long a request may take before the coordinator considers itself overloaded
+     */
+    public AdmissionControl(int maxConcurrency, long targetLatencyMillis) {
+        this.maxConcurrency = Math.max(0, maxConcurrency);
+        this.targetLatencyNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1L, targetLatencyMillis));
+        this.limit = this.maxConcurrency;
+        this.admitted = this.maxConcurrency;
+    }
+
+    /**
+     * @return admission control for close and cancel requests, which are limited separately so that a burst of
+     *         starts and joins cannot stop the LRAs that are in progress from ending and releasing their resources
+     */
+    public static AdmissionControl forEnds() {
+        return new AdmissionControl(initEndMaxConcurrency(), initTargetLatency());
+    }
+
+    private static int initMaxConcurrency() {
+        try {
+            return ConfigProvider.getConfig().getValue(LRAConstants.ADMISSION_MAX_CONCURRENCY, Integer.class);
+        } catch (Exception e) {
+            return 0; // the property is unset or there is no config provider so use the default value
+        }
+    }
+
+    private static int initEndMaxConcurrency() {
+        try {
+            return ConfigProvider.getConfig().getValue(LRAConstants.ADMISSION_END_MAX_CONCURRENCY, Integer.class);
+        } catch (Exception e) {
+            // the property is unset or there is no config provider so use the limit on starts and joins
+            return initMaxConcurrency();
+        }
+    }
+
+    private static long initTargetLatency() {
+        try {
+            return ConfigProvider.getConfig().getValue(LRAConstants.ADMISSION_TARGET_LATENCY, Long.class);
+        } catch (Exception e) {
+            return 500L; // the property is unset or there is no config provider so use the default value
+        }
+    }
+
+    public boolean isEnabled() {
+        return maxConcurrency > 0;
+    }
+
+    /**
+     * Admit a request if fewer than the current limit are in progress. An admitted request must be followed
+     * by a call to {@link #release(long)}.
+     *
+     * @return false if the coordinator is overloaded and the request should be rejected
+     */
+    public boolean tryAcquire() {
+        if (!isEnabled()) {
+            return true;
+        }
+
+        for (;;) {
+            int current = inFlight.get();
+
+            if (current >= admitted) {
+                return false;
+            }
+
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Finish an admitted request
+     *
+     * @param latencyNanos how long the request took or a negative value if it should not influence the limit,
+     *        for example because it also waited for participants
+     */
+    public void release(long latencyNanos) {
+        if (!isEnabled()) {
+            return;
+        }
+
+        inFlight.decrementAndGet();
+
+        if (latencyNanos < 0) {
+            return;
+        }
+
+        synchronized (this) {
+            smoothedLatencyNanos = smoothedLatencyNanos == 0 ? latencyNanos
+                    : (long) (smoothedLatencyNanos + SMOOTHING * (latencyNanos - smoothedLatencyNanos));
+
+            samples++;
+
+            if (smoothedLatencyNanos > targetLatencyNanos) {
+                if (samples > nextDecrease) {
+                    limit = Math.max(1, limit * DECREASE);
+                    nextDecrease = samples + inFlight.get();
+                }
+            } else {
+                limit = Math.min(maxConcurrency, limit + 1 / limit);
+            }
+
+            admitted = (int) limit;
+        }
+    }
+
+    /**
+     * @return how many seconds a rejected caller should wait before retrying: the time the requests in progress
+     *         are expected to take to drain, and at least one second
+     */
+    public long getRetryAfter() {
+        if (!isEnabled()) {
+            return 1L;
+        }
+
+        long drainNanos;
+
+        synchronized (this) {
+            drainNanos = (long) (smoothedLatencyNanos * Math.max(1.0, inFlight.get() / limit));
+        }
+
+        return Math.max(1L, (drainNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+    }
+
+    public int getLimit() {
+        return isEnabled() ? admitted : Integer.MAX_VALUE;
+    }
+}
@@ -0,0 +1,95 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.lra.coordinator.domain.service;
+
+import io.narayana.lra.ParticipantInvocation;
+import io.narayana.lra.ParticipantInvoker;
+import jakarta.ws.rs.core.Response;
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A {@link ParticipantInvoker} for participants that run in the same JVM as the coordinator, for example when the
+ * coordinator is embedded in the application. A participant is registered with the URL of its resource and then
+ * receives every callback whose endpoint is that URL or lies beneath it, so the coordinator skips the loopback HTTP
+ * request that it would otherwise make. The URL must match the one that the participant enlisted with (so
+ * {@code localhost} and {@code 127.0.0.1} are different) and the most specific registration wins.
+ */
+public final class InVMParticipantInvoker implements ParticipantInvoker {
+    // scheme, authority and path of the registered resources without any trailing slash
+    private final Map<String, ParticipantInvoker> participants = new ConcurrentHashMap<>();
+
+    /**
+     * Register a participant running in the same JVM as the coordinator
+     *
+     * @param resource the URL of the participant resource, its endpoints are this URL or lie beneath it
+     * @param participant delivers the callbacks to the participant, for example by calling the methods of a JAX-RS
+     *        resource or of a participant in the {@code LRAParticipantRegistry}
+     */
+    public void register(URI resource, ParticipantInvoker participant) {
+        participants.put(keyOf(resource), participant);
+    }
+
+    public void unregister(URI resource) {
+        participants.remove(keyOf(resource));
+    }
+
+    public boolean isEmpty() {
+        return participants.isEmpty();
+    }
+
+    @Override
+    public Response invoke(ParticipantInvocation invocation) {
+        ParticipantInvoker participant = find(invocation.getEndpoint());
+
+        return participant == null ? null : participant.invoke(invocation);
+    }
+
+    @Override
+    public boolean reaches(URI endpoint) {
+        return find(endpoint) != null;
+    }
+
+    // the participant registered with the longest resource URL that is the endpoint or lies above it
+    private ParticipantInvoker find(URI endpoint) {
+        if (participants.isEmpty()) {
+            return null;
+        }
+
+        String prefix = keyOf(endpoint);
+        // the index of the slash that starts the path, the loop stops once the path has been consumed
+        int root = endpoint.getScheme() == null ? 0 : endpoint.getScheme().length() + 3;
+
+        while (true) {
+            ParticipantInvoker participant = participants.get(prefix);
+
+            if (participant != null) {
+                return participant;
+            }
+
+            int slash = prefix.lastIndexOf('/');
+
+            if (slash < root) {
+                return null;
+            }
+
+            prefix = prefix.substring(0, slash);
+        }
+    }
+
+    private static String keyOf(URI uri) {
+        String path = uri.getRawPath();
+
+        if (path == null) {
+            path = "";
+        } else if (path.endsWith("/")) {
+            path = path.substring(0, path.length() - 1);
+        }
+
+        return uri.getScheme() == null ? path : uri.getScheme() + "://" + uri.getRawAuthority() + path;
+    }
+}
@@ -0,0 +1,73 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.lra.coordinator.domain.service;
+
+import io.narayana.lra.coordinator.domain.model.LongRunningAction;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Everything {@link LRAService} tracks for one LRA. A single entry replaces what used to be separate map
+ * entries for the active LRAs, the recovering LRAs, the lock table and the participant recovery URLs.
+ * The lock and the participant map are only created when they are first needed since most LRAs are
+ * never contended and many have no participant whose recovery URL is replaced.
+ */
+final class LRAEntry {
+    // replaced if recovery reloads an LRA that is not active
+    volatile LongRunningAction lra;
+    // the LRA is active (it was started or reloaded by this coordinator)
+    volatile boolean active;
+    // the LRA is waiting for recovery to finish it
+    volatile boolean recovering;
+    private ReentrantLock lock;
+    // recovery URL to participant URL
+    private volatile Map<String, String> participants;
+
+    LRAEntry(LongRunningAction lra) {
+        this.lra = lra;
+    }
+
+    synchronized ReentrantLock getLock() {
+        if (lock == null) {
+            lock = new ReentrantLock();
+        }
+
+        return lock;
+    }
+
+    synchronized boolean hasLock() {
+        return lock != null;
+    }
+
+    // used when a lock was handed out before the entry existed
+    synchronized void adoptLock(ReentrantLock existing) {
+        if (lock == null) {
+            lock = existing;
+        }
+    }
+
+    Map<String, String> getParticipants() {
+        return participants;
+    }
+
+    Map<String, String> getOrCreateParticipants() {
+        Map<String, String> map = participants;
+
+        if (map == null) {
+            synchronized (this) {
+                map = participants;
+
+                if (map == null) {
+                    map = new ConcurrentHashMap<>(2);
+                    participants = map;
+                }
+            }
+        }
+
+        return map;
+    }
+}
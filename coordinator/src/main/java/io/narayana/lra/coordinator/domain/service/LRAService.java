@@ -7,8 +7,6 @@ package io.narayana.lra.coordinator.domain.service;
 
 import static jakarta.ws.rs.core.Response.Status.INTERNAL_SERVER_ERROR;
 import static jakarta.ws.rs.core.Response.Status.NOT_FOUND;
-import static jakarta.ws.rs.core.Response.Status.SERVICE_UNAVAILABLE;
-import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.stream.Collectors.toList;
 
 import com.arjuna.ats.arjuna.common.Uid;
@@ -17,35 +15,128 @@ import com.arjuna.ats.arjuna.coordinator.BasicAction;
 import com.arjuna.ats.arjuna.recovery.RecoveryManager;
 import io.narayana.lra.LRAConstants;
 import io.narayana.lra.LRAData;
+import io.narayana.lra.LinkHeader;
+import io.narayana.lra.ParticipantInvocation;
+import io.narayana.lra.ParticipantInvoker;
 import io.narayana.lra.coordinator.domain.model.LRAParticipantRecord;
 import io.narayana.lra.coordinator.domain.model.LongRunningAction;
 import io.narayana.lra.coordinator.internal.LRARecoveryModule;
+import io.narayana.lra.jfr.LRABeginEvent;
 import io.narayana.lra.logging.LRALogger;
 import jakarta.ws.rs.NotFoundException;
+import jakarta.ws.rs.ServiceUnavailableException;
 import jakarta.ws.rs.WebApplicationException;
 import jakarta.ws.rs.core.Response;
 import java.io.UnsupportedEncodingException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.PriorityQueue;
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.locks.ReentrantLock;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import org.eclipse.microprofile.config.ConfigProvider;
 import org.eclipse.microprofile.lra.annotation.LRAStatus;
+import org.eclipse.microprofile.lra.annotation.ParticipantStatus;
 
 public class LRAService {
-    private static final Pattern LINK_REL_PATTERN = Pattern.compile("(\\w+)=\"([^\"]+)\"|([^\\s]+)");
+    private static final Comparator<LongRunningAction> UID_ORDER = Comparator.comparing(LRAService::uidOf);
 
-    private final Map<URI, LongRunningAction> lras = new ConcurrentHashMap<>();
-    private final Map<URI, LongRunningAction> recoveringLRAs = new ConcurrentHashMap<>();
-    private final Map<URI, ReentrantLock> locks = new ConcurrentHashMap<>();
-    private final Map<LongRunningAction, Map<String, String>> lraParticipants = new ConcurrentHashMap<>();
+    private static final int SHARD_COUNT = initShardCount();
+
+    // the active and recovering LRAs, their locks and their participants partitioned by uid hash
+    private final LRAShard[] shards = initShards();
+    private final List<LRAStatusListener> statusListeners = new CopyOnWriteArrayList<>();
+    private final InVMParticipantInvoker localParticipants = new InVMParticipantInvoker();
+    private final List<ParticipantInvoker> participantInvokers = initParticipantInvokers();
+    private final AdmissionControl admissionControl = new AdmissionControl();
+    private final AdmissionControl endAdmissionControl = AdmissionControl.forEnds();
     private LRARecoveryModule recoveryModule;
 
+    private static int initShardCount() {
+        try {
+            return Math.max(1, ConfigProvider.getConfig().getValue(LRAConstants.COORDINATOR_SHARDS, Integer.class));
+        } catch (Exception e) {
+            return 1; // the property is unset or there is no config provider so use the default value
+        }
+    }
+
+    // the invokers that integrations, such as the JAX-RS filter and the participant proxy, make available
+    private static List<ParticipantInvoker> initParticipantInvokers() {
+        List<ParticipantInvoker> invokers = new CopyOnWriteArrayList<>();
+
+        ServiceLoader.load(ParticipantInvoker.class).forEach(invokers::add);
+
+        return invokers;
+    }
+
+    private static LRAShard[] initShards() {
+        LRAShard[] shards = new LRAShard[SHARD_COUNT];
+
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new LRAShard();
+        }
+
+        return shards;
+    }
+
+    /**
+     * @return the number of partitions that the coordinator state and the LRA log records are divided into
+     */
+    public static int getShardCount() {
+        return SHARD_COUNT;
+    }
+
+    /**
+     * Determine which partition an LRA belongs to. The assignment only depends on the uid and the configured
+     * number of shards so it is stable across coordinator restarts.
+     *
+     * @param uid the uid of the LRA in the form used in LRA ids
+     * @return the index of the shard in the range [0, {@link #getShardCount()})
+     */
+    public static int shardOf(String uid) {
+        return SHARD_COUNT == 1 || uid == null ? 0 : Math.floorMod(uid.hashCode(), SHARD_COUNT);
+    }
+
+    /**
+     * @param uid the uid of the LRA
+     * @return the index of the shard that the LRA belongs to
+     */
+    public static int shardOf(Uid uid) {
+        return SHARD_COUNT == 1 ? 0 : shardOf(uid.fileStringForm());
+    }
+
+    private LRAShard shardFor(String uid) {
+        return shards[shardOf(uid)];
+    }
+
+    LRAShard shardFor(URI lraId) {
+        return SHARD_COUNT == 1 ? shards[0] : shardFor(LRAConstants.getLRAUid(lraId));
+    }
+
+    private LRAShard shardFor(LongRunningAction lra) {
+        return shards[shardOf(lra.get_uid())];
+    }
+
     public LongRunningAction getTransaction(URI lraId) throws NotFoundException {
-        if (!lras.containsKey(lraId)) {
+        LRAShard shard = shardFor(lraId);
+        LRAEntry entry = shard.entries.get(lraId);
+
+        if (entry == null) {
             String uid = LRAConstants.getLRAUid(lraId);
 
             if (uid == null || uid.isEmpty()) {
@@ -57,28 +148,75 @@ public class LRAService {
 
             // try comparing on uid since different URIs can map to the same resource
             // (eg localhost versus 127.0.0.1 versus :1 etc)
-            for (LongRunningAction lra : lras.values()) {
-                if (uid.equals(lra.get_uid().fileStringForm())) {
-                    return lra;
-                }
-            }
+            entry = shard.entriesByUid.get(uid);
 
-            if (!recoveringLRAs.containsKey(lraId)) {
-                for (LongRunningAction lra : recoveringLRAs.values()) {
-                    if (uid.equals(lra.get_uid().fileStringForm())) {
-                        return lra;
-                    }
-                }
+            if (entry == null && LRARecoveryModule.isLazyStartup()) {
+                // the coordinator may have yet to load the LRA from the store
+                getRM().loadOnDemand(uid);
+                entry = shard.entriesByUid.get(uid);
+            }
 
+            if (entry == null) {
                 String errorMsg = "Cannot find transaction id: " + lraId;
                 throw new NotFoundException(errorMsg,
                         Response.status(NOT_FOUND).entity(errorMsg).build());
             }
+        }
 
-            return recoveringLRAs.get(lraId);
+        return entry.lra;
+    }
+
+    /**
+     * Look up an LRA using the uid segment of its id. This is the cheapest way of finding an LRA
+     * since, unlike {@link #getTransaction(URI)}, it does not need a URI to be built and it does not allocate.
+     *
+     * @param uid the last path segment of the LRA id
+     * @return the LRA or null if the coordinator has no knowledge of it
+     */
+    public LongRunningAction lookupTransactionByUid(String uid) {
+        LRAEntry entry = uid == null ? null : shardFor(uid).entriesByUid.get(uid);
+
+        if (entry == null && uid != null && LRARecoveryModule.isLazyStartup()) {
+            getRM().loadOnDemand(uid);
+            entry = shardFor(uid).entriesByUid.get(uid);
         }
 
-        return lras.get(lraId);
+        return entry == null ? null : entry.lra;
+    }
+
+    /**
+     * Get the nested LRAs of an LRA using the parent/child index rather than by inspecting LRA ids.
+     *
+     * @param parentId the id of the enclosing LRA
+     * @return the children of the LRA that this coordinator knows about
+     */
+    public Set<LongRunningAction> getChildren(URI parentId) {
+        String parentUid = parentId == null ? null : LRAConstants.getLRAUid(parentId);
+        Set<LongRunningAction> children = parentUid == null ? null : shardFor(parentUid).childIndex.get(parentUid);
+
+        return children == null ? Collections.emptySet() : Collections.unmodifiableSet(children);
+    }
+
+    /*
+     * Make sure that none of the nested LRAs of an LRA that has just ended are left active. The parent ends its
+     * children through the records that link them but a child whose link could not be restored, for example
+     * because it was loaded before its parent which may live in a different shard, is only known to the index.
+     * Children that the records have already ended are skipped so the common case is a walk over the index.
+     */
+    private void endChildren(LongRunningAction parent, boolean compensate) {
+        for (LongRunningAction child : getChildren(parent.getId())) {
+            if (child.getLRAStatus() == LRAStatus.Active) {
+                ReentrantLock lock = lockTransaction(child.getId());
+
+                try {
+                    child.finishLRA(compensate);
+                } finally {
+                    lock.unlock();
+                }
+
+                endChildren(child, compensate);
+            }
+        }
     }
 
     public LongRunningAction lookupTransaction(URI lraId) {
@@ -94,29 +232,16 @@ public class LRAService {
         return lra.getLRAData();
     }
 
-    public synchronized ReentrantLock lockTransaction(URI lraId) {
-        ReentrantLock lock = locks.computeIfAbsent(lraId, k -> new ReentrantLock());
-
-        lock.lock();
-
-        return lock;
+    public ReentrantLock lockTransaction(URI lraId) {
+        return shardFor(lraId).lockTransaction(lraId);
     }
 
-    public synchronized ReentrantLock tryLockTransaction(URI lraId) {
-        ReentrantLock lock = locks.computeIfAbsent(lraId, k -> new ReentrantLock());
-
-        return lock.tryLock() ? lock : null;
+    public ReentrantLock tryLockTransaction(URI lraId) {
+        return shardFor(lraId).tryLockTransaction(lraId);
     }
 
-    public synchronized ReentrantLock tryTimedLockTransaction(URI lraId, long timeout) {
-        ReentrantLock lock = locks.computeIfAbsent(lraId, k -> new ReentrantLock());
-
-        try {
-            return lock.tryLock(timeout, MILLISECONDS) ? lock : null;
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            return null;
-        }
+    public ReentrantLock tryTimedLockTransaction(URI lraId, long timeout) {
+        return shardFor(lraId).tryTimedLockTransaction(lraId, timeout);
     }
 
     public List<LRAData> getAll() {
@@ -124,16 +249,128 @@ public class LRAService {
     }
 
     public List<LRAData> getAll(LRAStatus lraStatus) {
-        if (lraStatus == null) {
-            List<LRAData> all = lras.values().stream()
-                    .map(LongRunningAction::getLRAData).collect(toList());
+        return getAll(lraStatus, null);
+    }
+
+    /**
+     * Get the LRAs which match the given status and client id using the secondary indexes.
+     *
+     * @param lraStatus if not null then only LRAs in this state are included
+     * @param clientId if not null then only LRAs started with this client id are included
+     * @return list of the {@link LRAData} of the matching LRAs
+     */
+    public List<LRAData> getAll(LRAStatus lraStatus, String clientId) {
+        loadAll();
+
+        if (lraStatus == null && clientId == null) {
+            List<LRAData> all = active().map(LongRunningAction::getLRAData).collect(toList());
             all.addAll(getAllRecovering());
             return all;
         }
 
-        List<LRAData> allByStatus = getDataByStatus(lras, lraStatus);
-        allByStatus.addAll(getDataByStatus(recoveringLRAs, lraStatus));
-        return allByStatus;
+        return select(lraStatus, clientId).map(LongRunningAction::getLRAData).collect(toList());
+    }
+
+    /**
+     * Lazily visit every LRA known to the coordinator (both active and recovering) without first
+     * collecting them into a list.
+     *
+     * @param lraStatus if not null then only LRAs in this state are included
+     * @param clientId if not null then only LRAs started with this client id are included
+     * @return a stream of {@link LRAData} which is evaluated as the caller consumes it
+     */
+    public Stream<LRAData> stream(LRAStatus lraStatus, String clientId) {
+        loadAll();
+
+        return select(lraStatus, clientId).map(LongRunningAction::getLRAData);
+    }
+
+    /**
+     * Return a page of LRAs ordered by uid. The ordering is stable across calls, even though the
+     * underlying maps are updated concurrently, so a caller can resume a listing from the uid of the
+     * last LRA it was given. An unfiltered page is read from the uid ordered map of each shard, starting
+     * at {@code afterUid}, so its cost is bounded by the page size (times the number of shards) and not by
+     * the number of LRAs. A filtered page visits the LRAs that the status or client id index selects and
+     * only retains {@code limit} of them while doing so.
+     *
+     * @param lraStatus if not null then only LRAs in this state are included
+     * @param clientId if not null then only LRAs started with this client id are included
+     * @param afterUid if not null then only LRAs whose uid sorts after this value are included
+     * @param limit the maximum number of LRAs to return
+     * @return the matching LRAs in uid order
+     */
+    public List<LongRunningAction> getPage(LRAStatus lraStatus, String clientId, String afterUid, int limit) {
+        loadAll();
+
+        if (lraStatus == null && clientId == null) {
+            return getPage(afterUid, limit);
+        }
+
+        // a max-heap holding the smallest <limit> uids seen so far
+        PriorityQueue<LongRunningAction> page = new PriorityQueue<>(UID_ORDER.reversed());
+
+        select(lraStatus, clientId)
+                .filter(t -> afterUid == null || uidOf(t).compareTo(afterUid) > 0)
+                .forEach(t -> {
+                    if (page.size() < limit) {
+                        page.offer(t);
+                    } else if (limit > 0 && UID_ORDER.compare(t, page.peek()) < 0) {
+                        page.poll();
+                        page.offer(t);
+                    }
+                });
+
+        List<LongRunningAction> sorted = new ArrayList<>(page);
+
+        sorted.sort(UID_ORDER);
+
+        return sorted;
+    }
+
+    // take the first <limit> LRAs after the cursor from each shard and keep the first <limit> of those
+    private List<LongRunningAction> getPage(String afterUid, int limit) {
+        List<LongRunningAction> page = new ArrayList<>();
+
+        for (LRAShard shard : shards) {
+            Map<String, LRAEntry> tail = afterUid == null
+                    ? shard.entriesInUidOrder
+                    : shard.entriesInUidOrder.tailMap(afterUid, false);
+            int taken = 0;
+
+            for (LRAEntry entry : tail.values()) {
+                if (taken == limit) {
+                    break;
+                }
+
+                if (entry.active || entry.recovering) {
+                    page.add(entry.lra);
+                    taken++;
+                }
+            }
+        }
+
+        if (shards.length > 1) {
+            page.sort(UID_ORDER);
+        }
+
+        return page.size() > limit ? new ArrayList<>(page.subList(0, limit)) : page;
+    }
+
+    /**
+     * The key used to order pages of LRAs (see {@link #getPage(LRAStatus, String, String, int)})
+     *
+     * @param lra the LRA
+     * @return the uid of the LRA in the form used in LRA ids
+     */
+    public static String uidOf(LongRunningAction lra) {
+        return lra.get_uid().fileStringForm();
+    }
+
+    // with lazy startup a listing has to include the LRAs that recovery has yet to load
+    private void loadAll() {
+        if (LRARecoveryModule.isLazyStartup()) {
+            getRM().loadAll();
+        }
     }
 
     /**
@@ -150,7 +387,9 @@ public class LRAService {
             RecoveryManager.manager().scan();
         }
 
-        return recoveringLRAs.values().stream().map(LongRunningAction::getLRAData).collect(toList());
+        loadAll();
+
+        return recovering().map(LongRunningAction::getLRAData).collect(toList());
     }
 
     public List<LRAData> getAllRecovering() {
@@ -158,7 +397,22 @@ public class LRAService {
     }
 
     public void addTransaction(LongRunningAction lra) {
-        lras.putIfAbsent(lra.getId(), lra);
+        LRAShard shard = shardFor(lra);
+        LRAEntry entry = shard.getOrCreateEntry(lra);
+
+        synchronized (entry) {
+            if (entry.active) {
+                return;
+            }
+
+            entry.active = true;
+        }
+
+        shard.putUid(uidOf(lra), entry, true);
+
+        if (!entry.recovering) {
+            index(entry.lra);
+        }
     }
 
     public void finished(LongRunningAction transaction, boolean fromHierarchy) {
@@ -166,7 +420,28 @@ public class LRAService {
             getRM().moveEntryToFailedLRAPath(transaction.get_uid());
         }
         if (transaction.isRecovering()) {
-            recoveringLRAs.put(transaction.getId(), transaction);
+            LRAShard shard = shardFor(transaction);
+            LRAEntry entry = shard.getOrCreateEntry(transaction);
+            boolean reindex;
+
+            synchronized (entry) {
+                // recovery may have reloaded the LRA in which case the reloaded copy supersedes the old one
+                reindex = !entry.active && (!entry.recovering || entry.lra != transaction);
+                entry.recovering = true;
+
+                if (reindex && entry.lra != transaction) {
+                    unindex(entry.lra);
+                    entry.lra = transaction;
+                }
+            }
+
+            shard.putUid(uidOf(transaction), entry, false);
+
+            if (reindex) {
+                index(transaction);
+            }
+
+            recoveryNeeded(transaction);
         } else if (fromHierarchy || transaction.isTopLevel()) {
             // the LRA is top level or it's a nested LRA that was closed by a
             // parent LRA (ie when fromHierarchy is true) then it's okay to forget about the LRA
@@ -178,6 +453,30 @@ public class LRAService {
         }
     }
 
+    /**
+     * Called when an LRA has work that only recovery can finish, for example participants that have yet to
+     * complete or compensate, so that incremental recovery revisits it
+     *
+     * @param lra the LRA that needs recovery
+     */
+    public void recoveryNeeded(LongRunningAction lra) {
+        if (LRARecoveryModule.isIncremental()) {
+            getRM().scheduleRecovery(lra.get_uid());
+        }
+    }
+
+    /**
+     * Called when the state of an LRA that has started to end could not be saved, so that incremental recovery
+     * saves it again before it reads the record of the LRA
+     *
+     * @param lra the LRA whose state could not be saved
+     */
+    public void saveFailed(LongRunningAction lra) {
+        if (LRARecoveryModule.isIncremental()) {
+            getRM().scheduleSave(lra.get_uid());
+        }
+    }
+
     /**
      * Remove a log corresponding to an LRA record
      *
@@ -206,21 +505,28 @@ public class LRAService {
     public void remove(URI lraId) {
         lraTrace(lraId, "remove LRA");
 
-        LongRunningAction lra = lras.remove(lraId);
-
-        if (lra != null) {
-            lraParticipants.remove(lra);
-        }
+        LRAShard shard = shardFor(lraId);
+        LRAEntry entry = shard.entries.get(lraId);
 
-        recoveringLRAs.remove(lraId);
+        shard.removeEntry(lraId);
 
-        locks.remove(lraId);
+        if (entry != null) {
+            shard.removeUid(uidOf(entry.lra), entry);
+            unindex(entry.lra);
+        }
     }
 
     public void recover() {
         getRM().recover();
     }
 
+    /**
+     * @return true if the coordinator can serve requests for every LRA in its object store
+     */
+    public boolean isReady() {
+        return getRM().isReady();
+    }
+
     // perform a recovery scan to load any recovering LRAs from the store
     public void scan() {
         getRM().periodicWorkSecondPass(); // periodicWorkFirstPass is a no-op
@@ -230,58 +536,81 @@ public class LRAService {
         assert recoveryURI != null;
         assert compensatorUrl != null;
         LongRunningAction transaction = getTransaction(lraId);
-        Map<String, String> participants = lraParticipants.get(transaction);
+        LRAEntry entry = shardFor(transaction).entries.get(transaction.getId());
 
         // the <participants> collection should be thread safe against update requests, even though such concurrent
         // updates are improbable because only LRAService.joinLRA and RecoveryCoordinator.replaceCompensator
         // do updates but those are sequential operations anyway
-        if (participants == null) {
-            participants = new ConcurrentHashMap<>();
-            participants.put(recoveryURI, compensatorUrl);
-            lraParticipants.put(transaction, participants);
-        } else {
-            participants.replace(recoveryURI, compensatorUrl);
+        if (entry != null) {
+            Map<String, String> participants = entry.getParticipants();
+
+            if (participants == null) {
+                entry.getOrCreateParticipants().put(recoveryURI, compensatorUrl);
+            } else {
+                participants.replace(recoveryURI, compensatorUrl);
+            }
         }
 
         if (persist) {
-            return transaction.updateRecoveryURI(compensatorUrl, recoveryURI);
+            // the participant records, and the index over them, are guarded by the lock on the LRA
+            ReentrantLock lock = lockTransaction(transaction.getId());
+
+            try {
+                return transaction.updateRecoveryURI(compensatorUrl, recoveryURI);
+            } finally {
+                lock.unlock();
+            }
         }
 
         return true;
     }
 
     public String getParticipant(String rcvCoordId) {
-        for (Map<String, String> compensators : lraParticipants.values()) {
-            String compensator = compensators.get(rcvCoordId);
+        for (LRAShard shard : shards) {
+            for (LRAEntry entry : shard.entries.values()) {
+                Map<String, String> compensators = entry.getParticipants();
+                String compensator = compensators == null ? null : compensators.get(rcvCoordId);
 
-            if (compensator != null) {
-                return compensator;
+                if (compensator != null) {
+                    return compensator;
+                }
             }
         }
 
         return null;
     }
 
-    public synchronized LongRunningAction startLRA(String baseUri, URI parentLRA, String clientId, Long timelimit) {
+    public LongRunningAction startLRA(String baseUri, URI parentLRA, String clientId, Long timelimit) {
+        LRABeginEvent event = new LRABeginEvent();
+        LongRunningAction parent = lookupTransaction(parentLRA);
+        // starts of unrelated LRAs run in parallel but a nested LRA is linked with its parent under the parent lock
+        ReentrantLock parentLock = parent == null ? null : lockTransaction(parent.getId());
         LongRunningAction lra;
         int status;
 
+        event.begin();
+
         try {
-            lra = new LongRunningAction(this, baseUri, lookupTransaction(parentLRA), clientId);
-        } catch (URISyntaxException e) {
-            throw new WebApplicationException(e.getMessage(),
-                    Response.status(Response.Status.PRECONDITION_FAILED)
-                            .entity(String.format("Invalid base URI: '%s'", baseUri))
-                            .build());
-        }
+            try {
+                lra = new LongRunningAction(this, baseUri, parent, clientId);
+            } catch (URISyntaxException e) {
+                throw new WebApplicationException(e.getMessage(),
+                        Response.status(Response.Status.PRECONDITION_FAILED)
+                                .entity(String.format("Invalid base URI: '%s'", baseUri))
+                                .build());
+            }
 
-        status = lra.begin(timelimit);
+            status = lra.begin(timelimit);
+        } finally {
+            if (parentLock != null) {
+                parentLock.unlock();
+            }
+        }
 
         if (lra.getLRAStatus() == null) {
             // unable to save state, tell the caller to try again later
-            throw new WebApplicationException(Response.status(SERVICE_UNAVAILABLE)
-                    .entity(LRALogger.i18nLogger.warn_saveState(LongRunningAction.DEACTIVATE_REASON))
-                    .build());
+            throw new ServiceUnavailableException(
+                    LRALogger.i18nLogger.warn_saveState(LongRunningAction.DEACTIVATE_REASON));
         }
 
         if (status != ActionStatus.RUNNING) {
@@ -295,6 +624,7 @@ public class LRAService {
                     .build());
         } else {
             addTransaction(lra);
+            event.finish(lra.getId(), parentLRA, clientId, timelimit == null ? 0L : timelimit);
 
             return lra;
         }
@@ -325,26 +655,104 @@ public class LRAService {
         }
 
         finished(transaction, fromHierarchy);
+        endChildren(transaction, compensate);
 
         return transaction.getLRAData();
     }
 
-    public int leave(URI lraId, String compensatorUrl) {
-        lraTrace(lraId, "leave LRA");
+    /**
+     * Accept a request to close or cancel an LRA and end its participants in the background.
+     * The intent to end the LRA is recorded before returning so that a subsequent status request reports
+     * Closing or Cancelling and so that recovery will complete the LRA should the coordinator fail before the
+     * participants have been told the outcome.
+     *
+     * @return the data of the LRA as it was once the intent to end it was recorded
+     */
+    public LRAData endLRAAsync(URI lraId, boolean compensate, String compensator, String userData) {
+        lraTrace(lraId, "end LRA asynchronously");
 
         LongRunningAction transaction = getTransaction(lraId);
 
-        if (transaction.getLRAStatus() != LRAStatus.Active) {
-            return Response.Status.PRECONDITION_FAILED.getStatusCode();
+        if (transaction.getLRAStatus() != LRAStatus.Active && !transaction.isRecovering() && transaction.isTopLevel()) {
+            String errorMsg = String.format("%s: LRA is closing or closed: endLRAAsync", lraId);
+            throw new WebApplicationException(errorMsg, Response.status(Response.Status.PRECONDITION_FAILED)
+                    .entity(errorMsg).build());
         }
 
+        LRAStatus intent = transaction.recordEndIntent(compensate); // can throw ServiceUnavailableException
+        LRAData data = transaction.getLRAData();
+        boolean cancel = intent == LRAStatus.Cancelling;
+        Runnable end = () -> {
+            // finishLRA gives up if another thread holds the lock, for example a join or a renewal that raced
+            // with this request, so wait for the lock here since nothing else would end the LRA afterwards
+            ReentrantLock lock = lockTransaction(lraId);
+
+            try {
+                transaction.finishLRA(cancel, compensator, userData);
+            } catch (RuntimeException e) {
+                LRALogger.i18nLogger.warn_asyncEndFailed(lraId.toASCIIString(), e);
+                // the intent to end the LRA was saved so recovery can finish it
+                recoveryNeeded(transaction);
+                return;
+            } finally {
+                lock.unlock();
+            }
+
+            finished(transaction, false);
+            endChildren(transaction, cancel);
+        };
+
+        try {
+            getEndExecutor().execute(end);
+        } catch (RejectedExecutionException e) {
+            end.run(); // the coordinator is shutting down so finish the LRA on the calling thread
+        }
+
+        return data;
+    }
+
+    private static ExecutorService getEndExecutor() {
+        return EndExecutorHolder.EXECUTOR;
+    }
+
+    // lazily creates the pool used for asynchronous ends so that coordinators which never use it pay nothing
+    private static final class EndExecutorHolder {
+        private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(initAsyncEndThreads(), r -> {
+            Thread thread = new Thread(r, "lra-async-end");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        private static int initAsyncEndThreads() {
+            try {
+                return Math.max(1, ConfigProvider.getConfig().getValue(LRAConstants.ASYNC_END_THREADS, Integer.class));
+            } catch (Exception e) {
+                // the property is unset or there is no config provider so use the default value
+                return Runtime.getRuntime().availableProcessors();
+            }
+        }
+    }
+
+    public int leave(URI lraId, String compensatorUrl) {
+        lraTrace(lraId, "leave LRA");
+
+        LongRunningAction transaction = getTransaction(lraId);
+        // wait for any join that is enlisting participants since the leave removes one of its records
+        ReentrantLock lock = lockTransaction(transaction.getId());
         boolean wasForgotten;
+
         try {
+            if (transaction.getLRAStatus() != LRAStatus.Active) {
+                return Response.Status.PRECONDITION_FAILED.getStatusCode();
+            }
+
             wasForgotten = transaction.forgetParticipant(compensatorUrl);
         } catch (Exception e) {
             String errorMsg = String.format("LRAService.forget %s failed on finding participant '%s'", lraId, compensatorUrl);
             throw new WebApplicationException(errorMsg, e, Response.status(Response.Status.BAD_REQUEST)
                     .entity(errorMsg).build());
+        } finally {
+            lock.unlock();
         }
         if (wasForgotten) {
             return Response.Status.OK.getStatusCode();
@@ -383,21 +791,27 @@ public class LRAService {
         if (transaction.getLRAStatus() != LRAStatus.Active && !transaction.isRecovering()) {
             // validate that the party wanting to join with this LRA is a listener only:
             if (linkHeader != null) {
-                Matcher relMatcher = LINK_REL_PATTERN.matcher(linkHeader);
+                LinkHeader links;
 
-                while (relMatcher.find()) {
-                    String key = relMatcher.group(1);
+                try {
+                    links = LinkHeader.parse(linkHeader);
+                } catch (URISyntaxException e) {
+                    links = null; // not a Link header, the enlistment reports the problem
+                }
 
-                    if (key != null && key.equals("rel")) {
-                        String rel = relMatcher.group(2) == null ? relMatcher.group(3) : relMatcher.group(2);
+                for (int i = 0; links != null && i < links.size(); i++) {
+                    String rel = links.getRel(i);
 
-                        if (!LRAConstants.AFTER.equals(rel)) {
-                            // participants are not allowed to join inactive LRAs
-                            return Response.Status.PRECONDITION_FAILED.getStatusCode();
-                        } else if (!transaction.isRecovering()) {
-                            // listeners cannot be notified if the LRA has already ended
-                            return Response.Status.PRECONDITION_FAILED.getStatusCode();
-                        }
+                    if (rel == null) {
+                        continue;
+                    }
+
+                    if (!LRAConstants.AFTER.equals(rel)) {
+                        // participants are not allowed to join inactive LRAs
+                        return Response.Status.PRECONDITION_FAILED.getStatusCode();
+                    } else if (!transaction.isRecovering()) {
+                        // listeners cannot be notified if the LRA has already ended
+                        return Response.Status.PRECONDITION_FAILED.getStatusCode();
                     }
                 }
             }
@@ -433,10 +847,8 @@ public class LRAService {
         String recoveryURI = participant.getRecoveryURI().toASCIIString();
 
         if (!updateRecoveryURI(lra, participant.getParticipantURI(), recoveryURI, false)) {
-            String msg = LRALogger.i18nLogger.warn_saveState(LongRunningAction.DEACTIVATE_REASON);
-            throw new WebApplicationException(msg, Response.status(SERVICE_UNAVAILABLE)
-                    .entity(msg)
-                    .build());
+            throw new ServiceUnavailableException(
+                    LRALogger.i18nLogger.warn_saveState(LongRunningAction.DEACTIVATE_REASON));
         }
 
         recoveryUrl.append(recoveryURI);
@@ -445,12 +857,20 @@ public class LRAService {
     }
 
     public boolean hasTransaction(URI id) {
-        return id != null && (lras.containsKey(id) || recoveringLRAs.containsKey(id));
+        if (id == null) {
+            return false;
+        }
+
+        return shardFor(id).entries.containsKey(id);
     }
 
     public boolean hasTransaction(String id) {
         try {
-            return lras.containsKey(new URI(id));
+            URI lraId = new URI(id);
+
+            LRAEntry entry = shardFor(lraId).entries.get(lraId);
+
+            return entry != null && entry.active;
         } catch (URISyntaxException e) {
             return false;
         }
@@ -458,8 +878,9 @@ public class LRAService {
 
     private void lraTrace(URI lraId, String reason) {
         if (LRALogger.logger.isTraceEnabled()) {
-            if (lraId != null && lras.containsKey(lraId)) {
-                LongRunningAction lra = lras.get(lraId);
+            LongRunningAction lra = lraId == null ? null : getActive(lraId);
+
+            if (lra != null) {
                 LRALogger.logger.tracef("LRAService: '%s' (%s) in state %s: %s%n",
                         reason, lra.getClientId(), ActionStatus.stringForm(lra.status()), lra.getId());
             } else {
@@ -469,7 +890,7 @@ public class LRAService {
     }
 
     public int renewTimeLimit(URI lraId, Long timelimit) {
-        LongRunningAction lra = lras.get(lraId);
+        LongRunningAction lra = getActive(lraId);
 
         if (lra == null) {
             return NOT_FOUND.getStatusCode();
@@ -478,12 +899,286 @@ public class LRAService {
         return lra.setTimeLimit(timelimit, true);
     }
 
+    /**
+     * A participant reports that it has finished a complete or compensate request that it accepted earlier
+     *
+     * @param lraUid the uid of the LRA, it is the second to last segment of the recovery URL of the participant
+     * @param participantId the last segment of the recovery URL of the participant
+     * @param outcome the status that the participant finished in
+     * @return the HTTP status code for the report
+     */
+    public int participantEnded(String lraUid, String participantId, ParticipantStatus outcome) {
+        LongRunningAction lra = lookupTransactionByUid(lraUid);
+
+        if (lra == null) {
+            return NOT_FOUND.getStatusCode();
+        }
+
+        // wait for any request to the participant to return so that the coordinator knows that it was accepted
+        ReentrantLock lock = lockTransaction(lra.getId());
+
+        try {
+            return lra.participantEnded(participantId, outcome);
+        } finally {
+            lock.unlock();
+        }
+    }
+
     public List<LRAData> getFailedLRAs() {
-        Map<URI, LongRunningAction> failedLRAs = new ConcurrentHashMap<>();
+        return getFailedLRAs(null, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Return a page of the failed LRAs (see {@link LRARecoveryModule#getFailedLRAs(String, int)})
+     *
+     * @param afterUid if not null then only failed LRAs whose uid sorts after this value are included
+     * @param limit the maximum number of LRAs to return
+     * @return the failed LRAs in uid order
+     */
+    public List<LRAData> getFailedLRAs(String afterUid, int limit) {
+        return getRM().getFailedLRAs(afterUid, limit);
+    }
+
+    /**
+     * Move an LRA between entries of the status index. Called by the LRA whenever its status changes.
+     * LRAs that are not (or are no longer) known to this service are ignored.
+     *
+     * @param lra the LRA whose status has changed
+     * @param previous the status before the change
+     * @param next the status after the change
+     */
+    public void statusChanged(LongRunningAction lra, LRAStatus previous, LRAStatus next) {
+        Map<LRAStatus, Set<LongRunningAction>> statusIndex = shardFor(lra).statusIndex;
 
-        getRM().getFailedLRAs(failedLRAs);
+        if (previous != null && statusIndex.get(previous).remove(lra) && next != null) {
+            statusIndex.get(next).add(lra);
+        }
+
+        for (LRAStatusListener listener : statusListeners) {
+            try {
+                listener.statusChanged(lra, previous, next);
+            } catch (RuntimeException e) {
+                // a misbehaving listener must not affect the LRA
+                LRALogger.i18nLogger.warn_statusListenerFailed(String.valueOf(lra.getId()),
+                        String.valueOf(previous), String.valueOf(next), e);
+            }
+        }
+    }
+
+    public void addStatusListener(LRAStatusListener listener) {
+        statusListeners.add(listener);
+    }
+
+    public void removeStatusListener(LRAStatusListener listener) {
+        statusListeners.remove(listener);
+    }
+
+    /**
+     * @return true if something is being told about the status changes of LRAs
+     */
+    public boolean hasStatusListeners() {
+        return !statusListeners.isEmpty();
+    }
+
+    /**
+     * @return the invoker for participants that run in the same JVM as the coordinator, it is consulted before
+     *         any invoker added with {@link #addParticipantInvoker(ParticipantInvoker)}
+     */
+    public InVMParticipantInvoker getLocalParticipants() {
+        return localParticipants;
+    }
 
-        return failedLRAs.values().stream().map(LongRunningAction::getLRAData).collect(toList());
+    /**
+     * @return the limit on the start and join requests that the coordinator processes concurrently
+     */
+    public AdmissionControl getAdmissionControl() {
+        return admissionControl;
+    }
+
+    /**
+     * @return the limit on the close and cancel requests that the coordinator processes concurrently
+     */
+    public AdmissionControl getEndAdmissionControl() {
+        return endAdmissionControl;
+    }
+
+    public void addParticipantInvoker(ParticipantInvoker invoker) {
+        participantInvokers.add(invoker);
+    }
+
+    public void removeParticipantInvoker(ParticipantInvoker invoker) {
+        participantInvokers.remove(invoker);
+    }
+
+    /**
+     * @return true if a participant callback may be delivered without using HTTP
+     */
+    public boolean hasParticipantInvokers() {
+        return !localParticipants.isEmpty() || !participantInvokers.isEmpty();
+    }
+
+    /**
+     * Deliver a callback to a participant without using HTTP. The participant is called on another thread so that,
+     * as with an HTTP request, the caller waits for at most {@link LRAConstants#PARTICIPANT_TIMEOUT} seconds.
+     *
+     * @param invocation the callback
+     * @return the response of the participant or null if the callback must be made over HTTP
+     * @throws InterruptedException if the caller was interrupted while waiting for the participant
+     * @throws ExecutionException if the participant failed other than with a {@link WebApplicationException}
+     * @throws TimeoutException if the participant did not respond in time
+     */
+    public Response invokeParticipant(ParticipantInvocation invocation)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        URI endpoint = invocation.getEndpoint();
+
+        if (!localParticipants.reaches(endpoint)
+                && participantInvokers.stream().noneMatch(invoker -> invoker.reaches(endpoint))) {
+            return null; // do not hand off callbacks to participants in other JVMs
+        }
+
+        Future<Response> response = getParticipantCallExecutor().submit(() -> invokeInVM(invocation));
+
+        try {
+            return response.get(LRAConstants.PARTICIPANT_TIMEOUT, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            response.cancel(true);
+            throw e;
+        }
+    }
+
+    private Response invokeInVM(ParticipantInvocation invocation) {
+        try {
+            Response response = localParticipants.invoke(invocation);
+
+            if (response == null) {
+                for (ParticipantInvoker invoker : participantInvokers) {
+                    if (invoker.reaches(invocation.getEndpoint())) {
+                        response = invoker.invoke(invocation);
+
+                        if (response != null) {
+                            break;
+                        }
+                    }
+                }
+            }
+
+            return response;
+        } catch (WebApplicationException e) {
+            // the participant failed in the same way as a JAX-RS resource would
+            return e.getResponse();
+        }
+    }
+
+    private static ExecutorService getParticipantCallExecutor() {
+        return ParticipantCallExecutorHolder.EXECUTOR;
+    }
+
+    // only created once a participant is called in the same JVM
+    private static final class ParticipantCallExecutorHolder {
+        private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "lra-participant-call");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private void index(LongRunningAction lra) {
+        LRAShard shard = shardFor(lra);
+        LRAStatus status = lra.getLRAStatus();
+        String clientId = lra.getClientId();
+
+        if (status != null) {
+            shard.statusIndex.get(status).add(lra);
+
+            if (lra.getLRAStatus() != status) {
+                // the status changed while the LRA was being indexed
+                statusChanged(lra, status, lra.getLRAStatus());
+            }
+        }
+
+        if (clientId != null) {
+            shard.clientIdIndex.compute(clientId, (k, lrasForClient) -> LRAShard.addTo(lrasForClient, lra));
+        }
+
+        if (lra.getParentId() != null) {
+            String parentUid = LRAConstants.getLRAUid(lra.getParentId());
+
+            shardFor(parentUid).childIndex.compute(parentUid, (k, children) -> LRAShard.addTo(children, lra));
+        }
+    }
+
+    private void unindex(LongRunningAction lra) {
+        LRAShard shard = shardFor(lra);
+        String clientId = lra.getClientId();
+
+        // the status may have changed without the index being told (for example during recovery) so check every entry
+        shard.statusIndex.values().forEach(lrasInState -> lrasInState.remove(lra));
+
+        if (clientId != null) {
+            shard.clientIdIndex.computeIfPresent(clientId,
+                    (k, lrasForClient) -> LRAShard.removeFrom(lrasForClient, lra));
+        }
+
+        if (lra.getParentId() != null) {
+            String parentUid = LRAConstants.getLRAUid(lra.getParentId());
+
+            shardFor(parentUid).childIndex.computeIfPresent(parentUid,
+                    (k, children) -> LRAShard.removeFrom(children, lra));
+        }
+    }
+
+    // pick the candidates from the narrowest index and then verify them since an index entry may be briefly stale
+    private Stream<LongRunningAction> select(LRAStatus lraStatus, String clientId) {
+        if (lraStatus == null && clientId == null) {
+            // an LRA that was started here and is now recovering has both flags set so visit each entry once
+            return Arrays.stream(shards).flatMap(shard -> shard.entries.values().stream())
+                    .filter(entry -> entry.active || entry.recovering).map(entry -> entry.lra);
+        }
+
+        boolean byStatus = lraStatus != null && (clientId == null || countByStatus(lraStatus) <= countByClient(clientId));
+
+        return Arrays.stream(shards)
+                .flatMap(shard -> byStatus
+                        ? shard.statusIndex.get(lraStatus).stream()
+                        : shard.clientIdIndex.getOrDefault(clientId, Collections.emptySet()).stream())
+                .filter(t -> lraStatus == null || t.getLRAStatus() == lraStatus)
+                .filter(t -> clientId == null || clientId.equals(t.getClientId()));
+    }
+
+    private int countByStatus(LRAStatus lraStatus) {
+        int count = 0;
+
+        for (LRAShard shard : shards) {
+            count += shard.statusIndex.get(lraStatus).size();
+        }
+
+        return count;
+    }
+
+    private int countByClient(String clientId) {
+        int count = 0;
+
+        for (LRAShard shard : shards) {
+            count += shard.clientIdIndex.getOrDefault(clientId, Collections.emptySet()).size();
+        }
+
+        return count;
+    }
+
+    private LongRunningAction getActive(URI lraId) {
+        LRAEntry entry = shardFor(lraId).entries.get(lraId);
+
+        return entry != null && entry.active ? entry.lra : null;
+    }
+
+    private Stream<LongRunningAction> active() {
+        return Arrays.stream(shards).flatMap(shard -> shard.entries.values().stream())
+                .filter(entry -> entry.active).map(entry -> entry.lra);
+    }
+
+    private Stream<LongRunningAction> recovering() {
+        return Arrays.stream(shards).flatMap(shard -> shard.entries.values().stream())
+                .filter(entry -> entry.recovering).map(entry -> entry.lra);
     }
 
     private LRARecoveryModule getRM() {
@@ -494,9 +1189,4 @@ public class LRAService {
 
         return recoveryModule;
     }
-
-    private List<LRAData> getDataByStatus(Map<URI, LongRunningAction> lrasToFilter, LRAStatus status) {
-        return lrasToFilter.values().stream().filter(t -> t.getLRAStatus() == status)
-                .map(LongRunningAction::getLRAData).collect(toList());
-    }
 }
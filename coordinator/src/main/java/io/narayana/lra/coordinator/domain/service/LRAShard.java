@@ -0,0 +1,161 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.lra.coordinator.domain.service;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import io.narayana.lra.coordinator.domain.model.LongRunningAction;
+import java.net.URI;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+import org.eclipse.microprofile.lra.annotation.LRAStatus;
+
+/**
+ * One partition of the state held by {@link LRAService}. LRAs are assigned to a shard using the hash of
+ * their uid (see {@link LRAService#shardOf(String)}) so requests for LRAs in different shards never contend
+ * on the same maps, on the same index entries or on the same lock table monitor.
+ */
+final class LRAShard {
+    // one entry per LRA keyed by its id
+    final Map<URI, LRAEntry> entries = new ConcurrentHashMap<>();
+    // the same entries keyed by the uid segment of their id
+    final Map<String, LRAEntry> entriesByUid = new ConcurrentHashMap<>();
+    // the same entries again sorted by uid so that a page of a listing does not need to visit every LRA
+    final NavigableMap<String, LRAEntry> entriesInUidOrder = new ConcurrentSkipListMap<>();
+    // secondary indexes over the LRAs of this shard which are maintained incrementally so that
+    // queries by status or by client id cost O(result) rather than O(all LRAs)
+    final Map<LRAStatus, Set<LongRunningAction>> statusIndex = initStatusIndex();
+    // the values of these two indexes are only modified with addTo and removeFrom
+    final Map<String, Set<LongRunningAction>> clientIdIndex = new ConcurrentHashMap<>();
+    // the nested LRAs whose parent belongs to this shard keyed by the uid of the parent
+    final Map<String, Set<LongRunningAction>> childIndex = new ConcurrentHashMap<>();
+    // locks requested for LRAs that the shard does not have an entry for
+    private final Map<URI, ReentrantLock> orphanLocks = new ConcurrentHashMap<>();
+
+    private static Map<LRAStatus, Set<LongRunningAction>> initStatusIndex() {
+        // the map is fully populated up front and never structurally modified afterwards so an EnumMap is safe
+        Map<LRAStatus, Set<LongRunningAction>> index = new EnumMap<>(LRAStatus.class);
+
+        for (LRAStatus status : LRAStatus.values()) {
+            index.put(status, ConcurrentHashMap.newKeySet());
+        }
+
+        return index;
+    }
+
+    /*
+     * Add an LRA to the value of an index entry, for use as the remapping function of Map.compute. Many keys,
+     * such as the client id of an LRA or the uid of a parent with a single child, only ever have one LRA so
+     * that is held in an immutable singleton set and a concurrent set, which costs several times as much
+     * memory, is only created for the second LRA.
+     */
+    static Set<LongRunningAction> addTo(Set<LongRunningAction> lras, LongRunningAction lra) {
+        if (lras == null) {
+            return Set.of(lra);
+        } else if (lras instanceof ConcurrentHashMap.KeySetView) {
+            lras.add(lra);
+            return lras;
+        } else if (lras.contains(lra)) {
+            return lras;
+        }
+
+        Set<LongRunningAction> shared = ConcurrentHashMap.newKeySet();
+
+        shared.addAll(lras);
+        shared.add(lra);
+
+        return shared;
+    }
+
+    // the counterpart of addTo, the entry is removed once it has no LRAs
+    static Set<LongRunningAction> removeFrom(Set<LongRunningAction> lras, LongRunningAction lra) {
+        if (!(lras instanceof ConcurrentHashMap.KeySetView)) {
+            return lras.contains(lra) ? null : lras;
+        }
+
+        lras.remove(lra);
+
+        return lras.isEmpty() ? null : lras;
+    }
+
+    /*
+     * Return the entry for the LRA, creating it if necessary. The monitor is only held while looking up or
+     * creating the entry, never while waiting for a lock, and it makes sure that a lock handed out before
+     * the entry existed becomes the lock of the entry.
+     */
+    synchronized LRAEntry getOrCreateEntry(LongRunningAction lra) {
+        LRAEntry entry = entries.get(lra.getId());
+
+        if (entry == null) {
+            entry = new LRAEntry(lra);
+
+            ReentrantLock orphan = orphanLocks.remove(lra.getId());
+
+            if (orphan != null) {
+                entry.adoptLock(orphan);
+            }
+
+            entries.put(lra.getId(), entry);
+        }
+
+        return entry;
+    }
+
+    void putUid(String uid, LRAEntry entry, boolean replace) {
+        if (replace) {
+            entriesByUid.put(uid, entry);
+            entriesInUidOrder.put(uid, entry);
+        } else if (entriesByUid.putIfAbsent(uid, entry) == null) {
+            entriesInUidOrder.putIfAbsent(uid, entry);
+        }
+    }
+
+    void removeUid(String uid, LRAEntry entry) {
+        entriesByUid.remove(uid, entry);
+        entriesInUidOrder.remove(uid, entry);
+    }
+
+    synchronized void removeEntry(URI lraId) {
+        entries.remove(lraId);
+        orphanLocks.remove(lraId);
+    }
+
+    private synchronized ReentrantLock getLock(URI lraId) {
+        LRAEntry entry = entries.get(lraId);
+
+        return entry != null ? entry.getLock() : orphanLocks.computeIfAbsent(lraId, k -> new ReentrantLock());
+    }
+
+    ReentrantLock lockTransaction(URI lraId) {
+        ReentrantLock lock = getLock(lraId);
+
+        lock.lock();
+
+        return lock;
+    }
+
+    ReentrantLock tryLockTransaction(URI lraId) {
+        ReentrantLock lock = getLock(lraId);
+
+        return lock.tryLock() ? lock : null;
+    }
+
+    ReentrantLock tryTimedLockTransaction(URI lraId, long timeout) {
+        ReentrantLock lock = getLock(lraId);
+
+        try {
+            return lock.tryLock(timeout, MILLISECONDS) ? lock : null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.lra.coordinator.domain.service;
+
+import io.narayana.lra.coordinator.domain.model.LongRunningAction;
+import org.eclipse.microprofile.lra.annotation.LRAStatus;
+
+/**
+ * Receives the status transitions of the LRAs managed by an {@link LRAService}.
+ * Listeners are invoked synchronously on the thread that changed the status, which may be holding the LRA lock,
+ * so implementations must not block.
+ */
+@FunctionalInterface
+public interface LRAStatusListener {
+    /**
+     * Called after an LRA has moved to a new status
+     *
+     * @param lra the LRA whose status changed
+     * @param previous the status before the transition
+     * @param next the status after the transition
+     */
+    void statusChanged(LongRunningAction lra, LRAStatus previous, LRAStatus next);
+}
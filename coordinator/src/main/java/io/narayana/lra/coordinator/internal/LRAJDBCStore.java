@@ -0,0 +1,496 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.lra.coordinator.internal;
+
+import com.arjuna.ats.arjuna.common.ObjectStoreEnvironmentBean;
+import com.arjuna.ats.arjuna.common.Uid;
+import com.arjuna.ats.arjuna.exceptions.ObjectStoreException;
+import com.arjuna.ats.arjuna.objectstore.StateStatus;
+import com.arjuna.ats.arjuna.objectstore.StateType;
+import com.arjuna.ats.arjuna.objectstore.jdbc.JDBCAccess;
+import com.arjuna.ats.arjuna.state.InputObjectState;
+import com.arjuna.ats.arjuna.state.OutputObjectState;
+import com.arjuna.ats.internal.arjuna.objectstore.jdbc.JDBCStore;
+import io.narayana.lra.LRAConstants;
+import io.narayana.lra.logging.LRALogger;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.StringTokenizer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import org.eclipse.microprofile.config.ConfigProvider;
+
+/**
+ * A JDBC object store tuned for the way the coordinator uses the store. Select it by setting
+ * {@code ObjectStoreEnvironmentBean.objectStoreType} to this class together with the usual
+ * {@link JDBCStore} settings (jdbcAccess, tablePrefix etc). It uses the same table as {@link JDBCStore} and
+ * differs in the following ways:
+ * <ul>
+ * <li>committed writes and removals made concurrently by different threads are grouped into JDBC batches
+ * (at most {@link LRAConstants#JDBC_STORE_BATCH_SIZE} updates) that are sent on a single connection
+ * whose prepared statements are reused, so concurrent LRAs share round trips and commits;</li>
+ * <li>writes update the record and only insert it if no row was updated, a driver that does not report the
+ * row counts of a batch has each of the updates that it did not count reissued on its own;</li>
+ * <li>an index on (TypeName, UidString) is added to the table;</li>
+ * <li>{@link #prefetch(String)} reads every record of a type in one query and the subsequent
+ * {@link #currentState(Uid, String)} and {@link #read_committed(Uid, String)} calls made while recovering
+ * those records are served from the result instead of a query per record. The query runs on a connection of
+ * its own so that it does not hold up the updates.</li>
+ * </ul>
+ */
+public class LRAJDBCStore extends JDBCStore {
+    private static final int BATCH_SIZE = initBatchSize();
+    private static final int STATE_TYPE = StateType.OS_ORIGINAL;
+    private static final char KEY_SEPARATOR = '|';
+
+    private final JDBCAccess jdbcAccess;
+    private final String tableName;
+    private final String updateSql;
+    private final String insertSql;
+    private final String deleteSql;
+    private final String selectTypeSql;
+
+    private final Queue<PendingUpdate> pending = new ConcurrentLinkedQueue<>();
+    // guards the connection and its statements, the thread holding it flushes the updates of every thread
+    private final Object flushLock = new Object();
+    private Connection connection;
+    private PreparedStatement updateStatement;
+    private PreparedStatement insertStatement;
+    private PreparedStatement deleteStatement;
+
+    // records read by prefetch keyed by uid and type
+    private final Map<String, InputObjectState> prefetched = new ConcurrentHashMap<>();
+    // the keys of the records that were updated while a prefetch was reading, guarded by the flush lock
+    private final List<Set<String>> prefetches = new CopyOnWriteArrayList<>();
+
+    // statistics
+    private final AtomicLong queries = new AtomicLong();
+    private volatile int largestBatch; // written with the flush lock held
+
+    public LRAJDBCStore(ObjectStoreEnvironmentBean jdbcStoreEnvironmentBean) throws ObjectStoreException {
+        super(jdbcStoreEnvironmentBean); // creates the table if necessary
+
+        String prefix = jdbcStoreEnvironmentBean.getTablePrefix();
+
+        tableName = (prefix == null ? "" : prefix) + "JBossTSTxTable";
+        updateSql = "UPDATE " + tableName
+                + " SET ObjectState = ?, Hidden = 0 WHERE UidString = ? AND TypeName = ? AND StateType = ?";
+        insertSql = "INSERT INTO " + tableName
+                + " (StateType, Hidden, TypeName, UidString, ObjectState) VALUES (?, 0, ?, ?, ?)";
+        deleteSql = "DELETE FROM " + tableName + " WHERE UidString = ? AND TypeName = ? AND StateType = ?";
+        selectTypeSql = "SELECT UidString, ObjectState FROM " + tableName
+                + " WHERE TypeName = ? AND StateType = ? AND Hidden = 0";
+        jdbcAccess = createJDBCAccess(jdbcStoreEnvironmentBean.getJdbcAccess());
+
+        createTypeIndex();
+    }
+
+    private static int initBatchSize() {
+        try {
+            return Math.max(1, ConfigProvider.getConfig().getValue(LRAConstants.JDBC_STORE_BATCH_SIZE, Integer.class));
+        } catch (Exception e) {
+            return 100; // the property is unset or there is no config provider so use the default value
+        }
+    }
+
+    private static JDBCAccess createJDBCAccess(String connectionDetails) throws ObjectStoreException {
+        if (connectionDetails == null) {
+            throw new ObjectStoreException("LRAJDBCStore: ObjectStoreEnvironmentBean.jdbcAccess is not set");
+        }
+
+        StringTokenizer tokenizer = new StringTokenizer(connectionDetails, ";");
+
+        try {
+            JDBCAccess access = (JDBCAccess) Class.forName(tokenizer.nextToken()).getDeclaredConstructor().newInstance();
+
+            access.initialise(tokenizer);
+
+            return access;
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            throw new ObjectStoreException("LRAJDBCStore: invalid jdbcAccess " + connectionDetails, e);
+        }
+    }
+
+    private void createTypeIndex() {
+        String indexName = tableName + "_TYPE_UID";
+
+        synchronized (flushLock) {
+            try {
+                Connection conn = getConnection();
+                DatabaseMetaData metaData = conn.getMetaData();
+
+                for (String table : new String[] {tableName, tableName.toUpperCase(Locale.ROOT),
+                        tableName.toLowerCase(Locale.ROOT)}) {
+                    try (ResultSet indexes = metaData.getIndexInfo(null, null, table, false, false)) {
+                        while (indexes.next()) {
+                            if (indexName.equalsIgnoreCase(indexes.getString("INDEX_NAME"))) {
+                                return; // already created
+                            }
+                        }
+                    }
+                }
+
+                try (Statement statement = conn.createStatement()) {
+                    statement.execute("CREATE INDEX " + indexName + " ON " + tableName + " (TypeName, UidString)");
+                }
+
+                conn.commit();
+            } catch (SQLException e) {
+                LRALogger.i18nLogger.warn_jdbcStoreIndexNotCreated(indexName, tableName, e.getMessage());
+                closeConnection();
+            }
+        }
+    }
+
+    @Override
+    public boolean write_committed(Uid storeUid, String tName, OutputObjectState state) throws ObjectStoreException {
+        return submit(new PendingUpdate(storeUid, tName, state.buffer()));
+    }
+
+    @Override
+    public boolean remove_committed(Uid storeUid, String tName) throws ObjectStoreException {
+        return submit(new PendingUpdate(storeUid, tName, null));
+    }
+
+    @Override
+    public InputObjectState read_committed(Uid storeUid, String tName) throws ObjectStoreException {
+        if (!prefetched.isEmpty()) {
+            InputObjectState state = prefetched.remove(key(storeUid, tName));
+
+            if (state != null) {
+                return state;
+            }
+        }
+
+        queries.incrementAndGet();
+
+        return super.read_committed(storeUid, tName);
+    }
+
+    @Override
+    public int currentState(Uid objUid, String tName) throws ObjectStoreException {
+        if (!prefetched.isEmpty() && prefetched.containsKey(key(objUid, tName))) {
+            return StateStatus.OS_COMMITTED;
+        }
+
+        queries.incrementAndGet();
+
+        return super.currentState(objUid, tName);
+    }
+
+    /**
+     * Read every committed record of the given type in one query. Until {@link #clearPrefetched(String)} is
+     * called, or the record is updated, the first read of each of the records is served from the result.
+     *
+     * @param tName the type of the records
+     * @return the uids of the records
+     * @throws ObjectStoreException if the records could not be read
+     */
+    public Collection<Uid> prefetch(String tName) throws ObjectStoreException {
+        List<Uid> uids = new ArrayList<>();
+        Map<String, InputObjectState> records = new HashMap<>();
+        Set<String> updated = ConcurrentHashMap.newKeySet();
+
+        clearPrefetched(tName);
+
+        synchronized (flushLock) {
+            prefetches.add(updated); // from now on every flush records which keys it updated
+        }
+
+        try {
+            try (Connection conn = jdbcAccess.getConnection();
+                    PreparedStatement select = conn.prepareStatement(selectTypeSql)) {
+                conn.setAutoCommit(true);
+                select.setString(1, tName);
+                select.setInt(2, STATE_TYPE);
+                queries.incrementAndGet();
+
+                try (ResultSet rs = select.executeQuery()) {
+                    while (rs.next()) {
+                        Uid uid = new Uid(rs.getString(1));
+
+                        uids.add(uid);
+                        records.put(key(uid, tName), new InputObjectState(uid, tName, rs.getBytes(2)));
+                    }
+                }
+            } catch (SQLException e) {
+                throw new ObjectStoreException("LRAJDBCStore: could not read the records of type " + tName, e);
+            }
+
+            synchronized (flushLock) {
+                // the query may have read the state of a record before an update that has since been committed
+                records.keySet().removeAll(updated);
+                prefetched.putAll(records);
+            }
+        } finally {
+            prefetches.remove(updated);
+        }
+
+        return uids;
+    }
+
+    /**
+     * Discard any records of the given type read by {@link #prefetch(String)} that have not been read yet
+     *
+     * @param tName the type of the records
+     */
+    public void clearPrefetched(String tName) {
+        String suffix = KEY_SEPARATOR + tName;
+
+        prefetched.keySet().removeIf(key -> key.endsWith(suffix));
+    }
+
+    /**
+     * @return the number of queries that this store has run to read records
+     */
+    public long getQueryCount() {
+        return queries.get();
+    }
+
+    /**
+     * @return the largest number of updates that this store has sent in one batch
+     */
+    public int getLargestBatch() {
+        return largestBatch;
+    }
+
+    @Override
+    public void stop() {
+        synchronized (flushLock) {
+            closeConnection();
+        }
+
+        super.stop();
+    }
+
+    /*
+     * Group commit: the update is queued and whichever thread acquires the flush lock first sends every
+     * queued update, so threads that arrive while a batch is in flight are served by the next batch
+     */
+    private boolean submit(PendingUpdate update) throws ObjectStoreException {
+        prefetched.remove(update.key);
+        pending.add(update);
+
+        while (!update.done) {
+            synchronized (flushLock) {
+                if (!update.done) {
+                    flush();
+                }
+            }
+        }
+
+        if (update.failure != null) {
+            throw new ObjectStoreException("LRAJDBCStore: could not update the record of " + update.key,
+                    update.failure);
+        }
+
+        return update.result;
+    }
+
+    // called with the flush lock held
+    private void flush() {
+        // each record appears at most once in a batch so the order of the statements within it does not matter
+        Map<String, PendingUpdate> batch = new LinkedHashMap<>();
+
+        for (PendingUpdate next = pending.peek(); next != null && batch.size() < BATCH_SIZE
+                && !batch.containsKey(next.key); next = pending.peek()) {
+            batch.put(next.key, pending.poll());
+        }
+
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        if (batch.size() > largestBatch) {
+            largestBatch = batch.size();
+        }
+
+        try {
+            executeBatch(batch.values());
+            connection.commit();
+        } catch (SQLException e) {
+            rollback();
+            closeConnection();
+
+            for (PendingUpdate update : batch.values()) {
+                update.failure = e;
+            }
+        } finally {
+            for (PendingUpdate update : batch.values()) {
+                // a prefetch that ran while the update was queued may have read the previous state
+                prefetched.remove(update.key);
+
+                for (Set<String> updated : prefetches) {
+                    updated.add(update.key);
+                }
+
+                update.done = true;
+            }
+        }
+    }
+
+    private void executeBatch(Collection<PendingUpdate> batch) throws SQLException {
+        List<PendingUpdate> writes = new ArrayList<>(batch.size());
+        List<PendingUpdate> removes = new ArrayList<>();
+
+        getConnection();
+
+        for (PendingUpdate update : batch) {
+            if (update.state == null) {
+                deleteStatement.setString(1, update.uid);
+                deleteStatement.setString(2, update.type);
+                deleteStatement.setInt(3, STATE_TYPE);
+                deleteStatement.addBatch();
+                removes.add(update);
+            } else {
+                updateStatement.setBytes(1, update.state);
+                updateStatement.setString(2, update.uid);
+                updateStatement.setString(3, update.type);
+                updateStatement.setInt(4, STATE_TYPE);
+                updateStatement.addBatch();
+                writes.add(update);
+            }
+        }
+
+        if (!removes.isEmpty()) {
+            int[] counts = deleteStatement.executeBatch();
+
+            for (int i = 0; i < counts.length; i++) {
+                // the row was deleted by the batch, if it existed, so there is nothing to reissue
+                removes.get(i).result = counts[i] != 0;
+            }
+        }
+
+        if (!writes.isEmpty()) {
+            int[] counts = updateStatement.executeBatch();
+            boolean inserts = false;
+
+            for (int i = 0; i < counts.length; i++) {
+                PendingUpdate update = writes.get(i);
+
+                update.result = true;
+
+                if (rowCount(counts[i], update) == 0) { // a new record
+                    insertStatement.setInt(1, STATE_TYPE);
+                    insertStatement.setString(2, update.type);
+                    insertStatement.setString(3, update.uid);
+                    insertStatement.setBytes(4, update.state);
+                    insertStatement.addBatch();
+                    inserts = true;
+                }
+            }
+
+            if (inserts) {
+                insertStatement.executeBatch();
+            }
+        }
+    }
+
+    /*
+     * The number of rows that an update of a batch changed. Drivers may report Statement.SUCCESS_NO_INFO
+     * instead of a count in which case the update, which is idempotent, is run again on its own to find out
+     * whether the record exists. Called with the flush lock held
+     */
+    private int rowCount(int count, PendingUpdate update) throws SQLException {
+        if (count == Statement.EXECUTE_FAILED) {
+            throw new SQLException("LRAJDBCStore: the update of " + update.key + " failed");
+        } else if (count != Statement.SUCCESS_NO_INFO) {
+            return count;
+        }
+
+        updateStatement.setBytes(1, update.state);
+        updateStatement.setString(2, update.uid);
+        updateStatement.setString(3, update.type);
+        updateStatement.setInt(4, STATE_TYPE);
+
+        return updateStatement.executeUpdate();
+    }
+
+    // called with the flush lock held
+    private Connection getConnection() throws SQLException {
+        if (connection == null) {
+            Connection conn = jdbcAccess.getConnection();
+
+            try {
+                conn.setAutoCommit(false);
+                updateStatement = conn.prepareStatement(updateSql);
+                insertStatement = conn.prepareStatement(insertSql);
+                deleteStatement = conn.prepareStatement(deleteSql);
+            } catch (SQLException e) {
+                conn.close();
+                throw e;
+            }
+
+            connection = conn;
+        }
+
+        return connection;
+    }
+
+    private void rollback() {
+        try {
+            if (connection != null) {
+                connection.rollback();
+            }
+        } catch (SQLException ignore) {
+            // the connection is closed next
+        }
+    }
+
+    private void closeConnection() {
+        if (connection != null) {
+            try {
+                connection.close(); // also closes the statements
+            } catch (SQLException ignore) {
+                // the connection is being discarded
+            }
+
+            connection = null;
+            updateStatement = null;
+            insertStatement = null;
+            deleteStatement = null;
+        }
+    }
+
+    // type names contain '/' but neither they nor uids contain the separator
+    private static String key(Uid uid, String tName) {
+        return uid.stringForm() + KEY_SEPARATOR + tName;
+    }
+
+    private static final class PendingUpdate {
+        private final String key;
+        private final String uid;
+        private final String type;
+        private final byte[] state; // null if the record is to be removed
+        // written by the flushing thread before done is set
+        private boolean result;
+        private SQLException failure;
+        private volatile boolean done;
+
+        PendingUpdate(Uid uid, String type, byte[] state) {
+            this.uid = uid.stringForm();
+            this.type = Objects.requireNonNull(type, "type");
+            this.state = state;
+            this.key = key(uid, type);
+        }
+    }
+}
@@ -16,16 +16,34 @@ import com.arjuna.ats.arjuna.recovery.RecoveryModule;
 import com.arjuna.ats.arjuna.recovery.TransactionStatusConnectionManager;
 import com.arjuna.ats.arjuna.state.InputObjectState;
 import com.arjuna.ats.arjuna.state.OutputObjectState;
+import io.narayana.lra.LRAConstants;
+import io.narayana.lra.LRAData;
 import io.narayana.lra.coordinator.domain.model.FailedLongRunningAction;
 import io.narayana.lra.coordinator.domain.model.LongRunningAction;
 import io.narayana.lra.coordinator.domain.service.LRAService;
+import io.narayana.lra.jfr.RecoveryPassEvent;
 import io.narayana.lra.logging.LRALogger;
 import java.io.IOException;
-import java.net.URI;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import org.eclipse.microprofile.config.ConfigProvider;
 import org.eclipse.microprofile.lra.annotation.LRAStatus;
 
 public class LRARecoveryModule implements RecoveryModule {
@@ -74,6 +92,61 @@ public class LRARecoveryModule implements RecoveryModule {
         return lraRecoveryModule;
     }
 
+    private static boolean initIncremental() {
+        try {
+            return ConfigProvider.getConfig().getValue(LRAConstants.RECOVERY_INCREMENTAL, Boolean.class);
+        } catch (Exception e) {
+            return false; // the property is unset or there is no config provider so use the default value
+        }
+    }
+
+    private static long initRetryDelay() {
+        try {
+            return Math.max(0L, ConfigProvider.getConfig().getValue(LRAConstants.RECOVERY_RETRY_DELAY, Long.class));
+        } catch (Exception e) {
+            return 1000L; // the property is unset or there is no config provider so use the default value
+        }
+    }
+
+    /**
+     * @return true if recovery only revisits the LRAs that are known to need recovery (see
+     *         {@link LRAConstants#RECOVERY_INCREMENTAL})
+     */
+    public static boolean isIncremental() {
+        return INCREMENTAL;
+    }
+
+    private static boolean initLazyStartup() {
+        try {
+            return ConfigProvider.getConfig().getValue(LRAConstants.LAZY_STARTUP, Boolean.class);
+        } catch (Exception e) {
+            return false; // the property is unset or there is no config provider so use the default value
+        }
+    }
+
+    /**
+     * @return true if LRAs are loaded from the object store on demand until recovery has loaded all of them (see
+     *         {@link LRAConstants#LAZY_STARTUP})
+     */
+    public static boolean isLazyStartup() {
+        return LAZY_STARTUP;
+    }
+
+    private static String[] initTransactionTypes() {
+        String[] types = new String[LRAService.getShardCount()];
+
+        for (int shard = 0; shard < types.length; shard++) {
+            types[shard] = LongRunningAction.getType(shard);
+        }
+
+        return types;
+    }
+
+    // the object store type holding the record of the LRA with the given uid
+    private static String typeOf(Uid lraUid) {
+        return LongRunningAction.getType(LRAService.shardOf(lraUid));
+    }
+
     /**
      * This is called periodically by the RecoveryManager
      */
@@ -88,21 +161,344 @@ public class LRARecoveryModule implements RecoveryModule {
             LRALogger.logger.trace("LRARecoveryModule: second pass");
         }
 
-        recoverTransactions();
+        recoverTransactions(false);
+        // build the view of the failed LRAs in the background rather than on the first request for it
+        getFailedLRAIndex();
+    }
+
+    /*
+     * In incremental mode only the first pass reads every record, later passes retry the LRAs that are due.
+     * An explicit request to recover (force is true) retries every scheduled LRA regardless of when it is due.
+     */
+    private synchronized void recoverTransactions(boolean force) {
+        RecoveryPassEvent event = new RecoveryPassEvent();
+        boolean incremental = INCREMENTAL && fullScanDone;
+
+        scannedCount.set(0);
+        recoveredCount.set(0);
+        event.begin();
+
+        if (incremental) {
+            recoverScheduled(force);
+        } else {
+            recoverAllShards();
+            fullScanDone = true;
+            // every LRA record that still exists has now been loaded
+            unloaded.clear();
+            ready = true;
+        }
+
+        event.finish(incremental, scannedCount.get(), recoveredCount.get());
+    }
+
+    /**
+     * Called when the coordinator starts. With lazy startup the coordinator only reads the uids of the LRA records
+     * before it reports that it is ready. It then loads the LRAs in the background and loads any LRA that a request
+     * refers to before that. Otherwise the coordinator is ready once the first recovery pass has finished.
+     */
+    public void startUp() {
+        if (!LAZY_STARTUP || !startedUp.compareAndSet(false, true)) {
+            return;
+        }
+
+        boolean indexed = true;
+
+        for (String transactionType : _transactionTypes) {
+            InputObjectState aa_uids = new InputObjectState();
+
+            if (readUids(transactionType, aa_uids)) {
+                forEach(aa_uids, uid -> unloaded.put(uid.fileStringForm(),
+                        new FutureTask<>(() -> loadTransaction(uid), null)), transactionType);
+            } else {
+                indexed = false; // wait for the first recovery pass to find the records of this type
+            }
+        }
+
+        if (fullScanDone) {
+            unloaded.clear(); // recovery loaded the LRAs while their uids were being read
+            return;
+        }
+
+        if (indexed) {
+            ready = true;
+        }
+
+        Thread warmUp = new Thread(() -> recoverTransactions(false), "lra-recovery-warm-up");
+        warmUp.setDaemon(true);
+        warmUp.start();
+    }
+
+    /**
+     * @return true if the coordinator knows about every LRA in its object store, either because they are loaded or
+     *         because they will be loaded when they are first referred to
+     */
+    public boolean isReady() {
+        return ready;
     }
 
-    private synchronized void recoverTransactions() {
+    /**
+     * With lazy startup, load an LRA whose record has yet to be read by recovery. A concurrent request for the
+     * same LRA waits for it to be loaded.
+     *
+     * @param uid the uid of the LRA in the form used in LRA ids
+     */
+    public void loadOnDemand(String uid) {
+        if (!unloaded.isEmpty()) {
+            FutureTask<Void> load = unloaded.get(uid);
+
+            if (load != null) {
+                load(uid, load);
+            }
+        }
+    }
+
+    /**
+     * With lazy startup, load every LRA whose record has yet to be read by recovery so that a listing of the LRAs
+     * is complete even though the coordinator reported that it was ready before recovery loaded them.
+     */
+    public void loadAll() {
+        if (!unloaded.isEmpty()) {
+            unloaded.forEach(this::load);
+        }
+    }
+
+    // the record is read outside of the map so that loading one LRA does not hold up requests for other LRAs
+    private void load(String uid, FutureTask<Void> load) {
+        load.run(); // only the first caller reads the record
+
+        try {
+            load.get(); // and the others wait for it
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            LRALogger.logger.infof("LRARecoverModule: Error '%s' while loading LRA record %s",
+                    e.getCause().getMessage(), uid);
+        } finally {
+            unloaded.remove(uid, load);
+        }
+    }
+
+    // make an LRA known to the coordinator without trying to finish it, that is left to recovery
+    private void loadTransaction(Uid lraUid) {
+        String transactionType = typeOf(lraUid);
+
+        try {
+            if (_recoveryStore.currentState(lraUid, transactionType) == StateStatus.OS_UNKNOWN) {
+                return; // the LRA finished after its uid was read
+            }
+
+            RecoveringLRA lra = new RecoveringLRA(service, lraUid,
+                    _transactionStatusConnectionMgr.getTransactionStatus(transactionType, lraUid));
+            LRAStatus lraStatus = lra.getLRAStatus();
+
+            if (!lra.isActivated()) {
+                return;
+            }
+
+            if (LRAStatus.FailedToCancel.equals(lraStatus) || LRAStatus.FailedToClose.equals(lraStatus)) {
+                moveEntryToFailedLRAPath(lraUid);
+                return;
+            }
+
+            if (!service.hasTransaction(lra.getId())) {
+                service.addTransaction(lra);
+            }
+
+            if (lraStatus != LRAStatus.Active && lra.hasPendingActions()) {
+                scheduleRecovery(lraUid);
+            }
+        } catch (ObjectStoreException e) {
+            LRALogger.logger.infof(
+                    "LRARecoverModule: Object store exception '%s' while loading LRA record %s",
+                    e.getMessage(), lraUid.fileStringForm());
+        }
+    }
+
+    private void recoverAllShards() {
+        if (_transactionTypes.length == 1) {
+            recoverShard(_transactionTypes[0]);
+            return;
+        }
+
+        // each shard has its own object store type so recover them in parallel and wait for all of them to finish
+        List<Callable<Void>> shardRecoveries = new ArrayList<>(_transactionTypes.length);
+
+        for (String transactionType : _transactionTypes) {
+            shardRecoveries.add(() -> {
+                recoverShard(transactionType);
+                return null;
+            });
+        }
+
+        try {
+            for (Future<Void> shardRecovery : getShardRecoveryExecutor().invokeAll(shardRecoveries)) {
+                try {
+                    shardRecovery.get();
+                } catch (ExecutionException e) {
+                    LRALogger.logger.infof("LRARecoverModule: Error '%s' while recovering a shard",
+                            e.getCause().getMessage());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void recoverShard(String transactionType) {
+        if (_recoveryStore instanceof LRAJDBCStore) {
+            recoverShard((LRAJDBCStore) _recoveryStore, transactionType);
+            return;
+        }
+
         // uids per transaction type
         InputObjectState aa_uids = new InputObjectState();
 
-        if (getUids(_transactionType, aa_uids)) {
-            processTransactionsStatus(processTransactions(aa_uids));
+        if (readUids(transactionType, aa_uids)) {
+            processTransactionsStatus(processTransactions(aa_uids, transactionType), transactionType);
         }
     }
 
-    private void doRecoverTransaction(Uid recoverUid) {
+    // read every record of the type in one query instead of a query per record
+    private void recoverShard(LRAJDBCStore store, String transactionType) {
+        try {
+            processTransactionsStatus(store.prefetch(transactionType), transactionType);
+        } catch (ObjectStoreException e) {
+            LRALogger.logger.infof("LRARecoverModule: Object store exception %s while reading records of type %s",
+                    e.getMessage(), transactionType);
+        } finally {
+            store.clearPrefetched(transactionType);
+        }
+    }
+
+    private static ExecutorService getShardRecoveryExecutor() {
+        return ShardRecoveryExecutorHolder.EXECUTOR;
+    }
+
+    // only created when the coordinator is sharded
+    private static final class ShardRecoveryExecutorHolder {
+        private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(LRAService.getShardCount(), r -> {
+            Thread thread = new Thread(r, "lra-shard-recovery");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Tell incremental recovery that an LRA still has work to do, for example because a participant has yet
+     * to finish or because its state could not be saved. The request is ignored unless recovery is incremental.
+     *
+     * @param lraUid the uid of the LRA
+     */
+    public void scheduleRecovery(Uid lraUid) {
+        if (INCREMENTAL) {
+            needsRecovery.computeIfAbsent(lraUid, uid -> new RecoveryAttempt()).rescheduled = true;
+        }
+    }
+
+    /**
+     * Tell incremental recovery that the state of an LRA that started to end could not be saved. Recovery saves
+     * the state again before it reads the record of the LRA. The request is ignored unless recovery is incremental.
+     *
+     * @param lraUid the uid of the LRA
+     */
+    public void scheduleSave(Uid lraUid) {
+        if (INCREMENTAL) {
+            RecoveryAttempt attempt = needsRecovery.computeIfAbsent(lraUid, uid -> new RecoveryAttempt());
+
+            attempt.unsaved = true;
+            attempt.rescheduled = true;
+        }
+    }
+
+    /**
+     * @return the number of LRAs that incremental recovery will revisit
+     */
+    public int getScheduledRecoveryCount() {
+        return needsRecovery.size();
+    }
+
+    /**
+     * @param lraUid the uid of an LRA
+     * @return the number of milliseconds before incremental recovery next revisits the LRA, zero if it is due,
+     *         or -1 if the LRA is not scheduled for recovery
+     */
+    public long getRecoveryDelay(Uid lraUid) {
+        RecoveryAttempt attempt = needsRecovery.get(lraUid);
+
+        if (attempt == null) {
+            return -1L;
+        }
+
+        return Math.max(0L, TimeUnit.NANOSECONDS.toMillis(attempt.nextAttempt - System.nanoTime()));
+    }
+
+    private void recoverScheduled(boolean force) {
+        long now = System.nanoTime();
+
+        needsRecovery.forEach((uid, attempt) -> {
+            if (!force && attempt.nextAttempt - now > 0) {
+                return; // backing off
+            }
+
+            String transactionType = typeOf(uid);
+            boolean pending;
+
+            attempt.rescheduled = false;
+
+            try {
+                pending = (attempt.unsaved && !saveInterruptedEnd(uid, attempt))
+                        || (_recoveryStore.currentState(uid, transactionType) != StateStatus.OS_UNKNOWN
+                                && doRecoverTransaction(uid, transactionType));
+            } catch (ObjectStoreException e) {
+                LRALogger.logger.infof(
+                        "LRARecoverModule: Object store exception '%s' while reading the current state of LRA record %s",
+                        e.getMessage(), uid.fileStringForm());
+                pending = true;
+            }
+
+            if (pending) {
+                attempt.backOff(now);
+            } else if (!attempt.rescheduled) {
+                needsRecovery.remove(uid, attempt);
+            }
+        });
+    }
+
+    /*
+     * The coordinator holds on to an LRA whose state could not be saved when it started to end, in the state that
+     * it tried to save. The record still shows the previous state so save it again before recovery reads the record.
+     * Return false if the LRA is busy or could still not be saved.
+     */
+    private boolean saveInterruptedEnd(Uid uid, RecoveryAttempt attempt) {
+        LongRunningAction lra = service.lookupTransactionByUid(uid.fileStringForm());
+
+        if (lra != null && (lra.getLRAStatus() == LRAStatus.Closing || lra.getLRAStatus() == LRAStatus.Cancelling)) {
+            ReentrantLock lock = service.tryLockTransaction(lra.getId());
+
+            if (lock == null) {
+                return false; // the LRA is in use, try again later
+            }
+
+            try {
+                if (!lra.deactivate()) {
+                    return false;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        attempt.unsaved = false;
+
+        return true;
+    }
+
+    // return true if the LRA still has work to do
+    private boolean doRecoverTransaction(Uid recoverUid, String transactionType) {
         // Retrieve the transaction status from its original process // TODO remove because it is not needed
-        int theStatus = _transactionStatusConnectionMgr.getTransactionStatus(_transactionType, recoverUid);
+        int theStatus = _transactionStatusConnectionMgr.getTransactionStatus(transactionType, recoverUid);
+
+        scannedCount.incrementAndGet();
 
         try {
             RecoveringLRA lra = new RecoveringLRA(service, recoverUid, theStatus);
@@ -111,7 +507,7 @@ public class LRARecoveryModule implements RecoveryModule {
             LRAStatus lraStatus = lra.getLRAStatus();
             if (LRAStatus.FailedToCancel.equals(lraStatus) || LRAStatus.FailedToClose.equals(lraStatus)) {
                 moveEntryToFailedLRAPath(recoverUid);
-                return;
+                return false;
             }
 
             if (!service.hasTransaction(lra.getId())) {
@@ -120,7 +516,7 @@ public class LRARecoveryModule implements RecoveryModule {
             }
 
             if (LRALogger.logger.isDebugEnabled()) {
-                LRALogger.logger.debug("LRARecoverModule: transaction type is " + _transactionType + " uid is " +
+                LRALogger.logger.debug("LRARecoverModule: transaction type is " + transactionType + " uid is " +
                         recoverUid.toString() + "\n Status is " + lraStatus +
                         " in flight is " + inFlight);
             }
@@ -129,42 +525,52 @@ public class LRARecoveryModule implements RecoveryModule {
                 lra.replayPhase2();
 
                 if (!lra.isRecovering()) {
+                    recoveredCount.incrementAndGet();
                     service.finished(lra, false);
+                    return false;
                 }
+
+                return true;
             }
 
+            // active LRAs are ended by the coordinator which reschedules them if they need recovery
+            return false;
         } catch (Exception e) {
             if (LRALogger.logger.isInfoEnabled()) {
                 LRALogger.logger.infof(
                         "LRARecoverModule: Error '%s' while recovering LRA record %s",
                         e.getMessage(), recoverUid.fileStringForm());
             }
+
+            return true;
         }
     }
 
     public boolean moveEntryToFailedLRAPath(final Uid failedUid) {
         String failedLRAType = FailedLongRunningAction.FAILED_LRA_TYPE;
+        String transactionType = typeOf(failedUid);
         boolean moved = false;
         try {
-            InputObjectState inputState = _recoveryStore.read_committed(failedUid, _transactionType);
+            InputObjectState inputState = _recoveryStore.read_committed(failedUid, transactionType);
             InputObjectState failedLRAUidState = _recoveryStore.read_committed(failedUid, failedLRAType);
             if (inputState != null) {
                 if (failedLRAUidState != null) {
                     // Record already exists in failedLRARecord location, hence removing it from the LRARecord location
                     moved = true;
-                    if (!_recoveryStore.remove_committed(failedUid, _transactionType)) {
+                    if (!_recoveryStore.remove_committed(failedUid, transactionType)) {
                         LRALogger.i18nLogger.warn_UnableToRemoveDuplicateFailedLRAParticipantRecord(
-                                failedUid.toString(), failedLRAType, _transactionType);
+                                failedUid.toString(), failedLRAType, transactionType);
                         moved = false;
                     }
                     return moved;
                 }
 
                 if (_recoveryStore.write_committed(failedUid, failedLRAType, new OutputObjectState(inputState))) {
-                    moved = _recoveryStore.remove_committed(failedUid, _transactionType);
+                    moved = _recoveryStore.remove_committed(failedUid, transactionType);
                     if (moved) {
                         LRALogger.logger.infof("Failed lra record (Uid: %s) moved to new location type: %s", failedUid,
                                 failedLRAType);
+                        indexFailedLRA(failedUid);
                     }
                 }
             }
@@ -174,26 +580,27 @@ public class LRARecoveryModule implements RecoveryModule {
         return moved;
     }
 
-    private Collection<Uid> processTransactions(InputObjectState uids) {
+    private Collection<Uid> processTransactions(InputObjectState uids, String transactionType) {
         Collection<Uid> uidCollection = new ArrayList<>();
 
         if (LRALogger.logger.isDebugEnabled()) {
-            LRALogger.logger.debugf("LRARecoverModule: processing transaction type %s", _transactionType);
+            LRALogger.logger.debugf("LRARecoverModule: processing transaction type %s", transactionType);
         }
 
         Consumer<Uid> uidUnpacker = uidCollection::add;
 
-        forEach(uids, uidUnpacker, _transactionType);
+        forEach(uids, uidUnpacker, transactionType);
 
         return uidCollection;
     }
 
-    private void processTransactionsStatus(Collection<Uid> uids) {
+    private void processTransactionsStatus(Collection<Uid> uids, String transactionType) {
         // Process the collection of transaction Uids
         uids.forEach(uid -> {
             try {
-                if (_recoveryStore.currentState(uid, _transactionType) != StateStatus.OS_UNKNOWN) {
-                    doRecoverTransaction(uid);
+                if (_recoveryStore.currentState(uid, transactionType) != StateStatus.OS_UNKNOWN
+                        && doRecoverTransaction(uid, transactionType)) {
+                    scheduleRecovery(uid);
                 }
             } catch (ObjectStoreException e) {
                 if (LRALogger.logger.isTraceEnabled()) {
@@ -217,7 +624,14 @@ public class LRARecoveryModule implements RecoveryModule {
      */
     public boolean removeCommitted(Uid lraUid) {
         try {
-            return _recoveryStore.remove_committed(lraUid, _transactionType);
+            boolean removed = _recoveryStore.remove_committed(lraUid, typeOf(lraUid));
+
+            if (getFailedLRAIndex().remove(lraUid.fileStringForm()) != null) {
+                // the record was moved to the location for failed LRAs
+                removed = _recoveryStore.remove_committed(lraUid, FailedLongRunningAction.FAILED_LRA_TYPE) || removed;
+            }
+
+            return removed;
         } catch (ObjectStoreException e) {
             if (LRALogger.logger.isTraceEnabled()) {
                 LRALogger.logger.tracef(e,
@@ -234,43 +648,79 @@ public class LRARecoveryModule implements RecoveryModule {
     }
 
     public void recover() {
-        recoverTransactions();
+        recoverTransactions(true);
     }
 
-    public void getFailedLRAs(Map<URI, LongRunningAction> lras) {
-        InputObjectState aa_uids = new InputObjectState();
-        Consumer<Uid> failedLRACreator = uid -> {
-            FailedLongRunningAction lra = new FailedLongRunningAction(service, new Uid(uid));
-            lra.activate();
+    /**
+     * Return a page of the LRAs whose records were moved to the location for failed LRAs. The records are read
+     * from the object store the first time that they are needed, after that the view is maintained as records
+     * are moved or removed so requests are served from memory.
+     *
+     * @param afterUid if not null then only failed LRAs whose uid sorts after this value are included
+     * @param limit the maximum number of LRAs to return
+     * @return the failed LRAs in uid order
+     */
+    public List<LRAData> getFailedLRAs(String afterUid, int limit) {
+        NavigableMap<String, LRAData> failed = getFailedLRAIndex();
+
+        return (afterUid == null ? failed : failed.tailMap(afterUid, false)).values().stream()
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
 
-            LRAStatus status = lra.getLRAStatus();
-            if (LRAStatus.FailedToCancel.equals(status) || LRAStatus.FailedToClose.equals(status)) {
-                lras.put(lra.getId(), lra);
+    private NavigableMap<String, LRAData> getFailedLRAIndex() {
+        if (!failedLRAsLoaded) {
+            synchronized (failedLRAs) {
+                if (!failedLRAsLoaded) {
+                    InputObjectState aa_uids = new InputObjectState();
+
+                    // if the uids cannot be read then try again on the next request
+                    if (readUids(FailedLongRunningAction.FAILED_LRA_TYPE, aa_uids)) {
+                        forEach(aa_uids, this::readFailedLRA, FailedLongRunningAction.FAILED_LRA_TYPE);
+                        failedLRAsLoaded = true;
+                    }
+                }
             }
-        };
+        }
+
+        return failedLRAs;
+    }
 
-        if (getUids(FailedLongRunningAction.FAILED_LRA_TYPE, aa_uids)) {
-            forEach(aa_uids, failedLRACreator, FailedLongRunningAction.FAILED_LRA_TYPE);
+    // add a record that was just moved to the failed location unless the view has yet to be read
+    private void indexFailedLRA(Uid uid) {
+        synchronized (failedLRAs) {
+            if (failedLRAsLoaded) {
+                readFailedLRA(uid);
+            }
         }
     }
 
-    private boolean getUids(final String type, InputObjectState aa_uids) {
-        synchronized (this) {
-            try {
-                return _recoveryStore.allObjUids(type, aa_uids);
-            } catch (ObjectStoreException e) {
-                if (LRALogger.logger.isTraceEnabled()) {
-                    LRALogger.logger.tracef(e,
-                            "LRARecoverModule: Object store exception %s while unpacking records of type %s",
-                            e.getMessage(), type);
-                } else if (LRALogger.logger.isInfoEnabled()) {
-                    LRALogger.logger.infof(
-                            "LRARecoverModule: Object store exception %s while unpacking records of type %s",
-                            e.getMessage(), type);
-                }
+    private void readFailedLRA(Uid uid) {
+        FailedLongRunningAction lra = new FailedLongRunningAction(service, new Uid(uid));
+        lra.activate();
 
-                return false;
+        LRAStatus status = lra.getLRAStatus();
+        if (LRAStatus.FailedToCancel.equals(status) || LRAStatus.FailedToClose.equals(status)) {
+            failedLRAs.put(uid.fileStringForm(), lra.getLRAData());
+        }
+    }
+
+    // shard recovery threads read their own types concurrently so this does not hold the module monitor
+    private boolean readUids(final String type, InputObjectState aa_uids) {
+        try {
+            return _recoveryStore.allObjUids(type, aa_uids);
+        } catch (ObjectStoreException e) {
+            if (LRALogger.logger.isTraceEnabled()) {
+                LRALogger.logger.tracef(e,
+                        "LRARecoverModule: Object store exception %s while unpacking records of type %s",
+                        e.getMessage(), type);
+            } else if (LRALogger.logger.isInfoEnabled()) {
+                LRALogger.logger.infof(
+                        "LRARecoverModule: Object store exception %s while unpacking records of type %s",
+                        e.getMessage(), type);
             }
+
+            return false;
         }
     }
 
@@ -312,10 +762,31 @@ public class LRARecoveryModule implements RecoveryModule {
         } while (true);
     }
 
+    private static final boolean INCREMENTAL = initIncremental();
+    private static final boolean LAZY_STARTUP = initLazyStartup();
+    private static final long RETRY_DELAY_NANOS = TimeUnit.MILLISECONDS.toNanos(initRetryDelay());
+    private static final int MAX_BACK_OFF_SHIFT = 6;
+
     private final LRAService service;
 
-    // 'type' within the Object Store for LRAs.
-    private final String _transactionType = LongRunningAction.getType();
+    // the LRAs that incremental recovery revisits keyed by uid
+    private final Map<Uid, RecoveryAttempt> needsRecovery = new ConcurrentHashMap<>();
+    private volatile boolean fullScanDone;
+    // the LRAs that the current recovery pass has read and finished, reported to JDK Flight Recorder
+    private final AtomicInteger scannedCount = new AtomicInteger();
+    private final AtomicInteger recoveredCount = new AtomicInteger();
+
+    // with lazy startup the loads of the LRA records that have yet to be read keyed by the string form of their uids
+    private final Map<String, FutureTask<Void>> unloaded = new ConcurrentHashMap<>();
+    private final AtomicBoolean startedUp = new AtomicBoolean();
+    private volatile boolean ready;
+
+    // the failed LRAs keyed by uid
+    private final NavigableMap<String, LRAData> failedLRAs = new ConcurrentSkipListMap<>();
+    private volatile boolean failedLRAsLoaded;
+
+    // 'type' within the Object Store for the LRAs of each shard.
+    private final String[] _transactionTypes = initTransactionTypes();
 
     // Reference to the Object Store.
     private static RecoveryStore _recoveryStore = null;
@@ -325,4 +796,18 @@ public class LRARecoveryModule implements RecoveryModule {
     private final TransactionStatusConnectionManager _transactionStatusConnectionMgr;
 
     private static LRARecoveryModule lraRecoveryModule;
+
+    private static final class RecoveryAttempt {
+        // System.nanoTime() value before which the LRA is not retried
+        private volatile long nextAttempt = System.nanoTime();
+        // set when the LRA is scheduled again while an attempt is in progress
+        private volatile boolean rescheduled;
+        // the state of the LRA that the coordinator holds has yet to be saved
+        private volatile boolean unsaved;
+        private int failures;
+
+        private void backOff(long now) {
+            nextAttempt = now + (RETRY_DELAY_NANOS << Math.min(failures++, MAX_BACK_OFF_SHIFT));
+        }
+    }
 }
@@ -18,6 +18,7 @@ import com.arjuna.ats.internal.arjuna.recovery.RecoveryManagerImple;
 import com.arjuna.common.internal.util.propertyservice.BeanPopulator;
 import io.narayana.lra.coordinator.domain.model.FailedLongRunningAction;
 import io.narayana.lra.coordinator.domain.model.LongRunningAction;
+import io.narayana.lra.coordinator.domain.service.LRAService;
 import io.narayana.lra.coordinator.internal.Implementations;
 import io.narayana.lra.coordinator.internal.LRARecoveryModule;
 import io.narayana.lra.coordinator.tools.osb.mbean.LRAActionBean;
@@ -65,15 +66,7 @@ public abstract class BrowserCommand {
     private static RecoveryManagerImple recoveryManager;
     private static boolean isHQStore;
 
-    private static String[][] LRA_OSB_TYPES = {
-            // osTypeClassName, beanTypeClassName - see com.arjuna.ats.arjuna.tools.osb.mbean.ObjStoreBrowser
-            { LongRunningAction.getType().substring(1),
-                    LongRunningAction.class.getName(),
-                    LRAActionBean.class.getName() },
-            { FailedLongRunningAction.getType().substring(1),
-                    FailedLongRunningAction.class.getName(),
-                    LRAActionBean.class.getName() }
-    };
+    private static String[][] LRA_OSB_TYPES = initOsbTypes();
 
     private enum CommandName {
         HELP("show command options and syntax"),
@@ -93,6 +86,25 @@ public abstract class BrowserCommand {
         }
     }
 
+    // the records of a sharded coordinator are stored under one type per shard (see LongRunningAction.getType(int))
+    private static String[][] initOsbTypes() {
+        int shards = LRAService.getShardCount();
+        String[][] types = new String[shards + 1][];
+
+        for (int shard = 0; shard < shards; shard++) {
+            // osTypeClassName, beanTypeClassName - see com.arjuna.ats.arjuna.tools.osb.mbean.ObjStoreBrowser
+            types[shard] = new String[] { LongRunningAction.getType(shard).substring(1),
+                    LongRunningAction.class.getName(),
+                    LRAActionBean.class.getName() };
+        }
+
+        types[shards] = new String[] { FailedLongRunningAction.getType().substring(1),
+                FailedLongRunningAction.class.getName(),
+                LRAActionBean.class.getName() };
+
+        return types;
+    }
+
     static BrowserCommand getCommand(CommandName name) {
         return getCommand(name.name());
     }
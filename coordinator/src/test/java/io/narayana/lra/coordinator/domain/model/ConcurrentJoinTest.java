@@ -0,0 +1,185 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.lra.coordinator.domain.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.narayana.lra.client.NarayanaLRAClient;
+import io.narayana.lra.coordinator.domain.model.objectstore.TestBase;
+import io.narayana.lra.coordinator.domain.service.InVMParticipantInvoker;
+import io.narayana.lra.coordinator.domain.service.LRAService;
+import io.narayana.lra.coordinator.internal.LRARecoveryModule;
+import jakarta.ws.rs.core.Response;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import org.eclipse.microprofile.lra.annotation.LRAStatus;
+import org.junit.jupiter.api.Test;
+
+public class ConcurrentJoinTest extends TestBase {
+    private static final int PARTICIPANT_COUNT = 50;
+    private static final int QUEUED_COUNT = 8;
+    // nothing listens on this port so the callbacks can only succeed if they are delivered in the same JVM
+    private static final URI PARTICIPANTS = URI.create("http://localhost:1/fan-out");
+
+    /**
+     * This test checks that participants joining the same LRA at the same time are all enlisted
+     */
+    @Test
+    public void concurrentJoinTest() throws Exception {
+        InVMParticipantInvoker localParticipants = LRARecoveryModule.getService().getLocalParticipants();
+        AtomicInteger completions = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(PARTICIPANT_COUNT);
+
+        localParticipants.register(PARTICIPANTS, invocation -> {
+            completions.incrementAndGet();
+            return Response.ok().build();
+        });
+
+        try {
+            URI lraId = lraClient.startLRA(testName);
+            CountDownLatch ready = new CountDownLatch(1);
+            List<Future<URI>> joins = new ArrayList<>(PARTICIPANT_COUNT);
+
+            for (int i = 0; i < PARTICIPANT_COUNT; i++) {
+                URI participant = URI.create(PARTICIPANTS + "/" + i);
+
+                joins.add(executor.submit(() -> {
+                    ready.await();
+                    return lraClient.joinLRA(lraId, 0L, participant, null);
+                }));
+            }
+
+            ready.countDown();
+
+            Set<URI> recoveryUrls = new HashSet<>();
+
+            for (Future<URI> join : joins) {
+                recoveryUrls.add(join.get()); // a join that failed for contention would throw here
+            }
+
+            assertEquals(PARTICIPANT_COUNT, recoveryUrls.size(), "each participant should have its own recovery url");
+
+            lraClient.closeLRA(lraId);
+
+            assertEquals(PARTICIPANT_COUNT, completions.get(), "every participant should have been asked to complete");
+
+            LRAStatus status = getStatus(lraId);
+
+            assertTrue(status == null || status == LRAStatus.Closed, "the LRA should have closed");
+        } finally {
+            executor.shutdown();
+            localParticipants.unregister(PARTICIPANTS);
+        }
+    }
+
+    /**
+     * This test checks that the joins which queue up while another join holds the LRA lock are saved with a single
+     * write. It uses fewer participants than the server has threads because every join holds a thread while it waits
+     */
+    @Test
+    public void queuedJoinsTest() throws Exception {
+        LRAService service = LRARecoveryModule.getService();
+        InVMParticipantInvoker localParticipants = service.getLocalParticipants();
+        AtomicInteger completions = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(QUEUED_COUNT + 1);
+        // the threads that have queued a join and are waiting for the LRA lock
+        Set<Thread> waiting = ConcurrentHashMap.newKeySet();
+        CountDownLatch saving = new CountDownLatch(1);
+        CountDownLatch queued = new CountDownLatch(1);
+        AtomicBoolean armed = new AtomicBoolean();
+        AtomicInteger saves = new AtomicInteger();
+
+        LongRunningAction lra = new LongRunningAction(service,
+                System.getProperty(NarayanaLRAClient.LRA_COORDINATOR_URL_KEY), null, testName) {
+            @Override
+            protected ReentrantLock tryTimedLockTransaction(long timeout) {
+                // a join only asks for the lock once it has queued itself
+                if (armed.get() && waiting.add(Thread.currentThread()) && waiting.size() > QUEUED_COUNT) {
+                    queued.countDown();
+                }
+
+                return super.tryTimedLockTransaction(timeout);
+            }
+
+            @Override
+            public boolean deactivate() {
+                if (armed.get() && saves.getAndIncrement() == 0) {
+                    // hold the lock, with the first join, until every other join is queued behind it
+                    saving.countDown();
+
+                    try {
+                        queued.await(30, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+
+                return super.deactivate();
+            }
+        };
+
+        localParticipants.register(PARTICIPANTS, invocation -> {
+            completions.incrementAndGet();
+            return Response.ok().build();
+        });
+
+        try {
+            lra.begin(0L);
+            service.addTransaction(lra);
+
+            URI lraId = lra.getId();
+            List<Future<URI>> joins = new ArrayList<>(QUEUED_COUNT + 1);
+
+            armed.set(true);
+            joins.add(executor.submit(() -> lraClient.joinLRA(lraId, 0L, URI.create(PARTICIPANTS + "/first"), null)));
+
+            assertTrue(saving.await(30, TimeUnit.SECONDS), "the first join should be saving its participant");
+
+            for (int i = 0; i < QUEUED_COUNT; i++) {
+                URI participant = URI.create(PARTICIPANTS + "/" + i);
+
+                joins.add(executor.submit(() -> lraClient.joinLRA(lraId, 0L, participant, null)));
+            }
+
+            Set<URI> recoveryUrls = new HashSet<>();
+
+            for (Future<URI> join : joins) {
+                recoveryUrls.add(join.get()); // a join that failed for contention would throw here
+            }
+
+            armed.set(false);
+
+            assertEquals(QUEUED_COUNT + 1, recoveryUrls.size(), "each participant should have its own recovery url");
+            assertEquals(2, saves.get(), "the queued joins should have been saved with a single write");
+
+            lraClient.closeLRA(lraId);
+
+            assertEquals(QUEUED_COUNT + 1, completions.get(),
+                    "every participant should have been asked to complete");
+
+            LRAStatus status = getStatus(lraId);
+
+            assertTrue(status == null || status == LRAStatus.Closed, "the LRA should have closed");
+        } finally {
+            armed.set(false);
+            executor.shutdown();
+            localParticipants.unregister(PARTICIPANTS);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.lra.coordinator.domain.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.narayana.lra.coordinator.domain.model.objectstore.TestBase;
+import io.narayana.lra.coordinator.domain.service.InVMParticipantInvoker;
+import io.narayana.lra.coordinator.internal.LRARecoveryModule;
+import io.narayana.lra.jfr.LRABeginEvent;
+import io.narayana.lra.jfr.LRAEndEvent;
+import io.narayana.lra.jfr.LRAStoreEvent;
+import io.narayana.lra.jfr.ParticipantCallEvent;
+import io.narayana.lra.jfr.ParticipantEnlistEvent;
+import jakarta.ws.rs.core.Response;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+public class FlightRecorderTest extends TestBase {
+    // nothing listens on this port so the callbacks can only succeed if they are delivered in the same JVM
+    private static final URI PARTICIPANT = URI.create("http://localhost:1/recorded");
+
+    /**
+     * This test checks that the lifecycle of an LRA can be followed in a flight recording
+     */
+    @Test
+    public void lifecycleEventsTest() throws IOException {
+        InVMParticipantInvoker localParticipants = LRARecoveryModule.getService().getLocalParticipants();
+        Path file = Files.createTempFile(testName, ".jfr");
+        URI lraId;
+
+        localParticipants.register(PARTICIPANT, invocation -> Response.ok().build());
+
+        try (Recording recording = new Recording()) {
+            for (String name : new String[] {LRABeginEvent.NAME, ParticipantEnlistEvent.NAME, ParticipantCallEvent.NAME,
+                    LRAStoreEvent.NAME, LRAEndEvent.NAME}) {
+                recording.enable(name).withThreshold(Duration.ZERO);
+            }
+
+            recording.start();
+
+            lraId = lraClient.startLRA(testName);
+            lraClient.joinLRA(lraId, 0L, PARTICIPANT, null);
+            lraClient.closeLRA(lraId);
+
+            recording.stop();
+            recording.dump(file);
+        } finally {
+            localParticipants.unregister(PARTICIPANT);
+        }
+
+        try {
+            String id = lraId.toASCIIString();
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                    .filter(e -> id.equals(e.getString("lraId")))
+                    .collect(Collectors.toList());
+
+            assertEquals(1, count(events, LRABeginEvent.NAME), "the start of the LRA should have been recorded");
+            assertEquals(1, count(events, ParticipantEnlistEvent.NAME), "the participant should have been recorded");
+            assertTrue(count(events, ParticipantCallEvent.NAME) >= 1, "the call to complete should have been recorded");
+            assertTrue(count(events, LRAStoreEvent.NAME) >= 1, "the object store writes should have been recorded");
+
+            RecordedEvent end = events.stream().filter(e -> LRAEndEvent.NAME.equals(e.getEventType().getName()))
+                    .findFirst().orElseThrow(() -> new AssertionError("the end of the LRA should have been recorded"));
+
+            assertEquals("Closed", end.getString("status"));
+            assertEquals(1, end.getInt("participantCount"));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static long count(List<RecordedEvent> events, String name) {
+        return events.stream().filter(e -> name.equals(e.getEventType().getName())).count();
+    }
+}
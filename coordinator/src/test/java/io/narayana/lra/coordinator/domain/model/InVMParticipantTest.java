@@ -0,0 +1,108 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.lra.coordinator.domain.model;
+
+import static io.narayana.lra.LRAConstants.PARTICIPANT_TIMEOUT;
+import static org.eclipse.microprofile.lra.annotation.ws.rs.LRA.LRA_HTTP_CONTEXT_HEADER;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.narayana.lra.ParticipantInvocation;
+import io.narayana.lra.coordinator.domain.model.objectstore.TestBase;
+import io.narayana.lra.coordinator.domain.service.InVMParticipantInvoker;
+import io.narayana.lra.coordinator.internal.LRARecoveryModule;
+import jakarta.ws.rs.HttpMethod;
+import jakarta.ws.rs.core.Response;
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.eclipse.microprofile.lra.annotation.LRAStatus;
+import org.eclipse.microprofile.lra.annotation.ParticipantStatus;
+import org.junit.jupiter.api.Test;
+
+public class InVMParticipantTest extends TestBase {
+    // nothing listens on this port so the callbacks can only succeed if they are delivered in the same JVM
+    private static final URI PARTICIPANT = URI.create("http://localhost:1/in-vm-participant");
+
+    /**
+     * This test checks that a participant registered with the coordinator is ended without an HTTP request
+     */
+    @Test
+    public void inVMParticipantTest() {
+        InVMParticipantInvoker localParticipants = LRARecoveryModule.getService().getLocalParticipants();
+        List<ParticipantInvocation> invocations = new CopyOnWriteArrayList<>();
+
+        localParticipants.register(PARTICIPANT, invocation -> {
+            invocations.add(invocation);
+            return Response.ok().build();
+        });
+
+        try {
+            URI lraId = lraClient.startLRA(testName);
+
+            lraClient.joinLRA(lraId, 0L, PARTICIPANT, null);
+            lraClient.closeLRA(lraId);
+
+            assertEquals(1, invocations.size(), "the participant should have been asked to complete");
+            assertEquals(HttpMethod.PUT, invocations.get(0).getMethod());
+            assertEquals(URI.create(PARTICIPANT + "/complete"), invocations.get(0).getEndpoint());
+            assertEquals(lraId.toASCIIString(), invocations.get(0).getHeader(LRA_HTTP_CONTEXT_HEADER));
+
+            LRAStatus status = getStatus(lraId);
+
+            assertTrue(status == null || status == LRAStatus.Closed, "the LRA should have closed");
+        } finally {
+            localParticipants.unregister(PARTICIPANT);
+        }
+    }
+
+    /**
+     * This test checks that a participant in the same JVM that does not respond in time is retried, as it would be
+     * over HTTP, instead of holding up the request that ends the LRA
+     */
+    @Test
+    public void slowInVMParticipantTest() {
+        InVMParticipantInvoker localParticipants = LRARecoveryModule.getService().getLocalParticipants();
+        AtomicBoolean slow = new AtomicBoolean(true);
+
+        localParticipants.register(PARTICIPANT, invocation -> {
+            if (slow.get()) {
+                try {
+                    Thread.sleep(TimeUnit.SECONDS.toMillis(PARTICIPANT_TIMEOUT * 10));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            return HttpMethod.GET.equals(invocation.getMethod())
+                    ? Response.ok(ParticipantStatus.Completed.name()).build()
+                    : Response.ok().build();
+        });
+
+        try {
+            URI lraId = lraClient.startLRA(testName);
+            long start = System.nanoTime();
+
+            lraClient.joinLRA(lraId, 0L, PARTICIPANT, null);
+            lraClient.closeLRA(lraId);
+
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(PARTICIPANT_TIMEOUT * 10),
+                    "the close should not have waited for the participant");
+            assertEquals(LRAStatus.Closing, getStatus(lraId), "the participant should be retried");
+
+            slow.set(false);
+            LRARecoveryModule.getService().recover();
+
+            LRAStatus status = getStatus(lraId);
+
+            assertTrue(status == null || status == LRAStatus.Closed, "recovery should have closed the LRA: " + status);
+        } finally {
+            localParticipants.unregister(PARTICIPANT);
+        }
+    }
+}
@@ -0,0 +1,175 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.lra.coordinator.domain.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.arjuna.ats.arjuna.common.Uid;
+import com.arjuna.ats.arjuna.exceptions.ObjectStoreException;
+import com.arjuna.ats.arjuna.objectstore.StateStatus;
+import com.arjuna.ats.arjuna.objectstore.StoreManager;
+import io.narayana.lra.LRAConstants;
+import io.narayana.lra.client.NarayanaLRAClient;
+import io.narayana.lra.coordinator.domain.model.objectstore.TestBase;
+import io.narayana.lra.coordinator.domain.service.LRAService;
+import io.narayana.lra.coordinator.internal.LRARecoveryModule;
+import jakarta.ws.rs.HttpMethod;
+import jakarta.ws.rs.ServiceUnavailableException;
+import jakarta.ws.rs.core.Response;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.eclipse.microprofile.lra.annotation.LRAStatus;
+import org.eclipse.microprofile.lra.annotation.ParticipantStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that incremental recovery only revisits the LRAs that still have work to do and that it backs off from
+ * an LRA whose participants are busy. Incremental recovery is fixed when the coordinator classes are loaded so the
+ * build runs this test in its own JVM with {@value LRAConstants#RECOVERY_INCREMENTAL} set, in other JVMs it is
+ * skipped.
+ */
+public class IncrementalRecoveryTest extends TestBase {
+    // nothing listens on this port so the callbacks can only succeed if they are delivered in the same JVM
+    private static final URI PARTICIPANT = URI.create("http://localhost:1/incremental-participant");
+
+    private LRAService service;
+    private LRARecoveryModule module;
+    private final AtomicBoolean completed = new AtomicBoolean();
+    private final AtomicInteger invocations = new AtomicInteger();
+
+    @BeforeEach
+    public void requireIncrementalRecovery() {
+        Assumptions.assumeTrue(LRARecoveryModule.isIncremental(), "recovery is not incremental");
+
+        service = LRARecoveryModule.getService();
+        module = LRARecoveryModule.getInstance();
+
+        // the first pass reads every record, later passes only revisit the scheduled LRAs
+        module.periodicWorkSecondPass();
+
+        service.getLocalParticipants().register(PARTICIPANT, invocation -> {
+            invocations.incrementAndGet();
+
+            if (HttpMethod.GET.equals(invocation.getMethod())) {
+                return Response.ok(completed.get() ? ParticipantStatus.Completed.name()
+                        : ParticipantStatus.Completing.name()).build();
+            }
+
+            return completed.get() ? Response.ok().build() : Response.accepted().build();
+        });
+    }
+
+    @AfterEach
+    public void unregisterParticipant() {
+        if (service != null) {
+            service.getLocalParticipants().unregister(PARTICIPANT);
+        }
+    }
+
+    @Test
+    // an LRA that ends without any outstanding work is never scheduled
+    public void finishedLRAIsNotScheduled() {
+        completed.set(true);
+
+        URI lraId = lraClient.startLRA(testName);
+
+        lraClient.joinLRA(lraId, 0L, PARTICIPANT, null);
+        lraClient.closeLRA(lraId);
+
+        assertEquals(-1L, module.getRecoveryDelay(uidOf(lraId)), "a closed LRA should not be scheduled for recovery");
+    }
+
+    @Test
+    // a participant that accepted the close is asked again, less often while it is still busy, until it finishes
+    public void acceptedParticipantIsRetried() throws ObjectStoreException {
+        URI lraId = lraClient.startLRA(testName);
+        Uid uid = uidOf(lraId);
+
+        lraClient.joinLRA(lraId, 0L, PARTICIPANT, null);
+        lraClient.closeLRA(lraId);
+
+        assertEquals(LRAStatus.Closing, getStatus(lraId), "the participant has not finished yet");
+        assertTrue(module.getRecoveryDelay(uid) >= 0, "the LRA should be scheduled for recovery");
+
+        module.recover();
+
+        long firstDelay = module.getRecoveryDelay(uid);
+
+        assertTrue(firstDelay > 0, "recovery should back off from a participant that is still busy");
+
+        int asked = invocations.get();
+
+        module.periodicWorkSecondPass();
+
+        assertEquals(asked, invocations.get(), "a recovery pass should not revisit an LRA that is backing off");
+
+        module.recover();
+
+        assertTrue(invocations.get() > asked, "an explicit recovery request should ask the participant again");
+        assertTrue(module.getRecoveryDelay(uid) > firstDelay, "the back off should grow with each failed attempt");
+
+        completed.set(true);
+        module.recover();
+
+        assertFinished(lraId);
+    }
+
+    @Test
+    // the state of an LRA that could not be saved when it started to end is saved again by recovery
+    public void failedSaveIsRescheduled() throws URISyntaxException, ObjectStoreException {
+        AtomicBoolean failSaves = new AtomicBoolean();
+        LongRunningAction lra = new LongRunningAction(service,
+                System.getProperty(NarayanaLRAClient.LRA_COORDINATOR_URL_KEY), null, testName) {
+            @Override
+            public boolean deactivate() {
+                return !failSaves.get() && super.deactivate();
+            }
+        };
+
+        lra.begin(0L);
+        service.addTransaction(lra);
+
+        URI lraId = lra.getId();
+
+        lraClient.joinLRA(lraId, 0L, PARTICIPANT, null);
+
+        failSaves.set(true);
+        assertThrows(ServiceUnavailableException.class, () -> service.endLRA(lraId, false, false));
+        assertTrue(module.getRecoveryDelay(lra.get_uid()) >= 0, "an LRA that could not be saved should be scheduled");
+
+        module.recover();
+
+        assertTrue(module.getRecoveryDelay(lra.get_uid()) > 0,
+                "recovery should back off from an LRA that can still not be saved");
+
+        failSaves.set(false);
+        completed.set(true);
+        module.recover();
+
+        assertFinished(lraId);
+    }
+
+    private void assertFinished(URI lraId) throws ObjectStoreException {
+        LRAStatus status = getStatus(lraId);
+
+        assertTrue(status == null || status == LRAStatus.Closed, "recovery should have closed the LRA: " + status);
+        assertEquals(StateStatus.OS_UNKNOWN,
+                StoreManager.getRecoveryStore().currentState(uidOf(lraId), LongRunningAction.getType()),
+                "the log of the LRA should have been removed");
+        assertEquals(-1L, module.getRecoveryDelay(uidOf(lraId)), "a finished LRA should no longer be scheduled");
+    }
+
+    private static Uid uidOf(URI lraId) {
+        return new Uid(LRAConstants.getLRAUid(lraId));
+    }
+}
@@ -17,6 +17,7 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
@@ -35,6 +36,7 @@ import io.narayana.lra.filter.ServerLRAFilter;
 import io.narayana.lra.logging.LRALogger;
 import io.narayana.lra.provider.ParticipantStatusOctetStreamProvider;
 import jakarta.ws.rs.ApplicationPath;
+import jakarta.ws.rs.HttpMethod;
 import jakarta.ws.rs.NotFoundException;
 import jakarta.ws.rs.ServiceUnavailableException;
 import jakarta.ws.rs.WebApplicationException;
@@ -48,19 +50,27 @@ import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.UriBuilder;
 import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.lang.reflect.Method;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.StringTokenizer;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.IntStream;
 import org.eclipse.microprofile.lra.annotation.LRAStatus;
 import org.eclipse.microprofile.lra.annotation.ParticipantStatus;
@@ -75,6 +85,7 @@ import org.jboss.resteasy.plugins.server.undertow.UndertowJaxrsServer;
 import org.jboss.resteasy.test.TestPortProvider;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInfo;
@@ -493,6 +504,305 @@ public class LRATest extends LRATestBase {
         }
     }
 
+    @Test
+    // start some LRAs and validate that a paged listing visits each of them exactly once
+    public void testGetAllLRAsPaged() {
+        List<URI> lraIds = IntStream.range(0, 5).mapToObj(i -> lraClient.startLRA(testName + i)).toList();
+
+        try {
+            List<URI> visited = new ArrayList<>();
+
+            lraClient.getAllLRAs(LRAStatus.Active, 2, lra -> visited.add(lra.getLraId()));
+
+            assertEquals(new HashSet<>(visited).size(), visited.size(), "A paged listing returned the same LRA twice");
+            assertTrue(visited.containsAll(lraIds), "A paged listing did not return all the active LRAs");
+
+            // an unfiltered listing is read in uid order rather than through the status index
+            visited.clear();
+            lraClient.getAllLRAs(null, 2, lra -> visited.add(lra.getLraId()));
+
+            assertEquals(new HashSet<>(visited).size(), visited.size(), "A paged listing returned the same LRA twice");
+            assertTrue(visited.containsAll(lraIds), "A paged listing did not return all the LRAs");
+
+            // the json listing is limited to the page size and links to the next page
+            try (Response response = client.target(coordinatorPath)
+                    .queryParam(LRAConstants.LIMIT_PARAM_NAME, 2)
+                    .request()
+                    .accept(MediaType.APPLICATION_JSON)
+                    .get()) {
+                assertEquals(OK.getStatusCode(), response.getStatus());
+                assertNotNull(response.getHeaderString(LRAConstants.NARAYANA_LRA_NEXT_CURSOR_HEADER_NAME),
+                        "The first page should carry a continuation token");
+                assertNotNull(response.getLink("next"), "The first page should link to the next one");
+                assertEquals(2, new ObjectMapper().readValue(response.readEntity(String.class), LRAData[].class).length);
+            } catch (JsonProcessingException e) {
+                fail("could not read json array: " + e.getMessage());
+            }
+
+            try (Response response = client.target(coordinatorPath)
+                    .queryParam(LRAConstants.CURSOR_PARAM_NAME, "not base64!")
+                    .request()
+                    .get()) {
+                assertEquals(Response.Status.BAD_REQUEST.getStatusCode(), response.getStatus(),
+                        "An invalid continuation token should be rejected");
+            }
+        } finally {
+            lraIds.forEach(lraClient::cancelLRA);
+        }
+    }
+
+    @Test
+    // an LRA that this coordinator started and that recovery is now finishing should be listed once, paged or not
+    public void testRecoveringLRAIsListedOnce() {
+        URI participant = URI.create("http://localhost:1/" + testName);
+        AtomicBoolean completed = new AtomicBoolean();
+
+        service.getLocalParticipants().register(participant, invocation -> {
+            if (HttpMethod.GET.equals(invocation.getMethod())) {
+                return Response.ok(completed.get() ? ParticipantStatus.Completed.name()
+                        : ParticipantStatus.Completing.name()).build();
+            }
+
+            return completed.get() ? Response.ok().build() : Response.accepted().build();
+        });
+
+        try {
+            URI lraId = lraClient.startLRA(testName);
+
+            lraClient.joinLRA(lraId, 0L, participant, null);
+            lraClient.closeLRA(lraId);
+
+            assertEquals(LRAStatus.Closing, lraClient.getStatus(lraId), "the participant has not finished yet");
+
+            long unpaged = lraClient.getAllLRAs().stream().filter(lra -> lraId.equals(lra.getLraId())).count();
+            List<URI> paged = new ArrayList<>();
+
+            lraClient.getAllLRAs(null, 2, lra -> paged.add(lra.getLraId()));
+
+            assertEquals(1L, unpaged, "an unpaged listing should return the LRA once");
+            assertEquals(1L, paged.stream().filter(lraId::equals).count(),
+                    "a paged listing should return the LRA once");
+
+            completed.set(true);
+            service.recover();
+        } finally {
+            service.getLocalParticipants().unregister(participant);
+        }
+    }
+
+    @Test
+    // validate that LRAs can be listed by client id and status
+    public void testGetAllLRAsByClientIdAndStatus() {
+        String clientId = testName + "-orders";
+        URI lra1 = lraClient.startLRA(clientId);
+        URI lra2 = lraClient.startLRA(clientId);
+        URI other = lraClient.startLRA(testName + "-other");
+
+        try {
+            lraClient.closeLRA(lra2);
+
+            List<URI> byClient = new ArrayList<>();
+            List<URI> activeByClient = new ArrayList<>();
+
+            lraClient.getAllLRAs(null, clientId, 10, lra -> byClient.add(lra.getLraId()));
+            lraClient.getAllLRAs(LRAStatus.Active, clientId, 10, lra -> activeByClient.add(lra.getLraId()));
+
+            assertEquals(List.of(lra1), byClient, "only the unfinished LRA of the client should be listed");
+            assertEquals(List.of(lra1), activeByClient, "only the active LRA of the client should be listed");
+
+            List<LRAData> cancelling = service.getAll(LRAStatus.Cancelling, clientId);
+            assertTrue(cancelling.isEmpty(), "there should be no cancelling LRAs for the client");
+        } finally {
+            lraClient.cancelLRA(lra1);
+            lraClient.cancelLRA(other);
+        }
+    }
+
+    @Test
+    // measure the bytes allocated per call of the /status resource method when the LRA is resolved via the uid
+    // fast path and when the path segment has to be decoded and parsed as a URI. The resource method is invoked
+    // directly so the numbers exclude the HTTP and JAX-RS dispatch costs, which the coordinator does not control.
+    public void testStatusLookupAllocations() {
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+
+        Assumptions.assumeTrue(threadBean instanceof com.sun.management.ThreadMXBean,
+                "thread allocation accounting is not available on this JVM");
+
+        com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) threadBean;
+        Coordinator coordinator = new Coordinator();
+        URI lraId = lraClient.startLRA(testName);
+        String uid = LRAConstants.getLRAUid(lraId);
+        String encodedId = URLEncoder.encode(lraId.toASCIIString(), StandardCharsets.UTF_8);
+        String version = LRAConstants.CURRENT_API_VERSION_STRING;
+        int iterations = 100_000;
+
+        try {
+            assertEquals(LRAStatus.Active.name(),
+                    coordinator.getLRAStatus(uid, MediaType.TEXT_PLAIN, version).getEntity());
+            assertEquals(LRAStatus.Active.name(),
+                    coordinator.getLRAStatus(encodedId, MediaType.TEXT_PLAIN, version).getEntity());
+
+            // warm up both paths so that the measurement is not dominated by class loading and interpretation
+            for (int i = 0; i < iterations; i++) {
+                service.lookupTransactionByUid(uid).getLRAStatus();
+                coordinator.getLRAStatus(uid, MediaType.TEXT_PLAIN, version);
+                coordinator.getLRAStatus(encodedId, MediaType.TEXT_PLAIN, version);
+            }
+
+            long threadId = Thread.currentThread().getId();
+            long before = allocationBean.getThreadAllocatedBytes(threadId);
+
+            for (int i = 0; i < iterations; i++) {
+                service.lookupTransactionByUid(uid).getLRAStatus();
+            }
+
+            long lookup = allocationBean.getThreadAllocatedBytes(threadId) - before;
+
+            before = allocationBean.getThreadAllocatedBytes(threadId);
+
+            for (int i = 0; i < iterations; i++) {
+                coordinator.getLRAStatus(uid, MediaType.TEXT_PLAIN, version);
+            }
+
+            long fastPath = allocationBean.getThreadAllocatedBytes(threadId) - before;
+
+            before = allocationBean.getThreadAllocatedBytes(threadId);
+
+            for (int i = 0; i < iterations; i++) {
+                coordinator.getLRAStatus(encodedId, MediaType.TEXT_PLAIN, version);
+            }
+
+            long slowPath = allocationBean.getThreadAllocatedBytes(threadId) - before;
+
+            LRALogger.logger.infof("status allocations per call: uid lookup %d bytes, /status via uid %d bytes, "
+                    + "/status via encoded id %d bytes", lookup / iterations, fastPath / iterations, slowPath / iterations);
+
+            assertTrue(lookup / iterations < 8, "looking up an LRA by uid should not allocate per call");
+            // what remains on the fast path is the Response that JAX-RS needs anyway
+            assertTrue(fastPath < slowPath, "the uid fast path should allocate less than parsing the LRA id");
+        } finally {
+            lraClient.cancelLRA(lraId);
+        }
+    }
+
+    @Test
+    // validate that a client can wait for an LRA to finish using the stream of status events
+    public void testAwaitTerminalStatus() throws InterruptedException {
+        URI lraId = lraClient.startLRA(testName);
+
+        // the coordinator has no knowledge of LRAs it never started (or has forgotten)
+        URI unknown = UriBuilder.fromUri(lraId).replacePath(lraId.getPath() + "unknown").build();
+        assertThrows(NotFoundException.class, () -> lraClient.awaitTerminalStatus(unknown, Duration.ofSeconds(5)));
+        assertFalse(service.hasStatusListeners(), "the coordinator should stop listening once every subscription ended");
+
+        // close the LRA once the subscription below is in place
+        CompletableFuture.runAsync(() -> lraClient.closeLRA(lraId),
+                CompletableFuture.delayedExecutor(1, TimeUnit.SECONDS));
+
+        assertEquals(LRAStatus.Closed, lraClient.awaitTerminalStatus(lraId, Duration.ofSeconds(30)),
+                "the status stream should report that the LRA closed");
+
+        // the subscription is completed straight after the last event is sent
+        for (int i = 0; i < 50 && service.hasStatusListeners(); i++) {
+            Thread.sleep(100);
+        }
+
+        assertFalse(service.hasStatusListeners(), "the coordinator should stop listening once every subscription ended");
+
+        // the coordinator forgets about finished LRAs
+        assertThrows(NotFoundException.class, () -> lraClient.awaitTerminalStatus(lraId, Duration.ofSeconds(5)));
+
+        // the LRA is still running so waiting should time out and report the current status
+        URI running = lraClient.startLRA(testName);
+
+        try {
+            assertEquals(LRAStatus.Active, lraClient.awaitTerminalStatus(running, Duration.ofMillis(500)));
+        } finally {
+            lraClient.closeLRA(running);
+        }
+    }
+
+    @Test
+    // check that an LRA is held by, and logged to, the shard chosen by its uid
+    public void testShardAssignment() {
+        URI lraId = lraClient.startLRA(testName);
+        String uid = LRAConstants.getLRAUid(lraId);
+        LongRunningAction lra = service.getTransaction(lraId);
+        int shard = LRAService.shardOf(uid);
+
+        assertTrue(shard >= 0 && shard < LRAService.getShardCount(), "shard index out of range: " + shard);
+        assertEquals(shard, LRAService.shardOf(lra.get_uid()),
+                "the shard of an LRA should not depend on the form of its uid");
+        assertEquals(LongRunningAction.getType(shard), lra.type(), "the LRA should be logged in the store of its shard");
+        assertEquals(lra, service.lookupTransactionByUid(uid));
+        assertTrue(service.hasTransaction(lraId));
+
+        lraClient.closeLRA(lraId);
+
+        assertFalse(service.hasTransaction(lraId));
+        assertNull(service.lookupTransactionByUid(uid));
+    }
+
+    @Test
+    // close an LRA asynchronously and check that the coordinator accepts the request and then finishes it
+    public void testAsyncClose() {
+        URI lraId = lraClient.startLRA(testName);
+
+        try (Response r = client.target(String.format("%s/close", lraId))
+                .request()
+                .header(LRAConstants.PREFER_HEADER_NAME, LRAConstants.RESPOND_ASYNC_PREFERENCE)
+                .put(Entity.text(""))) {
+            assertEquals(Response.Status.ACCEPTED.getStatusCode(), r.getStatus(),
+                    "the coordinator should accept an asynchronous close request");
+            assertEquals(LRAConstants.RESPOND_ASYNC_PREFERENCE,
+                    r.getHeaderString(LRAConstants.PREFERENCE_APPLIED_HEADER_NAME));
+            assertNotNull(r.getLocation(), "the response should say where to find the status of the LRA");
+            assertTrue(r.getLocation().getPath().endsWith(LRAConstants.getLRAUid(lraId) + "/status"),
+                    "the location should be the status resource of the LRA: " + r.getLocation());
+
+            String status = r.readEntity(String.class);
+            assertTrue(LRAStatus.Closing.name().equals(status) || LRAStatus.Closed.name().equals(status),
+                    "unexpected status in the accepted response: " + status);
+        }
+
+        try {
+            assertEquals(LRAStatus.Closed, lraClient.awaitTerminalStatus(lraId, Duration.ofSeconds(30)),
+                    "the LRA should have been closed in the background");
+        } catch (NotFoundException e) {
+            // the LRA finished and was forgotten before the status subscription was made
+        }
+
+        assertFalse(service.hasTransaction(lraId), "the coordinator should have forgotten the closed LRA");
+
+        // a second request must be rejected since the LRA no longer exists
+        assertThrows(WebApplicationException.class, () -> lraClient.cancelLRA(lraId, null, null, true));
+    }
+
+    @Test
+    // close an LRA asynchronously while another request holds its lock and check that the close is not lost
+    public void testAsyncCloseWaitsForLock() {
+        URI lraId = lraClient.startLRA(testName);
+        ReentrantLock lock = service.lockTransaction(lraId);
+
+        try {
+            service.endLRAAsync(lraId, false, null, null);
+
+            assertEquals(LRAStatus.Closing, service.getTransaction(lraId).getLRAStatus(),
+                    "the LRA cannot be closed while another thread holds its lock");
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            assertEquals(LRAStatus.Closed, lraClient.awaitTerminalStatus(lraId, Duration.ofSeconds(30)),
+                    "the LRA should have been closed once the lock was released");
+        } catch (NotFoundException e) {
+            // the LRA finished and was forgotten before the status subscription was made
+        }
+
+        assertFalse(service.hasTransaction(lraId), "the coordinator should have forgotten the closed LRA");
+    }
+
     @Test
     // start an LRA and validate that the coordinator reports its status correctly
     public void testLRAInfoAcceptJson() {
@@ -1083,6 +1393,33 @@ public class LRATest extends LRATestBase {
         assertStatus("child", child, null, LRAStatus.Closed);
     }
 
+    @Test
+    public void testNestedHierarchyIndex() throws UnsupportedEncodingException {
+        URI grandParent = lraClient.startLRA(testName + " grandparent");
+        URI parent = lraClient.startLRA(testName + " parent"); // child of grandParent
+        URI child = lraClient.startLRA(testName + " child"); // child of parent
+        String parentWithoutQuery = UriBuilder.fromUri(parent).replaceQuery(null).build().toASCIIString();
+
+        // only the immediate parent is encoded in the id of a nested LRA
+        assertEquals(parentWithoutQuery, Current.getFirstParent(child));
+        assertFalse(child.toASCIIString().contains(LRAConstants.getLRAUid(grandParent)),
+                "the id of a nested LRA should not include its grandparent: " + child);
+
+        // but the coordinator knows the whole hierarchy
+        assertEquals(Set.of(service.getTransaction(parent)), service.getChildren(grandParent));
+        assertEquals(Set.of(service.getTransaction(child)), service.getChildren(parent));
+        assertTrue(service.getChildren(child).isEmpty());
+
+        lraClient.closeLRA(grandParent);
+
+        // ending an LRA leaves none of the nested LRAs that the index knows about active
+        assertTrue(service.getChildren(grandParent).stream().noneMatch(lra -> lra.getLRAStatus() == LRAStatus.Active));
+        assertTrue(service.getChildren(parent).stream().noneMatch(lra -> lra.getLRAStatus() == LRAStatus.Active));
+
+        // closing the grandparent disassociates the whole hierarchy from the thread
+        assertNull(Current.peek(), "no LRA should be associated with the thread after closing the top level LRA");
+    }
+
     @Test
     public void testParentLRAContext() {
         // start a hierarchy of three LRAs
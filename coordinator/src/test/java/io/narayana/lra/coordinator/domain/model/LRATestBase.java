@@ -18,6 +18,7 @@ import com.arjuna.ats.arjuna.objectstore.RecoveryStore;
 import com.arjuna.ats.arjuna.objectstore.StoreManager;
 import com.arjuna.ats.arjuna.state.InputObjectState;
 import com.arjuna.ats.internal.arjuna.common.UidHelper;
+import io.narayana.lra.coordinator.domain.service.LRAService;
 import io.narayana.lra.logging.LRALogger;
 import jakarta.ws.rs.DELETE;
 import jakarta.ws.rs.DefaultValue;
@@ -480,22 +481,25 @@ public class LRATestBase {
     }
 
     protected int countRecords() throws ObjectStoreException, IOException {
-        InputObjectState uids = new InputObjectState();
         RecoveryStore recoveryStore = StoreManager.getRecoveryStore();
         int count = 0;
 
-        if (recoveryStore.allObjUids(LongRunningAction.getType(), uids) && uids.notempty()) {
-            boolean finished = false;
+        for (int shard = 0; shard < LRAService.getShardCount(); shard++) {
+            InputObjectState uids = new InputObjectState();
 
-            do {
-                Uid uid = UidHelper.unpackFrom(uids);
+            if (recoveryStore.allObjUids(LongRunningAction.getType(shard), uids) && uids.notempty()) {
+                boolean finished = false;
 
-                if (uid.notEquals(Uid.nullUid())) {
-                    count += 1;
-                } else {
-                    finished = true;
-                }
-            } while (!finished);
+                do {
+                    Uid uid = UidHelper.unpackFrom(uids);
+
+                    if (uid.notEquals(Uid.nullUid())) {
+                        count += 1;
+                    } else {
+                        finished = true;
+                    }
+                } while (!finished);
+            }
         }
 
         return count;
@@ -0,0 +1,111 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.lra.coordinator.domain.model;
+
+import static io.narayana.lra.LRAConstants.COORDINATOR_PATH_NAME;
+import static io.narayana.lra.LRAConstants.READINESS_PATH_NAME;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.arjuna.ats.arjuna.common.Uid;
+import com.arjuna.ats.arjuna.exceptions.ObjectStoreException;
+import com.arjuna.ats.arjuna.objectstore.StateStatus;
+import com.arjuna.ats.arjuna.objectstore.StoreManager;
+import io.narayana.lra.LRAConstants;
+import io.narayana.lra.LRAData;
+import io.narayana.lra.coordinator.domain.model.objectstore.TestBase;
+import io.narayana.lra.coordinator.domain.service.LRAService;
+import io.narayana.lra.coordinator.internal.LRARecoveryModule;
+import jakarta.ws.rs.HttpMethod;
+import jakarta.ws.rs.core.Response;
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.eclipse.microprofile.lra.annotation.LRAStatus;
+import org.eclipse.microprofile.lra.annotation.ParticipantStatus;
+import org.jboss.resteasy.test.TestPortProvider;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that a coordinator that starts lazily serves requests for the LRAs in its object store before recovery
+ * has loaded them. Lazy startup is fixed when the coordinator classes are loaded so the build runs this test in its
+ * own JVM with {@value LRAConstants#LAZY_STARTUP} set, in other JVMs it is skipped.
+ */
+public class LazyStartupTest extends TestBase {
+    // nothing listens on this port so the callbacks can only succeed if they are delivered in the same JVM
+    private static final URI PARTICIPANT = URI.create("http://localhost:1/lazy-participant");
+
+    private LRAService service;
+    private LRARecoveryModule module;
+
+    @BeforeEach
+    public void requireLazyStartup() {
+        Assumptions.assumeTrue(LRARecoveryModule.isLazyStartup(), "the coordinator is not started lazily");
+
+        service = LRARecoveryModule.getService();
+        module = LRARecoveryModule.getInstance();
+    }
+
+    @Test
+    // serve the LRAs in the store before the warm up has loaded them
+    public void readinessTest() throws ObjectStoreException {
+        AtomicBoolean completed = new AtomicBoolean();
+
+        service.getLocalParticipants().register(PARTICIPANT, invocation -> {
+            if (HttpMethod.GET.equals(invocation.getMethod())) {
+                return Response.ok(completed.get() ? ParticipantStatus.Completed.name()
+                        : ParticipantStatus.Completing.name()).build();
+            }
+
+            return completed.get() ? Response.ok().build() : Response.accepted().build();
+        });
+
+        try {
+            assertFalse(module.isReady(), "recovery should not have loaded the LRAs before the coordinator started");
+
+            URI closing = lraClient.startLRA(testName + "#closing");
+            URI active = lraClient.startLRA(testName + "#active");
+
+            lraClient.joinLRA(closing, 0L, PARTICIPANT, null);
+            lraClient.joinLRA(active, 0L, PARTICIPANT, null);
+            lraClient.closeLRA(closing);
+
+            // forget the LRAs, as a coordinator that restarts would, so that they only exist in the store
+            for (URI lraId : new URI[] { closing, active }) {
+                assertEquals(StateStatus.OS_COMMITTED, StoreManager.getRecoveryStore().currentState(
+                        new Uid(LRAConstants.getLRAUid(lraId)), LongRunningAction.getType()),
+                        "the LRA should be in the store");
+                service.remove(lraId);
+            }
+
+            // recovery passes, including the warm up, wait for the monitor of the module
+            synchronized (module) {
+                module.startUp();
+
+                try (Response response = client.target(TestPortProvider.generateURL('/' + COORDINATOR_PATH_NAME))
+                        .path(READINESS_PATH_NAME).request().get()) {
+                    assertEquals(Response.Status.OK.getStatusCode(), response.getStatus(),
+                            "the coordinator should be ready once it has read the uids of the LRA records");
+                }
+
+                assertEquals(LRAStatus.Closing, getStatus(closing), "an LRA should be loaded when it is referred to");
+                assertTrue(lraClient.getAllLRAs().stream().map(LRAData::getLraId).anyMatch(active::equals),
+                        "a listing should include the LRAs that have yet to be loaded");
+            }
+
+            completed.set(true);
+            service.recover();
+
+            LRAStatus status = getStatus(closing);
+
+            assertTrue(status == null || status == LRAStatus.Closed, "recovery should have closed the LRA: " + status);
+        } finally {
+            service.getLocalParticipants().unregister(PARTICIPANT);
+        }
+    }
+}
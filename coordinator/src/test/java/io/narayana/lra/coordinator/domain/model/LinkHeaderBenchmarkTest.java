@@ -0,0 +1,147 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.lra.coordinator.domain.model;
+
+import static io.narayana.lra.LRAConstants.AFTER;
+import static io.narayana.lra.LRAConstants.COMPENSATE;
+import static io.narayana.lra.LRAConstants.COMPLETE;
+import static io.narayana.lra.LRAConstants.FORGET;
+import static io.narayana.lra.LRAConstants.LEAVE;
+import static io.narayana.lra.LRAConstants.STATUS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import io.narayana.lra.LinkHeader;
+import io.narayana.lra.logging.LRALogger;
+import jakarta.ws.rs.core.Link;
+import jakarta.ws.rs.core.MediaType;
+import java.net.URI;
+import java.util.Map;
+import java.util.TreeMap;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Compares the {@link LinkHeader} codec with the {@link Link} based code that it replaced when rendering the Link
+ * header of a participant with all six callbacks and when parsing it into its canonical form, and checks that both
+ * agree on the result. By default only a few iterations are run, use the benchmark profile
+ * ({@code mvn test -Pbenchmark}) or set {@code lra.benchmark.iterations} to obtain meaningful figures.
+ */
+public class LinkHeaderBenchmarkTest {
+    private static final int ITERATIONS = Integer.getInteger("lra.benchmark.iterations", 100);
+    private static final String[] RELS = {COMPENSATE, COMPLETE, FORGET, LEAVE, AFTER, STATUS};
+    private static final String BASE = "http://localhost:8081/participant/order/";
+
+    @Test
+    public void render() {
+        assertEquals(parseWithLink(renderWithLink(0)), parseWithLinkHeader(renderWithLinkHeader(0)),
+                "both renderings should hold the same links");
+
+        long begin = System.nanoTime();
+        int length = 0;
+
+        for (int i = 0; i < ITERATIONS; i++) {
+            length += renderWithLink(i).length();
+        }
+
+        report("render", "jakarta.ws.rs.core.Link", begin, length);
+
+        begin = System.nanoTime();
+        length = 0;
+
+        for (int i = 0; i < ITERATIONS; i++) {
+            length += renderWithLinkHeader(i).length();
+        }
+
+        report("render", "LinkHeader", begin, length);
+    }
+
+    @Test
+    public void parse() {
+        String header = renderWithLink(0);
+
+        assertEquals(parseWithLink(header), parseWithLinkHeader(header), "both parsers should find the same links");
+
+        long begin = System.nanoTime();
+        int count = 0;
+
+        for (int i = 0; i < ITERATIONS; i++) {
+            count += parseWithLink(header).size();
+        }
+
+        report("parse", "jakarta.ws.rs.core.Link", begin, count);
+
+        begin = System.nanoTime();
+        count = 0;
+
+        for (int i = 0; i < ITERATIONS; i++) {
+            count += parseWithLinkHeader(header).size();
+        }
+
+        report("parse", "LinkHeader", begin, count);
+    }
+
+    // how the client and the filter built the header
+    private static String renderWithLink(int id) {
+        StringBuilder b = new StringBuilder();
+
+        for (String rel : RELS) {
+            Link link = Link.fromUri(BASE + id + "/" + rel).title(rel + " URI").rel(rel).type(MediaType.TEXT_PLAIN).build();
+
+            if (b.length() != 0) {
+                b.append(',');
+            }
+
+            b.append(link);
+        }
+
+        return b.toString();
+    }
+
+    private static String renderWithLinkHeader(int id) {
+        LinkHeader.Builder b = LinkHeader.builder();
+
+        for (String rel : RELS) {
+            b.link(rel, BASE + id + "/" + rel, rel + " URI");
+        }
+
+        return b.toString();
+    }
+
+    // how the coordinator canonicalized and parsed the header
+    private static Map<String, String> parseWithLink(String header) {
+        Map<String, String> links = new TreeMap<>();
+
+        for (String link : header.split(",")) {
+            Link parsed = Link.valueOf(link);
+
+            links.put(parsed.getRel(), parsed.getUri().toASCIIString());
+        }
+
+        return links;
+    }
+
+    private static Map<String, String> parseWithLinkHeader(String header) {
+        Map<String, String> links = new TreeMap<>();
+
+        try {
+            LinkHeader parsed = LinkHeader.parse(LinkHeader.parse(header).toCanonicalString());
+
+            for (int i = 0; i < parsed.size(); i++) {
+                links.put(parsed.getRel(i), URI.create(parsed.getTarget(i)).toASCIIString());
+            }
+        } catch (Exception e) {
+            throw new AssertionError("the header should be valid: " + header, e);
+        }
+
+        return links;
+    }
+
+    private static void report(String operation, String codec, long startNanos, int result) {
+        long elapsedNanos = Math.max(1L, System.nanoTime() - startNanos);
+
+        LRALogger.logger.infof("%s %d headers with %s in %d ms (%d ns/header, checksum %d)",
+                operation, ITERATIONS, codec, elapsedNanos / 1_000_000, elapsedNanos / ITERATIONS, result);
+    }
+}
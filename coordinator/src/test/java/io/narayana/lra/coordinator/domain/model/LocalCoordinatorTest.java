@@ -0,0 +1,44 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.lra.coordinator.domain.model;
+
+import static io.narayana.lra.LRAConstants.COORDINATOR_PATH_NAME;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.narayana.lra.client.NarayanaLRAClient;
+import io.narayana.lra.coordinator.domain.model.objectstore.TestBase;
+import java.net.URI;
+import org.eclipse.microprofile.lra.annotation.LRAStatus;
+import org.jboss.resteasy.test.TestPortProvider;
+import org.junit.jupiter.api.Test;
+
+public class LocalCoordinatorTest extends TestBase {
+    /**
+     * This test checks that an LRA started by a client with an embedded coordinator is visible over REST
+     */
+    @Test
+    public void embeddedCoordinatorTest() {
+        String coordinatorUrl = TestPortProvider.generateURL('/' + COORDINATOR_PATH_NAME);
+
+        try (NarayanaLRAClient embeddedClient = new NarayanaLRAClient("local:" + coordinatorUrl)) {
+            URI lraId = embeddedClient.startLRA(testName);
+
+            try {
+                assertTrue(lraId.toASCIIString().startsWith(coordinatorUrl),
+                        "the LRA id should be resolvable via the REST coordinator: " + lraId);
+                assertEquals(LRAStatus.Active, embeddedClient.getStatus(lraId));
+                assertEquals(LRAStatus.Active, getStatus(lraId), "the REST coordinator should know about the LRA");
+            } finally {
+                embeddedClient.closeLRA(lraId);
+            }
+
+            LRAStatus status = getStatus(lraId);
+
+            assertTrue(status == null || status == LRAStatus.Closed, "the LRA should have closed");
+        }
+    }
+}
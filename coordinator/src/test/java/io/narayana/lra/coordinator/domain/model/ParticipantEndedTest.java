@@ -0,0 +1,76 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.lra.coordinator.domain.model;
+
+import static io.narayana.lra.LRAConstants.STATUS;
+import static org.eclipse.microprofile.lra.annotation.ws.rs.LRA.LRA_HTTP_RECOVERY_HEADER;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.narayana.lra.coordinator.domain.model.objectstore.TestBase;
+import io.narayana.lra.coordinator.domain.service.InVMParticipantInvoker;
+import io.narayana.lra.coordinator.internal.LRARecoveryModule;
+import jakarta.ws.rs.HttpMethod;
+import jakarta.ws.rs.client.Entity;
+import jakarta.ws.rs.core.Response;
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicReference;
+import org.eclipse.microprofile.lra.annotation.LRAStatus;
+import org.eclipse.microprofile.lra.annotation.ParticipantStatus;
+import org.junit.jupiter.api.Test;
+
+public class ParticipantEndedTest extends TestBase {
+    // nothing listens on this port so the callbacks can only succeed if they are delivered in the same JVM
+    private static final URI PARTICIPANT = URI.create("http://localhost:1/async-participant");
+
+    /**
+     * This test checks that a participant which accepted the complete request can report that it has finished
+     */
+    @Test
+    public void participantEndedTest() {
+        InVMParticipantInvoker localParticipants = LRARecoveryModule.getService().getLocalParticipants();
+        AtomicReference<String> recoveryUrl = new AtomicReference<>();
+
+        localParticipants.register(PARTICIPANT, invocation -> {
+            if (HttpMethod.GET.equals(invocation.getMethod())) {
+                return Response.ok(ParticipantStatus.Completing.name()).build();
+            }
+
+            recoveryUrl.set(invocation.getHeader(LRA_HTTP_RECOVERY_HEADER));
+            return Response.accepted().build();
+        });
+
+        try {
+            URI lraId = lraClient.startLRA(testName);
+
+            lraClient.joinLRA(lraId, 0L, PARTICIPANT, null);
+            lraClient.closeLRA(lraId);
+
+            assertNotNull(recoveryUrl.get(), "the participant should have been asked to complete");
+            assertEquals(LRAStatus.Closing, getStatus(lraId), "the participant has not finished yet");
+
+            try (Response response = client.target(recoveryUrl.get()).path(STATUS).request()
+                    .put(Entity.text(ParticipantStatus.Completed.name()))) {
+                assertEquals(Response.Status.OK.getStatusCode(), response.getStatus(),
+                        "the coordinator should have recorded the outcome");
+            }
+
+            LRAStatus status = getStatus(lraId);
+
+            assertTrue(status == null || status == LRAStatus.Closed, "the LRA should have closed");
+
+            try (Response response = client.target(recoveryUrl.get()).path(STATUS).request()
+                    .put(Entity.text(ParticipantStatus.Completed.name()))) {
+                assertNotEquals(Response.Status.OK.getStatusCode(), response.getStatus(),
+                        "the outcome should only be recorded once");
+            }
+        } finally {
+            localParticipants.unregister(PARTICIPANT);
+        }
+    }
+}
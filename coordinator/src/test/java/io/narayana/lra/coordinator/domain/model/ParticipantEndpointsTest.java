@@ -0,0 +1,80 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.lra.coordinator.domain.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.net.URI;
+import org.junit.jupiter.api.Test;
+
+public class ParticipantEndpointsTest {
+    private static final String BASE = "http://localhost:8081/participant";
+    private static final String COMPENSATE_LINK = "<" + BASE + "/compensate>; rel=\"compensate\"";
+    private static final String COMPLETE_LINK = "<" + BASE + "/complete>; rel=\"complete\"";
+    private static final String STATUS_LINK = "<" + BASE + "/status>; rel=\"status\"";
+
+    @Test
+    public void sameLinkHeaderSharesEndpoints() throws Exception {
+        ParticipantEndpoints first = ParticipantEndpoints.of(COMPENSATE_LINK + "," + COMPLETE_LINK + "," + STATUS_LINK);
+        ParticipantEndpoints reordered = ParticipantEndpoints.of(STATUS_LINK + "," + COMPLETE_LINK + "," + COMPENSATE_LINK);
+
+        assertSame(first, ParticipantEndpoints.of(COMPENSATE_LINK + "," + COMPLETE_LINK + "," + STATUS_LINK),
+                "participants enlisting with the same header should share its endpoints");
+        assertSame(first, reordered, "the order of the links should not matter");
+        assertEquals(URI.create(BASE + "/compensate"), first.compensate);
+        assertEquals(URI.create(BASE + "/complete"), first.complete);
+        assertEquals(URI.create(BASE + "/status"), first.status);
+        assertNull(first.forget);
+        assertNull(first.after);
+    }
+
+    @Test
+    public void resourceUrlProvidesEveryEndpoint() throws Exception {
+        ParticipantEndpoints endpoints = ParticipantEndpoints.of(BASE);
+
+        assertEquals(URI.create(BASE + "/compensate"), endpoints.compensate);
+        assertEquals(URI.create(BASE + "/complete"), endpoints.complete);
+        assertEquals(URI.create(BASE), endpoints.status);
+        assertEquals(URI.create(BASE), endpoints.forget);
+        assertSame(endpoints, ParticipantEndpoints.of(BASE));
+    }
+
+    @Test
+    public void usedEndpointsSurviveACacheThatIsFull() throws Exception {
+        String link = COMPENSATE_LINK + "," + COMPLETE_LINK + "," + STATUS_LINK;
+        ParticipantEndpoints used = ParticipantEndpoints.of(link);
+
+        // far more distinct participants than the cache holds, interleaved with enlistments of a popular one
+        for (int i = 0; i < 10_000; i++) {
+            ParticipantEndpoints.of("http://localhost:8083/participant" + i);
+
+            assertSame(used, ParticipantEndpoints.of(link),
+                    "only the least recently used endpoints should be evicted when the cache is full");
+        }
+    }
+
+    @Test
+    public void restoredEndpointsAreShared() throws Exception {
+        ParticipantEndpoints enlisted = ParticipantEndpoints.of(COMPENSATE_LINK + "," + STATUS_LINK);
+        ParticipantEndpoints restored = ParticipantEndpoints.of(URI.create(BASE + "/compensate"), null,
+                URI.create(BASE + "/status"), null, null);
+
+        assertSame(enlisted, restored, "restored endpoints should be shared with enlisted ones");
+    }
+
+    @Test
+    public void updatedCallbacksReplaceOnlyTheirRelation() throws Exception {
+        ParticipantEndpoints enlisted = ParticipantEndpoints.of(COMPENSATE_LINK + "," + COMPLETE_LINK);
+        ParticipantEndpoints updated = enlisted.merge(ParticipantEndpoints.parseLinks(
+                "<http://localhost:8082/participant/compensate>; rel=\"compensate\""));
+
+        assertEquals(URI.create("http://localhost:8082/participant/compensate"), updated.compensate);
+        assertEquals(enlisted.complete, updated.complete);
+        assertEquals(URI.create(BASE + "/compensate"), enlisted.compensate, "shared endpoints must not change");
+    }
+}
@@ -0,0 +1,137 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.lra.coordinator.domain.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.narayana.lra.coordinator.domain.model.objectstore.TestBase;
+import io.narayana.lra.coordinator.domain.service.InVMParticipantInvoker;
+import io.narayana.lra.coordinator.internal.LRARecoveryModule;
+import jakarta.ws.rs.core.Response;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.eclipse.microprofile.lra.annotation.LRAStatus;
+import org.junit.jupiter.api.Test;
+
+public class ParticipantLookupTest extends TestBase {
+    private static final int PARTICIPANT_COUNT = 20;
+    // nothing listens on this port so the callbacks can only succeed if they are delivered in the same JVM
+    private static final URI PARTICIPANTS = URI.create("http://localhost:1/lookup");
+
+    /**
+     * This test checks that participants can be found by their compensator and recovery urls as they join and leave
+     */
+    @Test
+    public void participantLookupTest() {
+        InVMParticipantInvoker localParticipants = LRARecoveryModule.getService().getLocalParticipants();
+        Set<String> completed = ConcurrentHashMap.newKeySet();
+
+        localParticipants.register(PARTICIPANTS, invocation -> {
+            completed.add(invocation.getEndpoint().getPath());
+            return Response.ok().build();
+        });
+
+        try {
+            URI lraId = lraClient.startLRA(testName);
+            URI[] recoveryUrls = new URI[PARTICIPANT_COUNT];
+
+            for (int i = 0; i < PARTICIPANT_COUNT; i++) {
+                recoveryUrls[i] = lraClient.joinLRA(lraId, 0L, URI.create(PARTICIPANTS + "/" + i), null);
+            }
+
+            for (int i = 0; i < PARTICIPANT_COUNT; i++) {
+                assertEquals(recoveryUrls[i], lraClient.joinLRA(lraId, 0L, URI.create(PARTICIPANTS + "/" + i), null),
+                        "a participant that joins again should be given the same recovery url");
+            }
+
+            // leaving removes the participant so it should not be found again
+            lraClient.leaveLRA(lraId, recoveryUrls[0].toASCIIString());
+
+            lraClient.joinLRA(lraId, 0L, URI.create(PARTICIPANTS + "/0"), null);
+
+            lraClient.closeLRA(lraId);
+
+            assertEquals(PARTICIPANT_COUNT, completed.size(), "every participant should have been asked to complete");
+            assertTrue(completed.contains(PARTICIPANTS.getPath() + "/0/complete"),
+                    "the participant that rejoined should have been asked to complete");
+
+            LRAStatus status = getStatus(lraId);
+
+            assertTrue(status == null || status == LRAStatus.Closed, "the LRA should have closed");
+        } finally {
+            localParticipants.unregister(PARTICIPANTS);
+        }
+    }
+
+    /**
+     * This test checks that participants that leave while others are joining are removed and that the joins are
+     * still enlisted
+     */
+    @Test
+    public void concurrentJoinAndLeaveTest() throws Exception {
+        InVMParticipantInvoker localParticipants = LRARecoveryModule.getService().getLocalParticipants();
+        Set<String> completed = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(PARTICIPANT_COUNT);
+
+        localParticipants.register(PARTICIPANTS, invocation -> {
+            completed.add(invocation.getEndpoint().getPath());
+            return Response.ok().build();
+        });
+
+        try {
+            URI lraId = lraClient.startLRA(testName);
+            URI[] leavers = new URI[PARTICIPANT_COUNT];
+
+            for (int i = 0; i < PARTICIPANT_COUNT; i++) {
+                leavers[i] = lraClient.joinLRA(lraId, 0L, URI.create(PARTICIPANTS + "/leaver-" + i), null);
+            }
+
+            CountDownLatch ready = new CountDownLatch(1);
+            List<Future<?>> requests = new ArrayList<>(2 * PARTICIPANT_COUNT);
+
+            for (int i = 0; i < PARTICIPANT_COUNT; i++) {
+                URI joiner = URI.create(PARTICIPANTS + "/joiner-" + i);
+                URI leaver = leavers[i];
+
+                requests.add(executor.submit(() -> {
+                    ready.await();
+                    return lraClient.joinLRA(lraId, 0L, joiner, null);
+                }));
+                requests.add(executor.submit(() -> {
+                    ready.await();
+                    lraClient.leaveLRA(lraId, leaver.toASCIIString());
+                    return null;
+                }));
+            }
+
+            ready.countDown();
+
+            for (Future<?> request : requests) {
+                request.get(); // a request that failed would throw here
+            }
+
+            lraClient.closeLRA(lraId);
+
+            assertEquals(PARTICIPANT_COUNT, completed.size(), "only the participants that joined should complete");
+
+            for (int i = 0; i < PARTICIPANT_COUNT; i++) {
+                assertTrue(completed.contains(PARTICIPANTS.getPath() + "/joiner-" + i + "/complete"),
+                        "every participant that joined should have been asked to complete");
+            }
+        } finally {
+            executor.shutdown();
+            localParticipants.unregister(PARTICIPANTS);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.lra.coordinator.domain.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.arjuna.ats.arjuna.common.Uid;
+import com.arjuna.ats.arjuna.exceptions.ObjectStoreException;
+import com.arjuna.ats.arjuna.objectstore.StateStatus;
+import com.arjuna.ats.arjuna.objectstore.StoreManager;
+import io.narayana.lra.LRAConstants;
+import io.narayana.lra.LRAData;
+import io.narayana.lra.client.NarayanaLRAClient;
+import io.narayana.lra.coordinator.domain.model.objectstore.TestBase;
+import io.narayana.lra.coordinator.domain.service.InVMParticipantInvoker;
+import io.narayana.lra.coordinator.domain.service.LRAService;
+import io.narayana.lra.coordinator.internal.LRARecoveryModule;
+import jakarta.ws.rs.HttpMethod;
+import jakarta.ws.rs.core.Response;
+import java.net.URI;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.eclipse.microprofile.lra.annotation.LRAStatus;
+import org.eclipse.microprofile.lra.annotation.ParticipantStatus;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Runs the LRA lifecycle against a coordinator that is partitioned into several shards. The number of shards is
+ * fixed when the coordinator classes are loaded so the build runs this test in its own JVM with
+ * {@value LRAConstants#COORDINATOR_SHARDS} set, in other JVMs it is skipped.
+ */
+public class ShardedCoordinatorTest extends TestBase {
+    // nothing listens on this port so the callbacks can only succeed if they are delivered in the same JVM
+    private static final URI PARTICIPANT = URI.create("http://localhost:1/sharded-participant");
+
+    private LRAService service;
+
+    @BeforeEach
+    public void requireShards() {
+        Assumptions.assumeTrue(LRAService.getShardCount() > 1, "the coordinator is not sharded");
+
+        service = LRARecoveryModule.getService();
+    }
+
+    @Test
+    // start LRAs concurrently, query them through the per-shard indexes and end them
+    public void startAndEndTest() {
+        String coordinatorUrl = System.getProperty(NarayanaLRAClient.LRA_COORDINATOR_URL_KEY);
+        // use the service directly so that the starts really are concurrent
+        List<URI> lraIds = IntStream.range(0, 32).parallel()
+                .mapToObj(i -> service.startLRA(coordinatorUrl, null, testName + (i % 2), 0L).getId())
+                .collect(Collectors.toList());
+        Set<Integer> shards = new HashSet<>();
+
+        for (URI lraId : lraIds) {
+            LongRunningAction lra = service.getTransaction(lraId);
+            int shard = LRAService.shardOf(LRAConstants.getLRAUid(lraId));
+
+            shards.add(shard);
+            assertEquals(LongRunningAction.getType(shard), lra.type(), "the LRA should be logged in the store of its shard");
+        }
+
+        assertTrue(shards.size() > 1, "the LRAs should have been spread over the shards: " + shards);
+
+        Set<URI> active = ids(service.getAll(LRAStatus.Active));
+        Set<URI> even = ids(service.getAll(null, testName + 0));
+
+        assertTrue(active.containsAll(lraIds), "every shard should be searched for active LRAs");
+        assertEquals(lraIds.size() / 2, even.size(), "every shard should be searched for the LRAs of a client");
+
+        URI child = service.startLRA(coordinatorUrl, lraIds.get(0), testName, 0L).getId();
+
+        assertTrue(service.getChildren(lraIds.get(0)).contains(service.getTransaction(child)),
+                "a nested LRA should be indexed under its parent even if they belong to different shards");
+
+        CompletableFuture.allOf(lraIds.stream()
+                .map(lraId -> CompletableFuture.runAsync(() -> service.endLRA(lraId, !even.contains(lraId), false)))
+                .toArray(CompletableFuture[]::new)).join();
+
+        for (URI lraId : lraIds) {
+            assertFalse(service.hasTransaction(lraId), "the coordinator should have forgotten the LRA");
+        }
+
+        LongRunningAction nested = service.lookupTransaction(child);
+
+        assertTrue(nested == null || nested.getLRAStatus() == LRAStatus.Closed,
+                "the nested LRA should have ended with its parent");
+        assertTrue(ids(service.getAll(LRAStatus.Active)).stream().noneMatch(lraIds::contains));
+    }
+
+    @Test
+    // recover an LRA which belongs to a shard other than the first from the object store type of its shard
+    public void recoveryTest() throws ObjectStoreException {
+        InVMParticipantInvoker localParticipants = service.getLocalParticipants();
+        AtomicBoolean completed = new AtomicBoolean();
+
+        localParticipants.register(PARTICIPANT, invocation -> {
+            if (HttpMethod.GET.equals(invocation.getMethod())) {
+                return Response.ok(completed.get() ? ParticipantStatus.Completed.name()
+                        : ParticipantStatus.Completing.name()).build();
+            }
+
+            return completed.get() ? Response.ok().build() : Response.accepted().build();
+        });
+
+        try {
+            URI lraId = lraClient.startLRA(testName);
+
+            while (LRAService.shardOf(LRAConstants.getLRAUid(lraId)) == 0) {
+                lraClient.cancelLRA(lraId);
+                lraId = lraClient.startLRA(testName);
+            }
+
+            String uid = LRAConstants.getLRAUid(lraId);
+            String type = LongRunningAction.getType(LRAService.shardOf(uid));
+
+            assertNotEquals(LongRunningAction.getType(), type);
+
+            lraClient.joinLRA(lraId, 0L, PARTICIPANT, null);
+            lraClient.closeLRA(lraId);
+
+            assertEquals(LRAStatus.Closing, getStatus(lraId), "the participant has not finished yet");
+            assertEquals(StateStatus.OS_COMMITTED, StoreManager.getRecoveryStore().currentState(new Uid(uid), type),
+                    "the LRA should be logged in the store of its shard");
+
+            // forget the LRA so that recovery has to read it back from the store of its shard
+            service.remove(lraId);
+            assertFalse(service.hasTransaction(lraId));
+
+            completed.set(true);
+            service.recover();
+
+            LRAStatus status = getStatus(lraId);
+
+            assertTrue(status == null || status == LRAStatus.Closed, "recovery should have closed the LRA: " + status);
+            assertEquals(StateStatus.OS_UNKNOWN, StoreManager.getRecoveryStore().currentState(new Uid(uid), type),
+                    "the log of the LRA should have been removed");
+        } finally {
+            localParticipants.unregister(PARTICIPANT);
+        }
+    }
+
+    private static Set<URI> ids(List<LRAData> lras) {
+        return lras.stream().map(LRAData::getLraId).collect(Collectors.toSet());
+    }
+}
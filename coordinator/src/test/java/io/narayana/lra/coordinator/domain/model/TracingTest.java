@@ -0,0 +1,157 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.lra.coordinator.domain.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.narayana.lra.coordinator.api.Coordinator;
+import io.narayana.lra.coordinator.api.CoordinatorContainerFilter;
+import io.narayana.lra.coordinator.domain.model.objectstore.TestBase;
+import io.narayana.lra.coordinator.domain.service.InVMParticipantInvoker;
+import io.narayana.lra.coordinator.internal.LRARecoveryModule;
+import io.narayana.lra.tracing.Tracing;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.sdk.testing.junit5.OpenTelemetryExtension;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import jakarta.ws.rs.ApplicationPath;
+import jakarta.ws.rs.core.Application;
+import jakarta.ws.rs.core.Response;
+import java.net.URI;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.jboss.resteasy.plugins.server.undertow.UndertowJaxrsServer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+public class TracingTest extends TestBase {
+    // nothing listens on this port so the callbacks can only succeed if they are delivered in the same JVM
+    private static final URI PARTICIPANT = URI.create("http://localhost:1/traced");
+
+    // installs an OpenTelemetry SDK that keeps the spans in memory
+    @RegisterExtension
+    static final OpenTelemetryExtension otel = OpenTelemetryExtension.create();
+
+    @ApplicationPath("/")
+    public static class TracedCoordinator extends Application {
+        @Override
+        public Set<Class<?>> getClasses() {
+            HashSet<Class<?>> classes = new HashSet<>();
+            classes.add(Coordinator.class);
+            classes.add(CoordinatorContainerFilter.class);
+            return classes;
+        }
+    }
+
+    @BeforeEach
+    public void deployTracedCoordinator() {
+        // replace the coordinator that TestBase deployed with one whose requests are traced, as in a real deployment
+        server.stop();
+        server = new UndertowJaxrsServer().start();
+        server.deploy(TracedCoordinator.class);
+    }
+
+    /**
+     * This test checks that the spans of the client, the coordinator and the participant of an LRA form one trace
+     * and that the time spent in each of them can be told apart
+     */
+    @Test
+    public void lraSpansTest() {
+        InVMParticipantInvoker localParticipants = LRARecoveryModule.getService().getLocalParticipants();
+        Span saga = Tracing.getTracer().spanBuilder(testName).startSpan();
+        URI lraId;
+
+        localParticipants.register(PARTICIPANT, invocation -> {
+            try {
+                Thread.sleep(50); // make the participant the slowest part of closing the LRA
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            return Response.ok().build();
+        });
+
+        try (Scope ignored = saga.makeCurrent()) {
+            lraId = lraClient.startLRA(testName);
+            lraClient.joinLRA(lraId, 0L, PARTICIPANT, null);
+            lraClient.closeLRA(lraId);
+        } finally {
+            saga.end();
+            localParticipants.unregister(PARTICIPANT);
+        }
+
+        List<SpanData> spans = otel.getSpans().stream()
+                .filter(span -> lraId.toASCIIString().equals(span.getAttributes().get(Tracing.LRA_ID)))
+                .collect(Collectors.toList());
+
+        for (SpanData span : spans) {
+            assertEquals(saga.getSpanContext().getTraceId(), span.getTraceId(),
+                    "every span of the LRA should be in the trace: " + span);
+        }
+
+        SpanData clientClose = find(spans, "LRA client close");
+        SpanData coordinatorClose = find(spans, "LRA Coordinator.closeLRA");
+        SpanData complete = find(spans, "LRA participant complete");
+
+        assertEquals(saga.getSpanContext().getSpanId(), find(spans, "LRA client start").getParentSpanId(),
+                "the requests of the client should be children of the span of the application");
+        find(spans, "LRA Coordinator.startLRA");
+        find(spans, "LRA client join");
+        find(spans, "LRA Coordinator.joinLRAViaBody");
+
+        assertEquals(clientClose.getSpanId(), coordinatorClose.getParentSpanId(),
+                "the coordinator should continue the trace of the client");
+        assertEquals(coordinatorClose.getSpanId(), complete.getParentSpanId(),
+                "the participant should be called on behalf of the request to close the LRA");
+        assertEquals(200L, coordinatorClose.getAttributes().get(Tracing.HTTP_STATUS));
+
+        long participantTime = getSelfTimeNanos(spans, Tracing.PARTICIPANT);
+
+        assertTrue(participantTime >= 50_000_000L, "the participant should account for its delay: " + participantTime);
+        assertTrue(getSelfTimeNanos(spans, Tracing.COORDINATOR) < durationNanos(coordinatorClose)
+                + durationNanos(find(spans, "LRA Coordinator.startLRA"))
+                + durationNanos(find(spans, "LRA Coordinator.joinLRAViaBody")),
+                "the coordinator should not be charged for the time spent in the participant");
+    }
+
+    private static SpanData find(List<SpanData> spans, String name) {
+        SpanData found = spans.stream().filter(span -> name.equals(span.getName())).findFirst().orElse(null);
+
+        assertNotNull(found, "there should be a span named " + name + " in " + spans);
+
+        return found;
+    }
+
+    // the time that a component spent on the LRA, not counting the time spent in the components that it called
+    private static long getSelfTimeNanos(List<SpanData> spans, String component) {
+        long total = 0L;
+
+        for (SpanData span : spans) {
+            if (component.equals(span.getAttributes().get(Tracing.COMPONENT))) {
+                long selfTime = durationNanos(span);
+
+                for (SpanData child : spans) {
+                    if (span.getSpanId().equals(child.getParentSpanId())) {
+                        selfTime -= durationNanos(child);
+                    }
+                }
+
+                total += Math.max(0L, selfTime);
+            }
+        }
+
+        return total;
+    }
+
+    private static long durationNanos(SpanData span) {
+        return span.getEndEpochNanos() - span.getStartEpochNanos();
+    }
+}
@@ -0,0 +1,58 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.lra.coordinator.domain.model.objectstore;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.arjuna.ats.arjuna.common.ObjectStoreEnvironmentBean;
+import com.arjuna.ats.internal.arjuna.objectstore.hornetq.HornetqJournalEnvironmentBean;
+import com.arjuna.ats.internal.arjuna.objectstore.hornetq.HornetqObjectStoreAdaptor;
+import com.arjuna.common.internal.util.propertyservice.BeanPopulator;
+import io.narayana.lra.logging.LRALogger;
+import java.net.URI;
+import org.eclipse.microprofile.lra.annotation.LRAStatus;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+public class JournalObjectStoreTest extends TestBase {
+
+    @BeforeAll
+    public static void start() {
+        TestBase.start();
+        // the profile that is shipped with the coordinator
+        System.setProperty("com.arjuna.ats.arjuna.common.propertiesFile", "journal-jbossts-properties.xml");
+    }
+
+    /**
+     * This test checks that the journal profile selects the Artemis journal with the tuned settings
+     * and that the LRA lifecycle works when it is in use
+     */
+    @Test
+    public void journalStoreTest() {
+        String objectStoreType = BeanPopulator.getDefaultInstance(ObjectStoreEnvironmentBean.class).getObjectStoreType();
+        HornetqJournalEnvironmentBean journalBean = BeanPopulator.getDefaultInstance(HornetqJournalEnvironmentBean.class);
+
+        assertEquals(HornetqObjectStoreAdaptor.class.getName(), objectStoreType,
+                "The Object Store type should have been set to HornetqObjectStoreAdaptor");
+        assertTrue(journalBean.isSyncWrites(), "the journal profile must not give up durability");
+        assertTrue(journalBean.isSyncDeletes(), "the journal profile must not give up durability");
+        assertEquals(10 * 1024 * 1024, journalBean.getFileSize());
+        assertEquals(1000, journalBean.getBufferFlushesPerSecond());
+
+        LRALogger.logger.infof("%s: the Object Store type is set to: %s", testName, objectStoreType);
+
+        URI lraIdUri = lraClient.startLRA(testName + "#newLRA");
+
+        assertNotNull(lraIdUri, "An LRA should have been added to the object store");
+        assertEquals(LRAStatus.Active, getStatus(lraIdUri), "Expected Active");
+        assertEquals(lraIdUri, getLastCreatedLRA().getLraId(),
+                "Expected that the LRA just started matches the LRA fetched through the Narayana LRA client");
+
+        lraClient.closeLRA(lraIdUri);
+    }
+}
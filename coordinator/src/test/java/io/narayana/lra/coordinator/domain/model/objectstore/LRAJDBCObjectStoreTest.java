@@ -0,0 +1,191 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.lra.coordinator.domain.model.objectstore;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.arjuna.ats.arjuna.common.ObjectStoreEnvironmentBean;
+import com.arjuna.ats.arjuna.common.Uid;
+import com.arjuna.ats.arjuna.objectstore.StateStatus;
+import com.arjuna.ats.arjuna.objectstore.StoreManager;
+import com.arjuna.common.internal.util.propertyservice.BeanPopulator;
+import io.narayana.lra.LRAConstants;
+import io.narayana.lra.coordinator.domain.model.LongRunningAction;
+import io.narayana.lra.coordinator.internal.LRAJDBCStore;
+import java.net.URI;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.eclipse.microprofile.lra.annotation.LRAStatus;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+public class LRAJDBCObjectStoreTest extends TestBase {
+    private static final int LRA_COUNT = 20;
+
+    @BeforeAll
+    public static void start() {
+        TestBase.start();
+        System.setProperty("com.arjuna.ats.arjuna.common.propertiesFile", "h2-lra-jbossts-properties.xml");
+    }
+
+    /**
+     * This test checks that LRAs started and ended concurrently are batched into the table used by the JDBC
+     * store, that the table is indexed on the record type and that a recovery scan reads all of the records
+     * with a single query
+     */
+    @Test
+    public void lraJdbcStoreTest() throws Exception {
+        ObjectStoreEnvironmentBean storeBean = BeanPopulator.getDefaultInstance(ObjectStoreEnvironmentBean.class);
+
+        assertEquals(LRAJDBCStore.class.getName(), storeBean.getObjectStoreType(),
+                "The Object Store type should have been set to LRAJDBCStore");
+
+        LRAJDBCStore store = assertInstanceOf(LRAJDBCStore.class, StoreManager.getRecoveryStore());
+        List<URI> lras = startLRAs(LRA_COUNT);
+
+        // starting LRAs is not serialized so the records of LRAs that started together share a batch
+        assertTrue(store.getLargestBatch() > 1,
+                "the records of concurrently started LRAs should have been batched: " + store.getLargestBatch());
+
+        String tableName = storeBean.getTablePrefix() + "JBOSSTSTXTABLE";
+
+        try (Connection conn = getConnection(storeBean)) {
+            assertEquals(LRA_COUNT, countRecords(conn, tableName), "every LRA should have a record");
+            assertTrue(hasTypeIndex(conn, tableName), "the LRA table should be indexed on the record type");
+        }
+
+        // a recovery pass reads every record of the LRA type with a single query
+        String lraType = LongRunningAction.getType(0);
+        Set<String> recovered = new HashSet<>();
+        long queries = store.getQueryCount();
+
+        try {
+            Collection<Uid> uids = store.prefetch(lraType);
+
+            for (Uid uid : uids) {
+                recovered.add(uid.fileStringForm());
+                assertEquals(StateStatus.OS_COMMITTED, store.currentState(uid, lraType));
+                assertTrue(store.read_committed(uid, lraType) != null, "a prefetched record should be readable");
+            }
+        } finally {
+            store.clearPrefetched(lraType);
+        }
+
+        assertEquals(1L, store.getQueryCount() - queries, "the recovery scan should have run a single query");
+
+        for (URI lra : lras) {
+            assertTrue(recovered.contains(LRAConstants.getLRAUid(lra)), "the recovery scan should have read " + lra);
+            assertEquals(LRAStatus.Active, getStatus(lra), "Expected Active");
+        }
+
+        endLRAs(lras);
+
+        try (Connection conn = getConnection(storeBean)) {
+            assertEquals(0, countRecords(conn, tableName), "the records of the closed LRAs should have been removed");
+        }
+    }
+
+    private List<URI> startLRAs(int count) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(count);
+        List<Future<URI>> starts = new ArrayList<>(count);
+        List<URI> lras = new ArrayList<>(count);
+        CountDownLatch ready = new CountDownLatch(count);
+
+        try {
+            for (int i = 0; i < count; i++) {
+                String clientId = testName + "#" + i;
+
+                starts.add(executor.submit(() -> {
+                    // release the requests together so that they reach the store at the same time
+                    ready.countDown();
+                    ready.await();
+
+                    URI lra = lraClient.startLRA(null, clientId, 0L, null);
+                    lraClient.clearCurrent(true); // the LRAs are independent of each other
+
+                    return lra;
+                }));
+            }
+
+            for (Future<URI> start : starts) {
+                lras.add(start.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        return lras;
+    }
+
+    private void endLRAs(List<URI> lras) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(lras.size());
+        List<Future<?>> ends = new ArrayList<>(lras.size());
+
+        try {
+            for (URI lra : lras) {
+                ends.add(executor.submit(() -> lraClient.closeLRA(lra)));
+            }
+
+            for (Future<?> end : ends) {
+                end.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static Connection getConnection(ObjectStoreEnvironmentBean storeBean) throws SQLException {
+        Matcher matcher = Pattern.compile(".*URL=(.*);User=(.*);Password=(.*).*").matcher(storeBean.getJdbcAccess());
+
+        assertTrue(matcher.find(), "Unexpected jdbcAccess format: " + storeBean.getJdbcAccess());
+
+        return DriverManager.getConnection(matcher.group(1), matcher.group(2), matcher.group(3));
+    }
+
+    private static int countRecords(Connection conn, String tableName) throws SQLException {
+        try (PreparedStatement st = conn.prepareStatement("SELECT COUNT(*) FROM " + tableName + " WHERE TypeName = ?")) {
+            st.setString(1, LongRunningAction.getType(0));
+
+            try (ResultSet rs = st.executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+    }
+
+    private static boolean hasTypeIndex(Connection conn, String tableName) throws SQLException {
+        DatabaseMetaData metaData = conn.getMetaData();
+
+        try (ResultSet indexes = metaData.getIndexInfo(null, null, tableName, false, false)) {
+            while (indexes.next()) {
+                String column = indexes.getString("COLUMN_NAME");
+
+                if (indexes.getShort("ORDINAL_POSITION") == 1 && "TYPENAME".equalsIgnoreCase(column)) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+}
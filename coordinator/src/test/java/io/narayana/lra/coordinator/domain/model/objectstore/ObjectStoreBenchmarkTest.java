@@ -0,0 +1,270 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.lra.coordinator.domain.model.objectstore;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.arjuna.ats.arjuna.common.ObjectStoreEnvironmentBean;
+import com.arjuna.ats.arjuna.common.Uid;
+import com.arjuna.ats.arjuna.objectstore.ObjectStoreAPI;
+import com.arjuna.ats.arjuna.state.InputObjectState;
+import com.arjuna.ats.arjuna.state.OutputObjectState;
+import com.arjuna.ats.internal.arjuna.common.UidHelper;
+import com.arjuna.ats.internal.arjuna.objectstore.ShadowNoFileLockStore;
+import com.arjuna.ats.internal.arjuna.objectstore.hornetq.HornetqJournalEnvironmentBean;
+import com.arjuna.ats.internal.arjuna.objectstore.hornetq.HornetqObjectStoreAdaptor;
+import com.arjuna.ats.internal.arjuna.objectstore.jdbc.JDBCStore;
+import com.arjuna.common.internal.util.propertyservice.BeanPopulator;
+import io.narayana.lra.coordinator.domain.model.LongRunningAction;
+import io.narayana.lra.coordinator.internal.LRAJDBCStore;
+import io.narayana.lra.logging.LRALogger;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.eclipse.microprofile.lra.annotation.LRAStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Runs the object store operations performed during the lifecycle of an LRA (begin, enlist, state changes,
+ * recovery scan and removal) against each of the object store backends that the coordinator supports and
+ * reports the throughput of each phase. By default only a few LRAs are used so that the test just verifies
+ * that every backend supports the lifecycle, use the benchmark profile ({@code mvn test -Pbenchmark}) or set
+ * {@code lra.benchmark.iterations} and {@code lra.benchmark.threads} to obtain meaningful figures.
+ */
+public class ObjectStoreBenchmarkTest {
+    private static final int ITERATIONS = Integer.getInteger("lra.benchmark.iterations", 100);
+    private static final int THREADS = Integer.getInteger("lra.benchmark.threads", 2);
+    private static final int PARTICIPANTS = Integer.getInteger("lra.benchmark.participants", 2);
+    private static final String LRA_TYPE = LongRunningAction.getType(0);
+    private static final String JOURNAL_PROFILE = "journal-jbossts-properties.xml";
+    private static final String JOURNAL_PROFILE_PREFIX = "HornetqJournalEnvironmentBean.";
+
+    @TempDir
+    Path storeDir;
+
+    @Test
+    public void fileStore() throws Exception {
+        ObjectStoreEnvironmentBean bean = new ObjectStoreEnvironmentBean();
+
+        bean.setObjectStoreDir(storeDir.toString());
+
+        runLifecycle("ShadowNoFileLockStore", new ShadowNoFileLockStore(bean));
+    }
+
+    @Test
+    public void journalStore() throws Exception {
+        runLifecycle("HornetqObjectStoreAdaptor (defaults)", journalStore(new Properties(), "default"));
+    }
+
+    @Test
+    public void tunedJournalStore() throws Exception {
+        runLifecycle("HornetqObjectStoreAdaptor (" + JOURNAL_PROFILE + ")",
+                journalStore(loadJournalProfile(), "tuned"));
+    }
+
+    @Test
+    public void jdbcStore() throws Exception {
+        runLifecycle("JDBCStore (H2)", new JDBCStore(jdbcBean("JDBC")));
+    }
+
+    @Test
+    public void lraJdbcStore() throws Exception {
+        runLifecycle("LRAJDBCStore (H2)", new LRAJDBCStore(jdbcBean("LRAJDBC")));
+    }
+
+    private ObjectStoreEnvironmentBean jdbcBean(String database) {
+        ObjectStoreEnvironmentBean bean = new ObjectStoreEnvironmentBean();
+
+        bean.setJdbcAccess("com.arjuna.ats.internal.arjuna.objectstore.jdbc.accessors.DynamicDataSourceJDBCAccess;"
+                + "ClassName=org.h2.jdbcx.JdbcDataSource;URL=jdbc:h2:" + storeDir.resolve(database) + "/LRABENCH;User=sa;Password=sa");
+        bean.setTablePrefix("Benchmark");
+        bean.setDropTable(true);
+
+        return bean;
+    }
+
+    private void runLifecycle(String backend, ObjectStoreAPI store) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Uid> lras = new ArrayList<>(ITERATIONS);
+
+        for (int i = 0; i < ITERATIONS; i++) {
+            lras.add(new Uid());
+        }
+
+        store.start();
+
+        try {
+            // begin and enlist: the record is rewritten as each participant joins
+            long begin = System.nanoTime();
+            forEach(executor, lras, uid -> {
+                for (int participants = 0; participants <= PARTICIPANTS; participants++) {
+                    write(store, uid, LRAStatus.Active, participants);
+                }
+            });
+            report(backend, "begin+enlist", ITERATIONS * (PARTICIPANTS + 1), begin);
+
+            // a recovery pass reads the uids of every LRA record followed by each record
+            long scan = System.nanoTime();
+            List<Uid> recovered = recoveryScan(store);
+            report(backend, "recovery scan", recovered.size(), scan);
+            assertEquals(ITERATIONS, recovered.size(), backend + ": the recovery scan should find every active LRA");
+
+            // state changes followed by the removal of the record
+            long end = System.nanoTime();
+            forEach(executor, lras, uid -> {
+                write(store, uid, LRAStatus.Closing, PARTICIPANTS);
+                write(store, uid, LRAStatus.Closed, PARTICIPANTS);
+                assertTrue(store.remove_committed(uid, LRA_TYPE), "the record should have been removed");
+            });
+            report(backend, "close+remove", ITERATIONS * 3, end);
+
+            assertTrue(recoveryScan(store).isEmpty(), backend + ": every LRA record should have been removed");
+        } finally {
+            store.stop();
+            executor.shutdown();
+        }
+    }
+
+    private static void write(ObjectStoreAPI store, Uid uid, LRAStatus status, int participants) throws Exception {
+        OutputObjectState os = new OutputObjectState(uid, LRA_TYPE);
+
+        // roughly the shape and size of a LongRunningAction record
+        os.packString("http://localhost:8080/lra-coordinator/" + uid.fileStringForm());
+        os.packString(null); // parent
+        os.packString("ObjectStoreBenchmarkTest");
+        os.packString(status.name());
+        os.packLong(System.currentTimeMillis());
+        os.packLong(0L);
+        os.packInt(participants);
+
+        for (int i = 0; i < participants; i++) {
+            os.packString(String.format("<http://localhost:8081/participant/%d/compensate>; rel=\"compensate\","
+                    + "<http://localhost:8081/participant/%d/complete>; rel=\"complete\"", i, i));
+        }
+
+        assertTrue(store.write_committed(uid, LRA_TYPE, os), "the record should have been written");
+    }
+
+    private static List<Uid> recoveryScan(ObjectStoreAPI store) throws Exception {
+        InputObjectState uids = new InputObjectState();
+        List<Uid> recovered = new ArrayList<>();
+
+        if (store instanceof LRAJDBCStore) {
+            // the recovery module reads all of the records in one query
+            LRAJDBCStore jdbcStore = (LRAJDBCStore) store;
+
+            try {
+                for (Uid uid : jdbcStore.prefetch(LRA_TYPE)) {
+                    assertNotNull(store.read_committed(uid, LRA_TYPE), "the LRA record should be readable");
+                    recovered.add(uid);
+                }
+            } finally {
+                jdbcStore.clearPrefetched(LRA_TYPE);
+            }
+
+            return recovered;
+        }
+
+        assertTrue(store.allObjUids(LRA_TYPE, uids), "the uids of the LRA records should be readable");
+
+        for (Uid uid = UidHelper.unpackFrom(uids); uid.notEquals(Uid.nullUid()); uid = UidHelper.unpackFrom(uids)) {
+            assertNotNull(store.read_committed(uid, LRA_TYPE), "the LRA record should be readable");
+            recovered.add(uid);
+        }
+
+        return recovered;
+    }
+
+    private static void forEach(ExecutorService executor, List<Uid> lras, LRATask task) throws Exception {
+        List<Future<?>> results = new ArrayList<>(THREADS);
+        int chunk = (lras.size() + THREADS - 1) / THREADS;
+
+        for (int from = 0; from < lras.size(); from += chunk) {
+            List<Uid> slice = lras.subList(from, Math.min(lras.size(), from + chunk));
+
+            results.add(executor.submit(() -> {
+                for (Uid uid : slice) {
+                    task.run(uid);
+                }
+
+                return null;
+            }));
+        }
+
+        for (Future<?> result : results) {
+            result.get();
+        }
+    }
+
+    private static void report(String backend, String phase, int operations, long startNanos) {
+        long elapsedNanos = Math.max(1L, System.nanoTime() - startNanos);
+
+        LRALogger.logger.infof("%s: %s %d operations in %d ms (%d ops/s, %d threads)",
+                backend, phase, operations, elapsedNanos / 1_000_000,
+                operations * 1_000_000_000L / elapsedNanos, THREADS);
+    }
+
+    private static Properties loadJournalProfile() throws IOException {
+        Properties profile = new Properties();
+
+        try (InputStream is = ObjectStoreBenchmarkTest.class.getClassLoader().getResourceAsStream(JOURNAL_PROFILE)) {
+            assertNotNull(is, JOURNAL_PROFILE + " should be on the class path");
+            profile.loadFromXML(is);
+        }
+
+        return profile;
+    }
+
+    /*
+     * The journal store reads its configuration from the default HornetqJournalEnvironmentBean instance so
+     * update that instance with either the settings in the profile or the defaults
+     */
+    private ObjectStoreAPI journalStore(Properties profile, String dir) throws IOException {
+        HornetqJournalEnvironmentBean defaults = new HornetqJournalEnvironmentBean();
+        HornetqJournalEnvironmentBean bean = BeanPopulator.getDefaultInstance(HornetqJournalEnvironmentBean.class);
+
+        bean.setStoreDir(storeDir.resolve(dir).toString());
+        bean.setSyncWrites(journalProperty(profile, "syncWrites", defaults.isSyncWrites()));
+        bean.setSyncDeletes(journalProperty(profile, "syncDeletes", defaults.isSyncDeletes()));
+        bean.setAsyncIO(journalProperty(profile, "asyncIO", defaults.isAsyncIO()));
+        bean.setFileSize(journalProperty(profile, "fileSize", defaults.getFileSize()));
+        bean.setMinFiles(journalProperty(profile, "minFiles", defaults.getMinFiles()));
+        bean.setPoolSize(journalProperty(profile, "poolSize", defaults.getPoolSize()));
+        bean.setCompactMinFiles(journalProperty(profile, "compactMinFiles", defaults.getCompactMinFiles()));
+        bean.setCompactPercentage(journalProperty(profile, "compactPercentage", defaults.getCompactPercentage()));
+        bean.setBufferSize(journalProperty(profile, "bufferSize", defaults.getBufferSize()));
+        bean.setBufferFlushesPerSecond(
+                journalProperty(profile, "bufferFlushesPerSecond", defaults.getBufferFlushesPerSecond()));
+
+        return new HornetqObjectStoreAdaptor(new ObjectStoreEnvironmentBean());
+    }
+
+    private static boolean journalProperty(Properties profile, String name, boolean defaultValue) {
+        String value = profile.getProperty(JOURNAL_PROFILE_PREFIX + name);
+
+        return value == null ? defaultValue : Boolean.parseBoolean(value.trim());
+    }
+
+    private static int journalProperty(Properties profile, String name, int defaultValue) {
+        String value = profile.getProperty(JOURNAL_PROFILE_PREFIX + name);
+
+        return value == null ? defaultValue : Integer.parseInt(value.trim());
+    }
+
+    @FunctionalInterface
+    private interface LRATask {
+        void run(Uid uid) throws Exception;
+    }
+}
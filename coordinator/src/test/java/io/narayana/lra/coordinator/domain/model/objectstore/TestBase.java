@@ -36,9 +36,9 @@ import org.junit.jupiter.api.TestInfo;
 
 public class TestBase {
 
-    static UndertowJaxrsServer server;
-    NarayanaLRAClient lraClient;
-    Client client;
+    protected static UndertowJaxrsServer server;
+    protected NarayanaLRAClient lraClient;
+    protected Client client;
 
     public String testName;
 
@@ -102,7 +102,7 @@ public class TestBase {
         return lraIdString.substring(lraIdString.lastIndexOf('/') + 1);
     }
 
-    LRAStatus getStatus(URI lra) {
+    protected LRAStatus getStatus(URI lra) {
         try {
             return lraClient.getStatus(lra);
         } catch (NotFoundException ignore) {
@@ -0,0 +1,94 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.lra.coordinator.domain.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+public class AdmissionControlTest {
+    private static final long SLOW = TimeUnit.SECONDS.toNanos(2);
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    public void requestsOverTheLimitAreRejected() {
+        AdmissionControl admission = new AdmissionControl(2, 100);
+
+        assertTrue(admission.tryAcquire());
+        assertTrue(admission.tryAcquire());
+        assertFalse(admission.tryAcquire(), "a third concurrent request should be rejected");
+
+        admission.release(FAST);
+
+        assertTrue(admission.tryAcquire(), "a finished request should make room for another");
+    }
+
+    @Test
+    public void limitAdaptsToLatency() {
+        AdmissionControl admission = new AdmissionControl(10, 100);
+
+        for (int i = 0; i < 20; i++) {
+            assertTrue(admission.tryAcquire());
+            admission.release(SLOW);
+        }
+
+        assertEquals(1, admission.getLimit(), "slow requests should shrink the limit");
+        assertTrue(admission.getRetryAfter() >= 2, "callers should wait for the slow requests to drain");
+
+        for (int i = 0; i < 200; i++) {
+            assertTrue(admission.tryAcquire());
+            admission.release(FAST);
+        }
+
+        assertEquals(10, admission.getLimit(), "fast requests should restore the limit");
+        assertEquals(1L, admission.getRetryAfter());
+    }
+
+    @Test
+    public void limitIsCutOncePerRoundTrip() {
+        AdmissionControl admission = new AdmissionControl(10, 100);
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(admission.tryAcquire());
+        }
+
+        for (int i = 0; i < 5; i++) {
+            admission.release(SLOW);
+        }
+
+        assertEquals(9, admission.getLimit(), "requests admitted under the same limit should only cut it once");
+
+        assertTrue(admission.tryAcquire());
+        admission.release(SLOW);
+
+        assertEquals(8, admission.getLimit(), "a request admitted after the cut should be able to cut the limit again");
+    }
+
+    @Test
+    public void unsampledRequestsDoNotChangeTheLimit() {
+        AdmissionControl admission = new AdmissionControl(4, 100);
+
+        assertTrue(admission.tryAcquire());
+        admission.release(-1L);
+
+        assertEquals(4, admission.getLimit());
+    }
+
+    @Test
+    public void disabledAdmissionControlAdmitsEverything() {
+        AdmissionControl admission = new AdmissionControl(0, 100);
+
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(admission.tryAcquire());
+        }
+
+        assertEquals(Integer.MAX_VALUE, admission.getLimit());
+        assertEquals(1L, admission.getRetryAfter());
+    }
+}
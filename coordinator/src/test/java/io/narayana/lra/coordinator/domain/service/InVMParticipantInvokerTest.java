@@ -0,0 +1,54 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.lra.coordinator.domain.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.narayana.lra.ParticipantInvocation;
+import jakarta.ws.rs.HttpMethod;
+import jakarta.ws.rs.core.Response;
+import java.net.URI;
+import java.util.Collections;
+import org.junit.jupiter.api.Test;
+
+public class InVMParticipantInvokerTest {
+    private static final String BASE = "http://localhost:8081/app/participant";
+
+    @Test
+    public void mostSpecificRegistrationWins() {
+        InVMParticipantInvoker invoker = new InVMParticipantInvoker();
+
+        invoker.register(URI.create("http://localhost:8081/app"), invocation -> Response.ok("app").build());
+        invoker.register(URI.create(BASE + "/"), invocation -> Response.ok("participant").build());
+
+        assertEquals("participant", invoke(invoker, BASE + "/complete").getEntity());
+        assertEquals("participant", invoke(invoker, BASE).getEntity());
+        assertEquals("app", invoke(invoker, "http://localhost:8081/app/other/compensate").getEntity());
+        assertNull(invoke(invoker, "http://localhost:8082/app/participant/complete"),
+                "participants on other hosts or ports must be invoked over HTTP");
+        assertNull(invoke(invoker, "http://localhost:8081/application/complete"),
+                "only whole path segments should match");
+        assertTrue(invoker.reaches(URI.create(BASE + "/complete")));
+    }
+
+    @Test
+    public void unregisteredParticipantsAreInvokedOverHttp() {
+        InVMParticipantInvoker invoker = new InVMParticipantInvoker();
+
+        invoker.register(URI.create(BASE), invocation -> Response.ok().build());
+        invoker.unregister(URI.create(BASE));
+
+        assertNull(invoke(invoker, BASE + "/complete"));
+        assertFalse(invoker.reaches(URI.create(BASE + "/complete")), "the coordinator should not hand off the callback");
+    }
+
+    private static Response invoke(InVMParticipantInvoker invoker, String endpoint) {
+        return invoker.invoke(new ParticipantInvocation(HttpMethod.PUT, URI.create(endpoint), Collections.emptyMap(), ""));
+    }
+}
@@ -0,0 +1,139 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.lra.coordinator.domain.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.narayana.lra.coordinator.domain.model.LongRunningAction;
+import io.narayana.lra.logging.LRALogger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jol.info.GraphLayout;
+
+/**
+ * Measures the heap retained by the coordinator for each LRA that it tracks. The budget can be changed
+ * with the {@code lra.footprint.budget} system property (in bytes).
+ */
+public class LRAFootprintTest {
+    private static final String BASE_URL = "http://localhost:8080/lra-coordinator";
+    private static final int LRA_COUNT = 1000;
+    private static final long BUDGET = Long.getLong("lra.footprint.budget", 4096L);
+
+    @Test
+    public void perLRAFootprint() throws Exception {
+        LRAService service = new LRAService();
+        List<LongRunningAction> lras = new ArrayList<>(LRA_COUNT);
+
+        // add one LRA first so that the shared structures (the shard maps and the indexes) already exist
+        service.addTransaction(new LongRunningAction(service, BASE_URL, null, "footprint"));
+
+        long before = GraphLayout.parseInstance(service).totalSize();
+
+        for (int i = 0; i < LRA_COUNT; i++) {
+            LongRunningAction lra = new LongRunningAction(service, BASE_URL, null, "footprint");
+
+            lras.add(lra);
+            service.addTransaction(lra);
+        }
+
+        long perLRA = (GraphLayout.parseInstance(service).totalSize() - before) / LRA_COUNT;
+
+        LRALogger.logger.infof("the coordinator retains %d bytes per LRA (budget %d bytes)", perLRA, BUDGET);
+
+        assertTrue(perLRA <= BUDGET,
+                String.format("each LRA retains %d bytes which is more than the budget of %d bytes", perLRA, BUDGET));
+
+        for (LongRunningAction lra : lras) {
+            service.remove(lra.getId());
+        }
+    }
+
+    /**
+     * The client id and child indexes used to hold a concurrent set for every key even though most keys only
+     * ever have one LRA. Build an index of the old shape next to the real one and check that the real one
+     * retains less, logging both so that the saving can be followed over time.
+     */
+    @Test
+    public void singleLRAIndexEntriesAreCompact() throws Exception {
+        LRAService service = new LRAService();
+        List<LongRunningAction> lras = new ArrayList<>(LRA_COUNT);
+        Map<String, Set<LongRunningAction>> previousShape = new ConcurrentHashMap<>();
+
+        for (int i = 0; i < LRA_COUNT; i++) {
+            LongRunningAction lra = new LongRunningAction(service, BASE_URL, null, "footprint-" + i);
+
+            lras.add(lra);
+            service.addTransaction(lra);
+            previousShape.computeIfAbsent(lra.getClientId(), k -> ConcurrentHashMap.newKeySet()).add(lra);
+        }
+
+        Set<Object> indexes = Collections.newSetFromMap(new IdentityHashMap<>()); // the index of each shard
+
+        for (LongRunningAction lra : lras) {
+            indexes.add(service.shardFor(lra.getId()).clientIdIndex);
+        }
+
+        GraphLayout lraLayout = GraphLayout.parseInstance(lras.toArray());
+        long before = GraphLayout.parseInstance(previousShape).subtract(lraLayout).totalSize() / LRA_COUNT;
+        long after = GraphLayout.parseInstance(indexes.toArray()).subtract(lraLayout).totalSize() / LRA_COUNT;
+
+        LRALogger.logger.infof("the client id index retains %d bytes per LRA (previously %d bytes)", after, before);
+
+        assertTrue(after < before,
+                String.format("the index should retain less than %d bytes per LRA but retains %d", before, after));
+
+        // the index still answers queries and copes with a second LRA for a client id
+        LongRunningAction second = new LongRunningAction(service, BASE_URL, null, lras.get(0).getClientId());
+
+        service.addTransaction(second);
+        assertEquals(2, service.getAll(null, lras.get(0).getClientId()).size());
+
+        service.remove(second.getId());
+        assertEquals(1, service.getAll(null, lras.get(0).getClientId()).size());
+
+        for (LongRunningAction lra : lras) {
+            service.remove(lra.getId());
+        }
+
+        assertTrue(service.getAll(null, lras.get(0).getClientId()).isEmpty());
+    }
+
+    @Test
+    public void lockIsCreatedOnDemand() throws Exception {
+        LRAService service = new LRAService();
+        LongRunningAction lra = new LongRunningAction(service, BASE_URL, null, "footprint");
+
+        service.addTransaction(lra);
+
+        LRAEntry entry = service.shardFor(lra.getId()).entries.get(lra.getId());
+
+        assertNotNull(entry, "the LRA should have an entry");
+        assertFalse(entry.hasLock(), "the lock should not exist until it is requested");
+        assertNull(entry.getParticipants(), "the participant map should not exist until it is needed");
+
+        ReentrantLock lock = service.lockTransaction(lra.getId());
+
+        try {
+            assertSame(lock, entry.getLock(), "the lock should belong to the entry of the LRA");
+        } finally {
+            lock.unlock();
+        }
+
+        service.remove(lra.getId());
+    }
+}
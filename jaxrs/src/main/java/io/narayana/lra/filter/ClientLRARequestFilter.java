@@ -8,6 +8,8 @@ package io.narayana.lra.filter;
 import static org.eclipse.microprofile.lra.annotation.ws.rs.LRA.LRA_HTTP_CONTEXT_HEADER;
 
 import io.narayana.lra.Current;
+import io.narayana.lra.tracing.Tracing;
+import io.opentelemetry.context.Context;
 import jakarta.ws.rs.client.ClientRequestContext;
 import jakarta.ws.rs.client.ClientRequestFilter;
 import jakarta.ws.rs.core.MultivaluedMap;
@@ -29,6 +31,9 @@ public class ClientLRARequestFilter implements ClientRequestFilter {
     public void filter(ClientRequestContext context) {
         MultivaluedMap<String, Object> headers = context.getHeaders();
 
+        // pass the trace on with the LRA context so that the spans of the service that is called join it
+        Tracing.propagate(Context.current(), headers);
+
         if (headers.containsKey(LRA_HTTP_CONTEXT_HEADER)) {
             // LRA context is explicitly set
             return;
@@ -0,0 +1,213 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.lra.filter;
+
+import static io.narayana.lra.LRAConstants.AFTER;
+import static io.narayana.lra.LRAConstants.COMPENSATE;
+import static io.narayana.lra.LRAConstants.COMPLETE;
+import static io.narayana.lra.LRAConstants.FORGET;
+import static io.narayana.lra.LRAConstants.STATUS;
+import static org.eclipse.microprofile.lra.annotation.ws.rs.LRA.LRA_HTTP_CONTEXT_HEADER;
+
+import io.narayana.lra.Current;
+import io.narayana.lra.LRAConstants;
+import io.narayana.lra.ParticipantInvocation;
+import io.narayana.lra.ParticipantInvoker;
+import jakarta.enterprise.inject.UnsatisfiedResolutionException;
+import jakarta.enterprise.inject.spi.CDI;
+import jakarta.ws.rs.HeaderParam;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.Response;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import org.eclipse.microprofile.config.ConfigProvider;
+import org.eclipse.microprofile.lra.annotation.AfterLRA;
+import org.eclipse.microprofile.lra.annotation.Compensate;
+import org.eclipse.microprofile.lra.annotation.Complete;
+import org.eclipse.microprofile.lra.annotation.Forget;
+import org.eclipse.microprofile.lra.annotation.LRAStatus;
+import org.eclipse.microprofile.lra.annotation.ParticipantStatus;
+import org.eclipse.microprofile.lra.annotation.Status;
+
+/**
+ * A {@link ParticipantInvoker}, located by the coordinator using {@link java.util.ServiceLoader}, that calls the
+ * JAX-RS participant resources of an application running in the same JVM as the coordinator. The
+ * {@link ServerLRAFilter} registers the endpoints of a resource when it enlists the resource, so only endpoints
+ * that were enlisted from this JVM are called directly, and only if {@value LRAConstants#IN_VM_PARTICIPANTS} is set.
+ * An endpoint whose method takes parameters other than LRA headers and the request body, or that completes
+ * asynchronously, is still called over HTTP.
+ */
+public final class JaxRsParticipantInvoker implements ParticipantInvoker {
+    private static final boolean ENABLED = initEnabled();
+
+    // the endpoints of the enlisted resources keyed by their URL
+    private static final Map<String, Endpoint> ENDPOINTS = new ConcurrentHashMap<>();
+
+    private static boolean initEnabled() {
+        try {
+            return ConfigProvider.getConfig().getValue(LRAConstants.IN_VM_PARTICIPANTS, Boolean.class);
+        } catch (Exception e) {
+            return false; // the property is unset or there is no config provider so use the default value
+        }
+    }
+
+    /**
+     * Make the endpoints of a resource that is being enlisted available to a coordinator in the same JVM
+     *
+     * @param resourceClass the class of the participant resource
+     * @param terminateURIs the URLs of the endpoints of the resource keyed by their relation type
+     */
+    static void register(Class<?> resourceClass, Map<String, String> terminateURIs) {
+        if (ENABLED) {
+            register(resourceClass, Complete.class, terminateURIs.get(COMPLETE));
+            register(resourceClass, Compensate.class, terminateURIs.get(COMPENSATE));
+            register(resourceClass, Status.class, terminateURIs.get(STATUS));
+            register(resourceClass, Forget.class, terminateURIs.get(FORGET));
+            register(resourceClass, AfterLRA.class, terminateURIs.get(AFTER));
+        }
+    }
+
+    private static void register(Class<?> resourceClass, Class<? extends Annotation> type, String url) {
+        if (url != null) {
+            ENDPOINTS.computeIfAbsent(URI.create(url).toASCIIString(), key -> Endpoint.of(resourceClass, type));
+        }
+    }
+
+    @Override
+    public boolean reaches(URI endpoint) {
+        Endpoint target = ENDPOINTS.isEmpty() ? null : ENDPOINTS.get(endpoint.toASCIIString());
+
+        return target != null && target.method != null;
+    }
+
+    @Override
+    public Response invoke(ParticipantInvocation invocation) {
+        Endpoint endpoint = ENDPOINTS.isEmpty() ? null : ENDPOINTS.get(invocation.getEndpoint().toASCIIString());
+
+        return endpoint == null || endpoint.method == null ? null : endpoint.invoke(invocation);
+    }
+
+    private static final class Endpoint {
+        private final Class<?> resourceClass;
+        // null if the endpoint has to be called over HTTP
+        private final Method method;
+        private final Function<ParticipantInvocation, Object>[] arguments;
+
+        private Endpoint(Class<?> resourceClass, Method method, Function<ParticipantInvocation, Object>[] arguments) {
+            this.resourceClass = resourceClass;
+            this.method = method;
+            this.arguments = arguments;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static Endpoint of(Class<?> resourceClass, Class<? extends Annotation> type) {
+            for (Method method : resourceClass.getMethods()) {
+                if (method.isAnnotationPresent(type) && method.isAnnotationPresent(Path.class)
+                        && !CompletionStage.class.isAssignableFrom(method.getReturnType())) {
+                    Parameter[] parameters = method.getParameters();
+                    Function<ParticipantInvocation, Object>[] arguments = new Function[parameters.length];
+
+                    for (int i = 0; i < parameters.length; i++) {
+                        arguments[i] = argumentOf(parameters[i]);
+
+                        if (arguments[i] == null) {
+                            return new Endpoint(resourceClass, null, null);
+                        }
+                    }
+
+                    return new Endpoint(resourceClass, method, arguments);
+                }
+            }
+
+            return new Endpoint(resourceClass, null, null);
+        }
+
+        // how to obtain an argument from the callback or null if the argument is only available over HTTP
+        private static Function<ParticipantInvocation, Object> argumentOf(Parameter parameter) {
+            HeaderParam header = parameter.getAnnotation(HeaderParam.class);
+            Class<?> type = parameter.getType();
+
+            if (header != null) {
+                if (type == String.class) {
+                    return invocation -> invocation.getHeader(header.value());
+                } else if (type == URI.class) {
+                    return invocation -> toURI(invocation.getHeader(header.value()));
+                }
+            } else if (parameter.getAnnotations().length == 0) {
+                // the request body
+                if (type == String.class) {
+                    return ParticipantInvocation::getBody;
+                } else if (type == LRAStatus.class) {
+                    return invocation -> isEmpty(invocation.getBody()) ? null : LRAStatus.valueOf(invocation.getBody());
+                }
+            }
+
+            return null;
+        }
+
+        private Response invoke(ParticipantInvocation invocation) {
+            Object[] args = new Object[arguments.length];
+            URI lraId = toURI(invocation.getHeader(LRA_HTTP_CONTEXT_HEADER));
+
+            for (int i = 0; i < args.length; i++) {
+                args[i] = arguments[i].apply(invocation);
+            }
+
+            if (lraId != null) {
+                Current.push(lraId); // as the filter would do
+            }
+
+            try {
+                return toResponse(method.invoke(getInstance(), args));
+            } catch (InvocationTargetException e) {
+                if (e.getCause() instanceof WebApplicationException) {
+                    throw (WebApplicationException) e.getCause();
+                }
+
+                return Response.serverError().entity(String.valueOf(e.getCause())).build();
+            } catch (ReflectiveOperationException e) {
+                return null; // the resource cannot be called directly so use HTTP
+            } finally {
+                Current.popAll(); // the callback runs on a pooled thread
+            }
+        }
+
+        private Object getInstance() throws ReflectiveOperationException {
+            try {
+                return CDI.current().select(resourceClass).get();
+            } catch (IllegalStateException | UnsatisfiedResolutionException e) {
+                // there is no CDI container or the resource is not a bean so use a new instance as JAX-RS would
+                return resourceClass.getDeclaredConstructor().newInstance();
+            }
+        }
+
+        private static Response toResponse(Object result) {
+            if (result instanceof Response) {
+                return (Response) result;
+            } else if (result instanceof ParticipantStatus) {
+                return Response.ok(((ParticipantStatus) result).name()).build();
+            }
+
+            return result == null ? Response.noContent().build() : Response.ok(result).build();
+        }
+    }
+
+    private static boolean isEmpty(String value) {
+        return value == null || value.isEmpty();
+    }
+
+    private static URI toURI(String value) {
+        return isEmpty(value) ? null : URI.create(value);
+    }
+}
@@ -8,7 +8,9 @@ package io.narayana.lra.filter;
 import static io.narayana.lra.LRAConstants.AFTER;
 import static io.narayana.lra.LRAConstants.COMPENSATE;
 import static io.narayana.lra.LRAConstants.COMPLETE;
+import static io.narayana.lra.LRAConstants.END_LRA_ASYNC;
 import static io.narayana.lra.LRAConstants.ENLIST_PARTICIPANT_CLIENT_MAX_RETRY;
+import static io.narayana.lra.LRAConstants.ENLIST_PARTICIPANT_CLIENT_MAX_WAIT;
 import static io.narayana.lra.LRAConstants.FORGET;
 import static io.narayana.lra.LRAConstants.LEAVE;
 import static io.narayana.lra.LRAConstants.STATUS;
@@ -24,11 +26,18 @@ import static org.eclipse.microprofile.lra.annotation.ws.rs.LRA.Type.NESTED;
 import io.narayana.lra.AnnotationResolver;
 import io.narayana.lra.Current;
 import io.narayana.lra.LRAConstants;
+import io.narayana.lra.LRAContext;
+import io.narayana.lra.LinkHeader;
 import io.narayana.lra.client.LRAParticipantData;
 import io.narayana.lra.client.NarayanaLRAClient;
 import io.narayana.lra.client.internal.proxy.nonjaxrs.LRAParticipant;
 import io.narayana.lra.client.internal.proxy.nonjaxrs.LRAParticipantRegistry;
+import io.narayana.lra.client.internal.proxy.nonjaxrs.LRAParticipantRegistryInvoker;
+import io.narayana.lra.jfr.FilterEvent;
 import io.narayana.lra.logging.LRALogger;
+import io.narayana.lra.tracing.TracedRequest;
+import io.narayana.lra.tracing.Tracing;
+import io.opentelemetry.context.Scope;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.enterprise.context.ContextNotActiveException;
 import jakarta.inject.Inject;
@@ -42,8 +51,6 @@ import jakarta.ws.rs.container.ContainerResponseContext;
 import jakarta.ws.rs.container.ContainerResponseFilter;
 import jakarta.ws.rs.container.ResourceInfo;
 import jakarta.ws.rs.core.Context;
-import jakarta.ws.rs.core.Link;
-import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.MultivaluedMap;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.UriInfo;
@@ -84,6 +91,8 @@ public class ServerLRAFilter implements ContainerRequestFilter, ContainerRespons
     private static final String NEW_LRA_PROP = "newLRA";
     private static final String ABORT_WITH_PROP = "abortWith";
     private static final String PARTICIPANT_LINK_PROP = "compensatorURI";
+    private static final String LRA_CONTEXT_PROP = "lraContext";
+    private static final String SPAN_PROP = "lraSpan";
     private static final Pattern START_END_QUOTES_PATTERN = Pattern.compile("^\"|\"$");
     private static final long DEFAULT_TIMEOUT_MILLIS = 0L;
 
@@ -102,6 +111,14 @@ public class ServerLRAFilter implements ContainerRequestFilter, ContainerRespons
     @ConfigProperty(name = ENLIST_PARTICIPANT_CLIENT_MAX_RETRY, defaultValue = "3")
     int enlistMaxRetries;
 
+    @Inject
+    @ConfigProperty(name = ENLIST_PARTICIPANT_CLIENT_MAX_WAIT, defaultValue = "2000")
+    long enlistMaxWait;
+
+    @Inject
+    @ConfigProperty(name = END_LRA_ASYNC, defaultValue = "false")
+    boolean endAsync;
+
     private boolean isTxInvalid(ContainerRequestContext containerRequestContext, LRA.Type type, URI lraId,
             boolean shouldNotBeNull, ArrayList<Progress> progress) {
         if (lraId == null && shouldNotBeNull) {
@@ -119,9 +136,29 @@ public class ServerLRAFilter implements ContainerRequestFilter, ContainerRespons
 
     @Override
     public void filter(ContainerRequestContext containerRequestContext) {
+        FilterEvent event = new FilterEvent();
+
+        // the calls that the filter and the resource make to the coordinator while the span is active are its children
+        containerRequestContext.setProperty(SPAN_PROP, startSpan(containerRequestContext));
+        event.begin();
+
+        try {
+            filterRequest(containerRequestContext);
+        } finally {
+            event.finish(FilterEvent.REQUEST, containerRequestContext.getMethod(),
+                    containerRequestContext.getUriInfo().getRequestUri(),
+                    (URI) containerRequestContext.getProperty(CURRENT_LRA_PROP));
+        }
+    }
+
+    private void filterRequest(ContainerRequestContext containerRequestContext) {
         // Note that this filter uses abortWith instead of throwing exceptions on encountering exceptional
         // conditions. This facilitates async because filters for asynchronous JAX-RS methods are
         // not allowed to throw exceptions.
+        // The response filter of an asynchronous resource may run on a different thread and so could not clear
+        // the context of this one, make sure that a request does not start with the LRAs of an earlier one
+        Current.popAll();
+
         Method method = resourceInfo.getResourceMethod();
         MultivaluedMap<String, String> headers = containerRequestContext.getHeaders();
         LRA.Type type = null;
@@ -225,7 +262,7 @@ public class ServerLRAFilter implements ContainerRequestFilter, ContainerRespons
                 Current.push(incomingLRA);
                 containerRequestContext.setProperty(SUSPENDED_LRA_PROP, incomingLRA);
                 containerRequestContext.setProperty(CURRENT_LRA_PROP, incomingLRA);
-                Current.addActiveLRACache(incomingLRA);
+                containerRequestContext.setProperty(LRA_CONTEXT_PROP, Current.capture());
             }
 
             return; // not transactional
@@ -399,7 +436,12 @@ public class ServerLRAFilter implements ContainerRequestFilter, ContainerRespons
 
             if (terminateURIs.containsKey("Link") || participant != null) {
                 try {
+                    // let a coordinator in the same JVM call the participant directly
+                    JaxRsParticipantInvoker.register(resourceInfo.getResourceClass(), terminateURIs);
+
                     if (participant != null) {
+                        LRAParticipantRegistryInvoker.register(containerRequestContext.getUriInfo().getBaseUri(),
+                                lraParticipantRegistry);
                         participant.augmentTerminationURIs(terminateURIs, containerRequestContext.getUriInfo().getBaseUri());
                     }
 
@@ -417,7 +459,10 @@ public class ServerLRAFilter implements ContainerRequestFilter, ContainerRespons
 
                     // The coordinator needs to hold a lock to enlist an participant. This lock is only waited on for a small amount of
                     // time (potentially even zero time). This means if multiple participants try to enlist at the same time, enlistment
-                    // may fail. We therefore re-try a configurable amount of times.
+                    // may fail. We therefore re-try a configurable amount of times, within a bound on the total time that
+                    // the request thread spends waiting between the attempts.
+                    long waited = 0L;
+
                     for (int i = 0;; i++) {
                         try {
                             recoveryUrl = getLRAClient().enlistCompensator(lraId, timeLimit, compensatorLink,
@@ -438,7 +483,28 @@ public class ServerLRAFilter implements ContainerRequestFilter, ContainerRespons
                                 throw e;
                             }
 
-                            LRALogger.logger.warn(logMessage + " Attempt " + (i + 1) + " of " + enlistMaxRetries + ".");
+                            long delay = NarayanaLRAClient.getRetryDelay(e.getResponse(), i);
+
+                            if (waited + delay > enlistMaxWait) {
+                                LRALogger.logger.warn(logMessage + "Not retrying because waiting another " + delay
+                                        + " ms would exceed " + ENLIST_PARTICIPANT_CLIENT_MAX_WAIT + " ("
+                                        + enlistMaxWait + " ms).");
+
+                                throw e;
+                            }
+
+                            waited += delay;
+
+                            LRALogger.logger.warn(logMessage + " Attempt " + (i + 1) + " of " + enlistMaxRetries
+                                    + ", retrying in " + delay + " ms.");
+
+                            // back off, honouring any Retry-After header, rather than retrying in a tight loop
+                            try {
+                                Thread.sleep(delay);
+                            } catch (InterruptedException ie) {
+                                Thread.currentThread().interrupt();
+                                throw e;
+                            }
                         }
                     }
 
@@ -487,7 +553,8 @@ public class ServerLRAFilter implements ContainerRequestFilter, ContainerRespons
         }
 
         containerRequestContext.setProperty(CURRENT_LRA_PROP, lraId);
-        Current.addActiveLRACache(lraId);
+        // remember the context in case the response filter runs on a different thread (asynchronous resources)
+        containerRequestContext.setProperty(LRA_CONTEXT_PROP, Current.capture());
     }
 
     private String createUriPrefix(ContainerRequestContext containerRequestContext, Class<?> resourceClass) {
@@ -517,6 +584,38 @@ public class ServerLRAFilter implements ContainerRequestFilter, ContainerRespons
 
     @Override
     public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
+        FilterEvent event = new FilterEvent();
+        Object request = requestContext.getProperty(SPAN_PROP);
+        // the response may be filtered on another thread
+        Scope scope = request instanceof TracedRequest ? ((TracedRequest) request).resume() : Scope.noop();
+
+        event.begin();
+
+        try {
+            filterResponse(requestContext, responseContext);
+        } finally {
+            event.finish(FilterEvent.RESPONSE, requestContext.getMethod(), requestContext.getUriInfo().getRequestUri(),
+                    (URI) requestContext.getProperty(CURRENT_LRA_PROP));
+
+            scope.close();
+
+            if (request instanceof TracedRequest) {
+                Tracing.setLRA(((TracedRequest) request).getSpan(), (URI) requestContext.getProperty(CURRENT_LRA_PROP));
+                ((TracedRequest) request).end(responseContext.getStatus());
+            }
+        }
+    }
+
+    private TracedRequest startSpan(ContainerRequestContext containerRequestContext) {
+        Method method = resourceInfo == null ? null : resourceInfo.getResourceMethod();
+        String name = method == null
+                ? containerRequestContext.getMethod() + " " + containerRequestContext.getUriInfo().getPath()
+                : method.getDeclaringClass().getSimpleName() + "." + method.getName();
+
+        return TracedRequest.start("LRA participant " + name, Tracing.PARTICIPANT, containerRequestContext);
+    }
+
+    private void filterResponse(ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
         // a request is leaving the container so clear any context on the thread and fix up the LRA response header
         ArrayList<Progress> progress = cast(requestContext.getProperty(ABORT_WITH_PROP));
         Object suspendedLRA = requestContext.getProperty(SUSPENDED_LRA_PROP);
@@ -526,6 +625,12 @@ public class ServerLRAFilter implements ContainerRequestFilter, ContainerRespons
         // the service method has finished but the user data may have changed
         String userData = getUserDefinedData();
         String compensator = (String) requestContext.getProperty(PARTICIPANT_LINK_PROP);
+        LRAContext requestLRAContext = (LRAContext) requestContext.getProperty(LRA_CONTEXT_PROP);
+
+        if (requestLRAContext != null && Current.capture() == null) {
+            // the resource completed on a different thread from the one that ran the request filter
+            Current.attach(requestLRAContext);
+        }
 
         try {
             if (current != null && isCancel) {
@@ -566,9 +671,9 @@ public class ServerLRAFilter implements ContainerRequestFilter, ContainerRespons
                     // do not attempt to close or cancel if the request filter tried but failed to start a new LRA
                     if (progress == null || progressDoesNotContain(progress, ProgressStep.StartFailed)) {
                         if (isCancel) {
-                            getLRAClient().cancelLRA(toClose, compensator, userData);
+                            getLRAClient().cancelLRA(toClose, compensator, userData, endAsync);
                         } else {
-                            getLRAClient().closeLRA(toClose, compensator, userData);
+                            getLRAClient().closeLRA(toClose, compensator, userData, endAsync);
                         }
 
                         progress = updateProgress(progress, ProgressStep.Ended, null);
@@ -632,7 +737,6 @@ public class ServerLRAFilter implements ContainerRequestFilter, ContainerRespons
             Current.updateLRAContext(responseContext);
 
             Current.popAll();
-            Current.removeActiveLRACache(current);
         }
     }
 
@@ -825,7 +929,7 @@ public class ServerLRAFilter implements ContainerRequestFilter, ContainerRespons
     }
 
     private String buildCompensatorURI(URI compensate, URI complete, URI forget, URI leave, URI after, URI status) {
-        StringBuilder linkHeaderValue = new StringBuilder();
+        LinkHeader.Builder linkHeaderValue = LinkHeader.builder();
 
         makeLink(linkHeaderValue, COMPENSATE, compensate);
         makeLink(linkHeaderValue, COMPLETE, complete);
@@ -837,18 +941,11 @@ public class ServerLRAFilter implements ContainerRequestFilter, ContainerRespons
         return linkHeaderValue.toString();
     }
 
-    private static void makeLink(StringBuilder b, String key, URI value) {
+    private static void makeLink(LinkHeader.Builder b, String key, URI value) {
         if (key == null || value == null) {
             return;
         }
 
-        String uri = value.toASCIIString();
-        Link link = Link.fromUri(uri).title(key + " URI").rel(key).type(MediaType.TEXT_PLAIN).build();
-
-        if (b.length() != 0) {
-            b.append(',');
-        }
-
-        b.append(link);
+        b.link(key, value.toASCIIString(), key + " URI");
     }
 }
@@ -5,11 +5,14 @@
 
 package io.narayana.lra.client.internal.proxy;
 
+import static org.eclipse.microprofile.lra.annotation.ws.rs.LRA.LRA_HTTP_RECOVERY_HEADER;
+
 import io.narayana.lra.proxy.logging.LRAProxyLogger;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.DELETE;
 import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
 import jakarta.ws.rs.PUT;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
@@ -31,16 +34,20 @@ public class ParticipantProxyResource {
     @PUT
     public Response complete(@PathParam("lraId") String lraId,
             @PathParam("pId") String participantId,
+            @HeaderParam(LRA_HTTP_RECOVERY_HEADER) String recoveryUrl,
             String participantData) throws URISyntaxException, UnsupportedEncodingException {
-        return proxyService.notifyParticipant(toURI(lraId), participantId, participantData, false);
+        return proxyService.notifyParticipant(toURI(lraId), participantId, participantData, false,
+                recoveryUrl == null ? null : new URI(recoveryUrl));
     }
 
     @Path("{lraId}/{pId}/compensate")
     @PUT
     public Response compensate(@PathParam("lraId") String lraId,
             @PathParam("pId") String participantId,
+            @HeaderParam(LRA_HTTP_RECOVERY_HEADER) String recoveryUrl,
             String participantData) throws URISyntaxException, UnsupportedEncodingException {
-        return proxyService.notifyParticipant(toURI(lraId), participantId, participantData, true);
+        return proxyService.notifyParticipant(toURI(lraId), participantId, participantData, true,
+                recoveryUrl == null ? null : new URI(recoveryUrl));
     }
 
     @Path("{lraId}/{pId}")
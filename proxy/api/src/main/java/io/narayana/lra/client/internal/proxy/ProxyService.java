@@ -31,6 +31,7 @@ import java.util.Base64;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.Future;
 import org.eclipse.microprofile.lra.annotation.ParticipantStatus;
 
@@ -70,7 +71,8 @@ public class ProxyService {
         return new ParticipantProxy(lraId, participantId);
     }
 
-    Response notifyParticipant(URI lraId, String participantId, String participantData, boolean compensate) {
+    Response notifyParticipant(URI lraId, String participantId, String participantData, boolean compensate,
+            URI recoveryUrl) {
         ParticipantProxy proxy = getProxy(lraId, participantId);
 
         if (proxy == null) {
@@ -109,6 +111,10 @@ public class ProxyService {
             }
 
             if (future != null) {
+                if (recoveryUrl != null && future instanceof CompletionStage) {
+                    reportWhenDone(proxy, (CompletionStage<?>) future, recoveryUrl);
+                }
+
                 return Response.accepted().build();
             }
 
@@ -120,6 +126,30 @@ public class ProxyService {
         return Response.status(NOT_FOUND).build();
     }
 
+    /*
+     * Tell the coordinator the outcome as soon as the participant finishes instead of waiting for it to poll.
+     * The callback must run asynchronously since the coordinator does not accept the outcome until it has
+     * received the response to the complete or compensate request.
+     */
+    private static void reportWhenDone(ParticipantProxy proxy, CompletionStage<?> stage, URI recoveryUrl) {
+        stage.whenCompleteAsync((value, failure) -> proxy.getStatus()
+                .filter(ProxyService::isFinished)
+                .filter(outcome -> NarayanaLRAClient.participantEnded(recoveryUrl, outcome))
+                .ifPresent(outcome -> participants.remove(proxy)));
+    }
+
+    private static boolean isFinished(ParticipantStatus status) {
+        switch (status) {
+            case Completed:
+            case Compensated:
+            case FailedToComplete:
+            case FailedToCompensate:
+                return true;
+            default:
+                return false;
+        }
+    }
+
     void notifyForget(URI lraId, String participantId) {
         ParticipantProxy proxy = getProxy(lraId, participantId);
 
@@ -12,6 +12,7 @@ import static io.narayana.lra.LRAConstants.FORGET;
 import static io.narayana.lra.LRAConstants.STATUS;
 
 import io.narayana.lra.AnnotationResolver;
+import io.narayana.lra.client.NarayanaLRAClient;
 import io.narayana.lra.logging.LRALogger;
 import jakarta.enterprise.inject.spi.CDI;
 import jakarta.ws.rs.DELETE;
@@ -66,20 +67,20 @@ public class LRAParticipant {
         return javaClass;
     }
 
-    synchronized Response compensate(URI lraId, URI parentId) {
+    synchronized Response compensate(URI lraId, URI parentId, URI recoveryUrl) {
         if (participantStatusMap.containsKey(lraId)) {
             processCompletionStageResult(compensateMethod, lraId, parentId, COMPENSATE).close();
         }
 
-        return invokeParticipantMethod(compensateMethod, lraId, parentId, COMPENSATE);
+        return invokeParticipantMethod(compensateMethod, lraId, parentId, COMPENSATE, recoveryUrl);
     }
 
-    synchronized Response complete(URI lraId, URI parentId) {
+    synchronized Response complete(URI lraId, URI parentId, URI recoveryUrl) {
         if (participantStatusMap.containsKey(lraId)) {
             processCompletionStageResult(completeMethod, lraId, parentId, COMPLETE).close();
         }
 
-        return invokeParticipantMethod(completeMethod, lraId, parentId, COMPLETE);
+        return invokeParticipantMethod(completeMethod, lraId, parentId, COMPLETE, recoveryUrl);
     }
 
     synchronized Response status(URI lraId, URI parentId) {
@@ -249,6 +250,11 @@ public class LRAParticipant {
 
     private Response invokeParticipantMethod(Method method, URI lraId,
             URI parentId, String type) {
+        return invokeParticipantMethod(method, lraId, parentId, type, null);
+    }
+
+    private Response invokeParticipantMethod(Method method, URI lraId,
+            URI parentId, String type, URI recoveryUrl) {
         Object participant = getInstance();
         Object result;
 
@@ -267,7 +273,7 @@ public class LRAParticipant {
                         method.toGenericString() + ": invalid number of arguments: " + method.getParameterCount());
         }
 
-        return processResult(result, lraId, method, type);
+        return processResult(result, lraId, method, type, recoveryUrl);
     }
 
     private Object getInstance() {
@@ -284,22 +290,53 @@ public class LRAParticipant {
         }
     }
 
-    private Response processResult(Object result, URI lraId, Method method, String type) {
+    private Response processResult(Object result, URI lraId, Method method, String type, URI recoveryUrl) {
         if (result instanceof CompletionStage) {
             // store the CompletionStage result and respond compensating / completing
-            participantStatusMap.put(lraId, new ParticipantResult(getCompletionStageActualType(method)));
-            ((CompletionStage<?>) result)
-                    .thenAccept(res -> participantStatusMap.get(lraId).setValue(res))
+            ParticipantResult participantResult = new ParticipantResult(getCompletionStageActualType(method));
+
+            participantStatusMap.put(lraId, participantResult);
+            CompletionStage<Void> done = ((CompletionStage<?>) result)
+                    .thenAccept(participantResult::setValue)
                     .exceptionally(throwable -> {
-                        participantStatusMap.get(lraId).setValue(throwable);
+                        participantResult.setValue(throwable);
                         return null;
                     });
+
+            if (recoveryUrl != null) {
+                // the coordinator does not accept the outcome until it has the response so report it asynchronously
+                done.thenRunAsync(() -> reportOutcome(lraId, participantResult, type, recoveryUrl));
+            }
+
             return Response.status(Response.Status.ACCEPTED).build();
         }
 
         return processResult(result, method.getReturnType(), type);
     }
 
+    // tell the coordinator the outcome as soon as the participant finishes instead of waiting for it to poll
+    private void reportOutcome(URI lraId, ParticipantResult participantResult, String type, URI recoveryUrl) {
+        Response response = processResult(participantResult.getValue(), participantResult.getType(), type);
+
+        if (response.getStatus() != Response.Status.OK.getStatusCode() || response.getEntity() == null) {
+            return; // the participant is still in progress or the outcome is not a status so leave it to the coordinator
+        }
+
+        ParticipantStatus outcome;
+
+        try {
+            outcome = ParticipantStatus.valueOf(response.getEntity().toString());
+        } catch (IllegalArgumentException e) {
+            return;
+        }
+
+        if (NarayanaLRAClient.participantEnded(recoveryUrl, outcome)) {
+            synchronized (this) {
+                participantStatusMap.remove(lraId, participantResult); // the coordinator will not ask for the status
+            }
+        }
+    }
+
     private Response processResult(Object result, Class<?> resultType, String type) {
         Response.ResponseBuilder builder = Response.status(Response.Status.OK);
 
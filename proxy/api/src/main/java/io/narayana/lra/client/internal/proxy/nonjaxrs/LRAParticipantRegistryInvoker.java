@@ -0,0 +1,118 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.lra.client.internal.proxy.nonjaxrs;
+
+import static io.narayana.lra.LRAConstants.AFTER;
+import static io.narayana.lra.LRAConstants.COMPENSATE;
+import static io.narayana.lra.LRAConstants.COMPLETE;
+import static io.narayana.lra.LRAConstants.FORGET;
+import static io.narayana.lra.LRAConstants.STATUS;
+import static org.eclipse.microprofile.lra.annotation.ws.rs.LRA.LRA_HTTP_CONTEXT_HEADER;
+import static org.eclipse.microprofile.lra.annotation.ws.rs.LRA.LRA_HTTP_ENDED_CONTEXT_HEADER;
+import static org.eclipse.microprofile.lra.annotation.ws.rs.LRA.LRA_HTTP_PARENT_CONTEXT_HEADER;
+import static org.eclipse.microprofile.lra.annotation.ws.rs.LRA.LRA_HTTP_RECOVERY_HEADER;
+
+import io.narayana.lra.LRAConstants;
+import io.narayana.lra.ParticipantInvocation;
+import io.narayana.lra.ParticipantInvoker;
+import jakarta.ws.rs.HttpMethod;
+import jakarta.ws.rs.core.Response;
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.eclipse.microprofile.config.ConfigProvider;
+import org.eclipse.microprofile.lra.annotation.LRAStatus;
+
+/**
+ * A {@link ParticipantInvoker}, located by the coordinator using {@link java.util.ServiceLoader}, that calls the
+ * participants in the {@link LRAParticipantRegistry} of an application running in the same JVM as the coordinator
+ * instead of going through the {@link LRAParticipantResource}. The registry is registered with the base URI of the
+ * application when one of its participants is enlisted, so only participants that were enlisted from this JVM are
+ * called directly, and only if {@value LRAConstants#IN_VM_PARTICIPANTS} is set.
+ */
+public final class LRAParticipantRegistryInvoker implements ParticipantInvoker {
+    private static final boolean ENABLED = initEnabled();
+    private static final String RESOURCE_SEGMENT = "/" + LRAParticipantResource.RESOURCE_PATH;
+
+    // the registries keyed by the base URI, without a trailing slash, of the application that enlisted them
+    private static final Map<String, LRAParticipantRegistry> REGISTRIES = new ConcurrentHashMap<>();
+
+    private static boolean initEnabled() {
+        try {
+            return ConfigProvider.getConfig().getValue(LRAConstants.IN_VM_PARTICIPANTS, Boolean.class);
+        } catch (Exception e) {
+            return false; // the property is unset or there is no config provider so use the default value
+        }
+    }
+
+    /**
+     * Make the participants of an application available to a coordinator in the same JVM
+     *
+     * @param baseUri the base URI of the application, the participants are enlisted beneath it
+     * @param registry the participants of the application
+     */
+    public static void register(URI baseUri, LRAParticipantRegistry registry) {
+        if (ENABLED) {
+            String base = baseUri.toASCIIString();
+
+            REGISTRIES.putIfAbsent(base.endsWith("/") ? base.substring(0, base.length() - 1) : base, registry);
+        }
+    }
+
+    @Override
+    public boolean reaches(URI endpoint) {
+        return !REGISTRIES.isEmpty() && endpoint.getRawPath() != null
+                && endpoint.getRawPath().contains(RESOURCE_SEGMENT + "/");
+    }
+
+    @Override
+    public Response invoke(ParticipantInvocation invocation) {
+        if (REGISTRIES.isEmpty()) {
+            return null;
+        }
+
+        // the endpoint is <base URI>/lra-participant-proxy/<participant id>/<callback>
+        String url = invocation.getEndpoint().toASCIIString();
+        int callback = url.lastIndexOf('/');
+        int id = callback < 1 ? -1 : url.lastIndexOf('/', callback - 1);
+
+        if (id < 0 || !url.startsWith(RESOURCE_SEGMENT, id - RESOURCE_SEGMENT.length())) {
+            return null;
+        }
+
+        LRAParticipantRegistry registry = REGISTRIES.get(url.substring(0, id - RESOURCE_SEGMENT.length()));
+        LRAParticipant participant = registry == null ? null : registry.getParticipant(url.substring(id + 1, callback));
+
+        if (participant == null) {
+            return null; // let the participant proxy resource report it
+        }
+
+        URI lraId = toURI(invocation.getHeader(LRA_HTTP_CONTEXT_HEADER));
+        URI parentId = toURI(invocation.getHeader(LRA_HTTP_PARENT_CONTEXT_HEADER));
+
+        switch (invocation.getMethod() + " " + url.substring(callback + 1)) {
+            case HttpMethod.PUT + " " + COMPLETE:
+                return participant.complete(lraId, parentId, toURI(invocation.getHeader(LRA_HTTP_RECOVERY_HEADER)));
+            case HttpMethod.PUT + " " + COMPENSATE:
+                return participant.compensate(lraId, parentId, toURI(invocation.getHeader(LRA_HTTP_RECOVERY_HEADER)));
+            case HttpMethod.GET + " " + STATUS:
+                return participant.status(lraId, parentId);
+            case HttpMethod.DELETE + " " + FORGET:
+                return participant.forget(lraId, parentId);
+            case HttpMethod.PUT + " " + AFTER:
+                String body = invocation.getBody();
+
+                return participant.afterLRA(toURI(invocation.getHeader(LRA_HTTP_ENDED_CONTEXT_HEADER)),
+                        body == null || body.isEmpty() ? null : LRAStatus.valueOf(body));
+            default:
+                return null;
+        }
+    }
+
+    private static URI toURI(String value) {
+        return value == null || value.isEmpty() ? null : URI.create(value);
+    }
+}
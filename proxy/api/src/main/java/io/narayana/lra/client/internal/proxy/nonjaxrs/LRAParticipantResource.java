@@ -13,6 +13,7 @@ import static io.narayana.lra.LRAConstants.STATUS;
 import static org.eclipse.microprofile.lra.annotation.ws.rs.LRA.LRA_HTTP_CONTEXT_HEADER;
 import static org.eclipse.microprofile.lra.annotation.ws.rs.LRA.LRA_HTTP_ENDED_CONTEXT_HEADER;
 import static org.eclipse.microprofile.lra.annotation.ws.rs.LRA.LRA_HTTP_PARENT_CONTEXT_HEADER;
+import static org.eclipse.microprofile.lra.annotation.ws.rs.LRA.LRA_HTTP_RECOVERY_HEADER;
 
 import io.narayana.lra.proxy.logging.LRAProxyLogger;
 import jakarta.enterprise.context.ApplicationScoped;
@@ -50,8 +51,9 @@ public class LRAParticipantResource {
     @Compensate
     public Response compensate(@PathParam("participantId") String participantId,
             @HeaderParam(LRA_HTTP_CONTEXT_HEADER) String lraId,
-            @HeaderParam(LRA_HTTP_PARENT_CONTEXT_HEADER) String parentId) {
-        return getParticipant(participantId).compensate(createURI(lraId), createURI(parentId));
+            @HeaderParam(LRA_HTTP_PARENT_CONTEXT_HEADER) String parentId,
+            @HeaderParam(LRA_HTTP_RECOVERY_HEADER) String recoveryUrl) {
+        return getParticipant(participantId).compensate(createURI(lraId), createURI(parentId), createURI(recoveryUrl));
     }
 
     @PUT
@@ -60,8 +62,9 @@ public class LRAParticipantResource {
     @Complete
     public Response complete(@PathParam("participantId") String participantId,
             @HeaderParam(LRA_HTTP_CONTEXT_HEADER) String lraId,
-            @HeaderParam(LRA_HTTP_PARENT_CONTEXT_HEADER) String parentId) {
-        return getParticipant(participantId).complete(createURI(lraId), createURI(parentId));
+            @HeaderParam(LRA_HTTP_PARENT_CONTEXT_HEADER) String parentId,
+            @HeaderParam(LRA_HTTP_RECOVERY_HEADER) String recoveryUrl) {
+        return getParticipant(participantId).complete(createURI(lraId), createURI(parentId), createURI(recoveryUrl));
     }
 
     @GET
@@ -19,233 +19,268 @@ import java.net.URISyntaxException;
 import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
-import java.util.Stack;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
 
 // similar to ThreadActionData except it need to be available on the client side
 // for use by NarayanaLRAClient and ServerLRAFilter
 public class Current {
-    private static final ThreadLocal<Current> lraContexts = new ThreadLocal<>();
+    // the context is immutable so capturing it, or handing it to another thread, does not require a copy
+    private static final ThreadLocal<LRAContext> lraContexts = new ThreadLocal<>();
+    private static final String[] NO_PARENTS = new String[0];
+    private static final Pattern LEGACY_PARENTS = Pattern.compile(",|(?=https?://)");
 
-    /**
-     * Use this cache to prevent from {@link ThreadLocal} spilling. This cache is incremented when the request filter
-     * method is invoked and decremented when the response filter method is invoked. In this sense, if the response
-     * filter method runs on different thread (meaning it doesn't clear the right {@link ThreadLocal}) we still remove
-     * it from the cache.
-     */
-    private static final Map<URI, Integer> activeLRACache = new ConcurrentHashMap<>();
+    private Current() {
+    }
 
-    @SuppressWarnings("ConstantConditions")
-    public static void addActiveLRACache(URI lraId) {
-        if (lraId == null) {
-            return;
+    public static Object putState(String key, Object value) {
+        LRAContext current = lraContexts.get();
+
+        if (current == null) {
+            return null;
         }
 
-        activeLRACache.merge(lraId, 1, Integer::sum);
-    }
+        lraContexts.set(current.withState(key, value));
 
-    public static void removeActiveLRACache(URI lraId) {
-        if (lraId == null) {
-            return;
-        }
+        return current.getState(key);
+    }
 
-        activeLRACache.compute(lraId, (k, v) -> {
-            if (v == null) {
-                return null; // already absent; nothing to do
-            }
+    public static Object getState(String key) {
+        LRAContext current = lraContexts.get();
 
-            int next = v - 1;
-            return next <= 0 ? null : next; // remove at 0
-        });
+        return current == null ? null : current.getState(key);
     }
 
-    private final Stack<URI> stack;
-    private Map<String, Object> state;
+    // construct the LRA URI including the parent as a query parameter
+    public static URI buildFullLRAUrl(String baseURI, URI parentId) throws URISyntaxException {
+        // only the immediate parent is encoded so that the size of an id does not grow with the nesting depth,
+        // the rest of the hierarchy is known to the coordinator and can be found by following the parents
+        String parent = new URI(parentId.getScheme(),
+                parentId.getAuthority(),
+                parentId.getPath(),
+                null, // skip the query string
+                parentId.getFragment())
+                .toASCIIString();
 
-    private Current(URI url) {
-        stack = new Stack<>();
-        stack.push(url);
+        return UriBuilder.fromUri(baseURI).queryParam(PARENT_LRA_PARAM_NAME, parent).build();
     }
 
-    public static Object putState(String key, Object value) {
-        Current current = lraContexts.get();
+    /*
+     * Get the parents encoded in an LRA id, nearest first. Ids created by this version of the coordinator only
+     * contain the immediate parent. Ids created by earlier versions list every ancestor and end with a comma but
+     * they did not always delimit the ancestors, so a legacy list is also split wherever the next id starts.
+     */
+    static String[] getParents(URI lra) {
+        String query = lra.getRawQuery();
 
-        if (current != null) {
-            return current.updateState(key, value);
+        if (query == null) {
+            return NO_PARENTS; // the LRA is top level
         }
 
-        return null;
-    }
+        for (String param : query.split(QUERY_PAIR_SEPARATOR)) {
+            if (param.startsWith(PARENT_LRA_PARAM_NAME + QUERY_FIELD_SEPARATOR)) {
+                String parents = URLDecoder.decode(param.substring(PARENT_LRA_PARAM_NAME.length() + 1),
+                        StandardCharsets.UTF_8);
 
-    public static Object getState(String key) {
-        Current current = lraContexts.get();
+                if (parents.isEmpty()) {
+                    return NO_PARENTS;
+                }
 
-        if (current != null && current.state != null) {
-            return current.state.get(key);
+                return parents.endsWith(",")
+                        ? LEGACY_PARENTS.splitAsStream(parents).filter(p -> !p.isEmpty()).toArray(String[]::new)
+                        : new String[] { parents };
+            }
         }
 
-        return null;
+        return NO_PARENTS;
     }
 
-    private static String getParents(URI uri) {
-        String query = uri.getQuery();
-
-        if (query != null) {
-            for (String nvpair : query.split(QUERY_PAIR_SEPARATOR)) {
-                if (nvpair.startsWith(PARENT_LRA_PARAM_NAME + QUERY_FIELD_SEPARATOR)) {
-                    return nvpair.split(QUERY_FIELD_SEPARATOR)[1];
-                }
+    private static boolean isChildOf(String[] parents, Set<String> candidates) {
+        for (String parent : parents) {
+            if (candidates.contains(parent)) {
+                return true;
             }
         }
 
-        return null;
+        return false;
     }
 
-    // construct the LRA URI including the parent hierarchy as a query parameter
-    public static URI buildFullLRAUrl(String baseURI, URI parentId) throws URISyntaxException {
-        // is the parent part of a hierarchy
-        String parents = Current.getParents(parentId); // gets the hierarchy form the query param
-        // we have the hierarchy so remove the query parameter
-        String gParent = new URI(parentId.getScheme(),
-                parentId.getAuthority(),
-                parentId.getPath(),
-                null, // skip the query string
-                parentId.getFragment())
-                .toASCIIString();
-
-        if (parents != null) {
-            gParent += parents + ","; // , separated list of the hierarchy
-        }
+    private static String withoutQuery(URI lra) {
+        String id = lra.toASCIIString();
+        int query = id.indexOf('?');
 
-        return UriBuilder.fromUri(baseURI).queryParam(PARENT_LRA_PARAM_NAME, gParent).build();
+        return query == -1 ? id : id.substring(0, query);
     }
 
     // given a URL extract the immediate parent of
     public static String getFirstParent(URI parent) throws UnsupportedEncodingException {
-        String query = parent == null ? null : parent.getQuery();
-
-        if (query != null) {
-            for (String param : query.split(QUERY_PAIR_SEPARATOR)) {
-                if (param.startsWith(PARENT_LRA_PARAM_NAME + QUERY_FIELD_SEPARATOR)) {
-                    String parents = param.split(QUERY_FIELD_SEPARATOR, 2)[1];
+        if (parent == null) {
+            return null;
+        }
 
-                    // parents is a comma separated list of parents (the first one is the direct parent)
-                    if (parents != null) {
-                        String[] pa = parents.split(",");
+        String[] parents = getParents(parent);
 
-                        if (pa.length > 0) {
-                            return URLDecoder.decode(pa[0], StandardCharsets.UTF_8);
-                        }
-                    }
+        return parents.length == 0 ? null : parents[0];
+    }
 
-                    break;
-                }
-            }
+    private static void setContext(LRAContext context) {
+        if (context == null) {
+            lraContexts.remove();
+        } else {
+            lraContexts.set(context);
         }
+    }
 
-        return null;
+    /**
+     * Capture the LRAs associated with the calling thread. The returned context is immutable so it can be
+     * handed to another thread and associated with it using {@link #attach(LRAContext)}.
+     *
+     * @return the LRA context of the calling thread or null if there is none
+     */
+    public static LRAContext capture() {
+        return lraContexts.get();
     }
 
-    public Object updateState(String key, Object value) {
-        if (state == null) {
-            state = new HashMap<>();
+    /**
+     * Associate a previously captured context with the calling thread, replacing any existing one.
+     *
+     * @param context the context to associate with the thread or null to disassociate the current one
+     * @return the context that was previously associated with the thread (which can be restored by
+     *         passing it to this method when the work on the thread is done)
+     */
+    public static LRAContext attach(LRAContext context) {
+        LRAContext previous = lraContexts.get();
+
+        if (context != previous) {
+            setContext(context);
         }
 
-        return state.put(key, value);
+        return previous;
     }
 
-    private static void clearContext(Current current) {
-        if (current.state != null) {
-            current.state.clear();
-        }
+    /**
+     * Wrap a task such that it runs with the LRA context of the calling thread, regardless of which
+     * thread eventually runs it (for example a {@link java.util.concurrent.CompletionStage} continuation).
+     *
+     * @param task the task to wrap
+     * @return the wrapped task
+     */
+    public static Runnable propagate(Runnable task) {
+        LRAContext context = capture();
 
-        lraContexts.set(null);
+        return () -> {
+            LRAContext previous = attach(context);
+
+            try {
+                task.run();
+            } finally {
+                attach(previous);
+            }
+        };
     }
 
-    public static URI peek() {
-        Current current = lraContexts.get();
-        URI peek = current != null ? current.stack.peek() : null;
+    /**
+     * @see #propagate(Runnable)
+     */
+    public static <T> Supplier<T> propagate(Supplier<T> supplier) {
+        LRAContext context = capture();
 
-        if (peek != null && !activeLRACache.containsKey(peek)) {
-            // we cleaned the Current on different thread, so we need to clear the context
-            // that was set by previous request filter and wasn't cleaned by the response filter
-            Current.popAll();
-            return null;
-        }
+        return () -> {
+            LRAContext previous = attach(context);
 
-        return peek;
+            try {
+                return supplier.get();
+            } finally {
+                attach(previous);
+            }
+        };
     }
 
-    public static URI pop() {
-        Current current = lraContexts.get();
-        URI lraId = null;
+    /**
+     * Wrap a function such that it runs with the LRA context of the calling thread, for example
+     * {@code stage.thenApplyAsync(Current.propagate(fn), executor)}.
+     *
+     * @see #propagate(Runnable)
+     */
+    public static <T, R> Function<T, R> propagate(Function<T, R> function) {
+        LRAContext context = capture();
 
-        if (current != null) {
-            lraId = current.stack.pop(); // there must be at least one
+        return t -> {
+            LRAContext previous = attach(context);
 
-            if (current.stack.empty()) {
-                clearContext(current);
+            try {
+                return function.apply(t);
+            } finally {
+                attach(previous);
             }
-        }
+        };
+    }
+
+    public static URI peek() {
+        LRAContext current = lraContexts.get();
 
-        return lraId;
+        return current != null ? current.getLRAId() : null;
     }
 
-    // dissassociate an LRA from the callers thread (including any child LRAs)
-    public static boolean pop(URI lra) {
-        Current current = lraContexts.get();
+    public static URI pop() {
+        LRAContext current = lraContexts.get();
 
-        if (current == null || !current.stack.contains(lra)) {
-            return false;
+        if (current == null) {
+            return null;
         }
 
-        current.stack.remove(lra);
+        setContext(current.pop());
 
-        // pop children
-        // since child LRAs are contingent upon the parent, popping a parent should also pop the children
+        return current.getLRAId();
+    }
 
-        // check every LRA associated with the calling thread and if it is a child of lra then pop it
-        // the lra that is being popped is a parent of nextLRA:
-        current.stack.removeIf(nextLRA -> isParentOf(lra, nextLRA));
+    // dissassociate an LRA from the callers thread (including any child LRAs)
+    public static boolean pop(URI lra) {
+        LRAContext current = lraContexts.get();
 
-        if (current.stack.empty()) {
-            clearContext(current);
+        if (current == null || !current.contains(lra)) {
+            return false;
         }
 
-        return true;
-    }
-
-    /*
-     * return true if child is nested under parent
-     * ie if child contains a query param matching child
-     */
-    private static boolean isParentOf(URI parent, URI child) {
-        String qs = child.getQuery();
-
-        if (qs == null) {
-            return false; // child is top level
+        if (current.depth() == 1) {
+            setContext(null);
+            return true;
         }
 
-        String theParent = parent.toASCIIString();
-        String[] params = qs.split(QUERY_PAIR_SEPARATOR);
+        List<LRAContext> remaining = current.toContextList();
 
-        for (String param : params) {
-            String[] nvp = param.split(QUERY_FIELD_SEPARATOR);
+        remaining.removeIf(context -> context.getLRAId().equals(lra));
 
-            if (nvp.length == 2 && nvp[0].contains(PARENT_LRA_PARAM_NAME)) { // ignore null parameter values
-                // Child has a parent. See if its parent matches theParent:
-                String parentCandidate = URLDecoder.decode(nvp[1], StandardCharsets.UTF_8);
+        // pop descendants
+        // since child LRAs are contingent upon the parent, popping a parent should also pop the children
+        // (and their children and so on). Each id only names its immediate parent so iterate until no more
+        // LRAs associated with the calling thread descend from one that has been popped. The parents of an
+        // id are parsed once and then kept with the context
+        if (!remaining.isEmpty()) {
+            Set<String> popped = new HashSet<>();
+            boolean removed = true;
+
+            popped.add(withoutQuery(lra));
+
+            while (removed) {
+                removed = remaining.removeIf(context -> {
+                    if (isChildOf(context.getParents(), popped)) {
+                        popped.add(withoutQuery(context.getLRAId()));
+                        return true;
+                    }
 
-                if (parentCandidate.contains(theParent) || theParent.contains(parentCandidate)) {
-                    return true;
-                }
+                    return false;
+                });
             }
         }
 
-        return false;
+        setContext(LRAContext.of(remaining, current.getState()));
+
+        return true;
     }
 
     /**
@@ -254,25 +289,18 @@ public class Current {
      * @param lraId id of context to push (must not be null)
      */
     public static void push(URI lraId) {
-        Current current = lraContexts.get();
+        LRAContext current = lraContexts.get();
 
-        if (current == null) {
-            lraContexts.set(new Current(lraId));
-        } else {
-            if (!current.stack.contains(lraId)) {
-                current.stack.push(lraId);
-            }
-        }
+        lraContexts.set(current == null ? LRAContext.of(lraId) : current.push(lraId));
     }
 
+    /**
+     * @return an unmodifiable list of the LRAs associated with the calling thread, outermost first
+     */
     public static List<Object> getContexts() {
-        Current current = lraContexts.get();
-
-        if (current == null) {
-            return new ArrayList<>();
-        }
+        LRAContext current = lraContexts.get();
 
-        return new ArrayList<>(current.stack);
+        return current == null ? List.of() : current.toList();
     }
 
     /**
@@ -284,7 +312,8 @@ public class Current {
         URI lraId = Current.peek();
 
         if (lraId != null) {
-            responseContext.getHeaders().put(LRA_HTTP_CONTEXT_HEADER, getContexts());
+            // the header map belongs to the container and may be modified by later filters
+            responseContext.getHeaders().put(LRA_HTTP_CONTEXT_HEADER, new ArrayList<>(getContexts()));
         } else {
             responseContext.getHeaders().remove(LRA_HTTP_CONTEXT_HEADER);
         }
@@ -296,7 +325,7 @@ public class Current {
     }
 
     public static void popAll() {
-        lraContexts.remove();
+        setContext(null);
     }
 
     public static void clearContext(MultivaluedMap<String, String> headers) {
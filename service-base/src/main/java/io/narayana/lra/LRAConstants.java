@@ -15,6 +15,14 @@ public final class LRAConstants {
     // warning: the WildFly subsystem uses lra-coordinator/lra-coordinator
     public static final String COORDINATOR_PATH_NAME = "lra-coordinator";
     public static final String RECOVERY_COORDINATOR_PATH_NAME = "recovery";
+    // the pathname (relative to the coordinator) of the server-sent events stream of LRA status transitions
+    public static final String STATUS_EVENTS_PATH_NAME = "events";
+    // the name of the event carrying a status (the event id is the LRA id and the data is the LRAStatus name)
+    public static final String STATUS_EVENT_NAME = "status";
+    // the name of the event sent when a subscription names an LRA that the coordinator has no knowledge of
+    public static final String UNKNOWN_LRA_EVENT_NAME = "unknown";
+    // the pathname (relative to the coordinator) of the resource reporting whether the coordinator is ready
+    public static final String READINESS_PATH_NAME = "ready";
 
     public static final String COMPLETE = "complete";
     public static final String COMPENSATE = "compensate";
@@ -27,6 +35,9 @@ public final class LRAConstants {
     public static final String CLIENT_ID_PARAM_NAME = "ClientID";
     public static final String TIMELIMIT_PARAM_NAME = "TimeLimit";
     public static final String PARENT_LRA_PARAM_NAME = "ParentLRA";
+    public static final String LIMIT_PARAM_NAME = "Limit"; // maximum number of LRAs returned by a listing request
+    public static final String CURSOR_PARAM_NAME = "Cursor"; // opaque token identifying where a listing resumes
+    public static final String LRA_ID_PARAM_NAME = "LraId"; // an LRA id or uid
     public static final String QUERY_PAIR_SEPARATOR = "&"; // separator to isolate each "key=value" pair of a URI query component
     public static final String QUERY_FIELD_SEPARATOR = "="; // separator to pick out the key and value of each pair
     public static final String RECOVERY_PARAM = "recoveryCount";
@@ -60,6 +71,11 @@ public final class LRAConstants {
     public static final String NARAYANA_LRA_PARTICIPANT_DATA_HEADER_NAME = "Narayana-LRA-Participant-Data";
     public static final String NARAYANA_LRA_PARTICIPANT_LINK_HEADER_NAME = "Narayana-LRA-Participant-Link";
 
+    /**
+     * Response header carrying the continuation token of a paged LRA listing. The header is absent on the last page.
+     */
+    public static final String NARAYANA_LRA_NEXT_CURSOR_HEADER_NAME = "Narayana-LRA-Next-Cursor";
+
     /**
      * Number of seconds to wait for requests to participant.
      * The timeout is hardcoded as the protocol expects retry in case of failure and timeout.
@@ -68,7 +84,10 @@ public final class LRAConstants {
     public static final String ALLOW_PARTICIPANT_DATA = "lra.participant.data";
 
     /**
-     * Number of milliseconds for the coordinator to hold a lock for enlisting participants. Defaults to 500.
+     * Number of milliseconds for the coordinator to wait for the lock on an LRA when enlisting participants.
+     * Participants that join the same LRA concurrently are queued and enlisted together by whichever join holds
+     * the lock, so the timeout only rejects a join if the lock is held for some other reason, for example because
+     * the LRA is ending. Defaults to 500.
      */
     public static final String ENLIST_PARTICIPANT_LOCK_TIMEOUT = "lra.participant.lock.timeout";
 
@@ -77,6 +96,104 @@ public final class LRAConstants {
      */
     public static final String ENLIST_PARTICIPANT_CLIENT_MAX_RETRY = "lra.participant.client.max.retry";
 
+    /**
+     * Maximum number of milliseconds that a client participant waits, in total, between its attempts to enlist
+     * with the coordinator. The request that is being enlisted holds its thread while it waits so an attempt whose
+     * back off, or the Retry-After of the coordinator, would exceed this budget is not made. Defaults to 2000.
+     */
+    public static final String ENLIST_PARTICIPANT_CLIENT_MAX_WAIT = "lra.participant.client.max.wait";
+
+    /**
+     * Number of partitions the coordinator divides its LRAs into. Each shard has its own in-memory state, lock
+     * table and object store type (and hence, for file based stores, its own directory) and is recovered by its
+     * own thread. The value must not be changed while the object store contains LRA records. Defaults to 1.
+     */
+    public static final String COORDINATOR_SHARDS = "lra.coordinator.shards";
+
+    /**
+     * Number of threads the coordinator uses to end LRAs whose close or cancel was requested asynchronously.
+     * Defaults to the number of available processors.
+     */
+    public static final String ASYNC_END_THREADS = "lra.coordinator.async.end.threads";
+
+    /**
+     * Maximum number of object store updates that the LRA JDBC object store
+     * ({@code io.narayana.lra.coordinator.internal.LRAJDBCStore}) sends to the database in one batch.
+     * Updates made concurrently by different LRAs are grouped into the same batch. Defaults to 100.
+     */
+    public static final String JDBC_STORE_BATCH_SIZE = "lra.coordinator.jdbc.batch.size";
+
+    /**
+     * Maximum number of distinct participant Link headers whose parsed callback endpoints the coordinator
+     * caches so that participants that enlist with the same endpoints share one copy of them. Zero disables
+     * the cache. Defaults to 1024.
+     */
+    public static final String PARTICIPANT_ENDPOINT_CACHE_SIZE = "lra.coordinator.participant.endpoint.cache.size";
+
+    /**
+     * Whether the coordinator recovers LRAs incrementally. The object store is only scanned in full by the first
+     * recovery pass, after that a pass only revisits the LRAs that the coordinator knows still have work to do.
+     * Only enable it if no other coordinator writes LRA records to the same object store. Defaults to false.
+     */
+    public static final String RECOVERY_INCREMENTAL = "lra.coordinator.recovery.incremental";
+
+    /**
+     * Number of milliseconds that incremental recovery waits before retrying an LRA that still has work to do.
+     * The delay doubles with each unsuccessful attempt up to 64 times this value. Defaults to 1000.
+     */
+    public static final String RECOVERY_RETRY_DELAY = "lra.coordinator.recovery.retry.delay";
+
+    /**
+     * Whether the coordinator starts serving requests before it has loaded the LRAs in its object store. At startup
+     * it only reads the uids of the LRA records, an LRA is then loaded the first time a request refers to it, a
+     * request that lists LRAs loads the LRAs that have yet to be loaded and the remaining LRAs are loaded in the
+     * background. Otherwise the coordinator reports that it is ready once the first
+     * recovery pass has loaded every LRA. Defaults to false.
+     */
+    public static final String LAZY_STARTUP = "lra.coordinator.startup.lazy";
+
+    /**
+     * Maximum number of start and join requests that the coordinator processes concurrently. The
+     * coordinator lowers the limit while these requests take longer than {@link #ADMISSION_TARGET_LATENCY} and
+     * raises it back towards this value once they speed up. Requests over the limit are rejected with 503 Service
+     * Unavailable and a Retry-After header. Zero disables admission control. Defaults to 0.
+     */
+    public static final String ADMISSION_MAX_CONCURRENCY = "lra.coordinator.admission.max.concurrency";
+
+    /**
+     * Maximum number of close and cancel requests that the coordinator processes concurrently. They are limited
+     * separately from starts and joins, in the same way as {@link #ADMISSION_MAX_CONCURRENCY}, so that ending LRAs
+     * is not held up by new work. Defaults to the value of {@link #ADMISSION_MAX_CONCURRENCY}.
+     */
+    public static final String ADMISSION_END_MAX_CONCURRENCY = "lra.coordinator.admission.end.max.concurrency";
+
+    /**
+     * Number of milliseconds that starting or joining an LRA, ie waiting for the LRA lock and writing the object
+     * store, may take before the coordinator considers itself overloaded. Defaults to 500.
+     */
+    public static final String ADMISSION_TARGET_LATENCY = "lra.coordinator.admission.target.latency";
+
+    /**
+     * Whether LRAs ended on exit from methods annotated with {@code @LRA(end = true)} are closed or cancelled
+     * asynchronously, ie the coordinator accepts the request and ends the participants in the background.
+     * Defaults to false.
+     */
+    public static final String END_LRA_ASYNC = "lra.participant.end.async";
+
+    /**
+     * Whether a coordinator running in the same JVM as the application calls the participants that the application
+     * enlists, both JAX-RS resources and participants in the {@code LRAParticipantRegistry}, directly rather than
+     * over HTTP. JAX-RS filters do not run on such calls. Defaults to false.
+     */
+    public static final String IN_VM_PARTICIPANTS = "lra.participant.in-vm";
+
+    /**
+     * The HTTP Prefer header (RFC 7240) and the preference a caller uses to request asynchronous processing
+     */
+    public static final String PREFER_HEADER_NAME = "Prefer";
+    public static final String PREFERENCE_APPLIED_HEADER_NAME = "Preference-Applied";
+    public static final String RESPOND_ASYNC_PREFERENCE = "respond-async";
+
     /**
      * Custom base URI if the client needs to override default base URI info taken from the Jakarta REST filters.
      */
@@ -0,0 +1,202 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.lra;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * An immutable snapshot of the LRAs associated with a thread, innermost first. Pushing or removing an LRA
+ * returns a new context and never modifies an existing one, so a context can be captured cheaply (see
+ * {@link Current#capture()}) and handed to another thread, for example to a {@link java.util.concurrent.CompletionStage}
+ * continuation (see {@link Current#propagate(java.util.function.Function)}), without copying it. The state that
+ * is associated with the LRAs of a thread (see {@link Current#putState(String, Object)}) is part of the context
+ * so it travels with it.
+ */
+public final class LRAContext {
+    private final URI lraId;
+    private final LRAContext outer;
+    private final int depth;
+    // shared by the contexts that are derived from this one until the state is changed
+    private final Map<String, Object> state;
+    // lazily computed view of the context outermost first, it is immutable so racy initialisation is safe
+    private List<Object> contexts;
+    // lazily parsed parents of the LRA, racy initialisation is safe for the same reason
+    private String[] parents;
+
+    private LRAContext(URI lraId, LRAContext outer, String[] parents, Map<String, Object> state) {
+        this.lraId = Objects.requireNonNull(lraId, "lraId");
+        this.outer = outer;
+        this.depth = outer == null ? 1 : outer.depth + 1;
+        this.parents = parents;
+        this.state = state;
+    }
+
+    /**
+     * @param lraId the id of the LRA (must not be null)
+     * @return a context containing the single LRA
+     */
+    public static LRAContext of(URI lraId) {
+        return new LRAContext(lraId, null, null, Map.of());
+    }
+
+    /**
+     * @param contexts contexts outermost first
+     * @param state the state of the new context
+     * @return a context containing the innermost LRA of each of the contexts or null if the list is empty
+     */
+    static LRAContext of(List<LRAContext> contexts, Map<String, Object> state) {
+        LRAContext context = null;
+
+        for (LRAContext next : contexts) {
+            // carry the parsed parents over so that an id is only parsed once however often the context changes
+            context = new LRAContext(next.lraId, context, next.parents, state);
+        }
+
+        return context;
+    }
+
+    /**
+     * @return the innermost LRA in this context
+     */
+    public URI getLRAId() {
+        return lraId;
+    }
+
+    /**
+     * @return the context that this one was pushed onto or null if this context contains a single LRA
+     */
+    public LRAContext getOuter() {
+        return outer;
+    }
+
+    /**
+     * @return the number of LRAs in this context
+     */
+    public int depth() {
+        return depth;
+    }
+
+    public boolean contains(URI lra) {
+        for (LRAContext context = this; context != null; context = context.outer) {
+            if (context.lraId.equals(lra)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * @param lra the LRA to make the innermost one
+     * @return a context with the LRA pushed onto this one, or this context if it already contains the LRA
+     */
+    public LRAContext push(URI lra) {
+        return contains(lra) ? this : new LRAContext(lra, this, null, state);
+    }
+
+    /**
+     * @return the context that this one was pushed onto, with the state of this context, or null if this context
+     *         contains a single LRA
+     */
+    LRAContext pop() {
+        if (outer == null || outer.state == state) {
+            return outer;
+        }
+
+        return new LRAContext(outer.lraId, outer.outer, outer.parents, state);
+    }
+
+    /**
+     * @param key the name of the state
+     * @return the value of the state or null if there is none
+     */
+    public Object getState(String key) {
+        return state.get(key);
+    }
+
+    /**
+     * @param key the name of the state
+     * @param value the new value of the state or null to remove it
+     * @return a context containing the same LRAs as this one with the state changed
+     */
+    LRAContext withState(String key, Object value) {
+        Map<String, Object> newState = new HashMap<>(state);
+
+        if (value == null) {
+            newState.remove(key);
+        } else {
+            newState.put(key, value);
+        }
+
+        return new LRAContext(lraId, outer, parents, Collections.unmodifiableMap(newState));
+    }
+
+    Map<String, Object> getState() {
+        return state;
+    }
+
+    /**
+     * @return the ids of the enclosing LRAs that are encoded in the id of the innermost LRA, nearest first
+     */
+    String[] getParents() {
+        String[] encoded = parents;
+
+        if (encoded == null) {
+            encoded = Current.getParents(lraId);
+            parents = encoded;
+        }
+
+        return encoded;
+    }
+
+    /**
+     * @return an unmodifiable list of the LRAs in this context, outermost first (the order used for
+     *         the {@link org.eclipse.microprofile.lra.annotation.ws.rs.LRA#LRA_HTTP_CONTEXT_HEADER} header)
+     */
+    public List<Object> toList() {
+        List<Object> list = contexts;
+
+        if (list == null) {
+            Object[] ids = new Object[depth];
+            int i = depth;
+
+            for (LRAContext context = this; context != null; context = context.outer) {
+                ids[--i] = context.lraId;
+            }
+
+            list = List.of(ids);
+            contexts = list;
+        }
+
+        return list;
+    }
+
+    /**
+     * @return this context and the ones that it was pushed onto, outermost first
+     */
+    List<LRAContext> toContextList() {
+        List<LRAContext> list = new ArrayList<>(depth);
+
+        for (LRAContext context = this; context != null; context = context.outer) {
+            list.add(context);
+        }
+
+        Collections.reverse(list);
+
+        return list;
+    }
+
+    @Override
+    public String toString() {
+        return toList().toString();
+    }
+}
@@ -0,0 +1,381 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.lra;
+
+import java.net.URISyntaxException;
+import java.util.Arrays;
+
+/**
+ * Parses and renders the Link headers (RFC 8288) that participants enlist with, for example
+ * {@code <http://host/p/compensate>; rel="compensate"; type="text/plain",<http://host/p/complete>; rel="complete"}.
+ * <p>
+ * A parsed header holds the relation type and target of each link, the other link parameters are skipped. Unlike
+ * {@link jakarta.ws.rs.core.Link} the parser does not need a JAX-RS runtime, scans the header once without regular
+ * expressions or splitting it into strings per link, and allows commas inside link targets and quoted parameters.
+ * The targets are returned as strings so callers only pay for creating a {@link java.net.URI} if they need one.
+ */
+public final class LinkHeader {
+    private static final String REL = "rel";
+    private static final String TEXT_PLAIN = "text/plain";
+    // LRA participants enlist with at most this many links (compensate, complete, forget, leave, after and status)
+    private static final int INITIAL_CAPACITY = 6;
+
+    private String[] rels = new String[INITIAL_CAPACITY];
+    private String[] targets = new String[INITIAL_CAPACITY];
+    private int size;
+
+    private LinkHeader() {
+    }
+
+    /**
+     * Parse a Link header that holds one or more comma separated links
+     *
+     * @param header the value of the header
+     * @return the links in the order that they appear in the header
+     * @throws URISyntaxException if the value is not a valid Link header
+     */
+    public static LinkHeader parse(String header) throws URISyntaxException {
+        LinkHeader links = new LinkHeader();
+        int len = header.length();
+        int i = skipWhitespace(header, 0);
+
+        for (;;) {
+            if (i == len || header.charAt(i) != '<') {
+                throw new URISyntaxException(header, "expected '<' at the start of a link", i);
+            }
+
+            int end = header.indexOf('>', i + 1);
+
+            if (end < 0) {
+                throw new URISyntaxException(header, "missing '>' at the end of a link target", i);
+            }
+
+            String target = header.substring(skipWhitespace(header, i + 1), trimWhitespace(header, i + 1, end));
+            String rel = null;
+
+            i = skipWhitespace(header, end + 1);
+
+            while (i < len && header.charAt(i) == ';') {
+                int nameStart = skipWhitespace(header, i + 1);
+
+                i = skipToken(header, nameStart);
+
+                if (i == nameStart) {
+                    throw new URISyntaxException(header, "expected a link parameter", i);
+                }
+
+                // RFC 8288 says that occurrences of the rel parameter after the first one must be ignored
+                boolean isRel = rel == null && i - nameStart == REL.length()
+                        && header.regionMatches(true, nameStart, REL, 0, REL.length());
+
+                i = skipWhitespace(header, i);
+
+                if (i < len && header.charAt(i) == '=') {
+                    int valueStart = skipWhitespace(header, i + 1);
+
+                    if (valueStart < len && header.charAt(valueStart) == '"') {
+                        i = skipQuoted(header, valueStart);
+
+                        if (isRel) {
+                            rel = unquote(header, valueStart + 1, i - 1);
+                        }
+                    } else {
+                        i = skipToken(header, valueStart);
+
+                        if (isRel) {
+                            rel = header.substring(valueStart, i);
+                        }
+                    }
+
+                    i = skipWhitespace(header, i);
+                }
+            }
+
+            links.add(rel, target);
+
+            if (i == len) {
+                return links;
+            }
+
+            if (header.charAt(i) != ',') {
+                throw new URISyntaxException(header, "unexpected character after a link", i);
+            }
+
+            i = skipWhitespace(header, i + 1);
+        }
+    }
+
+    /**
+     * @param value a header value or a URL
+     * @return whether the value is a valid Link header
+     */
+    public static boolean isLink(String value) {
+        if (value == null) {
+            return false;
+        }
+
+        int start = skipWhitespace(value, 0);
+
+        if (start == value.length() || value.charAt(start) != '<') {
+            return false; // a plain URL rather than a link, fail fast without an exception
+        }
+
+        try {
+            parse(value);
+
+            return true;
+        } catch (URISyntaxException e) {
+            return false;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param index the position of the link in the header
+     * @return the relation type of the link or null if the link does not have one
+     */
+    public String getRel(int index) {
+        checkIndex(index);
+
+        return rels[index];
+    }
+
+    /**
+     * @param index the position of the link in the header
+     * @return the target URI of the link as it appears in the header
+     */
+    public String getTarget(int index) {
+        checkIndex(index);
+
+        return targets[index];
+    }
+
+    /**
+     * @param rel a relation type
+     * @return the target of the last link with the relation type, a later link replaces an earlier one, or null
+     */
+    public String getTarget(String rel) {
+        int index = lastIndexOf(rel);
+
+        return index < 0 ? null : targets[index];
+    }
+
+    /**
+     * Render the header in a canonical form so that headers holding the same links in a different order, or with
+     * different parameters other than the relation type, compare equal. The links are sorted by relation type,
+     * a later link replaces an earlier one with the same relation type and links without a relation are dropped.
+     *
+     * @return the canonical form of the header
+     */
+    public String toCanonicalString() {
+        String[] sorted = new String[size];
+        int count = 0;
+
+        for (int i = 0; i < size; i++) {
+            if (rels[i] != null && lastIndexOf(rels[i]) == i) {
+                sorted[count++] = rels[i];
+            }
+        }
+
+        Arrays.sort(sorted, 0, count);
+
+        Builder builder = new Builder();
+
+        for (int i = 0; i < count; i++) {
+            builder.append(sorted[i], getTarget(sorted[i]), null, null);
+        }
+
+        return builder.toString();
+    }
+
+    @Override
+    public String toString() {
+        Builder builder = new Builder();
+
+        for (int i = 0; i < size; i++) {
+            builder.append(rels[i], targets[i], null, null);
+        }
+
+        return builder.toString();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Renders a Link header one link at a time. A builder can be reused for another header after calling
+     * {@link #reset()}, which keeps the buffer that it has already grown.
+     */
+    public static final class Builder {
+        private final StringBuilder buffer = new StringBuilder(128);
+
+        private Builder() {
+        }
+
+        /**
+         * Append a link with the {@code text/plain} media type, the form that LRA participants enlist with
+         *
+         * @param rel the relation type of the link
+         * @param target the target URI of the link, nothing is appended if it is null
+         * @return this builder
+         */
+        public Builder link(String rel, String target) {
+            return append(rel, target, null, TEXT_PLAIN);
+        }
+
+        /**
+         * Append a link with a title and the {@code text/plain} media type
+         *
+         * @param rel the relation type of the link
+         * @param target the target URI of the link, nothing is appended if it is null
+         * @param title the title of the link
+         * @return this builder
+         */
+        public Builder link(String rel, String target, String title) {
+            return append(rel, target, title, TEXT_PLAIN);
+        }
+
+        private Builder append(String rel, String target, String title, String type) {
+            if (target == null) {
+                return this;
+            }
+
+            if (buffer.length() != 0) {
+                buffer.append(',');
+            }
+
+            buffer.append('<').append(target).append('>');
+
+            if (rel != null) {
+                buffer.append("; rel=\"").append(rel).append('"');
+            }
+
+            if (title != null) {
+                buffer.append("; title=\"").append(title).append('"');
+            }
+
+            if (type != null) {
+                buffer.append("; type=\"").append(type).append('"');
+            }
+
+            return this;
+        }
+
+        public boolean isEmpty() {
+            return buffer.length() == 0;
+        }
+
+        public Builder reset() {
+            buffer.setLength(0);
+
+            return this;
+        }
+
+        @Override
+        public String toString() {
+            return buffer.toString();
+        }
+    }
+
+    private void add(String rel, String target) {
+        if (size == targets.length) {
+            rels = Arrays.copyOf(rels, size * 2);
+            targets = Arrays.copyOf(targets, size * 2);
+        }
+
+        rels[size] = rel;
+        targets[size] = target;
+        size++;
+    }
+
+    private int lastIndexOf(String rel) {
+        for (int i = size - 1; i >= 0; i--) {
+            if (rel.equals(rels[i])) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+    }
+
+    private static int skipWhitespace(String s, int i) {
+        while (i < s.length() && (s.charAt(i) == ' ' || s.charAt(i) == '\t')) {
+            i++;
+        }
+
+        return i;
+    }
+
+    private static int trimWhitespace(String s, int start, int end) {
+        while (end > start && (s.charAt(end - 1) == ' ' || s.charAt(end - 1) == '\t')) {
+            end--;
+        }
+
+        return end;
+    }
+
+    // a parameter name or an unquoted parameter value
+    private static int skipToken(String s, int i) {
+        while (i < s.length()) {
+            char c = s.charAt(i);
+
+            if (c == ';' || c == ',' || c == '=' || c == '"' || c == ' ' || c == '\t') {
+                break;
+            }
+
+            i++;
+        }
+
+        return i;
+    }
+
+    // returns the position after the closing quote of the quoted string that starts at i
+    private static int skipQuoted(String s, int i) throws URISyntaxException {
+        for (int j = i + 1; j < s.length(); j++) {
+            char c = s.charAt(j);
+
+            if (c == '\\') {
+                j++;
+            } else if (c == '"') {
+                return j + 1;
+            }
+        }
+
+        throw new URISyntaxException(s, "missing closing quote", i);
+    }
+
+    private static String unquote(String s, int start, int end) {
+        int escape = s.indexOf('\\', start);
+
+        if (escape < 0 || escape >= end) {
+            return s.substring(start, end);
+        }
+
+        StringBuilder value = new StringBuilder(end - start);
+
+        for (int i = start; i < end; i++) {
+            char c = s.charAt(i);
+
+            if (c == '\\' && i + 1 < end) {
+                c = s.charAt(++i);
+            }
+
+            value.append(c);
+        }
+
+        return value.toString();
+    }
+}
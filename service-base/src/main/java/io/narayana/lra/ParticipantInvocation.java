@@ -0,0 +1,64 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.lra;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * A callback that the coordinator is about to make on a participant: the HTTP method and endpoint that would be
+ * used to reach it over HTTP together with the LRA headers and the request body.
+ */
+public final class ParticipantInvocation {
+    private final String method;
+    private final URI endpoint;
+    private final Map<String, String> headers;
+    private final String body;
+
+    /**
+     * @param method the HTTP method (one of {@link jakarta.ws.rs.HttpMethod#PUT}, {@link jakarta.ws.rs.HttpMethod#GET}
+     *        or {@link jakarta.ws.rs.HttpMethod#DELETE})
+     * @param endpoint the endpoint of the participant
+     * @param headers the LRA headers of the request, headers without a value are omitted
+     * @param body the request body or null if there is none
+     */
+    public ParticipantInvocation(String method, URI endpoint, Map<String, String> headers, String body) {
+        this.method = method;
+        this.endpoint = endpoint;
+        this.headers = Collections.unmodifiableMap(headers);
+        this.body = body;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public URI getEndpoint() {
+        return endpoint;
+    }
+
+    public Map<String, String> getHeaders() {
+        return headers;
+    }
+
+    /**
+     * @param name the name of a header such as {@link org.eclipse.microprofile.lra.annotation.ws.rs.LRA#LRA_HTTP_CONTEXT_HEADER}
+     * @return the value of the header or null if the request does not carry it
+     */
+    public String getHeader(String name) {
+        return headers.get(name);
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    @Override
+    public String toString() {
+        return method + " " + endpoint;
+    }
+}
@@ -0,0 +1,40 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.lra;
+
+import jakarta.ws.rs.core.Response;
+import java.net.URI;
+
+/**
+ * Delivers callbacks (complete, compensate, status, forget and after) to participants without going through the
+ * JAX-RS client. The invokers registered with the coordinator, and those that it locates using
+ * {@link java.util.ServiceLoader}, are consulted in turn before each callback and the coordinator only falls back to
+ * HTTP if none of them can reach the participant. A callback is bounded by {@link LRAConstants#PARTICIPANT_TIMEOUT}
+ * in the same way as an HTTP request.
+ * Invokers are called while the LRA is locked so they must not call back into the coordinator for the same LRA.
+ */
+@FunctionalInterface
+public interface ParticipantInvoker {
+    /**
+     * Deliver a callback to a participant
+     *
+     * @param invocation the callback
+     * @return the response of the participant, as it would have been sent over HTTP, or null if this invoker
+     *         cannot reach the participant
+     */
+    Response invoke(ParticipantInvocation invocation);
+
+    /**
+     * A cheap check, made before the callback is handed to {@link #invoke(ParticipantInvocation)}, of whether this
+     * invoker may be able to reach a participant endpoint
+     *
+     * @param endpoint the endpoint of the participant
+     * @return false if this invoker cannot reach the endpoint
+     */
+    default boolean reaches(URI endpoint) {
+        return true;
+    }
+}
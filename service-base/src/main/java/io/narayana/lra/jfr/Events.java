@@ -0,0 +1,21 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.lra.jfr;
+
+import java.net.URI;
+
+final class Events {
+    // the JDK Flight Recorder category that groups the LRA events
+    static final String NARAYANA = "Narayana";
+    static final String LRA = "LRA";
+
+    private Events() {
+    }
+
+    static String ascii(URI uri) {
+        return uri == null ? null : uri.toASCIIString();
+    }
+}
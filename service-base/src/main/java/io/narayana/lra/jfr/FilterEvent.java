@@ -0,0 +1,57 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.lra.jfr;
+
+import java.net.URI;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The time that the LRA filter of a participant service added to a request or to its response, including any
+ * calls that it made to the coordinator to start, join or end an LRA
+ */
+@Name(FilterEvent.NAME)
+@Label("LRA Filter")
+@Category({Events.NARAYANA, Events.LRA})
+@Description("The LRA filter processed a request to, or a response from, an LRA annotated resource")
+@StackTrace(false)
+public final class FilterEvent extends Event {
+    public static final String NAME = "io.narayana.lra.Filter";
+    public static final String REQUEST = "request";
+    public static final String RESPONSE = "response";
+
+    @Label("Phase")
+    @Description("Whether the filter processed the request or the response")
+    String phase;
+
+    @Label("Method")
+    String method;
+
+    @Label("Path")
+    String path;
+
+    @Label("LRA Id")
+    String lraId;
+
+    /**
+     * End the event and commit it if a recording is collecting it
+     */
+    public void finish(String phase, String method, URI path, URI lraId) {
+        end();
+
+        if (shouldCommit()) {
+            this.phase = phase;
+            this.method = method;
+            this.path = Events.ascii(path);
+            this.lraId = Events.ascii(lraId);
+            commit();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.lra.jfr;
+
+import java.net.URI;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * The coordinator started an LRA, the duration includes writing the LRA to the object store
+ */
+@Name(LRABeginEvent.NAME)
+@Label("LRA Begin")
+@Category({Events.NARAYANA, Events.LRA})
+@Description("The coordinator started an LRA")
+@StackTrace(false)
+public final class LRABeginEvent extends Event {
+    public static final String NAME = "io.narayana.lra.Begin";
+
+    @Label("LRA Id")
+    String lraId;
+
+    @Label("Parent LRA Id")
+    String parentId;
+
+    @Label("Client Id")
+    String clientId;
+
+    @Label("Time Limit")
+    @Timespan(Timespan.MILLISECONDS)
+    long timeLimit;
+
+    /**
+     * End the event and commit it if a recording is collecting it
+     */
+    public void finish(URI lraId, URI parentId, String clientId, long timeLimit) {
+        end();
+
+        if (shouldCommit()) {
+            this.lraId = Events.ascii(lraId);
+            this.parentId = Events.ascii(parentId);
+            this.clientId = clientId;
+            this.timeLimit = timeLimit;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.lra.jfr;
+
+import java.net.URI;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * An LRA reached a final state. The event itself is instantaneous, the lifetime of the LRA is a field.
+ */
+@Name(LRAEndEvent.NAME)
+@Label("LRA End")
+@Category({Events.NARAYANA, Events.LRA})
+@Description("An LRA closed, cancelled or failed to do either")
+@StackTrace(false)
+public final class LRAEndEvent extends Event {
+    public static final String NAME = "io.narayana.lra.End";
+
+    @Label("LRA Id")
+    String lraId;
+
+    @Label("Status")
+    String status;
+
+    @Label("Participants")
+    int participantCount;
+
+    @Label("LRA Duration")
+    @Description("The time from the start of the LRA until it reached its final state")
+    @Timespan(Timespan.MILLISECONDS)
+    long lraDuration;
+
+    /**
+     * Commit the event if a recording is collecting it
+     */
+    public void finish(URI lraId, String status, int participantCount, long lraDurationMillis) {
+        if (shouldCommit()) {
+            this.lraId = Events.ascii(lraId);
+            this.status = status;
+            this.participantCount = participantCount;
+            this.lraDuration = lraDurationMillis;
+            commit();
+        }
+    }
+}
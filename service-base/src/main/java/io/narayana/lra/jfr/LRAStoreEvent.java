@@ -0,0 +1,51 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.lra.jfr;
+
+import java.net.URI;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The coordinator wrote the record of an LRA to the object store
+ */
+@Name(LRAStoreEvent.NAME)
+@Label("LRA Store Write")
+@Category({Events.NARAYANA, Events.LRA})
+@Description("The coordinator wrote the record of an LRA to the object store")
+@StackTrace(false)
+public final class LRAStoreEvent extends Event {
+    public static final String NAME = "io.narayana.lra.StoreWrite";
+
+    @Label("LRA Id")
+    String lraId;
+
+    @Label("Size")
+    @DataAmount
+    long bytes;
+
+    @Label("Written")
+    boolean written;
+
+    /**
+     * End the event and commit it if a recording is collecting it
+     */
+    public void finish(URI lraId, long bytes, boolean written) {
+        end();
+
+        if (shouldCommit()) {
+            this.lraId = Events.ascii(lraId);
+            this.bytes = bytes;
+            this.written = written;
+            commit();
+        }
+    }
+}
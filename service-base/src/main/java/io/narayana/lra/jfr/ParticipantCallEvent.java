@@ -0,0 +1,59 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.lra.jfr;
+
+import java.net.URI;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The coordinator called one of the endpoints of a participant
+ */
+@Name(ParticipantCallEvent.NAME)
+@Label("LRA Participant Call")
+@Category({Events.NARAYANA, Events.LRA})
+@Description("The coordinator called a participant to complete, compensate, report its status, forget or be notified")
+@StackTrace(false)
+public final class ParticipantCallEvent extends Event {
+    public static final String NAME = "io.narayana.lra.ParticipantCall";
+
+    @Label("LRA Id")
+    String lraId;
+
+    @Label("Method")
+    String method;
+
+    @Label("Endpoint")
+    String endpoint;
+
+    @Label("Relation")
+    @Description("The Link relation type of the endpoint, for example complete or status")
+    String rel;
+
+    @Label("HTTP Status")
+    @Description("The status code of the response or -1 if there was no response")
+    int httpStatus;
+
+    /**
+     * End the event and commit it if a recording is collecting it
+     */
+    public void finish(URI lraId, String method, URI endpoint, String rel, int httpStatus) {
+        end();
+
+        if (shouldCommit()) {
+            this.lraId = Events.ascii(lraId);
+            this.method = method;
+            this.endpoint = Events.ascii(endpoint);
+            this.rel = rel;
+            this.httpStatus = httpStatus;
+            commit();
+        }
+    }
+}
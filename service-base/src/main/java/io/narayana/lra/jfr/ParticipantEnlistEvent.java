@@ -0,0 +1,55 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.lra.jfr;
+
+import java.net.URI;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * A participant joined an LRA, the lock wait is the part of the duration spent waiting for the lock on the LRA
+ */
+@Name(ParticipantEnlistEvent.NAME)
+@Label("LRA Participant Enlist")
+@Category({Events.NARAYANA, Events.LRA})
+@Description("A participant joined an LRA")
+@StackTrace(false)
+public final class ParticipantEnlistEvent extends Event {
+    public static final String NAME = "io.narayana.lra.ParticipantEnlist";
+
+    @Label("LRA Id")
+    String lraId;
+
+    @Label("Participant")
+    String participant;
+
+    @Label("Lock Wait")
+    @Timespan(Timespan.NANOSECONDS)
+    long lockWait;
+
+    @Label("Enlisted")
+    boolean enlisted;
+
+    /**
+     * End the event and commit it if a recording is collecting it
+     */
+    public void finish(URI lraId, String participant, long lockWaitNanos, boolean enlisted) {
+        end();
+
+        if (shouldCommit()) {
+            this.lraId = Events.ascii(lraId);
+            this.participant = participant;
+            this.lockWait = lockWaitNanos;
+            this.enlisted = enlisted;
+            commit();
+        }
+    }
+}
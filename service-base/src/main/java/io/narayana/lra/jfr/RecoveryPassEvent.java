@@ -0,0 +1,50 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.lra.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A periodic or requested recovery pass over the LRAs in the object store
+ */
+@Name(RecoveryPassEvent.NAME)
+@Label("LRA Recovery Pass")
+@Category({Events.NARAYANA, Events.LRA})
+@Description("The coordinator tried to finish the LRAs that need recovery")
+@StackTrace(false)
+public final class RecoveryPassEvent extends Event {
+    public static final String NAME = "io.narayana.lra.RecoveryPass";
+
+    @Label("Incremental")
+    @Description("Whether the pass only revisited the LRAs known to need recovery")
+    boolean incremental;
+
+    @Label("LRAs Scanned")
+    int scanned;
+
+    @Label("LRAs Recovered")
+    @Description("The number of LRAs that the pass finished")
+    int recovered;
+
+    /**
+     * End the event and commit it if a recording is collecting it
+     */
+    public void finish(boolean incremental, int scanned, int recovered) {
+        end();
+
+        if (shouldCommit()) {
+            this.incremental = incremental;
+            this.scanned = scanned;
+            this.recovered = recovered;
+            commit();
+        }
+    }
+}
@@ -186,6 +186,25 @@ public interface LraI18nLogger {
             " balancer method `%s` is unsupported")
     String error_unsupportedLoadBalancer(String requestedMethod);
 
+    @LogMessage(level = WARN)
+    @Message(id = 25049, value = "LRA status listener failed to process the transition of LRA `%s` from %s to %s")
+    void warn_statusListenerFailed(String lraId, String previous, String next, @Cause Throwable t);
+
+    @LogMessage(level = WARN)
+    @Message(id = 25050, value = "Asynchronous end of LRA `%s` failed, it will be finished by recovery")
+    void warn_asyncEndFailed(String lraId, @Cause Throwable t);
+
+    @LogMessage(level = WARN)
+    @Message(id = 25051, value = "Could not create the index `%s` on the LRA object store table `%s`, recovery scans may be slower: %s")
+    void warn_jdbcStoreIndexNotCreated(String index, String table, String reason);
+
+    @Message(id = 25052, value = "The coordinator url `%s` selects the embedded coordinator but none is available, "
+            + "add the LRA coordinator to the class path")
+    String error_noLocalCoordinator(String coordinatorUrl);
+
+    @Message(id = 25053, value = "The coordinator is overloaded, retry the request after %d seconds")
+    String warn_coordinatorOverloaded(long retryAfter);
+
     /*
      * Allocate new messages directly above this notice.
      * - id: use the next id number in numeric sequence. Don't reuse ids.
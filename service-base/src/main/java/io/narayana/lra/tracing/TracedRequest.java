@@ -0,0 +1,67 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.lra.tracing;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.context.Scope;
+import jakarta.ws.rs.container.ContainerRequestContext;
+
+/**
+ * The span of a request that a container filter handles. The span is the current OpenTelemetry context of the
+ * thread that filtered the request, so the spans that the resource and the filters start while handling it are its
+ * children, until the span ends.
+ */
+public final class TracedRequest {
+    private final Span span;
+    private final Scope scope;
+    private final Thread thread;
+
+    private TracedRequest(Span span) {
+        this.span = span;
+        this.scope = span.makeCurrent();
+        this.thread = Thread.currentThread();
+    }
+
+    /**
+     * Start the span of a request and make it the current context of this thread
+     *
+     * @param name the name of the span
+     * @param component which part of the system handles the request
+     * @param request the request
+     * @return the traced request, which must be ended
+     */
+    public static TracedRequest start(String name, String component, ContainerRequestContext request) {
+        return new TracedRequest(Tracing.startServerSpan(name, component, request.getMethod(),
+                request.getUriInfo().getRequestUri(), request.getHeaders()));
+    }
+
+    public Span getSpan() {
+        return span;
+    }
+
+    /**
+     * Make the span the current context of this thread, the response to an asynchronous request may be filtered on
+     * a thread other than the one that filtered the request
+     *
+     * @return the scope of the span on this thread, which must be closed
+     */
+    public Scope resume() {
+        return Thread.currentThread() == thread ? Scope.noop() : span.makeCurrent();
+    }
+
+    /**
+     * End the span and, on the thread that filtered the request, restore the context that was current before it
+     *
+     * @param httpStatus the status code of the response
+     */
+    public void end(int httpStatus) {
+        Tracing.setHttpStatus(span, httpStatus).end();
+
+        if (Thread.currentThread() == thread) {
+            scope.close();
+        } // else the scope can only be closed on its own thread, the next request on that thread replaces it
+    }
+}
@@ -0,0 +1,180 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.lra.tracing;
+
+import io.opentelemetry.api.GlobalOpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.propagation.TextMapGetter;
+import io.opentelemetry.context.propagation.TextMapPropagator;
+import io.opentelemetry.context.propagation.TextMapSetter;
+import jakarta.ws.rs.client.Invocation;
+import jakarta.ws.rs.core.MultivaluedMap;
+import java.net.URI;
+
+/**
+ * Records the spans that trace LRAs across the coordinator, its participants and their clients with the
+ * OpenTelemetry API, which does nothing unless an OpenTelemetry SDK, or agent, is installed. The spans that a
+ * service starts are children of its current OpenTelemetry {@link Context}, so the spans of an application are the
+ * parents of the LRA requests that it makes. The context is passed between services, alongside the LRA context
+ * header, by the propagators that OpenTelemetry is configured with, by default in the W3C {@code traceparent} header.
+ */
+public final class Tracing {
+    public static final String INSTRUMENTATION_SCOPE = "io.narayana.lra";
+
+    /**
+     * The id of the LRA that the span is part of
+     */
+    public static final AttributeKey<String> LRA_ID = AttributeKey.stringKey("lra.id");
+    /**
+     * Which part of the system did the work, one of {@link #COORDINATOR}, {@link #PARTICIPANT} or {@link #CLIENT}
+     */
+    public static final AttributeKey<String> COMPONENT = AttributeKey.stringKey("lra.component");
+    // attributes named by the OpenTelemetry semantic conventions
+    public static final AttributeKey<String> HTTP_METHOD = AttributeKey.stringKey("http.request.method");
+    public static final AttributeKey<Long> HTTP_STATUS = AttributeKey.longKey("http.response.status_code");
+    public static final AttributeKey<String> URL = AttributeKey.stringKey("url.full");
+    public static final AttributeKey<String> ERROR_TYPE = AttributeKey.stringKey("error.type");
+
+    public static final String COORDINATOR = "coordinator";
+    public static final String PARTICIPANT = "participant";
+    public static final String CLIENT = "client";
+
+    private static final TextMapGetter<MultivaluedMap<String, String>> REQUEST_HEADERS = new TextMapGetter<>() {
+        @Override
+        public Iterable<String> keys(MultivaluedMap<String, String> headers) {
+            return headers.keySet();
+        }
+
+        @Override
+        public String get(MultivaluedMap<String, String> headers, String key) {
+            return headers == null ? null : headers.getFirst(key);
+        }
+    };
+
+    // headers that the caller has already set are left alone
+    private static final TextMapSetter<MultivaluedMap<String, Object>> CLIENT_HEADERS = (headers, key, value) -> {
+        if (headers != null && !headers.containsKey(key)) {
+            headers.putSingle(key, value);
+        }
+    };
+
+    private static final TextMapSetter<Invocation.Builder> INVOCATION_HEADERS = (builder, key, value) -> {
+        if (builder != null) {
+            builder.header(key, value);
+        }
+    };
+
+    private Tracing() {
+    }
+
+    public static Tracer getTracer() {
+        return GlobalOpenTelemetry.getTracer(INSTRUMENTATION_SCOPE);
+    }
+
+    /**
+     * Start a span for a request to another service, it is a child of the current context
+     *
+     * @param name the name of the span
+     * @param component which part of the system makes the request
+     * @param lraId the LRA that the request is for or null if it is not known yet
+     * @return the span, which must be ended
+     */
+    public static Span startClientSpan(String name, String component, URI lraId) {
+        return setLRA(getTracer().spanBuilder(name)
+                .setSpanKind(SpanKind.CLIENT)
+                .setAttribute(COMPONENT, component)
+                .startSpan(), lraId);
+    }
+
+    /**
+     * Start a span for a request that a service handles. It continues the trace of the caller if the request carries
+     * one and otherwise starts a new trace, rather than joining whatever context is current on the thread, since that
+     * context may have been left behind by an earlier request that completed on another thread.
+     *
+     * @param name the name of the span
+     * @param component which part of the system handles the request
+     * @param method the HTTP method of the request
+     * @param url the URL of the request
+     * @param headers the headers of the request
+     * @return the span, which must be ended
+     */
+    public static Span startServerSpan(String name, String component, String method, URI url,
+            MultivaluedMap<String, String> headers) {
+        return getTracer().spanBuilder(name)
+                .setParent(propagator().extract(Context.root(), headers, REQUEST_HEADERS))
+                .setSpanKind(SpanKind.SERVER)
+                .setAttribute(COMPONENT, component)
+                .setAttribute(HTTP_METHOD, method)
+                .setAttribute(URL, url.toASCIIString())
+                .startSpan();
+    }
+
+    /**
+     * Pass the context of a span on with a request
+     *
+     * @param span the span of the request
+     * @param builder the request
+     * @return the request
+     */
+    public static Invocation.Builder propagate(Span span, Invocation.Builder builder) {
+        propagator().inject(Context.current().with(span), builder, INVOCATION_HEADERS);
+
+        return builder;
+    }
+
+    /**
+     * Pass a context on with a request, the headers that the request already has are left alone
+     *
+     * @param context the context
+     * @param headers the headers of the request
+     */
+    public static void propagate(Context context, MultivaluedMap<String, Object> headers) {
+        propagator().inject(context, headers, CLIENT_HEADERS);
+    }
+
+    /**
+     * @param span a span
+     * @param lraId the LRA that the span is part of, nothing is added if it is null
+     * @return the span
+     */
+    public static Span setLRA(Span span, URI lraId) {
+        return lraId == null ? span : span.setAttribute(LRA_ID, lraId.toASCIIString());
+    }
+
+    /**
+     * Record the status of an HTTP response, a server error or no response at all (a negative status) marks the
+     * span as failed
+     *
+     * @param span the span of the request
+     * @param httpStatus the status code of the response or -1 if there was no response
+     * @return the span
+     */
+    public static Span setHttpStatus(Span span, int httpStatus) {
+        if (httpStatus >= 0) {
+            span.setAttribute(HTTP_STATUS, (long) httpStatus);
+        }
+
+        return httpStatus < 0 || httpStatus >= 500 ? span.setStatus(StatusCode.ERROR) : span;
+    }
+
+    /**
+     * @param span the span of the operation
+     * @param t the reason that the operation failed
+     * @return the span
+     */
+    public static Span setError(Span span, Throwable t) {
+        return span.setAttribute(ERROR_TYPE, t.getClass().getName()).setStatus(StatusCode.ERROR);
+    }
+
+    private static TextMapPropagator propagator() {
+        return GlobalOpenTelemetry.getPropagators().getTextMapPropagator();
+    }
+}
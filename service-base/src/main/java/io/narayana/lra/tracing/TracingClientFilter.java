@@ -0,0 +1,30 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.lra.tracing;
+
+import io.opentelemetry.context.Context;
+import jakarta.ws.rs.client.ClientRequestContext;
+import jakarta.ws.rs.client.ClientRequestFilter;
+
+/**
+ * Passes an OpenTelemetry context on with the requests of a client. The context is captured when the client is
+ * built since asynchronous requests may be filtered on a thread whose current context is a different one.
+ */
+public final class TracingClientFilter implements ClientRequestFilter {
+    private final Context context;
+
+    /**
+     * @param context the context to pass on
+     */
+    public TracingClientFilter(Context context) {
+        this.context = context;
+    }
+
+    @Override
+    public void filter(ClientRequestContext requestContext) {
+        Tracing.propagate(context, requestContext.getHeaders());
+    }
+}
@@ -0,0 +1,122 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.lra;
+
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class CurrentTest {
+    private static final URI PARENT = URI.create("http://localhost:8080/lra-coordinator/0_ffff7f000001_1");
+    private static final URI CHILD = URI.create(
+            "http://localhost:8080/lra-coordinator/0_ffff7f000001_2?ParentLRA=http%3A%2F%2Flocalhost%3A8080%2Flra-coordinator%2F0_ffff7f000001_1");
+    private static final URI OTHER = URI.create("http://localhost:8080/lra-coordinator/0_ffff7f000001_3");
+
+    @AfterEach
+    public void after() {
+        Current.popAll();
+    }
+
+    @Test
+    public void capturedContextIsImmutable() {
+        Current.push(PARENT);
+        LRAContext captured = Current.capture();
+
+        Current.push(CHILD);
+        Current.push(CHILD); // pushing an LRA that is already associated with the thread has no effect
+
+        Assertions.assertEquals(List.of(PARENT), captured.toList());
+        Assertions.assertEquals(List.of(PARENT, CHILD), Current.getContexts());
+        Assertions.assertSame(captured, Current.capture().getOuter());
+
+        Assertions.assertEquals(CHILD, Current.pop());
+        Assertions.assertSame(captured, Current.capture());
+        Assertions.assertEquals(PARENT, Current.pop());
+        Assertions.assertNull(Current.capture());
+        Assertions.assertNull(Current.pop());
+    }
+
+    @Test
+    public void popRemovesDescendants() {
+        Current.push(PARENT);
+        Current.push(OTHER);
+        Current.push(CHILD);
+
+        Assertions.assertTrue(Current.pop(PARENT));
+        Assertions.assertEquals(List.of(OTHER), Current.getContexts());
+        Assertions.assertFalse(Current.pop(CHILD));
+    }
+
+    @Test
+    public void popOnlyRemovesExactDescendants() {
+        // the uid of PARENT is a prefix of the uid of this LRA so a substring match would mistake it for an ancestor
+        URI otherChild = URI.create("http://localhost:8080/lra-coordinator/0_ffff7f000001_4"
+                + "?ParentLRA=http%3A%2F%2Flocalhost%3A8080%2Flra-coordinator%2F0_ffff7f000001_10");
+        // earlier versions listed every ancestor, without a delimiter between the parent and the grandparent
+        URI legacyGrandChild = URI.create("http://localhost:8080/lra-coordinator/0_ffff7f000001_5"
+                + "?ParentLRA=http%3A%2F%2Flocalhost%3A8080%2Flra-coordinator%2F0_ffff7f000001_6"
+                + "http%3A%2F%2Flocalhost%3A8080%2Flra-coordinator%2F0_ffff7f000001_1%2C%2C");
+
+        Current.push(PARENT);
+        Current.push(otherChild);
+        Current.push(legacyGrandChild);
+
+        Assertions.assertTrue(Current.pop(PARENT));
+        Assertions.assertEquals(List.of(otherChild), Current.getContexts());
+    }
+
+    @Test
+    public void stateTravelsWithTheContext() {
+        Assertions.assertNull(Current.putState("key", "ignored"), "there is no context to hold the state");
+
+        Current.push(PARENT);
+        Assertions.assertNull(Current.putState("key", "value"));
+
+        LRAContext captured = Current.capture();
+
+        Current.push(CHILD);
+        Assertions.assertEquals("value", Current.getState("key"));
+        Assertions.assertEquals("value", Current.putState("key", "changed"));
+        Assertions.assertEquals("value", captured.getState("key"), "a captured context is immutable");
+
+        Assertions.assertEquals(CHILD, Current.pop());
+        Assertions.assertEquals("changed", Current.getState("key"), "the state belongs to the thread's LRAs");
+
+        // detaching the context for a call and attaching it again afterwards keeps the state
+        LRAContext caller = Current.attach(null);
+
+        Assertions.assertNull(Current.getState("key"));
+        Current.attach(caller);
+        Assertions.assertEquals("changed", Current.getState("key"));
+
+        // as does running on another thread
+        Assertions.assertEquals("changed", Current.propagate(() -> Current.getState("key")).get());
+    }
+
+    @Test
+    public void contextIsPropagatedToContinuations() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            Current.push(PARENT);
+
+            URI seen = CompletableFuture.completedFuture(null)
+                    .thenApplyAsync(Current.propagate(ignore -> Current.peek()), executor)
+                    .get();
+
+            Assertions.assertEquals(PARENT, seen);
+            // the context of the thread that ran the continuation is restored afterwards
+            Assertions.assertNull(CompletableFuture.supplyAsync(Current::capture, executor).get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
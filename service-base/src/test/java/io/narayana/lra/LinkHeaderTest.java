@@ -0,0 +1,75 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.lra;
+
+import java.net.URISyntaxException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class LinkHeaderTest {
+    private static final String COMPENSATE = "http://localhost:8081/participant/compensate";
+    private static final String COMPLETE = "http://localhost:8081/participant/complete";
+
+    @Test
+    public void parseParticipantLinks() throws URISyntaxException {
+        LinkHeader links = LinkHeader.parse("<" + COMPENSATE + ">; rel=\"compensate\"; title=\"compensate URI\"; "
+                + "type=\"text/plain\", <" + COMPLETE + ">;rel=complete");
+
+        Assertions.assertEquals(2, links.size());
+        Assertions.assertEquals("compensate", links.getRel(0));
+        Assertions.assertEquals(COMPENSATE, links.getTarget(0));
+        Assertions.assertEquals("complete", links.getRel(1));
+        Assertions.assertEquals(COMPLETE, links.getTarget("complete"));
+        Assertions.assertNull(links.getTarget("status"));
+    }
+
+    @Test
+    public void commasInsideTargetsAndQuotedValues() throws URISyntaxException {
+        LinkHeader links = LinkHeader.parse("<http://localhost/p?ids=1,2>; rel=\"compensate\"; title=\"a, b\","
+                + "<http://localhost/q>; title=\"say \\\"hi\\\"\"; rel=\"complete\"; rel=\"ignored\"");
+
+        Assertions.assertEquals(2, links.size());
+        Assertions.assertEquals("http://localhost/p?ids=1,2", links.getTarget("compensate"));
+        Assertions.assertEquals("complete", links.getRel(1), "only the first rel parameter of a link counts");
+    }
+
+    @Test
+    public void canonicalFormIgnoresOrderAndOtherParameters() throws URISyntaxException {
+        String header = LinkHeader.builder().link("compensate", COMPENSATE, "compensate URI")
+                .link("complete", COMPLETE).toString();
+        String reordered = "<" + COMPLETE + ">; rel=\"complete\",<" + COMPENSATE + ">; rel=\"compensate\"";
+
+        Assertions.assertEquals(LinkHeader.parse(header).toCanonicalString(),
+                LinkHeader.parse(reordered).toCanonicalString());
+    }
+
+    @Test
+    public void builderRendersLinksThatParse() throws URISyntaxException {
+        LinkHeader.Builder builder = LinkHeader.builder();
+
+        builder.link("compensate", COMPENSATE, "compensate URI").link("status", null).link("complete", COMPLETE);
+
+        Assertions.assertEquals("<" + COMPENSATE + ">; rel=\"compensate\"; title=\"compensate URI\"; type=\"text/plain\","
+                + "<" + COMPLETE + ">; rel=\"complete\"; type=\"text/plain\"", builder.toString());
+        Assertions.assertEquals(2, LinkHeader.parse(builder.toString()).size(), "a null target should be skipped");
+
+        Assertions.assertTrue(builder.reset().isEmpty());
+        Assertions.assertEquals("<" + COMPLETE + ">; rel=\"complete\"; type=\"text/plain\"",
+                builder.link("complete", COMPLETE).toString());
+    }
+
+    @Test
+    public void invalidHeaders() {
+        Assertions.assertFalse(LinkHeader.isLink(null));
+        Assertions.assertFalse(LinkHeader.isLink(""));
+        Assertions.assertFalse(LinkHeader.isLink(COMPENSATE));
+        Assertions.assertFalse(LinkHeader.isLink("<" + COMPENSATE));
+        Assertions.assertFalse(LinkHeader.isLink("<" + COMPENSATE + ">; rel=\"compensate"));
+        Assertions.assertFalse(LinkHeader.isLink("<" + COMPENSATE + "> rel=compensate"));
+        Assertions.assertTrue(LinkHeader.isLink(" <" + COMPENSATE + ">"));
+        Assertions.assertThrows(URISyntaxException.class, () -> LinkHeader.parse("<" + COMPENSATE + ">;"));
+    }
+}
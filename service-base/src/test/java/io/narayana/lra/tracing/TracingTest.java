@@ -0,0 +1,105 @@
+/*
+   Copyright The Narayana Authors
+   SPDX-License-Identifier: Apache-2.0
+ */
+
+package io.narayana.lra.tracing;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.sdk.testing.junit5.OpenTelemetryExtension;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import jakarta.ws.rs.core.MultivaluedHashMap;
+import jakarta.ws.rs.core.MultivaluedMap;
+import java.net.URI;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+public class TracingTest {
+    private static final String TRACEPARENT = "traceparent";
+    private static final URI LRA_ID = URI.create("http://localhost:8080/lra-coordinator/0_ffff7f000001_1");
+    private static final URI URL = URI.create("http://localhost:8080/participant/complete");
+
+    @RegisterExtension
+    static final OpenTelemetryExtension otel = OpenTelemetryExtension.create();
+
+    @Test
+    public void contextIsPassedFromClientToServer() {
+        Span client = Tracing.startClientSpan("client", Tracing.CLIENT, LRA_ID);
+        MultivaluedMap<String, Object> requestHeaders = new MultivaluedHashMap<>();
+
+        Tracing.propagate(Context.current().with(client), requestHeaders);
+        Assertions.assertNotNull(requestHeaders.getFirst(TRACEPARENT), "the context of the client should be passed on");
+
+        MultivaluedMap<String, String> headers = new MultivaluedHashMap<>();
+
+        headers.putSingle(TRACEPARENT, String.valueOf(requestHeaders.getFirst(TRACEPARENT)));
+        Tracing.setHttpStatus(Tracing.startServerSpan("server", Tracing.PARTICIPANT, "PUT", URL, headers), 200).end();
+        client.end();
+
+        SpanData server = find("server");
+
+        Assertions.assertEquals(client.getSpanContext().getTraceId(), server.getTraceId(),
+                "the server should continue the trace of the client");
+        Assertions.assertEquals(client.getSpanContext().getSpanId(), server.getParentSpanId());
+        Assertions.assertEquals(Tracing.PARTICIPANT, server.getAttributes().get(Tracing.COMPONENT));
+        Assertions.assertEquals(200L, server.getAttributes().get(Tracing.HTTP_STATUS));
+        Assertions.assertEquals(LRA_ID.toASCIIString(), find("client").getAttributes().get(Tracing.LRA_ID));
+    }
+
+    @Test
+    public void clientSpanIsChildOfCurrentContext() {
+        Span application = Tracing.getTracer().spanBuilder("application").startSpan();
+
+        try (Scope ignored = application.makeCurrent()) {
+            Tracing.setHttpStatus(Tracing.startClientSpan("client", Tracing.CLIENT, null), 503).end();
+        } finally {
+            application.end();
+        }
+
+        SpanData client = find("client");
+
+        Assertions.assertEquals(application.getSpanContext().getSpanId(), client.getParentSpanId(),
+                "the LRA request should be a child of the span of the application");
+        Assertions.assertNull(client.getAttributes().get(Tracing.LRA_ID));
+        Assertions.assertEquals(StatusCode.ERROR, client.getStatus().getStatusCode(),
+                "a server error should mark the span as failed");
+    }
+
+    @Test
+    public void existingHeadersAreKept() {
+        MultivaluedMap<String, Object> headers = new MultivaluedHashMap<>();
+        Span span = Tracing.startClientSpan("client", Tracing.CLIENT, null);
+
+        headers.putSingle(TRACEPARENT, "set by the caller");
+        Tracing.propagate(Context.current().with(span), headers);
+        span.end();
+
+        Assertions.assertEquals(List.of("set by the caller"), headers.get(TRACEPARENT));
+    }
+
+    @Test
+    public void serverSpanStartsTraceWithoutCaller() {
+        Span stale = Tracing.getTracer().spanBuilder("stale").startSpan();
+
+        try (Scope ignored = stale.makeCurrent()) {
+            Tracing.startServerSpan("server", Tracing.COORDINATOR, "GET", URL, new MultivaluedHashMap<>()).end();
+        } finally {
+            stale.end();
+        }
+
+        Assertions.assertNotEquals(stale.getSpanContext().getTraceId(), find("server").getTraceId(),
+                "a request without a trace should not join the context that is current on the thread");
+    }
+
+    private static SpanData find(String name) {
+        return otel.getSpans().stream()
+                .filter(span -> name.equals(span.getName()))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("no span named " + name));
+    }
+}
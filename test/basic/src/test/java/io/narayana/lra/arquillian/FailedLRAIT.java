@@ -33,7 +33,9 @@ import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
 import java.util.Optional;
+import java.util.Set;
 import org.eclipse.microprofile.lra.annotation.LRAStatus;
 import org.jboss.arquillian.container.test.api.Deployment;
 import org.jboss.arquillian.test.api.ArquillianResource;
@@ -135,6 +137,49 @@ public class FailedLRAIT extends TestBase {
         }
     }
 
+    /**
+     * test that the failed LRAs can be listed a page at a time
+     */
+    @Test
+    public void testFailedLRAsArePaged() {
+        URI lra1 = invokeInTransaction(LRAParticipantWithStatusURI.LRA_PARTICIPANT_PATH,
+                LRAParticipantWithStatusURI.TRANSACTIONAL_CANCEL_PATH, 500);
+        URI lra2 = invokeInTransaction(LRAParticipantWithStatusURI.LRA_PARTICIPANT_PATH,
+                LRAParticipantWithStatusURI.TRANSACTIONAL_CANCEL_PATH, 500);
+        lrasToAfterFinish.add(lra1);
+        lrasToAfterFinish.add(lra2);
+
+        String recoveryUrl = getRecoveryUrl(lra1);
+        Set<String> listed = new HashSet<>();
+        String cursor = "";
+        int pages = 0;
+
+        do {
+            try (Response response = client.target(recoveryUrl).path("failed")
+                    .queryParam(LRAConstants.LIMIT_PARAM_NAME, 1)
+                    .queryParam(LRAConstants.CURSOR_PARAM_NAME, cursor)
+                    .request().get()) {
+                assertEquals(200, response.getStatus(), "listing a page of failed LRAs");
+
+                JsonArray page = Json.createReader(new StringReader(response.readEntity(String.class))).readArray();
+
+                Assertions.assertTrue(page.size() <= 1, "a page should not exceed the limit");
+                page.forEach(lra -> listed.add(lra.asJsonObject().getString("lraId").replaceAll("\\\\", "")));
+                cursor = response.getHeaderString(LRAConstants.NARAYANA_LRA_NEXT_CURSOR_HEADER_NAME);
+            }
+        } while (cursor != null && ++pages < 1000);
+
+        Assertions.assertTrue(listed.contains(lra1.toASCIIString()), "the first failed LRA should have been listed");
+        Assertions.assertTrue(listed.contains(lra2.toASCIIString()), "the second failed LRA should have been listed");
+
+        assertEquals(204, removeFailedLRA(lra1), "deleting a failed LRA");
+        assertEquals(204, removeFailedLRA(lra2), "deleting a failed LRA");
+        Assertions.assertTrue(getFailedRecords(lra1).stream()
+                .map(lra -> lra.asJsonObject().getString("lraId").replaceAll("\\\\", ""))
+                .noneMatch(id -> id.equals(lra1.toASCIIString()) || id.equals(lra2.toASCIIString())),
+                "deleted LRAs should no longer be listed");
+    }
+
     /**
      * test that only failed LRAs can be deleted via the recovery coordinator
      */